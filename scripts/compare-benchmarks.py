@@ -0,0 +1,56 @@
+#!/usr/bin/env python3
+"""
+Compares two JMH JSON result files.
+
+Usage: scripts/compare-benchmarks.py <baseline.json> <candidate.json> [threshold-percent]
+
+Prints the change of every benchmark present in both files and exits with status 1
+if any of them got slower by more than the threshold (default 10%).
+"""
+import json
+import sys
+
+# Modes where a higher score is better; the others (avgt, sample, ss) measure time
+THROUGHPUT_MODES = {"thrpt"}
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for run in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted(run.get("params", {}).items()))
+            key = run["benchmark"].rsplit(".", 2)[-2] + "." + run["benchmark"].rsplit(".", 1)[-1]
+            if params:
+                key += f" [{params}]"
+            metric = run["primaryMetric"]
+            results[key] = (run["mode"], metric["score"], metric["scoreError"], metric["scoreUnit"])
+        return results
+
+
+def main():
+    if len(sys.argv) < 3:
+        print(__doc__.strip())
+        return 2
+    baseline, candidate = load(sys.argv[1]), load(sys.argv[2])
+    threshold = float(sys.argv[3]) if len(sys.argv) > 3 else 10.0
+
+    regressions = 0
+    print(f"{'benchmark':70} {'baseline':>14} {'candidate':>14} {'change':>9}")
+    for key in sorted(baseline.keys() & candidate.keys()):
+        mode, old, _, unit = baseline[key]
+        _, new, error, _ = candidate[key]
+        change = (new - old) / old * 100 if old else 0.0
+        slower = -change if mode in THROUGHPUT_MODES else change
+        flag = ""
+        if slower > threshold:
+            flag = "  REGRESSION"
+            regressions += 1
+        print(f"{key:70} {old:>10.3f} {unit:<3} {new:>10.3f} {unit:<3} {change:>+8.1f}%{flag}")
+    for key in sorted(baseline.keys() - candidate.keys()):
+        print(f"{key:70} missing in candidate")
+
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+#
+# Generates synthetic sales data (see SalesDataGeneratorCli for all options).
+#
+# Usage: scripts/generate-data.sh --rows 1000000 [--format csv|sql|jdbc] [--out file] [--seed 42] ...
+# Examples:
+#   scripts/generate-data.sh --rows 1000000 --out AmazonSalesReport.csv
+#   scripts/generate-data.sh --rows 10000000 --format jdbc \
+#     --url 'jdbc:mysql://localhost:3306/EcomSalesData?rewriteBatchedStatements=true' --user root --password password
+
+set -euo pipefail
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+PROJECT_DIR=$(dirname "$SCRIPT_DIR")
+
+cd "$PROJECT_DIR"
+mvn -B -q compile exec:java -Dexec.mainClass=com.acs560.dataanalyzer.datagen.SalesDataGeneratorCli \
+  -Dexec.classpathScope=runtime -Dexec.args="$*"
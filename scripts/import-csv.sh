@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+#
+# Imports a sales CSV file into the database (see SalesCsvImportCli for all options).
+# Rejected rows go to <file>.rejected.csv; an interrupted import continues from <file>.checkpoint.
+#
+# Usage: scripts/import-csv.sh --file AmazonSalesReport.csv --url jdbc-url [--user root] [--password ...] ...
+# Example:
+#   scripts/import-csv.sh --file AmazonSalesReport.csv --insert-workers 8 --batch-size 2000 \
+#     --url 'jdbc:mysql://localhost:3306/EcomSalesData?rewriteBatchedStatements=true' --user root --password password
+
+set -euo pipefail
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+PROJECT_DIR=$(dirname "$SCRIPT_DIR")
+
+cd "$PROJECT_DIR"
+mvn -B -q compile exec:java -Dexec.mainClass=com.acs560.dataanalyzer.ingest.SalesCsvImportCli \
+  -Dexec.classpathScope=runtime -Dexec.args="$*"
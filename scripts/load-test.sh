@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+#
+# Local load test for the sales REST API.
+#
+# Usage: scripts/load-test.sh [base-url] [concurrency] [requests]
+#   BASE_URL    defaults to http://localhost:8080
+#   CONCURRENCY defaults to 50
+#   REQUESTS    defaults to 1000 (per endpoint)
+#
+# Runs each endpoint with curl in parallel and reports throughput and latency percentiles.
+# Credentials can be overridden with API_USER / API_PASSWORD.
+
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+CONCURRENCY=${2:-50}
+REQUESTS=${3:-1000}
+API_USER=${API_USER:-user}
+API_PASSWORD=${API_PASSWORD:-userpass}
+
+ENDPOINTS=(
+  "/api/sales?size=100"
+  "/api/sales?status=Shipped&size=100"
+  "/api/sales/count?status=Shipped"
+  "/api/sales/aggregates/category"
+  "/api/sales/aggregates/state"
+  "/api/sales/aggregates/revenue-series?points=500"
+)
+
+run() {
+  local url=$1
+  local extra=$2
+  local timings
+  timings=$(mktemp)
+
+  local start end
+  start=$(date +%s.%N)
+  seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null --compressed -u "$API_USER:$API_PASSWORD" $extra \
+      -w "%{http_code} %{time_total}\n" "$BASE_URL$url" >> "$timings"
+  end=$(date +%s.%N)
+
+  awk -v elapsed="$(echo "$end - $start" | bc)" -v url="$url" '
+    { codes[$1]++; t[NR] = $2 }
+    END {
+      n = asort(t)
+      printf "%-55s %8.1f req/s  p50 %6.1f ms  p95 %6.1f ms  p99 %6.1f ms  ", url, n / elapsed,
+        t[int(n * 0.50)] * 1000, t[int(n * 0.95)] * 1000, t[int(n * 0.99)] * 1000
+      for (c in codes) printf "[%s x%d] ", c, codes[c]
+      printf "\n"
+    }' "$timings"
+  rm -f "$timings"
+}
+
+echo "Load test against $BASE_URL: $REQUESTS requests per endpoint, concurrency $CONCURRENCY"
+for endpoint in "${ENDPOINTS[@]}"; do
+  run "$endpoint" ""
+done
+
+# Conditional requests: the ETag of an unchanged aggregate should yield 304 without a body
+etag=$(curl -s -D - -o /dev/null -u "$API_USER:$API_PASSWORD" "$BASE_URL/api/sales/aggregates/category" \
+  | awk 'tolower($1) == "etag:" { print $2 }' | tr -d '\r')
+if [ -n "$etag" ]; then
+  run "/api/sales/aggregates/category" "-H If-None-Match:$etag"
+fi
+
+# One full NDJSON stream, reports rows and row rate
+echo
+start=$(date +%s.%N)
+rows=$(curl -s --compressed -u "$API_USER:$API_PASSWORD" -H "Accept: application/x-ndjson" \
+  "$BASE_URL/api/sales/stream" | wc -l)
+end=$(date +%s.%N)
+echo "$rows rows streamed as NDJSON in $(echo "$end - $start" | bc) s"
@@ -0,0 +1,4 @@
+-- Runs once on the first start of the primary; replicated to the replica like everything after it
+CREATE USER 'repl'@'%' IDENTIFIED BY 'replpass';
+GRANT REPLICATION SLAVE ON *.* TO 'repl'@'%';
+CREATE DATABASE EcomSalesData;
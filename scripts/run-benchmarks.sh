@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+#
+# Runs the JMH benchmarks and stores the results per commit.
+#
+# Usage: scripts/run-benchmarks.sh [benchmark-regex]
+#   BENCHMARK_REGEX defaults to all benchmarks, e.g. 'FilterSalesDataBenchmark'
+#   Benchmarks needing a MySQL server (PartitionPruningBenchmark) only run when named explicitly
+#
+# Results are written to benchmarks/results/<commit>.json; compare two runs with
+#   scripts/compare-benchmarks.py benchmarks/results/<old>.json benchmarks/results/<new>.json
+
+set -euo pipefail
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+PROJECT_DIR=$(dirname "$SCRIPT_DIR")
+INCLUDES=${1:-.*Benchmark.*}
+# Without an argument the pom's default excludes apply; a named benchmark excludes nothing
+EXCLUDES=()
+if [ $# -gt 0 ]; then
+  EXCLUDES=(-Djmh.excludes='^$')
+fi
+
+commit=$(git -C "$PROJECT_DIR" rev-parse --short HEAD)
+if ! git -C "$PROJECT_DIR" diff --quiet; then
+  commit="$commit-dirty"
+fi
+mkdir -p "$PROJECT_DIR/benchmarks/results"
+result="$PROJECT_DIR/benchmarks/results/$commit.json"
+
+(cd "$PROJECT_DIR" && mvn -B -q -Pjmh -DskipTests test-compile exec:exec \
+  -Djmh.includes="$INCLUDES" "${EXCLUDES[@]}" -Djmh.result="$result")
+
+echo "Results written to $result"
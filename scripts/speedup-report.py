@@ -0,0 +1,61 @@
+#!/usr/bin/env python3
+"""
+Prints speedup curves from a JMH JSON result file.
+
+Usage: scripts/speedup-report.py <result.json> [param]
+
+For every benchmark run with several values of the parameter (default 'parallelism'), prints the
+score of each value with the speedup over the smallest value and the parallel efficiency
+(speedup divided by the ratio of the values).
+"""
+import json
+import sys
+from collections import defaultdict
+
+# Modes where a higher score is better; the others (avgt, sample, ss) measure time
+THROUGHPUT_MODES = {"thrpt"}
+
+
+def main():
+    if len(sys.argv) < 2:
+        print(__doc__.strip())
+        return 2
+    param = sys.argv[2] if len(sys.argv) > 2 else "parallelism"
+    with open(sys.argv[1]) as f:
+        runs = json.load(f)
+
+    curves = defaultdict(dict)
+    for run in runs:
+        params = dict(run.get("params", {}))
+        if param not in params:
+            continue
+        value = int(params.pop(param))
+        key = run["benchmark"].rsplit(".", 2)[-2] + "." + run["benchmark"].rsplit(".", 1)[-1]
+        if params:
+            key += " [" + ",".join(f"{k}={v}" for k, v in sorted(params.items())) + "]"
+        metric = run["primaryMetric"]
+        curves[key][value] = (run["mode"], metric["score"], metric["scoreError"], metric["scoreUnit"])
+
+    if not curves:
+        print(f"No benchmark was run with the parameter '{param}'")
+        return 1
+    for key in sorted(curves):
+        points = curves[key]
+        base_value = min(points)
+        base_mode, base_score, _, _ = points[base_value]
+        print(key)
+        print(f"  {param:>12} {'score':>14} {'error':>10} {'speedup':>8} {'efficiency':>11}")
+        for value in sorted(points):
+            mode, score, error, unit = points[value]
+            if mode in THROUGHPUT_MODES:
+                speedup = score / base_score if base_score else 0.0
+            else:
+                speedup = base_score / score if score else 0.0
+            efficiency = speedup / (value / base_value)
+            print(f"  {value:>12} {score:>10.3f} {unit:<3} {error:>10.3f} {speedup:>7.2f}x {efficiency:>10.0%}")
+        print()
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Compares the REST API throughput with platform request threads and with virtual threads.
+#
+# Usage: scripts/virtual-threads-benchmark.sh [concurrency] [requests]
+#   CONCURRENCY defaults to 1000
+#   REQUESTS    defaults to 20000 (per endpoint)
+#
+# Builds the application once with JDK 21 (mvn -Pvirtual-threads,production package), then starts
+# the same jar twice: without a profile (Tomcat's 200 platform threads) and with the
+# "virtual-threads" Spring profile. Each run uses scripts/load-test.sh against a fresh instance.
+# Needs the MySQL database from application.properties and `ulimit -n` well above the concurrency.
+# Set SKIP_BUILD=1 to reuse an existing jar.
+
+set -euo pipefail
+
+CONCURRENCY=${1:-1000}
+REQUESTS=${2:-20000}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:$PORT"
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+PROJECT_DIR=$(dirname "$SCRIPT_DIR")
+RESULTS_DIR=${RESULTS_DIR:-$PROJECT_DIR/target/vt-benchmark}
+
+if [ "${SKIP_BUILD:-0}" != 1 ]; then
+  (cd "$PROJECT_DIR" && mvn -B -q -DskipTests -Pvirtual-threads,production package)
+fi
+JAR=$(ls "$PROJECT_DIR"/target/EcomSales-Analyzer-*.jar | head -n 1)
+mkdir -p "$RESULTS_DIR"
+
+app_pid=""
+stop_app() {
+  if [ -n "$app_pid" ]; then
+    kill "$app_pid" 2>/dev/null || true
+    wait "$app_pid" 2>/dev/null || true
+    app_pid=""
+  fi
+}
+trap stop_app EXIT
+
+run_mode() {
+  local mode=$1
+  shift
+  echo
+  echo "=== $mode ==="
+  java -Xmx1g -jar "$JAR" --server.port="$PORT" "$@" > "$RESULTS_DIR/$mode-app.log" 2>&1 &
+  app_pid=$!
+  for _ in $(seq 120); do
+    if curl -s -o /dev/null "$BASE_URL/login"; then
+      break
+    fi
+    sleep 1
+  done
+
+  # Warm up the JIT and the connection pool before measuring
+  "$SCRIPT_DIR/load-test.sh" "$BASE_URL" 50 500 > /dev/null
+  "$SCRIPT_DIR/load-test.sh" "$BASE_URL" "$CONCURRENCY" "$REQUESTS" | tee "$RESULTS_DIR/$mode.txt"
+
+  grep -h "Pinned virtual threads\|Virtual thread pinned" "$RESULTS_DIR/$mode-app.log" || true
+  stop_app
+}
+
+run_mode platform
+run_mode virtual --spring.profiles.active=virtual-threads
+
+echo
+echo "Results and application logs are in $RESULTS_DIR"
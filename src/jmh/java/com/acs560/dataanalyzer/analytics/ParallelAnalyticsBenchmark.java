@@ -0,0 +1,90 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.acs560.dataanalyzer.benchmark.BenchmarkData;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+
+/**
+ * Scaling of the snapshot pipelines of the {@link AnalyticsExecutor} with the number of workers.
+ * The sequential stream benchmarks are the baseline the pipelines replace; they do not use the
+ * executor, so their score should not change with the parallelism.
+ * {@code scripts/speedup-report.py} turns the results into speedup curves.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx8g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelAnalyticsBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    int rows;
+
+    @Param({ "1", "2", "4", "8", "16" })
+    int parallelism;
+
+    private List<EcomSalesData> data;
+    private AnalyticsExecutor executor;
+    private SalesSnapshot snapshot;
+    private SalesDataFilter shipped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.salesData(rows);
+        executor = new AnalyticsExecutor(parallelism);
+        snapshot = SalesSnapshot.of(data, 0, executor);
+        shipped = SalesDataFilter.builder().status("Shipped").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<EcomSalesData> filterByStatus() {
+        return snapshot.filter(executor, SalesDimension.STATUS, "Shipped");
+    }
+
+    @Benchmark
+    public List<SalesAggregate> revenueByStateOfShipped() {
+        return snapshot.aggregate(executor, SalesDimension.STATE, shipped);
+    }
+
+    @Benchmark
+    public List<EcomSalesData> sequentialStreamFilterByStatus() {
+        return data.stream()
+                .filter(row -> row.getStatus().equalsIgnoreCase("Shipped"))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<String, Double> sequentialStreamRevenueByStateOfShipped() {
+        return data.stream()
+                .filter(row -> row.getStatus().equalsIgnoreCase("Shipped") && row.getShipState() != null)
+                .collect(Collectors.groupingBy(EcomSalesData::getShipState,
+                        Collectors.summingDouble(row -> row.getAmount() == null ? 0 : row.getAmount())));
+    }
+}
@@ -0,0 +1,70 @@
+package com.acs560.dataanalyzer.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesCsvFormat;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * Synthetic data of the benchmarks, produced by the shared {@link SalesDataGenerator}
+ * with a fixed seed, so every run measures the same rows.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates the generator of the given number of rows.
+     *
+     * @param rows - the number of rows.
+     * @return the generator.
+     */
+    public static SalesDataGenerator generator(long rows) {
+        return new SalesDataGenerator(GeneratorSettings.ofRows(rows));
+    }
+
+    /**
+     * Generates the rows in memory.
+     *
+     * @param rows - the number of rows.
+     * @return the rows, with record indexes 1..rows.
+     */
+    public static List<EcomSalesData> salesData(int rows) {
+        return generator(rows).rows().parallel().collect(Collectors.toList());
+    }
+
+    /**
+     * Converts a row to the columns of the CSV layout read by EcomSalesDataRepo.
+     *
+     * @param data - the row.
+     * @return the columns.
+     */
+    public static String[] csvValues(EcomSalesData data) {
+        return SalesCsvFormat.line(data, "customer@example.com").split(",");
+    }
+
+    /**
+     * Writes generated rows to a temporary CSV file in the layout read by EcomSalesDataRepo.
+     *
+     * @param rows - the number of rows.
+     * @return the file; deleted on exit.
+     * @throws IOException if the file cannot be written.
+     */
+    public static Path csvFile(long rows) throws IOException {
+        Path file = Files.createTempFile("sales-" + rows + "-", ".csv");
+        file.toFile().deleteOnExit();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            SalesCsvFormat.write(generator(rows), out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,153 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.acs560.dataanalyzer.benchmark.BenchmarkData;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks of the CSV-backed repository: parsing, formatting and the linear lookups
+ * over the in-memory list.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx8g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EcomSalesDataRepoBenchmark {
+
+    /**
+     * Per-row operations, independent of the number of stored rows.
+     */
+    @State(Scope.Thread)
+    public static class RowState {
+
+        EcomSalesDataRepo repo;
+        EcomSalesData row;
+        String[] values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            repo = new EcomSalesDataRepo(new SimpleMeterRegistry());
+            row = BenchmarkData.generator(1).row(1);
+            values = BenchmarkData.csvValues(row);
+        }
+    }
+
+    /**
+     * Operations scanning the stored rows.
+     */
+    @State(Scope.Benchmark)
+    public static class StoreState {
+
+        @Param({ "10000", "1000000", "10000000" })
+        int rows;
+
+        EcomSalesDataRepo repo;
+        EcomSalesData missing;
+        EcomSalesData last;
+        int lastIndex;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            repo = new EcomSalesDataRepo(new SimpleMeterRegistry());
+            List<EcomSalesData> store = repo.getSalesData();
+            store.clear();
+            store.addAll(BenchmarkData.salesData(rows));
+            repo.rebuildOrderIdFilter();
+            // Worst case for the linear scans: the match is last, or absent
+            lastIndex = rows;
+            last = store.get(store.size() - 1);
+            missing = BenchmarkData.generator(rows + 1).row(rows + 1);
+            missing.setRecordIndex(-1);
+        }
+    }
+
+    /**
+     * Reading a CSV file. isDuplicate only scans the stored rows for probable duplicates,
+     * so loading is linear in the file size.
+     */
+    @State(Scope.Benchmark)
+    public static class FileState {
+
+        @Param({ "10000", "1000000" })
+        int fileRows;
+
+        EcomSalesDataRepo repo;
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            repo = new EcomSalesDataRepo(new SimpleMeterRegistry());
+            file = BenchmarkData.csvFile(fileRows);
+        }
+
+        @Setup(Level.Invocation)
+        public void clear() {
+            repo.getSalesData().clear();
+            repo.rebuildOrderIdFilter();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public EcomSalesData parseSalesData(RowState state) {
+        return state.repo.parseSalesData(state.values);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String convertToCsvFormat(RowState state) {
+        return state.repo.convertToCsvFormat(state.row);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean isDuplicate(StoreState state) {
+        return state.repo.isDuplicate(state.missing);
+    }
+
+    // A real duplicate passes the order id filter and is confirmed by the scan
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean isDuplicateOfStoredRow(StoreState state) {
+        return state.repo.isDuplicate(state.last);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public EcomSalesData findSalesDataByIndex(StoreState state) {
+        return state.repo.findSalesDataByIndex(state.lastIndex);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public List<EcomSalesData> readFile(FileState state) {
+        state.repo.readFile(state.file.toString());
+        return state.repo.getSalesData();
+    }
+}
@@ -0,0 +1,148 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.acs560.dataanalyzer.benchmark.BenchmarkData;
+import com.acs560.dataanalyzer.datagen.JdbcSalesDataLoader;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Compares one-month queries on a monthly partitioned and an unpartitioned ECOM_SALES_DATA
+ * holding three years of generated orders. Needs a MySQL server, configured through the
+ * environment (SALES_BENCH_MYSQL_URL, default jdbc:mysql://localhost:3306/, SALES_BENCH_MYSQL_USER
+ * and SALES_BENCH_MYSQL_PASSWORD). Each variant gets its own database, which is loaded on the
+ * first run and reused as long as it holds the expected number of rows.
+ * <p>
+ * Run with {@code scripts/run-benchmarks.sh PartitionPruningBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionPruningBenchmark {
+
+    @Param({ "true", "false" })
+    boolean partitioned;
+
+    @Param({ "5000000" })
+    long rows;
+
+    private HikariDataSource dataSource;
+    private SalesDataJdbcRepository repository;
+    private List<YearMonth> months;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String database = "sales_bench_" + (partitioned ? "partitioned" : "flat") + "_" + rows;
+        String url = env("SALES_BENCH_MYSQL_URL", "jdbc:mysql://localhost:3306/");
+        try (HikariDataSource server = dataSource(url)) {
+            new JdbcTemplate(server).execute("CREATE DATABASE IF NOT EXISTS " + database);
+        }
+        dataSource = dataSource(url + database + "?rewriteBatchedStatements=true");
+
+        SalesDataGenerator generator = BenchmarkData.generator(rows);
+        if (!isLoaded()) {
+            ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+            if (partitioned) {
+                schema.addScript(new ClassPathResource("schema-mysql.sql"));
+            }
+            schema.execute(dataSource);
+            if (partitioned) {
+                new SalesDataPartitionManager(new JdbcTemplate(dataSource), 3, 0).maintain();
+            }
+            new JdbcSalesDataLoader(dataSource).load(generator);
+            new JdbcTemplate(dataSource).execute("ANALYZE TABLE " + SalesDataSql.TABLE);
+        }
+
+        repository = new SalesDataJdbcRepository(dataSource, 1000);
+        YearMonth first = YearMonth.from(generator.getSettings().getStartDate());
+        YearMonth last = YearMonth.from(generator.getSettings().getEndDate());
+        months = Stream.iterate(first, month -> !month.isAfter(last), month -> month.plusMonths(1)).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public long countMonth() {
+        return repository.count(month().build());
+    }
+
+    // No index leads with both status and date: unpartitioned, one of them is filtered row by row over all years
+    @Benchmark
+    public long countStatusInMonth() {
+        return repository.count(month().status("Shipped").build());
+    }
+
+    @Benchmark
+    public List<EcomSalesData> findLargeOrdersInMonth() {
+        return repository.findAll(month().minAmount(1000.0).build());
+    }
+
+    // Cycles through the months, so every call reads a different part of the table
+    private SalesDataFilter.SalesDataFilterBuilder month() {
+        YearMonth month = months.get(next++ % months.size());
+        return SalesDataFilter.builder()
+                .startDate(date(month.atDay(1)))
+                .endDate(date(month.atEndOfMonth()));
+    }
+
+    private boolean isLoaded() {
+        try {
+            Long count = new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + SalesDataSql.TABLE, Long.class);
+            return count != null && count == rows;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(env("SALES_BENCH_MYSQL_USER", "root"));
+        dataSource.setPassword(env("SALES_BENCH_MYSQL_PASSWORD", "password"));
+        dataSource.setMaximumPoolSize(Runtime.getRuntime().availableProcessors() + 1);
+        return dataSource;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
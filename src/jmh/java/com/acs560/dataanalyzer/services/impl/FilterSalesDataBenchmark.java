@@ -0,0 +1,87 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.acs560.dataanalyzer.analytics.AnalyticsExecutor;
+import com.acs560.dataanalyzer.analytics.HeavyHitters;
+import com.acs560.dataanalyzer.analytics.SalesSnapshots;
+import com.acs560.dataanalyzer.benchmark.BenchmarkData;
+import com.acs560.dataanalyzer.concurrent.QueryExecutor;
+import com.acs560.dataanalyzer.concurrent.QueryGuard;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.repositories.CustomerRepository;
+import com.acs560.dataanalyzer.repositories.EcomSalesDataRepository;
+import com.acs560.dataanalyzer.repositories.OrderIdFilter;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+import com.acs560.dataanalyzer.spill.SpillOperators;
+
+/**
+ * Benchmarks of the in-memory filters of EcomSalesDataServiceImpl.
+ * The repository is mocked to return pre-generated rows, so only the filtering is measured;
+ * the snapshot is built once during the warmup, as the data does not change.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx8g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FilterSalesDataBenchmark {
+
+    @Param({ "10000", "1000000", "10000000" })
+    int rows;
+
+    private EcomSalesDataServiceImpl service;
+    private QueryExecutor queryExecutor;
+    private AnalyticsExecutor analyticsExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<EcomSalesData> data = BenchmarkData.salesData(rows);
+        EcomSalesDataRepository repository = mock(EcomSalesDataRepository.class);
+        when(repository.findAll()).thenReturn(data);
+
+        QueryGuard queryGuard = new QueryGuard(Duration.ZERO);
+        queryExecutor = new QueryExecutor(queryGuard, false, 1, 1);
+        analyticsExecutor = new AnalyticsExecutor(0);
+        service = new EcomSalesDataServiceImpl(repository, mock(CustomerRepository.class),
+                mock(SalesDataJdbcRepository.class), event -> { }, queryExecutor, queryGuard,
+                mock(OrderIdFilter.class), mock(HeavyHitters.class), analyticsExecutor,
+                new SalesSnapshots(analyticsExecutor), mock(SpillOperators.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queryExecutor.shutdown();
+        analyticsExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<EcomSalesData> getSalesDataByStatus() {
+        return service.getSalesDataByStatus("Shipped");
+    }
+
+    @Benchmark
+    public List<EcomSalesData> getSalesDataByCategory() {
+        return service.getSalesDataByCategory("Electronics");
+    }
+}
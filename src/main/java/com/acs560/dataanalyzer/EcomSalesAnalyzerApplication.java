@@ -3,7 +3,14 @@ package com.acs560.dataanalyzer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+
+// Server push delivers background job progress to the UI
+@Push
+@EnableScheduling
 @SpringBootApplication
 @ComponentScan(basePackages = {
     "com.acs560.dataanalyzer",
@@ -13,7 +20,7 @@ import org.springframework.context.annotation.ComponentScan;
     "com.acs560.dataanalyzer.services",
     "com.acs560.dataanalyzer.services.impl"
 })
-public class EcomSalesAnalyzerApplication {
+public class EcomSalesAnalyzerApplication implements AppShellConfigurator {
 
 	public static void main(String[] args) {
 		SpringApplication.run(EcomSalesAnalyzerApplication.class, args);
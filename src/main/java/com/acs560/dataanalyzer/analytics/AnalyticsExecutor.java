@@ -0,0 +1,144 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs in-memory analytics pipelines in parallel on a dedicated fork/join pool, so they never take
+ * threads from the common pool (parallel streams, CompletableFuture defaults) or from the request
+ * and query threads. A pipeline is split into contiguous index ranges of the input arrays: every
+ * task reads adjacent elements, and a range is only split while it is larger than both the grain
+ * and a quarter of a worker's share, which keeps the tasks few and big enough to balance the load.
+ */
+@Component
+public class AnalyticsExecutor {
+
+    /**
+     * Ranges below this size are not split; 4096 ints or 2048 doubles are 16 KB, so a task scans
+     * memory sequentially for long enough to amortize the fork.
+     */
+    static final int MIN_GRAIN = 4096;
+
+    // Tasks per worker, so workers finishing early can steal
+    private static final int TASKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor
+     *
+     * @param parallelism - the number of worker threads; 0 for the number of processors.
+     */
+    public AnalyticsExecutor(@Value("${sales.analytics.parallelism:0}") int parallelism) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("sales-analytics-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * A part of a pipeline over a contiguous range of indexes.
+     *
+     * @param <R> the result type.
+     */
+    @FunctionalInterface
+    public interface RangeFunction<R> {
+
+        /**
+         * Computes the result of the range.
+         *
+         * @param from - the first index, inclusive.
+         * @param to - the last index, exclusive.
+         * @return the result of the range.
+         */
+        R apply(int from, int to);
+    }
+
+    /**
+     * Runs a pipeline over the indexes 0 to size in parallel and combines the results of the ranges
+     * in index order, left before right, so order-preserving combiners give sequential results.
+     *
+     * @param size - the number of indexes.
+     * @param leaf - computes the result of one range.
+     * @param combiner - combines the results of two adjacent ranges.
+     * @param <R> the result type.
+     * @return the combined result.
+     */
+    public <R> R invoke(int size, RangeFunction<R> leaf, BinaryOperator<R> combiner) {
+        int grain = Math.max(MIN_GRAIN, size / (pool.getParallelism() * TASKS_PER_WORKER) + 1);
+        if (size <= grain) {
+            // Not worth a hand-off to the pool
+            return leaf.apply(0, size);
+        }
+        return pool.invoke(new RangeTask<>(0, size, grain, leaf, combiner));
+    }
+
+    /**
+     * Runs independent tasks in parallel and waits for all of them.
+     *
+     * @param tasks - the tasks.
+     */
+    public void invokeAll(List<Runnable> tasks) {
+        List<ForkJoinTask<?>> forkJoinTasks = tasks.stream().<ForkJoinTask<?>>map(ForkJoinTask::adapt).toList();
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(forkJoinTasks);
+            }
+        });
+    }
+
+    /**
+     * @return the number of worker threads.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class RangeTask<R> extends RecursiveTask<R> {
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combiner;
+
+        RangeTask(int from, int to, int grain, RangeFunction<R> leaf, BinaryOperator<R> combiner) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= grain) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<R> left = new RangeTask<>(from, middle, grain, leaf, combiner);
+            RangeTask<R> right = new RangeTask<>(middle, to, grain, leaf, combiner);
+            left.fork();
+            R rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.HeavyHitter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesMeasure;
+import com.acs560.dataanalyzer.sketch.SpaceSaving;
+
+/**
+ * Running top lists of every dimension and measure, kept in {@link SpaceSaving} summaries that are
+ * loaded from the table at startup and updated with every committed insert, and rebuilt by
+ * {@link SalesSummaries} after changes they cannot follow. While stale, the lists carry no error bound.
+ */
+@Component
+public class HeavyHitters {
+
+    private final int capacity;
+    private final SalesSummaries.Summary<Map<SalesDimension, Map<SalesMeasure, SpaceSaving<String>>>> summaries;
+
+    /**
+     * Constructor
+     *
+     * @param salesSummaries - keeps the summaries current.
+     * @param capacity - the number of counters per dimension and measure.
+     */
+    public HeavyHitters(SalesSummaries salesSummaries,
+                        @Value("${sales.heavy-hitters.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+        this.summaries = salesSummaries.register("heavy hitters", this::newSummaries, HeavyHitters::offer);
+    }
+
+    /**
+     * Gets the running top list of a dimension.
+     *
+     * @param dimension - the dimension.
+     * @param measure - the measure to rank by.
+     * @param k - the number of entries.
+     * @return up to k entries, largest estimate first.
+     */
+    public List<HeavyHitter> top(SalesDimension dimension, SalesMeasure measure, int k) {
+        boolean stale = summaries.isStale();
+        return summaries.current().get(dimension).get(measure).top(k).stream()
+                .map(estimate -> new HeavyHitter(estimate.item(), estimate.count(),
+                        stale ? null : Double.valueOf(estimate.error()), stale))
+                .collect(Collectors.toList());
+    }
+
+    private static void offer(Map<SalesDimension, Map<SalesMeasure, SpaceSaving<String>>> summaries, EcomSalesData data) {
+        summaries.forEach((dimension, byMeasure) -> {
+            String label = dimension.labelOf(data);
+            byMeasure.forEach((measure, summary) -> summary.offer(label, measure.measure(data)));
+        });
+    }
+
+    private Map<SalesDimension, Map<SalesMeasure, SpaceSaving<String>>> newSummaries() {
+        Map<SalesDimension, Map<SalesMeasure, SpaceSaving<String>>> next = new EnumMap<>(SalesDimension.class);
+        for (SalesDimension dimension : SalesDimension.values()) {
+            Map<SalesMeasure, SpaceSaving<String>> byMeasure = new EnumMap<>(SalesMeasure.class);
+            for (SalesMeasure measure : SalesMeasure.values()) {
+                byMeasure.put(measure, new SpaceSaving<>(capacity));
+            }
+            next.put(dimension, byMeasure);
+        }
+        return next;
+    }
+}
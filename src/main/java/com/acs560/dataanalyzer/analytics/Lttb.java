@@ -0,0 +1,87 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a time series.
+ * Keeps the first and last point and, for every bucket in between, the point that
+ * forms the largest triangle with its neighbours, so the visual shape of the series
+ * survives while the number of points sent to the browser stays fixed.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Downsamples a series sorted by x to at most the given number of points.
+     *
+     * @param <T> - the type of the series points.
+     * @param data - the series, sorted by x ascending.
+     * @param threshold - the maximum number of points to return; below 3 only the first and last point are returned.
+     * @param x - extracts the x value (e.g. epoch millis) of a point.
+     * @param y - extracts the y value of a point.
+     * @return the downsampled series, or the series itself if it is already small enough.
+     */
+    public static <T> List<T> downsample(List<T> data, int threshold,
+                                         ToDoubleFunction<T> x, ToDoubleFunction<T> y) {
+        int size = data.size();
+        // The first and last point are always kept
+        threshold = Math.max(threshold, 2);
+        if (threshold >= size) {
+            return data;
+        }
+        if (threshold == 2) {
+            List<T> ends = new ArrayList<>(2);
+            ends.add(data.get(0));
+            ends.add(data.get(size - 1));
+            return ends;
+        }
+
+        List<T> sampled = new ArrayList<>(threshold);
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+
+        int a = 0;
+        sampled.add(data.get(a));
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket, used as the third vertex of the triangle
+            int avgStart = (int) Math.floor((i + 1) * bucketSize) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x.applyAsDouble(data.get(j));
+                avgY += y.applyAsDouble(data.get(j));
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // Pick the point of the current bucket with the largest triangle area
+            int rangeStart = (int) Math.floor(i * bucketSize) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * bucketSize) + 1;
+            double ax = x.applyAsDouble(data.get(a));
+            double ay = y.applyAsDouble(data.get(a));
+
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (y.applyAsDouble(data.get(j)) - ay)
+                        - (ax - x.applyAsDouble(data.get(j))) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampled.add(data.get(next));
+            a = next;
+        }
+
+        sampled.add(data.get(size - 1));
+        return sampled;
+    }
+}
@@ -0,0 +1,99 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataRow;
+import com.acs560.dataanalyzer.models.SalesEstimate;
+import com.acs560.dataanalyzer.sketch.ReservoirSample;
+
+/**
+ * A uniform sample of ECOM_SALES_DATA for instant estimates while the exact query runs. Filtering
+ * the sample in memory takes the same time however large the table is. The sample is drawn from
+ * the table at startup and every committed insert is offered to it; a reservoir cannot remove rows,
+ * so {@link SalesSummaries} draws it again after changes it cannot follow. While stale, the
+ * estimates carry no error bound.
+ */
+@Component
+public class SalesSample {
+
+    // Two-sided 95% normal quantile
+    private static final double Z95 = 1.96;
+
+    private final SalesSummaries.Summary<ReservoirSample<EcomSalesData>> sample;
+
+    /**
+     * Constructor
+     *
+     * @param salesSummaries - keeps the sample current.
+     * @param size - the number of sampled rows.
+     */
+    public SalesSample(SalesSummaries salesSummaries,
+                       @Value("${sales.sample.size:10000}") int size) {
+        this.sample = salesSummaries.register("sales sample", () -> new ReservoirSample<>(size), ReservoirSample::offer);
+    }
+
+    /**
+     * Estimates the number and revenue of the sales data matching a filter from the sample.
+     * Customer names are not sampled, so the preview rows carry the customer id only.
+     *
+     * @param filter - the filter criteria.
+     * @param previewRows - the maximum number of matching sample rows to return.
+     * @return the estimate.
+     */
+    public SalesEstimate estimate(SalesDataFilter filter, int previewRows) {
+        boolean stale = sample.isStale();
+        ReservoirSample.Snapshot<EcomSalesData> snapshot = sample.current().snapshot();
+        int n = snapshot.items().size();
+        long population = snapshot.seen();
+        List<EcomSalesData> matches = new ArrayList<>();
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (EcomSalesData data : snapshot.items()) {
+            if (filter == null || filter.matches(data)) {
+                matches.add(data);
+                double amount = data.getAmount() == null ? 0 : data.getAmount();
+                sum += amount;
+                sumOfSquares += amount * amount;
+            }
+        }
+        int m = matches.size();
+        List<SalesDataRow> preview = matches.stream()
+                .sorted(Comparator.comparing(EcomSalesData::getRecordIndex,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(previewRows)
+                .map(SalesSample::toRow)
+                .toList();
+        if (stale) {
+            double scale = n == 0 ? 0 : (double) population / n;
+            return new SalesEstimate(m * scale, null, sum * scale, null, true, n, m, population, preview);
+        }
+        if (n == 0 || n == population) {
+            return new SalesEstimate(m, 0.0, sum, 0.0, false, n, m, population, preview);
+        }
+
+        double scale = (double) population / n;
+        // Finite population correction: the error shrinks to 0 as the sample approaches the table
+        double correction = Math.sqrt(1 - (double) n / population);
+        double p = (double) m / n;
+        // With no match the normal approximation gives 0; the rule of three bounds the count instead
+        double rowsError = m == 0 ? 3 * scale : Z95 * population * Math.sqrt(p * (1 - p) / n) * correction;
+        // The revenue is the mean of amount-if-matching-else-0 over the sample, scaled to the table
+        double mean = sum / n;
+        double variance = n > 1 ? Math.max(0, (sumOfSquares - n * mean * mean) / (n - 1)) : 0;
+        double revenueError = Z95 * population * Math.sqrt(variance / n) * correction;
+        return new SalesEstimate(m * scale, rowsError, sum * scale, revenueError, false, n, m, population, preview);
+    }
+
+    private static SalesDataRow toRow(EcomSalesData data) {
+        Long customerId = data.getCustomer() == null ? null : data.getCustomer().getCustomerId();
+        return new SalesDataRow(data.getRecordIndex(), data.getOrderId(), data.getAmount(), data.getShipCity(),
+                data.getStatus(), data.getChannel(), customerId, null);
+    }
+}
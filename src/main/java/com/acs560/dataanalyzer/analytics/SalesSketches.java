@@ -0,0 +1,154 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.models.AmountQuantile;
+import com.acs560.dataanalyzer.models.DistinctCount;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.sketch.HyperLogLog;
+import com.acs560.dataanalyzer.sketch.KllSketch;
+
+/**
+ * Approximate distinct customers and order amount quantiles per group of the configured dimensions.
+ * Every group keeps a {@link HyperLogLog} of its customer ids and a {@link KllSketch} of its amounts,
+ * so answers take the same time and memory however many orders a group has. The sketches are loaded
+ * from the table at startup and updated with every committed insert, and rebuilt by {@link SalesSummaries}
+ * after changes they cannot follow. While stale, the answers carry no error bound.
+ */
+@Component
+public class SalesSketches {
+
+    private final Set<SalesDimension> dimensions;
+    private final int hllPrecision;
+    private final int kllK;
+    private final SalesSummaries.Summary<Map<SalesDimension, ConcurrentMap<String, GroupSketch>>> sketches;
+
+    /**
+     * Constructor
+     *
+     * @param salesSummaries - keeps the sketches current.
+     * @param dimensions - the dimensions to keep sketches for.
+     * @param hllPrecision - the HyperLogLog precision; 2^precision bytes per group.
+     * @param kllK - the KLL accuracy parameter.
+     */
+    public SalesSketches(SalesSummaries salesSummaries,
+                         @Value("${sales.sketches.dimensions:STATE,CATEGORY,STATUS,CHANNEL}") List<SalesDimension> dimensions,
+                         @Value("${sales.sketches.hll-precision:14}") int hllPrecision,
+                         @Value("${sales.sketches.kll-k:200}") int kllK) {
+        this.dimensions = dimensions.isEmpty() ? EnumSet.noneOf(SalesDimension.class) : EnumSet.copyOf(dimensions);
+        this.hllPrecision = hllPrecision;
+        this.kllK = kllK;
+        // Fails at startup on a bad setting rather than at the first insert
+        new GroupSketch(hllPrecision, kllK);
+        this.sketches = salesSummaries.register("sales sketches", this::newSketches, this::offer);
+    }
+
+    /**
+     * @param dimension - the dimension.
+     * @return whether sketches are kept for the dimension.
+     */
+    public boolean covers(SalesDimension dimension) {
+        return dimensions.contains(dimension);
+    }
+
+    /**
+     * Gets the estimated number of distinct customers per group.
+     *
+     * @param dimension - the dimension to group by.
+     * @return the groups, most customers first.
+     * @throws IllegalArgumentException if no sketches are kept for the dimension.
+     */
+    public List<DistinctCount> distinctCustomers(SalesDimension dimension) {
+        boolean stale = sketches.isStale();
+        List<DistinctCount> counts = new ArrayList<>();
+        groups(dimension).forEach((label, sketch) -> counts.add(new DistinctCount(label, sketch.customers.estimate(),
+                stale ? null : Double.valueOf(sketch.customers.relativeStandardError()), stale)));
+        counts.sort(Comparator.comparingLong(DistinctCount::getCount).reversed()
+                .thenComparing(DistinctCount::getLabel));
+        return counts;
+    }
+
+    /**
+     * Gets the estimated order amount quantiles per group.
+     *
+     * @param dimension - the dimension to group by.
+     * @param quantiles - the quantiles, each between 0 and 1.
+     * @return the quantiles of every group with amounts, by label and quantile.
+     * @throws IllegalArgumentException if no sketches are kept for the dimension.
+     */
+    public List<AmountQuantile> amountQuantiles(SalesDimension dimension, double[] quantiles) {
+        boolean stale = sketches.isStale();
+        List<AmountQuantile> result = new ArrayList<>();
+        groups(dimension).forEach((label, sketch) -> {
+            long orders = sketch.amounts.count();
+            if (orders > 0) {
+                for (double quantile : quantiles) {
+                    result.add(new AmountQuantile(label, quantile, sketch.amounts.quantile(quantile), orders,
+                            stale ? null : Double.valueOf(sketch.amounts.normalizedRankError()), stale));
+                }
+            }
+        });
+        result.sort(Comparator.comparing(AmountQuantile::getLabel).thenComparingDouble(AmountQuantile::getQuantile));
+        return result;
+    }
+
+    private Map<String, GroupSketch> groups(SalesDimension dimension) {
+        if (!covers(dimension)) {
+            throw new IllegalArgumentException("No sketches are kept for " + dimension.name().toLowerCase()
+                    + ", see sales.sketches.dimensions");
+        }
+        return sketches.current().get(dimension);
+    }
+
+    private void offer(Map<SalesDimension, ConcurrentMap<String, GroupSketch>> sketches, EcomSalesData data) {
+        sketches.forEach((dimension, groups) -> {
+            String label = dimension.labelOf(data);
+            if (label != null) {
+                groups.computeIfAbsent(label, l -> new GroupSketch(hllPrecision, kllK)).offer(data);
+            }
+        });
+    }
+
+    private Map<SalesDimension, ConcurrentMap<String, GroupSketch>> newSketches() {
+        Map<SalesDimension, ConcurrentMap<String, GroupSketch>> next = new EnumMap<>(SalesDimension.class);
+        for (SalesDimension dimension : dimensions) {
+            next.put(dimension, new ConcurrentHashMap<>());
+        }
+        return next;
+    }
+
+    /**
+     * The sketches of one group.
+     */
+    private static final class GroupSketch {
+
+        private final HyperLogLog customers;
+        private final KllSketch amounts;
+
+        GroupSketch(int hllPrecision, int kllK) {
+            this.customers = new HyperLogLog(hllPrecision);
+            this.amounts = new KllSketch(kllK);
+        }
+
+        void offer(EcomSalesData data) {
+            if (data.getCustomer() != null && data.getCustomer().getCustomerId() != null) {
+                customers.offer(data.getCustomer().getCustomerId());
+            }
+            if (data.getAmount() != null) {
+                amounts.offer(data.getAmount());
+            }
+        }
+    }
+}
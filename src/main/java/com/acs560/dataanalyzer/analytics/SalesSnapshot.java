@@ -0,0 +1,380 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+
+/**
+ * A column-oriented copy of the sales data for the in-memory pipelines of the
+ * {@link AnalyticsExecutor}. It does not change once built: it keeps copies of the loaded rows and
+ * {@link #filter} returns copies of its rows, so neither the entities of the persistence context
+ * nor callers changing a returned row reach the snapshot shared by concurrent pipelines. The amounts are a {@code double[]} and every dimension is dictionary
+ * encoded as an {@code int[]} of codes, so a filter or group-by scans one primitive array
+ * sequentially instead of following a pointer to an entity and its strings per row.
+ * The rows keep their order; results list them in that order.
+ */
+public final class SalesSnapshot {
+
+    private final long version;
+    private final EcomSalesData[] rows;
+    // NaN where the amount is not set
+    private final double[] amounts;
+    private final Map<SalesDimension, Column> columns;
+
+    private SalesSnapshot(long version, EcomSalesData[] rows, double[] amounts, Map<SalesDimension, Column> columns) {
+        this.version = version;
+        this.rows = rows;
+        this.amounts = amounts;
+        this.columns = columns;
+    }
+
+    /**
+     * Builds a snapshot, encoding the columns in parallel.
+     *
+     * @param data - the rows; the snapshot copies them.
+     * @param version - the version of the sales data the rows were read at.
+     * @param executor - the executor encoding the columns.
+     * @return the snapshot.
+     */
+    public static SalesSnapshot of(List<EcomSalesData> data, long version, AnalyticsExecutor executor) {
+        EcomSalesData[] rows = new EcomSalesData[data.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = copy(data.get(i));
+        }
+        double[] amounts = new double[rows.length];
+        Map<SalesDimension, Column> columns = new EnumMap<>(SalesDimension.class);
+        List<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            for (int i = 0; i < rows.length; i++) {
+                Double amount = rows[i].getAmount();
+                amounts[i] = amount == null ? Double.NaN : amount;
+            }
+        });
+        Column[] encoded = new Column[SalesDimension.values().length];
+        for (SalesDimension dimension : SalesDimension.values()) {
+            tasks.add(() -> encoded[dimension.ordinal()] = Column.encode(rows, dimension));
+        }
+        executor.invokeAll(tasks);
+        for (SalesDimension dimension : SalesDimension.values()) {
+            columns.put(dimension, encoded[dimension.ordinal()]);
+        }
+        return new SalesSnapshot(version, rows, amounts, columns);
+    }
+
+    /**
+     * @return the version of the sales data the rows were read at.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Finds the rows whose value in a dimension equals a value, ignoring case.
+     *
+     * @param executor - the executor running the scan.
+     * @param dimension - the dimension.
+     * @param value - the value; null matches no row.
+     * @return copies of the matching rows, in snapshot order.
+     */
+    public List<EcomSalesData> filter(AnalyticsExecutor executor, SalesDimension dimension, String value) {
+        IntPredicate matches = columns.get(dimension).equalsIgnoreCase(value);
+        List<int[]> chunks = executor.invoke(rows.length, (from, to) -> {
+            int[] hits = new int[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (matches.test(i)) {
+                    hits[count++] = i;
+                }
+            }
+            return List.of(Arrays.copyOf(hits, count));
+        }, SalesSnapshot::concat);
+        int total = 0;
+        for (int[] chunk : chunks) {
+            total += chunk.length;
+        }
+        List<EcomSalesData> result = new ArrayList<>(total);
+        for (int[] chunk : chunks) {
+            for (int i : chunk) {
+                result.add(copy(rows[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups the rows matching a filter by a dimension and sums their revenue and orders.
+     * Rows without a value in the dimension are left out, as in the grouping queries.
+     *
+     * @param executor - the executor running the scan.
+     * @param dimension - the dimension to group by.
+     * @param filter - the filter criteria, or null for all rows.
+     * @return the groups, highest revenue first.
+     */
+    public List<SalesAggregate> aggregate(AnalyticsExecutor executor, SalesDimension dimension, SalesDataFilter filter) {
+        Column column = columns.get(dimension);
+        IntPredicate matches = predicate(filter);
+        int groups = column.dictionary.length;
+        Totals totals = executor.invoke(rows.length, (from, to) -> {
+            Totals range = Totals.of(groups, to - from);
+            int[] codes = column.codes;
+            for (int i = from; i < to; i++) {
+                int code = codes[i];
+                if (code >= 0 && matches.test(i)) {
+                    range.add(code, amounts[i]);
+                }
+            }
+            return range;
+        }, Totals::add);
+        List<SalesAggregate> result = new ArrayList<>();
+        totals.forEach((code, revenue, orders) -> result.add(new SalesAggregate(column.dictionary[code], revenue, orders)));
+        result.sort(Comparator.comparing(SalesAggregate::getRevenue).reversed().thenComparing(SalesAggregate::getLabel));
+        return result;
+    }
+
+    // The criteria on encoded columns and amounts read the arrays; the others fall back to the rows
+    private IntPredicate predicate(SalesDataFilter filter) {
+        IntPredicate predicate = i -> true;
+        if (filter == null) {
+            return predicate;
+        }
+        predicate = and(predicate, SalesDimension.STATUS, filter.getStatus());
+        predicate = and(predicate, SalesDimension.FULFILMENT, filter.getFulfilment());
+        predicate = and(predicate, SalesDimension.CHANNEL, filter.getChannel());
+        predicate = and(predicate, SalesDimension.CATEGORY, filter.getCategory());
+        predicate = and(predicate, SalesDimension.STATE, filter.getState());
+        predicate = and(predicate, SalesDimension.CITY, filter.getCity());
+        if (filter.getCustomerId() != null) {
+            predicate = and(predicate, SalesDimension.CUSTOMER, filter.getCustomerId().toString());
+        }
+        if (filter.getMinAmount() != null) {
+            double min = filter.getMinAmount();
+            predicate = predicate.and(i -> amounts[i] >= min);
+        }
+        if (filter.getMaxAmount() != null) {
+            double max = filter.getMaxAmount();
+            predicate = predicate.and(i -> amounts[i] <= max);
+        }
+        if (filter.getOrderId() != null || filter.getStartDate() != null || filter.getEndDate() != null) {
+            SalesDataFilter rest = SalesDataFilter.builder()
+                    .orderId(filter.getOrderId())
+                    .startDate(filter.getStartDate())
+                    .endDate(filter.getEndDate())
+                    .build();
+            predicate = predicate.and(i -> rest.matches(rows[i]));
+        }
+        return predicate;
+    }
+
+    private IntPredicate and(IntPredicate predicate, SalesDimension dimension, String value) {
+        return value == null || value.isEmpty() ? predicate : predicate.and(columns.get(dimension).equalsIgnoreCase(value));
+    }
+
+    // A detached copy of a row and its customer; Date is mutable as well
+    private static EcomSalesData copy(EcomSalesData row) {
+        Customer customer = row.getCustomer();
+        return new EcomSalesData(row.getRecordIndex(), row.getOrderId(),
+                row.getDate() == null ? null : (Date) row.getDate().clone(),
+                row.getStatus(), row.getFulfilment(), row.getChannel(), row.getCategory(), row.getSize(),
+                row.getAmount(), row.getShipCity(), row.getShipState(),
+                customer == null ? null : new Customer(customer.getCustomerId(), customer.getName(), customer.getEmail()));
+    }
+
+    private static List<int[]> concat(List<int[]> left, List<int[]> right) {
+        List<int[]> chunks = new ArrayList<>(left.size() + right.size());
+        chunks.addAll(left);
+        chunks.addAll(right);
+        return chunks;
+    }
+
+    /**
+     * A dictionary encoded dimension: the code of every row, -1 where the value is not set.
+     */
+    private static final class Column {
+
+        private final int[] codes;
+        private final String[] dictionary;
+
+        private Column(int[] codes, String[] dictionary) {
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        static Column encode(EcomSalesData[] rows, SalesDimension dimension) {
+            int[] codes = new int[rows.length];
+            Map<String, Integer> codesByValue = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            for (int i = 0; i < rows.length; i++) {
+                String value = dimension.labelOf(rows[i]);
+                if (value == null) {
+                    codes[i] = -1;
+                } else {
+                    codes[i] = codesByValue.computeIfAbsent(value, v -> {
+                        dictionary.add(v);
+                        return dictionary.size() - 1;
+                    });
+                }
+            }
+            return new Column(codes, dictionary.toArray(new String[0]));
+        }
+
+        // The dictionary is compared once, the rows only by code
+        IntPredicate equalsIgnoreCase(String value) {
+            boolean[] matching = new boolean[dictionary.length];
+            boolean any = false;
+            for (int code = 0; code < dictionary.length; code++) {
+                matching[code] = dictionary[code].equalsIgnoreCase(value);
+                any |= matching[code];
+            }
+            if (!any) {
+                return i -> false;
+            }
+            return i -> {
+                int code = codes[i];
+                return code >= 0 && matching[code];
+            };
+        }
+    }
+
+    /**
+     * The sums of the groups of one range. Arrays indexed by code while the range has at least as
+     * many rows as the dimension has values; otherwise an open-addressing hash map of the codes the
+     * range holds, so grouping by a dimension with a large dictionary, such as the customer, does
+     * not cost every task arrays the size of the dictionary.
+     */
+    private static final class Totals {
+
+        private static final int FREE = -1;
+
+        private final boolean dense;
+        // The code of every slot of the hash map, FREE if unused; null if dense
+        private int[] codes;
+        private double[] revenue;
+        private long[] orders;
+        private int size;
+
+        private Totals(boolean dense, int slots) {
+            this.dense = dense;
+            this.revenue = new double[slots];
+            this.orders = new long[slots];
+            if (!dense) {
+                codes = new int[slots];
+                Arrays.fill(codes, FREE);
+            }
+        }
+
+        /**
+         * @param groups - the number of values of the dimension.
+         * @param rows - the number of rows of the range.
+         * @return empty sums for the range.
+         */
+        static Totals of(int groups, int rows) {
+            return rows >= groups ? new Totals(true, groups) : new Totals(false, 16);
+        }
+
+        /**
+         * @param code - the group of a row.
+         * @param amount - the amount of the row, NaN if not set.
+         */
+        void add(int code, double amount) {
+            int slot = dense ? code : slot(code);
+            orders[slot]++;
+            if (!Double.isNaN(amount)) {
+                revenue[slot] += amount;
+            }
+        }
+
+        Totals add(Totals other) {
+            // Merges into the dense or the larger side
+            if (other.dense && !dense || !other.dense && !dense && other.size > size) {
+                return other.add(this);
+            }
+            if (other.dense) {
+                for (int code = 0; code < revenue.length; code++) {
+                    revenue[code] += other.revenue[code];
+                    orders[code] += other.orders[code];
+                }
+            } else {
+                other.forEach((code, otherRevenue, otherOrders) -> {
+                    int slot = dense ? code : slot(code);
+                    revenue[slot] += otherRevenue;
+                    orders[slot] += otherOrders;
+                });
+            }
+            return this;
+        }
+
+        void forEach(GroupConsumer consumer) {
+            for (int slot = 0; slot < orders.length; slot++) {
+                if (orders[slot] > 0) {
+                    consumer.accept(dense ? slot : codes[slot], revenue[slot], orders[slot]);
+                }
+            }
+        }
+
+        // Finds the slot of a code, taking a free one for a new code
+        private int slot(int code) {
+            int mask = codes.length - 1;
+            int hash = code * 0x9E3779B9;
+            for (int slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask) {
+                if (codes[slot] == code) {
+                    return slot;
+                }
+                if (codes[slot] == FREE) {
+                    if ((size + 1) * 2 > codes.length) {
+                        grow();
+                        return slot(code);
+                    }
+                    size++;
+                    codes[slot] = code;
+                    return slot;
+                }
+            }
+        }
+
+        private void grow() {
+            int[] oldCodes = codes;
+            double[] oldRevenue = revenue;
+            long[] oldOrders = orders;
+            codes = new int[oldCodes.length * 2];
+            Arrays.fill(codes, FREE);
+            revenue = new double[codes.length];
+            orders = new long[codes.length];
+            size = 0;
+            for (int slot = 0; slot < oldCodes.length; slot++) {
+                if (oldCodes[slot] != FREE) {
+                    int newSlot = slot(oldCodes[slot]);
+                    revenue[newSlot] = oldRevenue[slot];
+                    orders[newSlot] = oldOrders[slot];
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the sums of one group.
+     */
+    @FunctionalInterface
+    private interface GroupConsumer {
+
+        void accept(int code, double revenue, long orders);
+    }
+}
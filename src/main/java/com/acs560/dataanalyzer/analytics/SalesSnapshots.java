@@ -0,0 +1,66 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * Holds the current {@link SalesSnapshot}. Any committed change of the sales data makes it outdated;
+ * the next pipeline builds a new one, and pipelines running on the old one finish undisturbed.
+ */
+@Component
+public class SalesSnapshots {
+
+    private final AnalyticsExecutor executor;
+    private final AtomicLong version = new AtomicLong();
+    private volatile SalesSnapshot snapshot;
+
+    /**
+     * Constructor
+     *
+     * @param executor - the executor encoding the snapshot columns.
+     */
+    public SalesSnapshots(AnalyticsExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the snapshot of the current sales data, building it if the data changed since the last build.
+     * Callers arriving during a build wait for it instead of loading the rows again.
+     *
+     * @param loader - loads all rows.
+     * @return the snapshot.
+     */
+    public SalesSnapshot current(Supplier<List<EcomSalesData>> loader) {
+        SalesSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            // Read before loading: a change committed during the load makes the next call build again
+            long loadedVersion = version.get();
+            current = snapshot;
+            if (current == null || current.getVersion() != loadedVersion) {
+                current = SalesSnapshot.of(loader.get(), loadedVersion, executor);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Marks the snapshot outdated once a change of the sales data is committed.
+     *
+     * @param event - the change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalesDataChanged(SalesDataChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
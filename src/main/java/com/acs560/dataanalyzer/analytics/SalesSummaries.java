@@ -0,0 +1,215 @@
+package com.acs560.dataanalyzer.analytics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent.ChangeType;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-memory summaries of ECOM_SALES_DATA ({@link HeavyHitters}, {@link SalesSketches},
+ * {@link SalesSample}) current: every committed insert is offered to them, and since none of them
+ * can subtract, updates, deletes and bulk imports (which do not publish their rows) mark them stale.
+ * Stale summaries are rebuilt at the next rebuild interval, all from one scan of the table.
+ * <p>
+ * Inserts committed while the scan runs may or may not be read by it, depending on whether they
+ * committed before it started. They are held back and offered to the new summaries once the scan
+ * is done, unless it read them; the record indexes the scan read are kept, one bit per record
+ * index, until the next rebuild, so a late event cannot count a row twice either.
+ */
+@Slf4j
+@Component
+public class SalesSummaries {
+
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+    private final List<Summary<?>> summaries = new CopyOnWriteArrayList<>();
+
+    // Guards the offers of committed rows against the switch to rebuilt summaries
+    private final Object lock = new Object();
+    // Rows committed while a rebuild scans the table; null when no rebuild runs
+    private List<EcomSalesData> committedDuringRebuild;
+
+    /**
+     * Constructor
+     *
+     * @param salesDataJdbcRepository - streams the table for the (re)builds.
+     */
+    public SalesSummaries(SalesDataJdbcRepository salesDataJdbcRepository) {
+        this.salesDataJdbcRepository = salesDataJdbcRepository;
+    }
+
+    /**
+     * Registers a summary; it starts empty and stale and is built at startup.
+     *
+     * @param name - the name of the summary, for the logs.
+     * @param factory - creates an empty summary.
+     * @param offer - adds a row to a summary.
+     * @param <S> the summary type; offers and reads may run at the same time.
+     * @return the handle to read the summary by.
+     */
+    public <S> Summary<S> register(String name, Supplier<S> factory, BiConsumer<S, EcomSalesData> offer) {
+        Summary<S> summary = new Summary<>(name, factory, offer);
+        summaries.add(summary);
+        return summary;
+    }
+
+    /**
+     * Adds inserted rows to the summaries once they are committed; other changes mark them stale.
+     *
+     * @param event - the change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalesDataChanged(SalesDataChangedEvent event) {
+        if (event.getType() != ChangeType.ADDED || event.getData().isEmpty()) {
+            summaries.forEach(summary -> summary.stale.set(true));
+            return;
+        }
+        synchronized (lock) {
+            for (EcomSalesData data : event.getData()) {
+                summaries.forEach(summary -> summary.offerCommitted(data));
+            }
+            if (committedDuringRebuild != null) {
+                committedDuringRebuild.addAll(event.getData());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        rebuildIfStale();
+    }
+
+    /**
+     * Rebuilds the stale summaries from one scan of the table.
+     */
+    @Scheduled(initialDelayString = "${sales.summaries.rebuild-interval:PT5M}",
+               fixedDelayString = "${sales.summaries.rebuild-interval:PT5M}")
+    public synchronized void rebuildIfStale() {
+        List<Rebuild<?>> rebuilds = new ArrayList<>();
+        for (Summary<?> summary : summaries) {
+            if (summary.stale.getAndSet(false)) {
+                rebuilds.add(new Rebuild<>(summary));
+            }
+        }
+        if (rebuilds.isEmpty()) {
+            return;
+        }
+        String names = rebuilds.stream().map(rebuild -> rebuild.summary.name).collect(Collectors.joining(", "));
+        long started = System.nanoTime();
+        BitSet scanned = new BitSet();
+        synchronized (lock) {
+            committedDuringRebuild = new ArrayList<>();
+        }
+        try {
+            salesDataJdbcRepository.stream(null, data -> {
+                if (data.getRecordIndex() != null) {
+                    scanned.set(data.getRecordIndex());
+                }
+                rebuilds.forEach(rebuild -> rebuild.offer(data));
+            });
+            synchronized (lock) {
+                for (EcomSalesData data : committedDuringRebuild) {
+                    if (!isIn(scanned, data)) {
+                        rebuilds.forEach(rebuild -> rebuild.offer(data));
+                    }
+                }
+                rebuilds.forEach(rebuild -> rebuild.publish(scanned));
+            }
+            log.info("Rebuilt the {} in {} ms", names, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            rebuilds.forEach(rebuild -> rebuild.summary.stale.set(true));
+            log.warn("Rebuilding the {} failed, retrying at the next interval", names, e);
+        } finally {
+            synchronized (lock) {
+                committedDuringRebuild = null;
+            }
+        }
+    }
+
+    private static boolean isIn(BitSet scanned, EcomSalesData data) {
+        return data.getRecordIndex() != null && scanned.get(data.getRecordIndex());
+    }
+
+    /**
+     * A registered summary.
+     *
+     * @param <S> the summary type.
+     */
+    public static final class Summary<S> {
+
+        private final String name;
+        private final Supplier<S> factory;
+        private final BiConsumer<S, EcomSalesData> offer;
+        private final AtomicBoolean stale = new AtomicBoolean(true);
+
+        private volatile S current;
+        // The record indexes the current summary was built from; guarded by the lock of SalesSummaries
+        private BitSet scanned = new BitSet();
+
+        private Summary(String name, Supplier<S> factory, BiConsumer<S, EcomSalesData> offer) {
+            this.name = name;
+            this.factory = factory;
+            this.offer = offer;
+            this.current = factory.get();
+        }
+
+        /**
+         * @return the current summary.
+         */
+        public S current() {
+            return current;
+        }
+
+        /**
+         * @return whether the summary missed changes since it was built, so its error bounds do not hold.
+         */
+        public boolean isStale() {
+            return stale.get();
+        }
+
+        private void offerCommitted(EcomSalesData data) {
+            if (!isIn(scanned, data)) {
+                offer.accept(current, data);
+            }
+        }
+    }
+
+    /**
+     * A summary being rebuilt.
+     */
+    private static final class Rebuild<S> {
+
+        private final Summary<S> summary;
+        private final S next;
+
+        Rebuild(Summary<S> summary) {
+            this.summary = summary;
+            this.next = summary.factory.get();
+        }
+
+        void offer(EcomSalesData data) {
+            summary.offer.accept(next, data);
+        }
+
+        void publish(BitSet scanned) {
+            summary.current = next;
+            summary.scanned = scanned;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that registers the statements of guarded queries with their {@link QueryHandle},
+ * so they can be cancelled and get the query timeout. Connections obtained outside of a
+ * guarded query are returned unwrapped.
+ */
+public class CancellableDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    /**
+     * Constructor
+     *
+     * @param target - the data source to delegate to.
+     */
+    public CancellableDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Closes the target data source (the connection pool) on shutdown.
+     */
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection wrap(Connection target) {
+        if (QueryHandle.current() == null) {
+            return target;
+        }
+        return (Connection) Proxy.newProxyInstance(CancellableDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    QueryHandle handle = QueryHandle.current();
+                    if (handle != null && result instanceof Statement statement
+                            && STATEMENT_FACTORIES.contains(method.getName())) {
+                        handle.register(statement);
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,24 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the application data source in a {@link CancellableDataSource}.
+ */
+@Component
+public class CancellableDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof CancellableDataSource)) {
+            return new CancellableDataSource(dataSource);
+        }
+        return bean;
+    }
+}
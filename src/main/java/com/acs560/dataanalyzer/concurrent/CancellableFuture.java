@@ -0,0 +1,77 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CompletableFuture} whose {@code cancel} also stops the work behind it:
+ * a task that has not started yet never runs, and a running task is interrupted.
+ * A plain {@code CompletableFuture.supplyAsync} keeps running after cancellation,
+ * so superseded queries would pile up on the executor.
+ *
+ * @param <T> - the result type.
+ */
+public class CancellableFuture<T> extends CompletableFuture<T> {
+
+    private volatile FutureTask<Void> task;
+    private volatile Runnable cancelAction;
+
+    /**
+     * Runs the supplier on the executor.
+     *
+     * @param <T> - the result type.
+     * @param supplier - the work to run.
+     * @param executor - the executor to run it on.
+     * @return the future completed with the supplier's result.
+     */
+    public static <T> CancellableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        CancellableFuture<T> future = new CancellableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (!future.isDone()) {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }, null);
+        future.task = task;
+        executor.execute(task);
+        return future;
+    }
+
+    /**
+     * Sets an action run on cancellation before the task is interrupted,
+     * e.g. to cancel the statement the task is waiting for.
+     *
+     * @param action - the action.
+     * @return this future.
+     */
+    public CancellableFuture<T> onCancel(Runnable action) {
+        this.cancelAction = action;
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            Runnable action = cancelAction;
+            if (action != null) {
+                action.run();
+            }
+            FutureTask<Void> current = task;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+        return cancelled;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new CancellableFuture<>();
+    }
+}
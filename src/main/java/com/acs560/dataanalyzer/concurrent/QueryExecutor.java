@@ -0,0 +1,108 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the asynchronous query variants of the services, so the Vaadin UI does not
+ * hold the session lock while the database works.
+ * In virtual-thread mode every query gets its own virtual thread and only the
+ * connection pool limits concurrency; otherwise a bounded platform thread pool is used.
+ * Queries run in a read-only transaction, so they are routed to the read replica if one is
+ * configured, and as the user who submitted them, so read-your-writes still applies to them.
+ * It deliberately is not an {@code Executor} bean, which would replace Spring Boot's
+ * application task executor.
+ */
+@Component
+public class QueryExecutor {
+
+    private final TaskExecutor executor;
+    private final TaskExecutor securedExecutor;
+    private final QueryGuard queryGuard;
+    private TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Constructor
+     *
+     * @param queryGuard - the guard applying timeouts and cancellation to the queries.
+     * @param virtualThreads - whether virtual threads are enabled.
+     * @param poolSize - the number of platform threads running queries.
+     * @param queueCapacity - the number of queries that may wait for a platform thread.
+     */
+    public QueryExecutor(QueryGuard queryGuard,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                         @Value("${sales.async.query-pool-size:8}") int poolSize,
+                         @Value("${sales.async.queue-capacity:200}") int queueCapacity) {
+        this.queryGuard = queryGuard;
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("sales-query-");
+            virtualExecutor.setVirtualThreads(true);
+            this.executor = virtualExecutor;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("sales-query-");
+            pool.setCorePoolSize(poolSize);
+            pool.setMaxPoolSize(poolSize);
+            pool.setQueueCapacity(queueCapacity);
+            pool.initialize();
+            this.executor = pool;
+        }
+        this.securedExecutor = new DelegatingSecurityContextTaskExecutor(executor);
+    }
+
+    /**
+     * Sets the transaction manager of the read-only query transactions; without one,
+     * queries run outside a transaction.
+     *
+     * @param transactionManager - the transaction manager.
+     */
+    @Autowired(required = false)
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnlyTransaction = template;
+    }
+
+    /**
+     * Runs the query off the caller's thread as a guarded query.
+     *
+     * @param <T> - the result type.
+     * @param operation - the name of the query.
+     * @param query - the query to run.
+     * @return the future of the result; cancelling it stops the query if it has not started yet
+     *         and cancels its statements in the database otherwise.
+     * @throws org.springframework.core.task.TaskRejectedException if too many queries are waiting.
+     */
+    public <T> CancellableFuture<T> supply(String operation, Supplier<T> query) {
+        QueryHandle handle = queryGuard.newHandle(operation);
+        return CancellableFuture.supplyAsync(() -> queryGuard.call(handle, () -> inReadOnlyTransaction(query)),
+                        securedExecutor)
+                .onCancel(() -> queryGuard.cancel(handle));
+    }
+
+    // The services call their own read methods, which bypasses their @Transactional proxy
+    private <T> T inReadOnlyTransaction(Supplier<T> query) {
+        if (readOnlyTransaction == null) {
+            return query.get();
+        }
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+}
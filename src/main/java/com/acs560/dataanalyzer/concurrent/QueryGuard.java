@@ -0,0 +1,131 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs service reads as cancellable queries with a statement timeout and counts
+ * the queries that were cancelled or timed out.
+ */
+@Slf4j
+@Component
+public class QueryGuard {
+
+    private final int timeoutSeconds;
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param timeout - the statement timeout of guarded reads; zero disables it.
+     */
+    public QueryGuard(@Value("${sales.query.timeout:PT30S}") Duration timeout) {
+        this.timeoutSeconds = timeout.isZero() ? 0 : (int) Math.max(1, timeout.toSeconds());
+    }
+
+    /**
+     * Creates the handle of a query that is about to be started.
+     *
+     * @param operation - the name of the query.
+     * @return the handle.
+     */
+    public QueryHandle newHandle(String operation) {
+        return new QueryHandle(operation, timeoutSeconds);
+    }
+
+    /**
+     * Runs a read as a guarded query. A read nested in another guarded query joins it.
+     *
+     * @param <T> - the result type.
+     * @param operation - the name of the query.
+     * @param query - the read.
+     * @return the result of the read.
+     */
+    public <T> T call(String operation, Supplier<T> query) {
+        if (QueryHandle.current() != null) {
+            return query.get();
+        }
+        return call(newHandle(operation), query);
+    }
+
+    /**
+     * Runs a read under the given handle.
+     *
+     * @param <T> - the result type.
+     * @param handle - the handle of the query.
+     * @param query - the read.
+     * @return the result of the read.
+     * @throws CancellationException if the query was cancelled.
+     * @throws QueryTimeoutException if a statement exceeded the timeout.
+     */
+    public <T> T call(QueryHandle handle, Supplier<T> query) {
+        handle.bind();
+        try {
+            return query.get();
+        } catch (RuntimeException e) {
+            if (handle.isCancelled()) {
+                CancellationException cancellation = new CancellationException(handle.getOperation() + " was cancelled");
+                cancellation.initCause(e);
+                throw cancellation;
+            }
+            if (isTimeout(e)) {
+                timedOut.increment();
+                log.warn("{} exceeded the query timeout of {} s", handle.getOperation(), timeoutSeconds);
+                throw e instanceof QueryTimeoutException ? e : new QueryTimeoutException(handle.getOperation() + " timed out", e);
+            }
+            throw e;
+        } finally {
+            handle.unbind();
+        }
+    }
+
+    /**
+     * Cancels a query that has not finished yet.
+     *
+     * @param handle - the handle of the query.
+     */
+    public void cancel(QueryHandle handle) {
+        if (handle.cancel()) {
+            cancelled.increment();
+            log.debug("Cancelled {}", handle.getOperation());
+        }
+    }
+
+    /**
+     * Gets the number of queries cancelled before they finished
+     *
+     * @return the number of cancelled queries
+     */
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Gets the number of queries that exceeded the statement timeout
+     *
+     * @return the number of timed-out queries
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException || cause instanceof QueryTimeoutException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
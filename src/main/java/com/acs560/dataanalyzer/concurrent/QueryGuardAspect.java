@@ -0,0 +1,46 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the read-only transactional methods of the service implementations as guarded queries.
+ * The transaction takes its connection when it begins, and {@link CancellableDataSource} only
+ * wraps connections taken while a {@link QueryHandle} is bound, so the handle has to be bound
+ * before the transaction advice runs; this aspect is therefore ordered ahead of it.
+ * The {@code queryGuard.call} inside the methods then joins the bound handle.
+ */
+@Aspect
+@Component
+// The transaction advice has the lowest precedence, so this aspect wraps it
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class QueryGuardAspect {
+
+    private final QueryGuard queryGuard;
+
+    @Around("execution(public * com.acs560.dataanalyzer.services.impl.*.*(..)) && @annotation(transactional)")
+    public Object guardRead(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly() || QueryHandle.current() != null) {
+            return joinPoint.proceed();
+        }
+        return queryGuard.call(joinPoint.getSignature().getName(), () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A running read query that can be cancelled at the JDBC level.
+ * While a handle is bound to a thread, every statement created on a connection of the
+ * {@link CancellableDataSource} is registered with it and gets the handle's timeout;
+ * {@link #cancel()} then cancels those statements in the database.
+ */
+@Slf4j
+public class QueryHandle {
+
+    private static final ThreadLocal<QueryHandle> CURRENT = new ThreadLocal<>();
+
+    @Getter
+    private final String operation;
+    private final int timeoutSeconds;
+    private final Queue<Statement> statements = new ConcurrentLinkedQueue<>();
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+
+    /**
+     * Constructor
+     *
+     * @param operation - the name of the query, used in logs and metrics.
+     * @param timeoutSeconds - the statement timeout in seconds, 0 for none.
+     */
+    public QueryHandle(String operation, int timeoutSeconds) {
+        this.operation = operation;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Gets the handle bound to the current thread
+     *
+     * @return the handle, or null outside of a guarded query.
+     */
+    public static QueryHandle current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Cancels the statements of the query that are still executing; statements created
+     * afterwards fail right away.
+     *
+     * @return false if the query had already finished.
+     */
+    public boolean cancel() {
+        if (finished) {
+            return false;
+        }
+        cancelled = true;
+        for (Statement statement : statements) {
+            cancel(statement);
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Registers a statement created while the handle is bound and applies the timeout.
+     *
+     * @param statement - the new statement.
+     * @throws SQLException if the timeout cannot be set.
+     * @throws CancellationException if the query has been cancelled.
+     */
+    void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            statement.close();
+            throw new CancellationException(operation + " was cancelled");
+        }
+        if (timeoutSeconds > 0 && statement.getQueryTimeout() == 0) {
+            statement.setQueryTimeout(timeoutSeconds);
+        }
+        statements.add(statement);
+        if (cancelled) {
+            // cancel() may have missed the statement while it was being added
+            cancel(statement);
+        }
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    void unbind() {
+        finished = true;
+        statements.clear();
+        CURRENT.remove();
+    }
+
+    private void cancel(Statement statement) {
+        try {
+            if (!statement.isClosed()) {
+                statement.cancel();
+            }
+        } catch (SQLException e) {
+            log.debug("Cancelling a statement of {} failed", operation, e);
+        }
+    }
+}
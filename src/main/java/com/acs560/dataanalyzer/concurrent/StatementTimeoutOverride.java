@@ -0,0 +1,21 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+/**
+ * Keeps pooled connections whose statement exceeded the query timeout of a guarded query.
+ * HikariCP treats every {@link SQLTimeoutException} as a broken connection and closes it,
+ * so the rollback of the read's transaction failed and replaced the timeout with a
+ * "Connection is closed" error. The statement was cancelled; the connection is still usable.
+ * Configured with spring.datasource.hikari.exception-override-class-name.
+ */
+public class StatementTimeoutOverride implements SQLExceptionOverride {
+
+    @java.lang.Override
+    public Override adjudicate(SQLException sqlException) {
+        return sqlException instanceof SQLTimeoutException ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
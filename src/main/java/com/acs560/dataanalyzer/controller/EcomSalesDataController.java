@@ -0,0 +1,381 @@
+package com.acs560.dataanalyzer.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.acs560.dataanalyzer.models.AmountQuantile;
+import com.acs560.dataanalyzer.models.BulkInsertResult;
+import com.acs560.dataanalyzer.models.DistinctCount;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.HeavyHitter;
+import com.acs560.dataanalyzer.models.ReconciliationReport;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataSort;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesEstimate;
+import com.acs560.dataanalyzer.models.SalesMeasure;
+import com.acs560.dataanalyzer.models.SalesTimePoint;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+import com.acs560.dataanalyzer.services.SalesAnalyticsService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
+import com.acs560.dataanalyzer.services.SalesDataReconciliationService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST API over the sales data. Large results are streamed as NDJSON or CSV
+ * straight from a database cursor, aggregates carry an ETag derived from the data version.
+ */
+@RestController
+@RequestMapping("/api/sales")
+@RequiredArgsConstructor
+public class EcomSalesDataController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final EcomSalesDataService salesDataService;
+    private final SalesAnalyticsService analyticsService;
+    private final SalesDataExportService exportService;
+    private final SalesDataReconciliationService reconciliationService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${sales.api.bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    /**
+     * Compare the CSV store with the database and plan the repair.
+     *
+     * @param source - the side taken as correct, CSV or DATABASE.
+     * @return the differences and the repair plan.
+     */
+    @GetMapping("/reconciliation")
+    public ReconciliationReport reconcile(@RequestParam(defaultValue = "CSV") ReconciliationReport.Source source) {
+        return reconciliationService.reconcile(source);
+    }
+
+    /**
+     * Get a single sales data entry by its index.
+     *
+     * @param index - the record index.
+     * @return the sales data entry.
+     */
+    @GetMapping("/{index}")
+    public EcomSalesData getSalesData(@PathVariable int index) {
+        EcomSalesData data = salesDataService.getSalesDataByIndex(index);
+        if (data == null) {
+            throw new NoSuchElementException("No sales data with index " + index);
+        }
+        return data;
+    }
+
+    /**
+     * Get one page of the sales data matching the filter. Pages are keyset-based:
+     * pass the record index of the last entry of a page as 'after' to get the next one.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @param after - the record index of the last entry of the previous page.
+     * @param size - the page size, at most 1000.
+     * @return the page of sales data.
+     */
+    @GetMapping
+    public List<EcomSalesData> getSalesDataPage(@ModelAttribute SalesDataFilter filter,
+                                                @RequestParam(required = false) Integer after,
+                                                @RequestParam(defaultValue = "100") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return salesDataService.getSalesDataPage(filter, after, size);
+    }
+
+    /**
+     * Count the sales data matching the filter.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @return the number of matching entries.
+     */
+    @GetMapping("/count")
+    public long countSalesData(@ModelAttribute SalesDataFilter filter) {
+        return salesDataService.countSalesData(filter);
+    }
+
+    /**
+     * Estimate the number and revenue of the sales data matching the filter from a sample of the table.
+     * Answers without a query, so clients can show it while the exact count or page loads.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @param preview - the maximum number of matching sample rows, at most 1000.
+     * @return the estimate with its 95% error bounds.
+     */
+    @GetMapping("/estimate")
+    public SalesEstimate estimateSalesData(@ModelAttribute SalesDataFilter filter,
+                                           @RequestParam(defaultValue = "20") int preview) {
+        if (preview < 0 || preview > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("preview must be between 0 and " + MAX_PAGE_SIZE);
+        }
+        return analyticsService.estimateSalesData(filter, preview);
+    }
+
+    /**
+     * Get the groups of a dimension with the largest measure among the sales data matching the filter.
+     *
+     * @param dimension - one of city, state, category, status, channel, fulfilment, size or customer.
+     * @param measure - revenue or orders.
+     * @param k - the number of groups, at most 1000.
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @return the top groups, largest measure first.
+     */
+    @GetMapping("/top/{dimension}")
+    public List<SalesAggregate> getTopK(@PathVariable String dimension,
+                                        @RequestParam(defaultValue = "revenue") String measure,
+                                        @RequestParam(defaultValue = "20") int k,
+                                        @ModelAttribute SalesDataFilter filter) {
+        if (k < 1 || k > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return salesDataService.getTopK(SalesDimension.of(dimension), SalesMeasure.of(measure), filter, k);
+    }
+
+    /**
+     * Get the running top list of a dimension over all sales data, updated as orders arrive.
+     *
+     * @param dimension - one of city, state, category, status, channel, fulfilment, size or customer.
+     * @param measure - revenue or orders.
+     * @param k - the number of groups, at most 1000.
+     * @return the approximate top groups, largest estimate first.
+     */
+    @GetMapping("/top/{dimension}/running")
+    public List<HeavyHitter> getHeavyHitters(@PathVariable String dimension,
+                                             @RequestParam(defaultValue = "revenue") String measure,
+                                             @RequestParam(defaultValue = "20") int k) {
+        if (k < 1 || k > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return salesDataService.getHeavyHitters(SalesDimension.of(dimension), SalesMeasure.of(measure), k);
+    }
+
+    /**
+     * Stream all sales data matching the filter as newline-delimited JSON.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @return the streaming response.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamNdjson(@ModelAttribute SalesDataFilter filter) {
+        ObjectWriter writer = objectMapper.writerFor(EcomSalesData.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out))) {
+                salesDataService.streamSalesData(filter, data -> {
+                    try {
+                        writer.writeValue(generator, data);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Stream all sales data matching the filter as CSV in the layout of the sales report.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @param sort - the order of the rows, e.g. 'amount,desc'; record index order if not given.
+     * @return the streaming response.
+     */
+    @GetMapping(value = "/stream", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> streamCsv(@ModelAttribute SalesDataFilter filter,
+                                                           @RequestParam(required = false) String sort) {
+        SalesDataSort order = SalesDataSort.of(sort);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(out -> exportService.exportCsv(filter, order, out, rows -> { }));
+    }
+
+    /**
+     * Export all sales data matching the filter as a CSV file download.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @param sort - the order of the rows, e.g. 'amount,desc'; record index order if not given.
+     * @return the streaming response.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@ModelAttribute SalesDataFilter filter,
+                                                           @RequestParam(required = false) String sort) {
+        SalesDataSort order = SalesDataSort.of(sort);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales-data.csv\"")
+                .body(out -> exportService.exportCsv(filter, order, out, rows -> { }));
+    }
+
+    /**
+     * Get the aggregates of a dimension. The response carries an ETag bound to the data version,
+     * so clients polling with If-None-Match get a 304 until the sales data changes.
+     *
+     * @param dimension - one of 'category', 'state' or 'status'.
+     * @param request - the web request, used for the conditional check.
+     * @return the aggregates, or null if the client copy is still current.
+     */
+    @GetMapping("/aggregates/{dimension}")
+    public ResponseEntity<List<SalesAggregate>> getAggregates(@PathVariable String dimension, WebRequest request) {
+        String eTag = "\"" + dimension.toLowerCase() + "-" + analyticsService.getDataVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(analyticsService.getAggregates(dimension));
+    }
+
+    /**
+     * Stream the groups of a dimension over the sales data matching the filter as newline-delimited JSON.
+     * Grouped while streaming from the database; groups beyond the memory budget spill to disk,
+     * so any number of groups can be returned.
+     *
+     * @param dimension - one of city, state, category, status, channel, fulfilment, size or customer.
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @return the streaming response, highest revenue first.
+     */
+    @GetMapping(value = "/aggregates/{dimension}/groups", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAggregates(@PathVariable String dimension,
+                                                                  @ModelAttribute SalesDataFilter filter) {
+        SalesDimension groupBy = SalesDimension.of(dimension);
+        ObjectWriter writer = objectMapper.writerFor(SalesAggregate.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out))) {
+                salesDataService.streamAggregates(groupBy, filter, aggregate -> {
+                    try {
+                        writer.writeValue(generator, aggregate);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Get the downsampled revenue series.
+     *
+     * @param points - the maximum number of points.
+     * @param request - the web request, used for the conditional check.
+     * @return the revenue series, or null if the client copy is still current.
+     */
+    @GetMapping("/aggregates/revenue-series")
+    public ResponseEntity<List<SalesTimePoint>> getRevenueSeries(@RequestParam(defaultValue = "500") int points,
+                                                                 WebRequest request) {
+        String eTag = "\"revenue-" + points + "-" + analyticsService.getDataVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(analyticsService.getRevenueSeries(points));
+    }
+
+    /**
+     * Get the number of distinct customers per group of a dimension.
+     *
+     * @param dimension - one of city, state, category, status, channel, fulfilment or size.
+     * @param mode - 'exact' to count in the database, 'approximate' to estimate from the sketches.
+     * @return the groups, most customers first.
+     */
+    @GetMapping("/aggregates/{dimension}/distinct-customers")
+    public List<DistinctCount> getDistinctCustomers(@PathVariable String dimension,
+                                                    @RequestParam(defaultValue = "exact") String mode) {
+        return analyticsService.getDistinctCustomers(SalesDimension.of(dimension), isApproximate(mode));
+    }
+
+    /**
+     * Get order amount quantiles per group of a dimension.
+     *
+     * @param dimension - one of city, state, category, status, channel, fulfilment, size or customer.
+     * @param q - the quantiles, e.g. 0.5,0.99.
+     * @param mode - 'exact' to rank in the database, 'approximate' to estimate from the sketches.
+     * @return the quantiles of every group, by label and quantile.
+     */
+    @GetMapping("/aggregates/{dimension}/amount-quantiles")
+    public List<AmountQuantile> getAmountQuantiles(@PathVariable String dimension,
+                                                   @RequestParam(defaultValue = "0.5,0.99") double[] q,
+                                                   @RequestParam(defaultValue = "exact") String mode) {
+        return analyticsService.getAmountQuantiles(SalesDimension.of(dimension), q, isApproximate(mode));
+    }
+
+    /**
+     * Insert sales data in bulk. Accepts either NDJSON or a JSON array; the body is parsed
+     * incrementally and inserted in batches, so the request size is not bounded by memory.
+     *
+     * @param request - the servlet request carrying the body.
+     * @return how many entries were received and inserted.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    @PostMapping(value = "/bulk", consumes = { NDJSON, MediaType.APPLICATION_JSON_VALUE })
+    public BulkInsertResult bulkInsert(HttpServletRequest request) throws IOException {
+        long received = 0;
+        long inserted = 0;
+        List<EcomSalesData> batch = new ArrayList<>(bulkBatchSize);
+        try (InputStream in = request.getInputStream();
+             MappingIterator<EcomSalesData> entries = objectMapper.readerFor(EcomSalesData.class).readValues(in)) {
+            while (entries.hasNextValue()) {
+                batch.add(entries.nextValue());
+                received++;
+                if (batch.size() >= bulkBatchSize) {
+                    inserted += salesDataService.addSalesDataBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        inserted += salesDataService.addSalesDataBatch(batch);
+        return new BulkInsertResult(received, inserted);
+    }
+
+    private static boolean isApproximate(String mode) {
+        switch (mode.toLowerCase()) {
+            case "exact":
+                return false;
+            case "approximate":
+                return true;
+            default:
+                throw new IllegalArgumentException("mode must be 'exact' or 'approximate'");
+        }
+    }
+}
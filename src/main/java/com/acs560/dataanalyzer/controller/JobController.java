@@ -0,0 +1,135 @@
+package com.acs560.dataanalyzer.controller;
+
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataSort;
+import com.acs560.dataanalyzer.services.JobService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
+import com.acs560.dataanalyzer.services.SalesDataImportService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST API for background jobs: start exports and imports, follow their progress,
+ * cancel them and download their results. Users only see their own jobs.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+    private final SalesDataExportService exportService;
+    private final SalesDataImportService importService;
+
+    /**
+     * Start a background CSV export of the sales data matching the filter.
+     *
+     * @param filter - the filter criteria, bound from the query parameters.
+     * @param sort - the order of the rows, e.g. 'amount,desc'; record index order if not given.
+     * @param principal - the authenticated user.
+     * @return the queued job.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<Job> startExport(@ModelAttribute SalesDataFilter filter,
+                                           @RequestParam(required = false) String sort, Principal principal) {
+        Job job = exportService.exportCsvInBackground(filter, SalesDataSort.of(sort), principal.getName());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    /**
+     * Start a background import of a CSV file from the import directory.
+     * Starting it again after a failure or cancellation continues from the last checkpoint.
+     *
+     * @param file - the name of the file in the import directory.
+     * @param principal - the authenticated user.
+     * @return the queued job.
+     */
+    @PostMapping("/imports")
+    public ResponseEntity<Job> startImport(@RequestParam String file, Principal principal) {
+        Job job = importService.importCsvInBackground(file, principal.getName());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    /**
+     * Get the jobs of the authenticated user.
+     *
+     * @param principal - the authenticated user.
+     * @return the jobs, newest first.
+     */
+    @GetMapping
+    public List<Job> getJobs(Principal principal) {
+        return jobService.getJobs(principal.getName());
+    }
+
+    /**
+     * Get a job.
+     *
+     * @param id - the job id.
+     * @param principal - the authenticated user.
+     * @return the job.
+     */
+    @GetMapping("/{id}")
+    public Job getJob(@PathVariable String id, Principal principal) {
+        return findOwnJob(id, principal);
+    }
+
+    /**
+     * Cancel a queued or running job.
+     *
+     * @param id - the job id.
+     * @param principal - the authenticated user.
+     * @return the job after the cancellation request.
+     */
+    @DeleteMapping("/{id}")
+    public Job cancelJob(@PathVariable String id, Principal principal) {
+        Job job = findOwnJob(id, principal);
+        jobService.cancel(id);
+        return job;
+    }
+
+    /**
+     * Download the result of a finished job.
+     *
+     * @param id - the job id.
+     * @param principal - the authenticated user.
+     * @return the result file.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String id, Principal principal) {
+        Job job = findOwnJob(id, principal);
+        Path result = jobService.getResult(id)
+                .orElseThrow(() -> new NoSuchElementException("No result available for job " + id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getResultName()).build().toString())
+                .body(new FileSystemResource(result));
+    }
+
+    private Job findOwnJob(String id, Principal principal) {
+        return jobService.getJob(id)
+                .filter(job -> job.getOwner().equals(principal.getName()))
+                .orElseThrow(() -> new NoSuchElementException("No job " + id));
+    }
+}
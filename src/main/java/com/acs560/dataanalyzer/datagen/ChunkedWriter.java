@@ -0,0 +1,85 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes generated rows in parallel and in order: chunks of rows are formatted on a thread pool,
+ * and written to the output as soon as all chunks before them are done. At most a small window
+ * of chunks is held in memory, so the output can be of any size.
+ */
+public final class ChunkedWriter {
+
+    /**
+     * Formats the rows of one chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkFormatter {
+
+        /**
+         * Formats the rows with 1-based index from {@code fromIndex} to {@code toIndex} (exclusive).
+         *
+         * @param fromIndex - the first index.
+         * @param toIndex - the index after the last one.
+         * @return the formatted bytes.
+         */
+        byte[] format(long fromIndex, long toIndex);
+    }
+
+    private ChunkedWriter() {
+    }
+
+    /**
+     * Writes rows 1 to {@code rows} using the formatter.
+     *
+     * @param out - the output; not closed.
+     * @param rows - the number of rows.
+     * @param chunkSize - the number of rows per chunk.
+     * @param threads - the number of formatting threads.
+     * @param formatter - formats one chunk.
+     * @throws IOException if writing fails.
+     */
+    public static void write(OutputStream out, long rows, int chunkSize, int threads, ChunkFormatter formatter)
+            throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "datagen");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int window = Math.max(1, threads) * 2;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>(window);
+        try {
+            for (long from = 1; from <= rows; from += chunkSize) {
+                long start = from;
+                long end = Math.min(rows + 1, from + chunkSize);
+                if (pending.size() == window) {
+                    out.write(await(pending.removeFirst()));
+                }
+                pending.addLast(executor.submit(() -> formatter.format(start, end)));
+            }
+            while (!pending.isEmpty()) {
+                out.write(await(pending.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating data", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generating data failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.time.LocalDate;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Settings of the synthetic sales data generator. The same settings always produce the same data.
+ */
+@Value
+@Builder(toBuilder = true)
+public class GeneratorSettings {
+
+    /** The random seed. */
+    @Builder.Default
+    long seed = 42L;
+
+    /** The number of sales rows. */
+    @Builder.Default
+    long rows = 100_000L;
+
+    /** The number of customers the sales are spread over. */
+    @Builder.Default
+    int customers = 10_000;
+
+    /** The Zipf exponent of the customer popularity; higher means fewer customers place most orders. */
+    @Builder.Default
+    double customerSkew = 1.1;
+
+    /** The first order date. */
+    @Builder.Default
+    LocalDate startDate = LocalDate.of(2022, 1, 1);
+
+    /** The last order date. */
+    @Builder.Default
+    LocalDate endDate = LocalDate.of(2024, 12, 31);
+
+    /** The number of rows generated per chunk when writing in parallel. */
+    @Builder.Default
+    int chunkSize = 50_000;
+
+    /** The number of threads generating chunks. */
+    @Builder.Default
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates the default settings with the given number of rows.
+     *
+     * @param rows - the number of sales rows.
+     * @return the settings.
+     */
+    public static GeneratorSettings ofRows(long rows) {
+        return GeneratorSettings.builder().rows(rows).build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads generated data into the CUSTOMER and ECOM_SALES_DATA tables with JDBC batches.
+ * Sales rows are generated and inserted in parallel chunks, each on its own connection.
+ * Rows keep their generated ids, so the database matches a CSV written with the same settings.
+ */
+@Slf4j
+public class JdbcSalesDataLoader {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT_CUSTOMER = "INSERT INTO CUSTOMER (CUSTOMER_ID, NAME, EMAIL) VALUES (?, ?, ?)";
+    private static final String INSERT_SALES_DATA = "INSERT INTO ECOM_SALES_DATA (RECORD_INDEX, ORDER_ID, ORDER_DATE, "
+            + "STATUS, FULFILMENT, CHANNEL, CATEGORY, SIZE, AMOUNT, SHIP_CITY, SHIP_STATE, CUSTOMER_ID) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Constructor
+     *
+     * @param dataSource - the database to load into; the tables of schema.sql must exist and be empty.
+     */
+    public JdbcSalesDataLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Loads the customers and sales rows of the generator.
+     *
+     * @param generator - the generator.
+     * @return the number of inserted sales rows.
+     * @throws SQLException if an insert fails.
+     */
+    public long load(SalesDataGenerator generator) throws SQLException {
+        GeneratorSettings settings = generator.getSettings();
+        long started = System.nanoTime();
+        insertCustomers(generator);
+
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, settings.getThreads()));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = 1; from <= settings.getRows(); from += settings.getChunkSize()) {
+                long start = from;
+                long end = Math.min(settings.getRows() + 1, from + settings.getChunkSize());
+                chunks.add(executor.submit(() -> {
+                    inserted.addAndGet(insertSalesData(generator, start, end));
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading data", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SQLException sql ? sql : new SQLException("Loading data failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        restartIdentities(settings);
+        log.info("Loaded {} customers and {} sales rows in {} ms", settings.getCustomers(), inserted.get(),
+                (System.nanoTime() - started) / 1_000_000);
+        return inserted.get();
+    }
+
+    private void insertCustomers(SalesDataGenerator generator) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_CUSTOMER)) {
+            int batched = 0;
+            for (long id = 1; id <= generator.getSettings().getCustomers(); id++) {
+                Customer customer = generator.customer(id);
+                statement.setLong(1, id);
+                statement.setString(2, customer.getName());
+                statement.setString(3, customer.getEmail());
+                statement.addBatch();
+                if (++batched % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private long insertSalesData(SalesDataGenerator generator, long fromIndex, long toIndex) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SALES_DATA)) {
+            for (long index = fromIndex; index < toIndex; index++) {
+                EcomSalesData data = generator.row(index);
+                statement.setInt(1, data.getRecordIndex());
+                statement.setString(2, data.getOrderId());
+                statement.setDate(3, java.sql.Date.valueOf(data.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate()));
+                statement.setString(4, data.getStatus());
+                statement.setString(5, data.getFulfilment());
+                statement.setString(6, data.getChannel());
+                statement.setString(7, data.getCategory());
+                statement.setString(8, data.getSize());
+                statement.setDouble(9, data.getAmount());
+                statement.setString(10, data.getShipCity());
+                statement.setString(11, data.getShipState());
+                statement.setLong(12, data.getCustomer().getCustomerId());
+                statement.addBatch();
+                if ((index - fromIndex + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        return toIndex - fromIndex;
+    }
+
+    // MySQL moves AUTO_INCREMENT past explicit ids by itself, H2 needs the identity restarted
+    private void restartIdentities(GeneratorSettings settings) throws SQLException {
+        String product;
+        try (Connection connection = dataSource.getConnection()) {
+            product = connection.getMetaData().getDatabaseProductName();
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("ALTER TABLE CUSTOMER ALTER COLUMN CUSTOMER_ID RESTART WITH " + (settings.getCustomers() + 1));
+            jdbcTemplate.execute("ALTER TABLE ECOM_SALES_DATA ALTER COLUMN RECORD_INDEX RESTART WITH " + (settings.getRows() + 1));
+        }
+    }
+}
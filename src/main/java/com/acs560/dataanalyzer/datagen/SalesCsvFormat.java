@@ -0,0 +1,65 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * Writes generated sales data in the AmazonSalesReport.csv layout read by EcomSalesDataRepo,
+ * with the customer's email as an additional last column.
+ */
+public final class SalesCsvFormat {
+
+    public static final String HEADER =
+            "index,Order ID,Date,Status,Fulfilment,Sales Channel,Category,Size,Amount,ship-city,ship-state,customer-email";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    private SalesCsvFormat() {
+    }
+
+    /**
+     * Formats one row. Generated values never contain commas, so no quoting is needed.
+     *
+     * @param data - the row.
+     * @param customerEmail - the email of the row's customer.
+     * @return the CSV line without line separator.
+     */
+    public static String line(EcomSalesData data, String customerEmail) {
+        return data.getRecordIndex() + "," +
+               data.getOrderId() + "," +
+               DATE_FORMAT.format(data.getDate().toInstant().atZone(ZoneId.systemDefault())) + "," +
+               data.getStatus() + "," +
+               data.getFulfilment() + "," +
+               data.getChannel() + "," +
+               data.getCategory() + "," +
+               data.getSize() + "," +
+               data.getAmount() + "," +
+               data.getShipCity() + "," +
+               data.getShipState() + "," +
+               customerEmail;
+    }
+
+    /**
+     * Writes the header and all rows of the generator, generated in parallel chunks.
+     *
+     * @param generator - the generator.
+     * @param out - the output; not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void write(SalesDataGenerator generator, OutputStream out) throws IOException {
+        GeneratorSettings settings = generator.getSettings();
+        out.write((HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+        ChunkedWriter.write(out, settings.getRows(), settings.getChunkSize(), settings.getThreads(), (from, to) -> {
+            StringBuilder chunk = new StringBuilder((int) (to - from) * 128);
+            generator.rows(from, to).forEach(data -> chunk
+                    .append(line(data, generator.customer(data.getCustomer().getCustomerId()).getEmail()))
+                    .append('\n'));
+            return chunk.toString().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+}
@@ -0,0 +1,268 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+import lombok.Getter;
+
+/**
+ * Generates realistic synthetic sales data matching ECOM_SALES_DATA and AmazonSalesReport.csv.
+ * <p>
+ * Every row is derived only from the seed and its index, so rows can be generated in any
+ * order, in parallel and in chunks, and always come out the same. Distributions:
+ * <ul>
+ * <li>categories, statuses, channels, cities: skewed weighted choices,</li>
+ * <li>customers: Zipf distributed, a few customers place most orders,</li>
+ * <li>dates: yearly seasonality, weekends, holiday peaks and growth over time,</li>
+ * <li>amounts: Pareto (power law) with a per-category minimum price.</li>
+ * </ul>
+ */
+public class SalesDataGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double AMOUNT_ALPHA = 1.6;
+    private static final double AMOUNT_CAP = 25_000;
+
+    private static final WeightedChoice<String> STATUSES = new WeightedChoice<>(
+            new String[] { "Shipped", "Delivered", "Pending", "Processing", "Cancelled", "Returned" },
+            new double[] { 45, 30, 8, 7, 7, 3 });
+    private static final WeightedChoice<String> FULFILMENTS = new WeightedChoice<>(
+            new String[] { "Warehouse", "Drop-Shipping" },
+            new double[] { 70, 30 });
+    private static final WeightedChoice<String> CHANNELS = new WeightedChoice<>(
+            new String[] { "Online", "Mobile", "Retail" },
+            new double[] { 55, 30, 15 });
+    private static final WeightedChoice<String> CATEGORIES = new WeightedChoice<>(
+            new String[] { "Apparel", "Electronics", "Home & Garden", "Beauty", "Books", "Sports & Outdoors", "Toys & Games" },
+            new double[] { 35, 22, 12, 10, 8, 7, 6 });
+    // Minimum price per category, same order as CATEGORIES
+    private static final double[] CATEGORY_MIN_PRICE = { 19.99, 49.99, 24.99, 9.99, 7.99, 19.99, 14.99 };
+    private static final WeightedChoice<String> SIZES = new WeightedChoice<>(
+            new String[] { "Small", "Medium", "Large" },
+            new double[] { 35, 45, 20 });
+    private static final WeightedChoice<String[]> CITIES = new WeightedChoice<>(
+            new String[][] {
+                { "New York", "NY" }, { "Los Angeles", "CA" }, { "Chicago", "IL" }, { "Houston", "TX" },
+                { "Phoenix", "AZ" }, { "Philadelphia", "PA" }, { "San Antonio", "TX" }, { "San Diego", "CA" },
+                { "Dallas", "TX" }, { "San Jose", "CA" }, { "Austin", "TX" }, { "Jacksonville", "FL" },
+                { "Columbus", "OH" }, { "Charlotte", "NC" }, { "Seattle", "WA" }, { "Denver", "CO" },
+                { "Boston", "MA" }, { "Miami", "FL" }, { "Atlanta", "GA" }, { "Portland", "OR" }
+            },
+            new double[] { 84, 39, 27, 23, 16, 16, 15, 14, 13, 10, 10, 9, 9, 9, 7, 7, 7, 4, 5, 6 });
+    private static final String[] FIRST_NAMES = { "John", "Jane", "Mike", "Emily", "David", "Sarah", "Chris", "Anna",
+        "James", "Laura", "Robert", "Maria", "Daniel", "Lisa", "Kevin", "Nina", "Paul", "Olivia", "Mark", "Grace" };
+    private static final String[] LAST_NAMES = { "Doe", "Smith", "Johnson", "Brown", "Lee", "Wilson", "Taylor", "Garcia",
+        "Miller", "Davis", "Martinez", "Clark", "Lewis", "Walker", "Hall", "Young", "King", "Wright", "Lopez", "Hill" };
+
+    @Getter
+    private final GeneratorSettings settings;
+    private final double[] customerCdf;
+    private final double[] dayCdf;
+    private final long startEpochDay;
+
+    /**
+     * Constructor
+     *
+     * @param settings - the generator settings.
+     */
+    public SalesDataGenerator(GeneratorSettings settings) {
+        if (settings.getRows() < 0 || settings.getCustomers() < 1 || settings.getEndDate().isBefore(settings.getStartDate())) {
+            throw new IllegalArgumentException("Invalid generator settings: " + settings);
+        }
+        this.settings = settings;
+        this.customerCdf = zipfCdf(settings.getCustomers(), settings.getCustomerSkew());
+        this.dayCdf = seasonalCdf(settings.getStartDate(), settings.getEndDate());
+        this.startEpochDay = settings.getStartDate().toEpochDay();
+    }
+
+    /**
+     * Generates one sales row.
+     *
+     * @param index - the 1-based row index, used as record index.
+     * @return the row; its customer only carries the id.
+     */
+    public EcomSalesData row(long index) {
+        SplittableRandom random = new SplittableRandom(settings.getSeed() * GOLDEN_GAMMA + index);
+        int category = CATEGORIES.index(random.nextDouble());
+        String[] city = CITIES.pick(random.nextDouble());
+        LocalDate date = LocalDate.ofEpochDay(startEpochDay + search(dayCdf, random.nextDouble()));
+        double pareto = CATEGORY_MIN_PRICE[category] * Math.pow(1 - random.nextDouble(), -1 / AMOUNT_ALPHA);
+
+        EcomSalesData data = new EcomSalesData(
+                orderId(index, random),
+                Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                STATUSES.pick(random.nextDouble()),
+                FULFILMENTS.pick(random.nextDouble()),
+                CHANNELS.pick(random.nextDouble()),
+                CATEGORIES.value(category),
+                SIZES.pick(random.nextDouble()),
+                Math.round(Math.min(pareto, AMOUNT_CAP) * 100) / 100.0,
+                city[0],
+                city[1]);
+        data.setRecordIndex(Math.toIntExact(index));
+        data.setCustomer(new Customer(customerId(random), null, null));
+        return data;
+    }
+
+    /**
+     * Generates the rows of a range lazily.
+     *
+     * @param fromIndex - the first 1-based index, inclusive.
+     * @param toIndex - the last index, exclusive.
+     * @return the rows.
+     */
+    public Stream<EcomSalesData> rows(long fromIndex, long toIndex) {
+        return LongStream.range(fromIndex, toIndex).mapToObj(this::row);
+    }
+
+    /**
+     * Generates all rows lazily.
+     *
+     * @return the rows 1 to the configured number of rows.
+     */
+    public Stream<EcomSalesData> rows() {
+        return rows(1, settings.getRows() + 1);
+    }
+
+    /**
+     * Generates one customer.
+     *
+     * @param id - the customer id, 1 to the configured number of customers.
+     * @return the customer with a unique email.
+     */
+    public Customer customer(long id) {
+        SplittableRandom random = new SplittableRandom(~settings.getSeed() * GOLDEN_GAMMA + id);
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return new Customer(id, first + " " + last,
+                (first + "." + last + "." + id + "@example.com").toLowerCase());
+    }
+
+    /**
+     * Generates all customers lazily.
+     *
+     * @return the customers 1 to the configured number of customers.
+     */
+    public Stream<Customer> customers() {
+        return LongStream.rangeClosed(1, settings.getCustomers()).mapToObj(this::customer);
+    }
+
+    private long customerId(SplittableRandom random) {
+        return search(customerCdf, random.nextDouble()) + 1;
+    }
+
+    // Amazon-style order id; the index is encoded in the last two groups, so ids are unique
+    private static String orderId(long index, SplittableRandom random) {
+        StringBuilder id = new StringBuilder(19);
+        id.append(100 + random.nextInt(900)).append('-');
+        pad(id, index % 10_000_000, 7).append('-');
+        return pad(id, (index / 10_000_000) * 10_000 + random.nextInt(10_000), 7).toString();
+    }
+
+    private static StringBuilder pad(StringBuilder target, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            target.append('0');
+        }
+        return target.append(digits);
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        return normalize(cdf, sum);
+    }
+
+    private static double[] seasonalCdf(LocalDate start, LocalDate end) {
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        double[] cdf = new double[days];
+        double sum = 0;
+        for (int d = 0; d < days; d++) {
+            LocalDate date = start.plusDays(d);
+            double weight = 1 + 0.2 * Math.sin(2 * Math.PI * (date.getDayOfYear() - 80) / 365.0); // summer high, winter low
+            weight *= date.getDayOfWeek().getValue() >= 6 ? 1.25 : 1.0;                     // weekends
+            weight *= 1 + 0.3 * d / days;                                                    // growth
+            weight *= holidayFactor(date);
+            sum += weight;
+            cdf[d] = sum;
+        }
+        return normalize(cdf, sum);
+    }
+
+    private static double holidayFactor(LocalDate date) {
+        int day = date.getDayOfMonth();
+        if (date.getMonth() == Month.NOVEMBER && day >= 22) {
+            return 3.0; // Black Friday and Cyber Monday
+        }
+        if (date.getMonth() == Month.DECEMBER && day <= 22) {
+            return 1.8; // Christmas shopping
+        }
+        if (date.getMonth() == Month.JULY && day >= 10 && day <= 12) {
+            return 2.2; // Summer sale days
+        }
+        if (date.getMonth() == Month.JANUARY && day <= 15) {
+            return 0.7; // Post-holiday slump
+        }
+        return 1.0;
+    }
+
+    private static double[] normalize(double[] cdf, double sum) {
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        cdf[cdf.length - 1] = 1.0;
+        return cdf;
+    }
+
+    // Index of the first cumulative weight above u
+    private static int search(double[] cdf, double u) {
+        int i = Arrays.binarySearch(cdf, u);
+        return Math.min(i >= 0 ? i + 1 : -i - 1, cdf.length - 1);
+    }
+
+    /**
+     * A choice between values with fixed relative weights.
+     */
+    private static final class WeightedChoice<T> {
+
+        private final T[] values;
+        private final double[] cdf;
+
+        WeightedChoice(T[] values, double[] weights) {
+            this.values = values;
+            double[] cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+            this.cdf = normalize(cumulative, sum);
+        }
+
+        int index(double u) {
+            return search(cdf, u);
+        }
+
+        T value(int index) {
+            return values[index];
+        }
+
+        T pick(double u) {
+            return values[index(u)];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Command line entry point of the synthetic data generator.
+ * <pre>
+ * --format csv|sql|jdbc   output format (default csv)
+ * --out PATH              output file for csv and sql (default sales-&lt;rows&gt;.&lt;format&gt;)
+ * --rows N                sales rows (default 100000)
+ * --customers N           customers (default 10000)
+ * --seed N                random seed (default 42)
+ * --start YYYY-MM-DD      first order date (default 2022-01-01)
+ * --end YYYY-MM-DD        last order date (default 2024-12-31)
+ * --threads N             generating threads (default: number of processors)
+ * --url, --user, --password   database for the jdbc format; the tables must exist and be empty
+ * </pre>
+ * Example: {@code scripts/generate-data.sh --rows 10000000 --format csv --out target/sales-10m.csv}
+ */
+public final class SalesDataGeneratorCli {
+
+    private SalesDataGeneratorCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        GeneratorSettings.GeneratorSettingsBuilder builder = GeneratorSettings.builder();
+        if (options.containsKey("rows")) {
+            builder.rows(Long.parseLong(options.get("rows")));
+        }
+        if (options.containsKey("customers")) {
+            builder.customers(Integer.parseInt(options.get("customers")));
+        }
+        if (options.containsKey("seed")) {
+            builder.seed(Long.parseLong(options.get("seed")));
+        }
+        if (options.containsKey("start")) {
+            builder.startDate(LocalDate.parse(options.get("start")));
+        }
+        if (options.containsKey("end")) {
+            builder.endDate(LocalDate.parse(options.get("end")));
+        }
+        if (options.containsKey("threads")) {
+            builder.threads(Integer.parseInt(options.get("threads")));
+        }
+        SalesDataGenerator generator = new SalesDataGenerator(builder.build());
+        String format = options.getOrDefault("format", "csv");
+
+        long started = System.nanoTime();
+        switch (format) {
+            case "csv":
+            case "sql":
+                Path out = Paths.get(options.getOrDefault("out", "sales-" + generator.getSettings().getRows() + "." + format));
+                try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) {
+                    if (format.equals("csv")) {
+                        SalesCsvFormat.write(generator, stream);
+                    } else {
+                        SalesSqlFormat.write(generator, stream);
+                    }
+                }
+                System.out.printf("Wrote %d rows to %s%n", generator.getSettings().getRows(), out);
+                break;
+            case "jdbc":
+                DriverManagerDataSource dataSource = new DriverManagerDataSource(required(options, "url"),
+                        options.getOrDefault("user", "root"), options.getOrDefault("password", ""));
+                long rows = new JdbcSalesDataLoader(dataSource).load(generator);
+                System.out.printf("Loaded %d rows into %s%n", rows, options.get("url"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        System.out.printf("Took %d ms%n", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,77 @@
+package com.acs560.dataanalyzer.datagen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * Writes generated data as a SQL script for the CUSTOMER and ECOM_SALES_DATA tables of schema.sql,
+ * using multi-row inserts.
+ */
+public final class SalesSqlFormat {
+
+    private static final int ROWS_PER_INSERT = 1000;
+
+    private SalesSqlFormat() {
+    }
+
+    /**
+     * Writes the customers, then all sales rows, generated in parallel chunks.
+     *
+     * @param generator - the generator.
+     * @param out - the output; not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void write(SalesDataGenerator generator, OutputStream out) throws IOException {
+        GeneratorSettings settings = generator.getSettings();
+        ChunkedWriter.write(out, settings.getCustomers(), ROWS_PER_INSERT, 1, (from, to) -> {
+            StringBuilder insert = new StringBuilder("INSERT INTO CUSTOMER (CUSTOMER_ID, NAME, EMAIL) VALUES\n");
+            for (long id = from; id < to; id++) {
+                Customer customer = generator.customer(id);
+                insert.append(id == from ? "" : ",\n")
+                        .append('(').append(id).append(", ").append(quote(customer.getName()))
+                        .append(", ").append(quote(customer.getEmail())).append(')');
+            }
+            return insert.append(";\n").toString().getBytes(StandardCharsets.UTF_8);
+        });
+
+        // Chunks are a multiple of the insert size, so every insert has ROWS_PER_INSERT rows except the last one
+        int chunkSize = Math.max(1, settings.getChunkSize() / ROWS_PER_INSERT) * ROWS_PER_INSERT;
+        ChunkedWriter.write(out, settings.getRows(), chunkSize, settings.getThreads(), (from, to) -> {
+            StringBuilder chunk = new StringBuilder((int) (to - from) * 160);
+            for (long start = from; start < to; start += ROWS_PER_INSERT) {
+                long end = Math.min(to, start + ROWS_PER_INSERT);
+                chunk.append("INSERT INTO ECOM_SALES_DATA (RECORD_INDEX, ORDER_ID, ORDER_DATE, STATUS, FULFILMENT, CHANNEL, "
+                        + "CATEGORY, SIZE, AMOUNT, SHIP_CITY, SHIP_STATE, CUSTOMER_ID) VALUES\n");
+                for (long index = start; index < end; index++) {
+                    chunk.append(index == start ? "" : ",\n").append(values(generator.row(index)));
+                }
+                chunk.append(";\n");
+            }
+            return chunk.toString().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    private static String values(EcomSalesData data) {
+        return "(" + data.getRecordIndex() + ", " +
+               quote(data.getOrderId()) + ", " +
+               quote(data.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString()) + ", " +
+               quote(data.getStatus()) + ", " +
+               quote(data.getFulfilment()) + ", " +
+               quote(data.getChannel()) + ", " +
+               quote(data.getCategory()) + ", " +
+               quote(data.getSize()) + ", " +
+               data.getAmount() + ", " +
+               quote(data.getShipCity()) + ", " +
+               quote(data.getShipState()) + ", " +
+               data.getCustomer().getCustomerId() + ")";
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,83 @@
+package com.acs560.dataanalyzer.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes connections of read-only transactions to the replica pool and all other connections
+ * to the primary. A read-write transaction counts as a write of the current user, whose reads
+ * then stay on the primary for the read-your-writes window.
+ * <p>
+ * The transaction is only known once it has started, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the
+ * connection at the first statement instead of at the beginning of the transaction.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The target pools.
+     */
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReadYourWrites readYourWrites;
+
+    private final Counter nonTransactional;
+    private final Counter writes;
+    private final Counter ownWriteReads;
+    private final Counter replicaReads;
+
+    /**
+     * Constructor
+     *
+     * @param primary - the pool of the primary database.
+     * @param replica - the pool of the read replica.
+     * @param readYourWrites - the writes of the current user.
+     * @param meterRegistry - the registry of the routing metrics.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites,
+                                      MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.nonTransactional = counter(meterRegistry, Route.PRIMARY, "no-transaction");
+        this.writes = counter(meterRegistry, Route.PRIMARY, "read-write");
+        this.ownWriteReads = counter(meterRegistry, Route.PRIMARY, "read-your-writes");
+        this.replicaReads = counter(meterRegistry, Route.REPLICA, "read-only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Schema initialization, JDBC batches and other plain statements run on the primary
+            nonTransactional.increment();
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordWrite();
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (readYourWrites.wroteRecently()) {
+            ownWriteReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Route route, String reason) {
+        return Counter.builder("sales.datasource.connections")
+                .tag("route", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.acs560.dataanalyzer.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers when each user last wrote to the primary database, so their own reads can be
+ * sent to the primary until the replica has caught up with the write. A session is identified
+ * by the authenticated user of the calling thread; the query executor carries it over to
+ * asynchronous queries. Without a configured replica nothing is recorded.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    // 0 until the first write, System.nanoTime() of the latest write of any user afterwards
+    private volatile long lastWrite;
+
+    /**
+     * Constructor
+     *
+     * @param replicaUrl - the JDBC URL of the read replica; empty if reads are not routed.
+     * @param window - how long reads of a user go to the primary after their write; at least the expected replica lag.
+     */
+    public ReadYourWrites(@Value("${sales.datasource.replica.url:}") String replicaUrl,
+                          @Value("${sales.datasource.replica.read-your-writes-window:PT5S}") Duration window) {
+        this.enabled = !replicaUrl.isEmpty();
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Records a write of the current user.
+     */
+    public void recordWrite() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrite = now;
+        String user = currentUser();
+        if (user != null) {
+            lastWrites.put(user, now);
+        }
+    }
+
+    /**
+     * @return whether the current user wrote within the window, so the replica may not show the write yet.
+     */
+    public boolean wroteRecently() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long written = lastWrites.get(user);
+        if (written == null) {
+            return false;
+        }
+        if (isRecent(written)) {
+            return true;
+        }
+        lastWrites.remove(user, written);
+        return false;
+    }
+
+    /**
+     * @return whether anyone wrote within the window, so a read from the replica may be stale.
+     */
+    public boolean anyoneWroteRecently() {
+        long written = lastWrite;
+        return written != 0 && isRecent(written);
+    }
+
+    private boolean isRecent(long written) {
+        return System.nanoTime() - written < windowNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
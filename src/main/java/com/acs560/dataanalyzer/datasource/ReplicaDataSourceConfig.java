@@ -0,0 +1,90 @@
+package com.acs560.dataanalyzer.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits the data source into a primary and a read-replica pool when
+ * sales.datasource.replica.url is set. The primary pool is configured by spring.datasource.*
+ * as before, the replica pool by sales.datasource.replica.* (the user, password and driver
+ * default to the primary's). The application keeps seeing one data source, named "dataSource",
+ * which routes read-only transactions to the replica (see {@link ReadWriteRoutingDataSource}).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sales.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * The pool of the primary database.
+     *
+     * @param properties - the spring.datasource.* properties.
+     * @return the primary pool, further configured by spring.datasource.hikari.*.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * The pool of the read replica. Its connections are read-only, so a write routed
+     * to the replica by mistake fails instead of diverging from the primary.
+     *
+     * @param properties - the spring.datasource.* properties.
+     * @param url - the JDBC URL of the replica.
+     * @param username - the user of the replica.
+     * @param password - the password of the replica.
+     * @return the replica pool, further configured by sales.datasource.replica.hikari.*.
+     */
+    @Bean
+    @ConfigurationProperties("sales.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${sales.datasource.replica.url}") String url,
+                                              @Value("${sales.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${sales.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The data source of the application, which replaces the one Spring Boot would create.
+     *
+     * @param primary - the pool of the primary database.
+     * @param replica - the pool of the read replica.
+     * @param readYourWrites - the writes of the current user.
+     * @param meterRegistry - the registry of the routing metrics.
+     * @return the routing data source behind a lazy connection proxy.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, readYourWrites, meterRegistry));
+    }
+}
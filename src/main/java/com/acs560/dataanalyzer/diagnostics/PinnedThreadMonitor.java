@@ -0,0 +1,134 @@
+package com.acs560.dataanalyzer.diagnostics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports virtual threads that were pinned to their carrier thread, which happens
+ * when a virtual thread blocks inside a synchronized block or a native frame.
+ * Pinning is read from the JFR event {@code jdk.VirtualThreadPinned}, so it has no
+ * cost on the request path. Every pinned stack is logged once, with a periodic
+ * summary of counts per call site.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sales.diagnostics.pinning.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private RecordingStream stream;
+
+    /**
+     * Constructor
+     *
+     * @param threshold - pinning shorter than this is ignored.
+     */
+    public PinnedThreadMonitor(@Value("${sales.diagnostics.pinning.threshold:PT0.02S}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Pinning diagnostics need Java 21 or later, running on {}", Runtime.version());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = callSite(event.getStackTrace());
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        LongAdder count = pinnedBySite.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms on thread {}:\n{}", event.getDuration().toMillis(),
+                    event.getThread() == null ? "?" : event.getThread().getJavaName(), site);
+        }
+    }
+
+    /**
+     * Logs how often each call site pinned a carrier thread since startup.
+     */
+    @Scheduled(fixedDelayString = "${sales.diagnostics.pinning.report-interval:PT1M}")
+    public void report() {
+        if (pinnedBySite.isEmpty()) {
+            return;
+        }
+        String summary = pinnedBySite.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .map(entry -> entry.getValue().sum() + "x " + applicationFrame(entry.getKey()))
+                .collect(Collectors.joining("\n  ", "\n  ", ""));
+        log.info("Pinned virtual threads: {} events, {} ms total{}", getPinnedCount(),
+                Duration.ofNanos(pinnedNanos.get()).toMillis(), summary);
+    }
+
+    /**
+     * Gets the number of pinning events seen since startup
+     *
+     * @return the number of events
+     */
+    public long getPinnedCount() {
+        return pinnedBySite.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static String callSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "<no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(STACK_DEPTH)
+                .map(PinnedThreadMonitor::frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+
+    // The top frames are JDK internals (the monitor or I/O call); the first frame outside the JDK names the culprit
+    private static String applicationFrame(String site) {
+        String[] lines = site.split("\n");
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith("at java.") && !trimmed.startsWith("at jdk.") && !trimmed.startsWith("at sun.")) {
+                return trimmed;
+            }
+        }
+        return lines[0].trim();
+    }
+}
@@ -0,0 +1,37 @@
+package com.acs560.dataanalyzer.events;
+
+import java.util.List;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+import lombok.Getter;
+
+/**
+ * Published after sales data has been added, updated or deleted,
+ * so that derived state (caches, versions, ...) can follow the change.
+ */
+@Getter
+public class SalesDataChangedEvent {
+
+    /**
+     * The kind of change.
+     */
+    public enum ChangeType {
+        ADDED, UPDATED, DELETED
+    }
+
+    private final ChangeType type;
+
+    private final List<EcomSalesData> data;
+
+    /**
+     * Constructor
+     *
+     * @param type - the kind of change.
+     * @param data - the affected sales data.
+     */
+    public SalesDataChangedEvent(ChangeType type, List<EcomSalesData> data) {
+        this.type = type;
+        this.data = data;
+    }
+}
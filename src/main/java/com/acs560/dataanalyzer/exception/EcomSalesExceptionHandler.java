@@ -1,6 +1,7 @@
 package com.acs560.dataanalyzer.exception;
 
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -46,6 +47,16 @@ public class EcomSalesExceptionHandler {
 		return ResponseEntity.status(HttpStatusCode.valueOf(404)).body("Endpoint does not exist");
 	}
 
+    /**
+     * Handles QueryTimeoutException, which occurs when a query exceeds the statement timeout.
+     *
+     * @return ResponseEntity with status 503 (Service Unavailable) and error message.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<String> handleQueryTimeoutException() {
+        return ResponseEntity.status(503).body("The query took too long, please narrow the filter or try again later.");
+    }
+
     /**
      * Handles generic exceptions, providing a fallback handler for unhandled exceptions.
      *
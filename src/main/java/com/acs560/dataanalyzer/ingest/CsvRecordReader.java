@@ -0,0 +1,111 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads CSV records and keeps track of the byte offset and line number after each one, so an
+ * import can be continued from an exact position. A quoted value may span several lines.
+ * Not thread-safe.
+ */
+final class CsvRecordReader {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    private byte[] record = new byte[256];
+    private long offset;
+    private long lines;
+    private boolean terminated;
+
+    /**
+     * Constructor
+     *
+     * @param in - the input, positioned at the offset; not closed.
+     * @param offset - the byte offset of the input in the file.
+     * @param lines - the number of lines before the offset.
+     */
+    CsvRecordReader(InputStream in, long offset, long lines) {
+        this.in = in;
+        this.offset = offset;
+        this.lines = lines;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record without its line separator, or null at the end of the file.
+     * @throws IOException if reading fails.
+     */
+    String read() throws IOException {
+        int length = 0;
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            any = true;
+            byte b = buffer[position++];
+            offset++;
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n') {
+                lines++;
+                if (!quoted) {
+                    terminated = true;
+                    return decode(length);
+                }
+            }
+            if (length == record.length) {
+                record = Arrays.copyOf(record, length * 2);
+            }
+            record[length++] = b;
+        }
+        terminated = false;
+        return any ? decode(length) : null;
+    }
+
+    /**
+     * @return whether the last record read ended with a line separator; a record at the end of a file
+     *         that is still being written may be incomplete.
+     */
+    boolean terminated() {
+        return terminated;
+    }
+
+    /**
+     * @return the byte offset after the last record read.
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of lines up to the last record read.
+     */
+    long lines() {
+        return lines;
+    }
+
+    private boolean fill() throws IOException {
+        limit = in.read(buffer);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private String decode(int length) {
+        if (length > 0 && record[length - 1] == '\r') {
+            length--;
+        }
+        return new String(record, 0, length, StandardCharsets.UTF_8);
+    }
+}
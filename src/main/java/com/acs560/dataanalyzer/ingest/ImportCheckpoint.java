@@ -0,0 +1,70 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * The position up to which an import has been committed: every line before it was either
+ * inserted or written to the rejects file. Saved next to the imported file after every chunk,
+ * so a failed or cancelled import continues from here.
+ *
+ * @param offset - the byte offset of the first line that was not committed.
+ * @param lines - the number of data lines before the offset.
+ * @param inserted - the number of rows inserted so far.
+ * @param rejected - the number of rows rejected so far.
+ */
+public record ImportCheckpoint(long offset, long lines, long inserted, long rejected) {
+
+    /**
+     * The start of a file.
+     */
+    public static final ImportCheckpoint START = new ImportCheckpoint(0, 0, 0, 0);
+
+    /**
+     * Reads a checkpoint.
+     *
+     * @param file - the checkpoint file.
+     * @return the checkpoint, or START if the file does not exist.
+     * @throws IOException if the file cannot be read.
+     */
+    public static ImportCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return START;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new ImportCheckpoint(
+                Long.parseLong(properties.getProperty("offset")),
+                Long.parseLong(properties.getProperty("lines")),
+                Long.parseLong(properties.getProperty("inserted")),
+                Long.parseLong(properties.getProperty("rejected")));
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it over the previous one,
+     * so a crash never leaves a half-written checkpoint.
+     *
+     * @param file - the checkpoint file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("lines", Long.toString(lines));
+        properties.setProperty("inserted", Long.toString(inserted));
+        properties.setProperty("rejected", Long.toString(rejected));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            properties.store(writer, "CSV import checkpoint");
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
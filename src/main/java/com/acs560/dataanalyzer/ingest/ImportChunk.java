@@ -0,0 +1,85 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * A run of consecutive records on its way through the import pipeline. Each stage works on
+ * the rows still alive and moves the ones it rejects to the rejections. A chunk is handled
+ * by one worker at a time, so it needs no synchronization.
+ */
+final class ImportChunk {
+
+    /**
+     * Marks the end of the input in the queues between the stages.
+     */
+    static final ImportChunk END = new ImportChunk(-1, 0, 0, List.of());
+
+    final long sequence;
+    final long endOffset;
+    final long endLines;
+    final List<Row> rows;
+    final List<Rejection> rejections = new ArrayList<>();
+    final List<String> claimedOrderIds = new ArrayList<>();
+    long inserted;
+
+    /**
+     * Constructor
+     *
+     * @param sequence - the number of the chunk in this run, starting at 0.
+     * @param endOffset - the byte offset after the last record.
+     * @param endLines - the number of lines up to the last record.
+     * @param rows - the records, a mutable list.
+     */
+    ImportChunk(long sequence, long endOffset, long endLines, List<Row> rows) {
+        this.sequence = sequence;
+        this.endOffset = endOffset;
+        this.endLines = endLines;
+        this.rows = rows;
+    }
+
+    /**
+     * Rejects the rows the check returns a reason for.
+     *
+     * @param check - returns the reason to reject a row, or null to keep it.
+     */
+    void rejectIf(Function<Row, String> check) {
+        rows.removeIf(row -> {
+            String reason = check.apply(row);
+            if (reason == null) {
+                return false;
+            }
+            rejections.add(new Rejection(row.line, reason, row.text));
+            return true;
+        });
+    }
+
+    /**
+     * One record of the file.
+     */
+    static final class Row {
+
+        final long line;
+        final String text;
+        EcomSalesData data;
+        String customerEmail;
+
+        Row(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+
+    /**
+     * A rejected record.
+     *
+     * @param line - the line number of the record in the file.
+     * @param reason - why it was rejected.
+     * @param text - the record as read.
+     */
+    record Rejection(long line, String reason, String text) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.acs560.dataanalyzer.ingest;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Settings of the CSV import pipeline.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ImportSettings {
+
+    /** The number of lines read into one chunk; chunks are the unit of work and of checkpoints. */
+    @Builder.Default
+    int chunkSize = 5_000;
+
+    /** The number of rows per JDBC batch insert. */
+    @Builder.Default
+    int batchSize = 1_000;
+
+    /** The number of threads parsing and, separately, validating chunks; validation looks up order ids. */
+    @Builder.Default
+    int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /** The number of threads resolving customers; each holds a database connection while it works on a chunk. */
+    @Builder.Default
+    int resolveWorkers = 2;
+
+    /** The number of threads inserting batches, each on its own connection. */
+    @Builder.Default
+    int insertWorkers = 4;
+
+    /** The number of chunks that may wait between two stages; bounds the memory of the pipeline. */
+    @Builder.Default
+    int queueCapacity = 8;
+
+    /** The maximum number of inserted rows per second; 0 means unlimited. */
+    @Builder.Default
+    long maxRowsPerSecond = 0;
+
+    /** Whether customers with an unknown email are created; otherwise their rows are rejected. */
+    @Builder.Default
+    boolean createMissingCustomers = false;
+}
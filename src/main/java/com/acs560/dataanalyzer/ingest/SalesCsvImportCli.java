@@ -0,0 +1,94 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.acs560.dataanalyzer.models.ImportStats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Command line entry point of the CSV import, for loading files without starting the application.
+ * <pre>
+ * --file PATH                 the CSV file; re-running a failed import continues from its checkpoint
+ * --url, --user, --password   the database; the tables must exist
+ * --chunk-size N              lines per chunk and checkpoint (default 5000)
+ * --batch-size N              rows per batch insert (default 1000)
+ * --workers N                 parse and validate threads each (default: half the processors)
+ * --resolve-workers N         customer lookup threads (default 2)
+ * --insert-workers N          insert threads (default 4)
+ * --queue-capacity N          chunks waiting between two stages (default 8)
+ * --max-rows-per-second N     insert rate limit (default 0, unlimited)
+ * --create-missing-customers true|false   create unknown customer emails (default false)
+ * </pre>
+ * Example: {@code scripts/import-csv.sh --file AmazonSalesReport.csv --url 'jdbc:mysql://localhost:3306/EcomSalesData?rewriteBatchedStatements=true'}
+ */
+public final class SalesCsvImportCli {
+
+    private SalesCsvImportCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        ImportSettings.ImportSettingsBuilder builder = ImportSettings.builder();
+        if (options.containsKey("chunk-size")) {
+            builder.chunkSize(Integer.parseInt(options.get("chunk-size")));
+        }
+        if (options.containsKey("batch-size")) {
+            builder.batchSize(Integer.parseInt(options.get("batch-size")));
+        }
+        if (options.containsKey("workers")) {
+            builder.workers(Integer.parseInt(options.get("workers")));
+        }
+        if (options.containsKey("resolve-workers")) {
+            builder.resolveWorkers(Integer.parseInt(options.get("resolve-workers")));
+        }
+        if (options.containsKey("insert-workers")) {
+            builder.insertWorkers(Integer.parseInt(options.get("insert-workers")));
+        }
+        if (options.containsKey("queue-capacity")) {
+            builder.queueCapacity(Integer.parseInt(options.get("queue-capacity")));
+        }
+        if (options.containsKey("max-rows-per-second")) {
+            builder.maxRowsPerSecond(Long.parseLong(options.get("max-rows-per-second")));
+        }
+        if (options.containsKey("create-missing-customers")) {
+            builder.createMissingCustomers(Boolean.parseBoolean(options.get("create-missing-customers")));
+        }
+        Path file = Paths.get(required(options, "file"));
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(required(options, "url"),
+                options.getOrDefault("user", "root"), options.getOrDefault("password", ""));
+
+        // Without the order id filter every order id is looked up
+        SalesCsvImporter importer = new SalesCsvImporter(dataSource, null, new SimpleMeterRegistry());
+        ImportStats stats = importer.importFile(file, builder.build(), progress ->
+                System.out.printf("%5.1f%%  %d inserted, %d rejected, %d rows/s%n", progress.getProgress() * 100,
+                        progress.getInserted(), progress.getRejected(), Math.round(progress.getRowsPerSecond())),
+                () -> false);
+        System.out.printf("Imported %s: %d rows inserted, %d rejected (see %s), took %d ms%n", file,
+                stats.getInserted(), stats.getRejected(), SalesCsvImporter.rejectsFile(file), stats.getElapsedMillis());
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,565 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.ImportStats;
+import com.acs560.dataanalyzer.repositories.OrderIdFilter;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports a sales CSV file (the AmazonSalesReport.csv layout, see {@link SalesCsvRows}) into
+ * ECOM_SALES_DATA. A reader cuts the file into chunks of records, which pass through four
+ * stages connected by bounded queues, each with its own workers:
+ * <ol>
+ * <li>parse the records,</li>
+ * <li>validate them against the schema, the order ids of the chunks still in the pipeline and the stored order ids,</li>
+ * <li>resolve the customer emails to customer ids, creating missing customers if configured,</li>
+ * <li>insert them in JDBC batches, each batch in its own transaction.</li>
+ * </ol>
+ * Rejected records are appended to {@code <file>.rejected.csv} with their line number and reason.
+ * Chunks finish out of order; once all chunks up to a position are done, the position is saved to
+ * {@code <file>.checkpoint}. A failed or cancelled import continues from there when it is run again.
+ * Records after the checkpoint are read again, so rows inserted just before a crash come back as
+ * duplicate order ids in the rejects file. The checkpoint is removed once the whole file is imported.
+ * <p>
+ * Validation claims the order id of every row until its chunk is inserted, and rejects rows whose
+ * order id is claimed, by this import or by another one running on the same importer. Once a chunk
+ * is inserted its rows are found by the stored order id lookup, so the claims cover the chunks in
+ * between: two chunks in different workers can no longer both pass with the same order id.
+ * <p>
+ * The validate, resolve and insert workers each hold a pooled connection while they work on a chunk,
+ * so an import would take up to {@code workers + resolveWorkers + insertWorkers} connections, and
+ * concurrent imports that many each. The workers of all imports on the same importer therefore share
+ * a number of connections: a worker waits for one of them before it starts on a chunk and gives it
+ * back when it is done, so the imports never take more of the pool than that.
+ */
+@Slf4j
+public class SalesCsvImporter {
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO CUSTOMER (NAME, EMAIL) VALUES (:name, :email)";
+    private static final String FIND_CUSTOMERS = "SELECT CUSTOMER_ID, EMAIL FROM CUSTOMER WHERE EMAIL IN (:emails)";
+
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderIdFilter orderIdFilter;
+    private final MeterRegistry meterRegistry;
+    // Connections the database workers of all imports may hold at the same time
+    private final Semaphore connections;
+    // Order ids of the rows validated but not yet inserted, by the import that claimed them
+    private final Map<String, Run> claimedOrderIds = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for an importer whose imports take a connection for every database worker.
+     *
+     * @param dataSource - the sales database.
+     * @param orderIdFilter - the filter of the stored order ids, or null to look up every order id.
+     * @param meterRegistry - the registry of the import metrics.
+     */
+    public SalesCsvImporter(DataSource dataSource, OrderIdFilter orderIdFilter, MeterRegistry meterRegistry) {
+        this(dataSource, orderIdFilter, meterRegistry, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param dataSource - the sales database.
+     * @param orderIdFilter - the filter of the stored order ids, or null to look up every order id.
+     * @param meterRegistry - the registry of the import metrics.
+     * @param maxConnections - the number of connections all imports of this importer hold at most, together.
+     */
+    public SalesCsvImporter(DataSource dataSource, OrderIdFilter orderIdFilter, MeterRegistry meterRegistry,
+                            int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        this.connections = new Semaphore(maxConnections, true);
+        this.salesDataJdbcRepository = new SalesDataJdbcRepository(dataSource, 1000);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.orderIdFilter = orderIdFilter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param file - the imported file.
+     * @return the checkpoint file of the import.
+     */
+    public static Path checkpointFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * @param file - the imported file.
+     * @return the file the rejected records are appended to.
+     */
+    public static Path rejectsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".rejected.csv");
+    }
+
+    /**
+     * Imports the file, continuing from its checkpoint if there is one.
+     *
+     * @param file - the CSV file.
+     * @param settings - the pipeline settings.
+     * @param progress - receives the progress about once a second, on the calling thread.
+     * @param cancelled - checked about once a second; the import stops at the last checkpoint when it returns true.
+     * @return the figures of the import.
+     * @throws IOException if the file cannot be read or the checkpoint cannot be written.
+     * @throws CancellationException if the import was cancelled or the calling thread interrupted.
+     */
+    public ImportStats importFile(Path file, ImportSettings settings, Consumer<ImportStats> progress,
+                                  BooleanSupplier cancelled) throws IOException {
+        ImportCheckpoint start = ImportCheckpoint.load(checkpointFile(file));
+        if (start.offset() > 0) {
+            log.info("Resuming the import of {} at line {} ({} rows inserted, {} rejected so far)",
+                    file, start.lines() + 1, start.inserted(), start.rejected());
+        }
+        try (Run run = new Run(file, settings, start)) {
+            ImportStats stats = run.execute(progress, cancelled);
+            Files.deleteIfExists(checkpointFile(file));
+            log.info("Imported {}: {} rows inserted, {} rejected, {} rows/s", file, stats.getInserted(),
+                    stats.getRejected(), Math.round(stats.getRowsPerSecond()));
+            return stats;
+        }
+    }
+
+    /**
+     * One import of a file: the queues, workers and committed position.
+     */
+    private class Run implements AutoCloseable {
+
+        private final Path file;
+        private final ImportSettings settings;
+        private final long totalBytes;
+        private final long started = System.nanoTime();
+
+        private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sales-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final Throttle throttle;
+        private final Map<String, Long> customerIds = new ConcurrentHashMap<>();
+        private final AtomicLong insertedThisRun = new AtomicLong();
+
+        private final Counter insertedRows;
+        private final Counter rejectedRows;
+
+        // Committed position, guarded by this
+        private final BufferedWriter rejects;
+        private final Map<Long, ImportChunk> pending = new HashMap<>();
+        private long nextSequence;
+        private ImportCheckpoint checkpoint;
+
+        Run(Path file, ImportSettings settings, ImportCheckpoint start) throws IOException {
+            this.file = file;
+            this.settings = settings;
+            this.totalBytes = Files.size(file);
+            this.checkpoint = start;
+            this.throttle = new Throttle(settings.getMaxRowsPerSecond());
+            this.insertedRows = meterRegistry.counter("sales.import.rows", "result", "inserted");
+            this.rejectedRows = meterRegistry.counter("sales.import.rows", "result", "rejected");
+            boolean newRejectsFile = !Files.exists(rejectsFile(file));
+            this.rejects = Files.newBufferedWriter(rejectsFile(file), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (newRejectsFile) {
+                rejects.write("line,reason,record");
+                rejects.newLine();
+            }
+        }
+
+        ImportStats execute(Consumer<ImportStats> progress, BooleanSupplier cancelled) {
+            BlockingQueue<ImportChunk> read = queue();
+            BlockingQueue<ImportChunk> parsed = queue();
+            BlockingQueue<ImportChunk> validated = queue();
+            BlockingQueue<ImportChunk> resolved = queue();
+
+            workers.execute(() -> guard(() -> readChunks(read)));
+            stage("parse", settings.getWorkers(), false, read, parsed, chunk -> chunk.rejectIf(SalesCsvRows::parse));
+            stage("validate", settings.getWorkers(), true, parsed, validated, this::validate);
+            stage("resolve", settings.getResolveWorkers(), true, validated, resolved, this::resolveCustomers);
+            stage("insert", settings.getInsertWorkers(), true, resolved, null, this::insert);
+
+            try {
+                while (!finished.await(1, TimeUnit.SECONDS)) {
+                    progress.accept(stats());
+                    if (cancelled.getAsBoolean()) {
+                        fail(new CancellationException("Import of " + file + " cancelled"));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new CancellationException("Import of " + file + " interrupted"));
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof CancellationException cancellation) {
+                throw cancellation;
+            }
+            if (error instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (error instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (error != null) {
+                throw new IllegalStateException("Import of " + file + " failed", error);
+            }
+            ImportStats stats = stats();
+            progress.accept(stats);
+            return stats;
+        }
+
+        private void readChunks(BlockingQueue<ImportChunk> out) throws IOException, InterruptedException {
+            try (InputStream in = Files.newInputStream(file)) {
+                in.skipNBytes(checkpoint.offset());
+                CsvRecordReader reader = new CsvRecordReader(in, checkpoint.offset(), checkpoint.lines());
+                long sequence = 0;
+                List<ImportChunk.Row> rows = new ArrayList<>(settings.getChunkSize());
+                long line = reader.lines() + 1;
+                String record;
+                while ((record = reader.read()) != null) {
+                    boolean header = line == 1 && SalesCsvRows.isHeader(record);
+                    if (!header && !record.isBlank()) {
+                        rows.add(new ImportChunk.Row(line, record));
+                    }
+                    line = reader.lines() + 1;
+                    if (rows.size() == settings.getChunkSize()) {
+                        out.put(new ImportChunk(sequence++, reader.offset(), reader.lines(), rows));
+                        rows = new ArrayList<>(settings.getChunkSize());
+                    }
+                }
+                out.put(new ImportChunk(sequence, reader.offset(), reader.lines(), rows));
+                out.put(ImportChunk.END);
+            }
+        }
+
+        private void validate(ImportChunk chunk) {
+            chunk.rejectIf(row -> {
+                String reason = SalesCsvRows.validate(row.data);
+                return reason != null ? reason : claim(chunk, row.data.getOrderId());
+            });
+
+            List<String> possibleDuplicates = chunk.rows.stream()
+                    .map(row -> row.data.getOrderId())
+                    .filter(orderId -> orderIdFilter == null || orderIdFilter.mightExist(orderId))
+                    .collect(Collectors.toList());
+            Set<String> existing = new HashSet<>();
+            for (List<String> batch : batches(possibleDuplicates)) {
+                existing.addAll(salesDataJdbcRepository.findExistingOrderIds(batch));
+            }
+            if (orderIdFilter != null) {
+                orderIdFilter.recordFalsePositives(possibleDuplicates.size() - existing.size());
+            }
+            chunk.rejectIf(row -> existing.contains(row.data.getOrderId())
+                    ? "order id " + row.data.getOrderId() + " already exists" : null);
+        }
+
+        // Claims an order id for the chunk; checked before the stored order ids, see the class comment
+        private String claim(ImportChunk chunk, String orderId) {
+            Run owner = claimedOrderIds.putIfAbsent(orderId, this);
+            if (owner == null) {
+                chunk.claimedOrderIds.add(orderId);
+                return null;
+            }
+            return owner == this ? "duplicate order id " + orderId + " in file"
+                    : "order id " + orderId + " is being imported from " + owner.file.getFileName();
+        }
+
+        private void resolveCustomers(ImportChunk chunk) {
+            List<String> unknown = chunk.rows.stream()
+                    .map(row -> row.customerEmail)
+                    .filter(email -> email != null && !customerIds.containsKey(email))
+                    .distinct()
+                    .collect(Collectors.toList());
+            for (List<String> batch : batches(unknown)) {
+                findCustomers(batch);
+            }
+            if (settings.isCreateMissingCustomers()) {
+                createCustomers(unknown.stream().filter(email -> !customerIds.containsKey(email)).toList());
+            }
+            chunk.rejectIf(row -> {
+                if (row.customerEmail == null) {
+                    return null;
+                }
+                Long customerId = customerIds.get(row.customerEmail);
+                if (customerId == null) {
+                    return "unknown customer " + row.customerEmail;
+                }
+                row.data.setCustomer(new Customer(customerId, null, row.customerEmail));
+                return null;
+            });
+        }
+
+        private void findCustomers(List<String> emails) {
+            jdbcTemplate.query(FIND_CUSTOMERS, Map.of("emails", emails),
+                    rs -> { customerIds.put(rs.getString("EMAIL"), rs.getLong("CUSTOMER_ID")); });
+        }
+
+        // Serialized, so two workers never create the same customer
+        private synchronized void createCustomers(List<String> emails) {
+            for (String email : emails) {
+                if (customerIds.containsKey(email)) {
+                    continue;
+                }
+                try {
+                    jdbcTemplate.update(INSERT_CUSTOMER, Map.of("name", email.split("@")[0], "email", email));
+                } catch (DuplicateKeyException e) {
+                    // Created by someone else since it was looked up
+                }
+                findCustomers(List.of(email));
+            }
+        }
+
+        private void insert(ImportChunk chunk) {
+            Map<ImportChunk.Row, String> failures = new HashMap<>();
+            for (List<ImportChunk.Row> batch : batches(chunk.rows)) {
+                throttle.acquire(batch.size());
+                List<EcomSalesData> data = batch.stream().map(row -> row.data).collect(Collectors.toList());
+                if (orderIdFilter != null) {
+                    data.forEach(row -> orderIdFilter.add(row.getOrderId()));
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> salesDataJdbcRepository.batchInsert(data));
+                    inserted(chunk, batch.size());
+                } catch (DataAccessException e) {
+                    // The batch was rolled back; insert its rows one by one to find the failing ones
+                    for (ImportChunk.Row row : batch) {
+                        try {
+                            salesDataJdbcRepository.batchInsert(List.of(row.data));
+                            inserted(chunk, 1);
+                        } catch (DataAccessException rowError) {
+                            failures.put(row, "insert failed: " + message(rowError));
+                        }
+                    }
+                }
+            }
+            chunk.rejectIf(failures::get);
+            chunk.rows.clear();
+            // The inserted rows are found by the stored order id lookup from now on
+            chunk.claimedOrderIds.forEach(orderId -> claimedOrderIds.remove(orderId, this));
+            chunk.claimedOrderIds.clear();
+            commit(chunk);
+        }
+
+        private void inserted(ImportChunk chunk, int rows) {
+            chunk.inserted += rows;
+            insertedThisRun.addAndGet(rows);
+            insertedRows.increment(rows);
+        }
+
+        // Records the chunk as done and moves the checkpoint over every chunk done in order
+        private synchronized void commit(ImportChunk chunk) {
+            pending.put(chunk.sequence, chunk);
+            ImportChunk next;
+            boolean advanced = false;
+            try {
+                while ((next = pending.remove(nextSequence)) != null) {
+                    next.rejections.sort(Comparator.comparingLong(ImportChunk.Rejection::line));
+                    for (ImportChunk.Rejection rejection : next.rejections) {
+                        rejects.write(rejection.line() + "," + quote(rejection.reason()) + "," + quote(rejection.text()));
+                        rejects.newLine();
+                    }
+                    rejectedRows.increment(next.rejections.size());
+                    checkpoint = new ImportCheckpoint(next.endOffset, next.endLines,
+                            checkpoint.inserted() + next.inserted, checkpoint.rejected() + next.rejections.size());
+                    nextSequence++;
+                    advanced = true;
+                }
+                if (advanced) {
+                    rejects.flush();
+                    checkpoint.save(checkpointFile(file));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private synchronized ImportStats stats() {
+            return new ImportStats(checkpoint.lines(), checkpoint.inserted(), checkpoint.rejected(), checkpoint.offset(),
+                    totalBytes, (System.nanoTime() - started) / 1_000_000, insertedThisRun.get());
+        }
+
+        /**
+         * Starts the workers of a stage. The worker that takes the end marker puts it back for its
+         * siblings; the last one to stop passes it on to the next stage. Workers of a stage that uses
+         * the database take one of the importer's connections for every chunk.
+         */
+        private void stage(String name, int workerCount, boolean usesDatabase, BlockingQueue<ImportChunk> in,
+                           BlockingQueue<ImportChunk> out, Consumer<ImportChunk> work) {
+            AtomicInteger running = new AtomicInteger(workerCount);
+            Timer timer = meterRegistry.timer("sales.import.stage", "stage", name);
+            for (int i = 0; i < workerCount; i++) {
+                workers.execute(() -> guard(() -> {
+                    while (true) {
+                        ImportChunk chunk = in.take();
+                        if (chunk == ImportChunk.END) {
+                            in.put(ImportChunk.END);
+                            if (running.decrementAndGet() == 0) {
+                                if (out != null) {
+                                    out.put(ImportChunk.END);
+                                } else {
+                                    finished.countDown();
+                                }
+                            }
+                            return;
+                        }
+                        if (usesDatabase) {
+                            connections.acquire();
+                        }
+                        try {
+                            timer.record(() -> work.accept(chunk));
+                        } finally {
+                            if (usesDatabase) {
+                                connections.release();
+                            }
+                        }
+                        if (out != null) {
+                            out.put(chunk);
+                        }
+                    }
+                }));
+            }
+        }
+
+        private void guard(Task task) {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                // Stopped because another worker failed
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable error) {
+            if (failure.compareAndSet(null, error)) {
+                workers.shutdownNow();
+                finished.countDown();
+            }
+        }
+
+        private <T> List<List<T>> batches(List<T> items) {
+            List<List<T>> batches = new ArrayList<>();
+            for (int from = 0; from < items.size(); from += settings.getBatchSize()) {
+                batches.add(items.subList(from, Math.min(items.size(), from + settings.getBatchSize())));
+            }
+            return batches;
+        }
+
+        private BlockingQueue<ImportChunk> queue() {
+            return new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        }
+
+        @Override
+        public void close() throws IOException {
+            workers.shutdownNow();
+            try {
+                workers.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Claims of the chunks a failed or cancelled run left in the pipeline
+            claimedOrderIds.values().removeIf(owner -> owner == this);
+            synchronized (this) {
+                rejects.close();
+            }
+        }
+    }
+
+    private static String message(DataAccessException e) {
+        return Objects.toString(NestedExceptionUtils.getMostSpecificCause(e).getMessage(), e.getClass().getSimpleName());
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * Spaces out inserts so they stay below a number of rows per second.
+     */
+    private static final class Throttle {
+
+        private final long nanosPerRow;
+        private long next = System.nanoTime();
+
+        Throttle(long rowsPerSecond) {
+            this.nanosPerRow = rowsPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / rowsPerSecond;
+        }
+
+        void acquire(int rows) {
+            if (nanosPerRow == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(now, next);
+                next = start + rows * nanosPerRow;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Import interrupted");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * Parses and validates records in the AmazonSalesReport.csv layout:
+ * index, Order ID, Date (MM/dd/yy), Status, Fulfilment, Sales Channel, Category, Size, Amount,
+ * ship-city, ship-state and, as written by the data generator, an optional customer email.
+ * The index column is ignored; imported rows get new record indexes.
+ */
+final class SalesCsvRows {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final int COLUMNS = 11;
+    private static final int EMAIL_COLUMN = 11;
+
+    private SalesCsvRows() {
+    }
+
+    /**
+     * @param record - the first record of a file.
+     * @return whether the record is the header line.
+     */
+    static boolean isHeader(String record) {
+        return record.startsWith("index,") || record.contains("Order ID");
+    }
+
+    /**
+     * Splits a record into its values; values may be quoted, with "" for a quote inside.
+     *
+     * @param record - the record.
+     * @return the values.
+     */
+    static List<String> split(String record) {
+        List<String> values = new ArrayList<>(COLUMNS + 1);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Parses a record into a row.
+     *
+     * @param row - the row; its data and customer email are set.
+     * @return null if the record was parsed, the reason otherwise.
+     */
+    static String parse(ImportChunk.Row row) {
+        List<String> values = split(row.text);
+        if (values.size() < COLUMNS) {
+            return "expected at least " + COLUMNS + " columns, found " + values.size();
+        }
+        Date date;
+        try {
+            LocalDate localDate = LocalDate.parse(values.get(2).trim(), DATE_FORMAT);
+            date = Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            return "invalid date '" + values.get(2) + "'";
+        }
+        Double amount;
+        try {
+            amount = values.get(8).isBlank() ? null : Double.valueOf(values.get(8).trim());
+        } catch (NumberFormatException e) {
+            return "invalid amount '" + values.get(8) + "'";
+        }
+        row.data = new EcomSalesData(
+                values.get(1).trim(),
+                date,
+                emptyToNull(values.get(3)),
+                emptyToNull(values.get(4)),
+                emptyToNull(values.get(5)),
+                emptyToNull(values.get(6)),
+                emptyToNull(values.get(7)),
+                amount,
+                emptyToNull(values.get(9)),
+                emptyToNull(values.get(10)));
+        row.customerEmail = values.size() > EMAIL_COLUMN ? emptyToNull(values.get(EMAIL_COLUMN)) : null;
+        return null;
+    }
+
+    /**
+     * Checks a parsed row against the constraints of ECOM_SALES_DATA.
+     *
+     * @param data - the parsed row.
+     * @return null if the row is valid, the reason otherwise.
+     */
+    static String validate(EcomSalesData data) {
+        if (data.getOrderId().isEmpty()) {
+            return "missing order id";
+        }
+        if (data.getAmount() != null && (data.getAmount() < 0 || !Double.isFinite(data.getAmount()))) {
+            return "invalid amount " + data.getAmount();
+        }
+        // Column sizes of schema.sql
+        return Stream.of(
+                        tooLong("order id", data.getOrderId(), 50),
+                        tooLong("status", data.getStatus(), 20),
+                        tooLong("fulfilment", data.getFulfilment(), 50),
+                        tooLong("channel", data.getChannel(), 50),
+                        tooLong("category", data.getCategory(), 50),
+                        tooLong("size", data.getSize(), 10),
+                        tooLong("city", data.getShipCity(), 50),
+                        tooLong("state", data.getShipState(), 50))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String tooLong(String column, String value, int maxLength) {
+        return value != null && value.length() > maxLength ? column + " longer than " + maxLength + " characters" : null;
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,267 @@
+package com.acs560.dataanalyzer.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.services.CustomerService;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingests sales files dropped into a directory while the application runs: new files are read
+ * from the start and lines appended to known files are read as they arrive. Rows go through
+ * {@link EcomSalesDataService#addSalesDataBatch}, so duplicate order ids and unknown customers
+ * are skipped as for any bulk insert. Files use the AmazonSalesReport.csv layout with the
+ * customer email as last column, as written by the data generator.
+ * <p>
+ * The byte offset read up to is kept per file name in {@code .sales-ingest-offsets.properties}
+ * in the directory and saved after every batch, so a restart continues where the last batch ended;
+ * rows of a batch inserted just before a crash are read again and skipped as duplicates.
+ * A line is only read once its line separator has been written. A file that shrinks below its
+ * offset was replaced and is read again from the start.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sales.ingest.watch.enabled", havingValue = "true")
+public class SalesFileWatcher {
+
+    private static final String OFFSETS_FILE = ".sales-ingest-offsets.properties";
+
+    private final EcomSalesDataService salesDataService;
+    private final CustomerService customerService;
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Counter insertedRows;
+    private final Counter skippedRows;
+    private final Counter rejectedRows;
+
+    // Confined to the watcher thread
+    private final Properties offsets = new Properties();
+    private final Map<String, Optional<Long>> customerIds = new HashMap<>();
+
+    private WatchService watchService;
+
+    /**
+     * Constructor
+     *
+     * @param salesDataService - inserts the rows.
+     * @param customerService - finds the customers by email.
+     * @param meterRegistry - the registry of the ingestion metrics.
+     * @param directory - the watched directory.
+     * @param pattern - the glob the names of ingested files match.
+     * @param batchSize - the number of rows per batch insert.
+     * @param pollInterval - how often the directory is scanned when no change is reported.
+     */
+    public SalesFileWatcher(EcomSalesDataService salesDataService,
+                            CustomerService customerService,
+                            MeterRegistry meterRegistry,
+                            @Value("${sales.ingest.watch.directory}") String directory,
+                            @Value("${sales.ingest.watch.pattern:*.csv}") String pattern,
+                            @Value("${sales.ingest.watch.batch-size:1000}") int batchSize,
+                            @Value("${sales.ingest.watch.poll-interval:PT5S}") Duration pollInterval) {
+        this.salesDataService = salesDataService;
+        this.customerService = customerService;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.insertedRows = meterRegistry.counter("sales.ingest.watch.rows", "result", "inserted");
+        this.skippedRows = meterRegistry.counter("sales.ingest.watch.rows", "result", "skipped");
+        this.rejectedRows = meterRegistry.counter("sales.ingest.watch.rows", "result", "rejected");
+    }
+
+    /**
+     * Starts watching once the application is ready, after the order id filter has been loaded.
+     *
+     * @throws IOException if the directory or its offsets cannot be read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        Path offsetsFile = directory.resolve(OFFSETS_FILE);
+        if (Files.exists(offsetsFile)) {
+            try (Reader reader = Files.newBufferedReader(offsetsFile, StandardCharsets.UTF_8)) {
+                offsets.load(reader);
+            }
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this::watch, "sales-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for sales files matching {}", directory, matcher);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                scan();
+                // Any event triggers a scan of the whole directory; the poll interval covers file
+                // systems that do not report changes (e.g. network shares)
+                WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.info("Stopped watching {}", directory);
+        }
+    }
+
+    /**
+     * Reads what is new in every matching file of the directory, in name order.
+     */
+    void scan() {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(this::isSalesFile).sorted().toList();
+        } catch (IOException e) {
+            log.warn("Cannot list {}: {}", directory, e.getMessage());
+            return;
+        }
+        customerIds.clear();
+        for (Path file : files) {
+            try {
+                ingest(file);
+            } catch (IOException | RuntimeException e) {
+                // Retried from the saved offset on the next scan
+                log.warn("Ingesting {} failed, retrying on the next scan", file, e);
+            }
+        }
+    }
+
+    private boolean isSalesFile(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && matcher.matches(file.getFileName())
+                && !name.startsWith(".") && !name.endsWith(".rejected.csv");
+    }
+
+    private void ingest(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long offset = Long.parseLong(offsets.getProperty(name, "0"));
+        long size = Files.size(file);
+        if (size < offset) {
+            log.warn("{} is shorter than the {} bytes already read, reading it again from the start", file, offset);
+            offset = 0;
+        }
+        if (size == offset) {
+            return;
+        }
+
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            channel.position(offset);
+            CsvRecordReader reader = new CsvRecordReader(Channels.newInputStream(channel), offset, 0);
+            List<EcomSalesData> batch = new ArrayList<>(batchSize);
+            long committed = offset;
+            long start = offset;
+            String record;
+            while ((record = reader.read()) != null && reader.terminated()) {
+                boolean header = start == 0 && SalesCsvRows.isHeader(record);
+                if (!header && !record.isBlank()) {
+                    EcomSalesData data = toSalesData(file, start, record);
+                    if (data != null) {
+                        batch.add(data);
+                    }
+                }
+                start = reader.offset();
+                if (batch.size() == batchSize) {
+                    insert(batch);
+                    committed = saveOffset(name, start);
+                }
+            }
+            insert(batch);
+            if (start != committed) {
+                saveOffset(name, start);
+            }
+        }
+    }
+
+    private EcomSalesData toSalesData(Path file, long offset, String record) {
+        ImportChunk.Row row = new ImportChunk.Row(0, record);
+        String reason = SalesCsvRows.parse(row);
+        if (reason == null) {
+            reason = SalesCsvRows.validate(row.data);
+        }
+        if (reason == null) {
+            Long customerId = row.customerEmail == null ? null : customerIds.computeIfAbsent(row.customerEmail,
+                    email -> customerService.getCustomerByEmail(email).map(Customer::getCustomerId)).orElse(null);
+            if (customerId == null) {
+                reason = row.customerEmail == null ? "no customer email" : "unknown customer " + row.customerEmail;
+            } else {
+                row.data.setCustomer(new Customer(customerId, null, row.customerEmail));
+            }
+        }
+        if (reason != null) {
+            rejectedRows.increment();
+            log.warn("Skipping the line at byte {} of {}: {}", offset, file.getFileName(), reason);
+            return null;
+        }
+        return row.data;
+    }
+
+    private void insert(List<EcomSalesData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int inserted = salesDataService.addSalesDataBatch(batch);
+        insertedRows.increment(inserted);
+        skippedRows.increment(batch.size() - inserted);
+        batch.clear();
+    }
+
+    private long saveOffset(String name, long offset) throws IOException {
+        offsets.setProperty(name, Long.toString(offset));
+        Path offsetsFile = directory.resolve(OFFSETS_FILE);
+        Path temporary = directory.resolve(OFFSETS_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            offsets.store(writer, "Bytes read per sales file");
+        }
+        Files.move(temporary, offsetsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return offset;
+    }
+}
@@ -0,0 +1,178 @@
+package com.acs560.dataanalyzer.jobs;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+
+/**
+ * A background job and its state. State changes are made by the job service only;
+ * all fields are safe to read from any thread.
+ */
+@Getter
+public class Job {
+
+    private final String id;
+    private final String name;
+    private final String owner;
+    private final String resultName;
+    private final Instant createdAt = Instant.now();
+
+    private volatile double progress;
+    private volatile String message;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    @JsonIgnore
+    private volatile Path result;
+    private volatile boolean cancelRequested;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicReference<JobStatus> status = new AtomicReference<>(JobStatus.QUEUED);
+
+    @Getter(lombok.AccessLevel.NONE)
+    private volatile Future<?> future;
+
+    /**
+     * Constructor
+     *
+     * @param id - the unique id of the job.
+     * @param name - the display name of the job.
+     * @param owner - the user who submitted the job.
+     * @param resultName - the file name the result is downloaded as.
+     */
+    public Job(String id, String name, String owner, String resultName) {
+        this.id = id;
+        this.name = name;
+        this.owner = owner;
+        this.resultName = resultName;
+    }
+
+    /**
+     * Get the current state of the job.
+     *
+     * @return the job status.
+     */
+    public JobStatus getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Check whether the result of the job can be downloaded.
+     *
+     * @return true if the job succeeded and its result is still retained.
+     */
+    public boolean isResultAvailable() {
+        return getStatus() == JobStatus.SUCCEEDED && result != null;
+    }
+
+    // State transitions below are driven by the job service
+
+    /**
+     * Attach the future of the submitted task.
+     *
+     * @param future - the future of the task on the job executor.
+     */
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Get the future of the submitted task.
+     *
+     * @return the future, or null if the job was not submitted yet.
+     */
+    public Future<?> future() {
+        return future;
+    }
+
+    /**
+     * Set the completed fraction of the job.
+     *
+     * @param progress - the completed fraction, clamped to [0, 1].
+     */
+    public void setProgress(double progress) {
+        this.progress = Math.max(0, Math.min(1, progress));
+    }
+
+    /**
+     * Set the status message of the job.
+     *
+     * @param message - the message.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Flag a running job for cancellation.
+     */
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    /**
+     * Move the job from QUEUED to RUNNING.
+     *
+     * @return true if the job was still queued.
+     */
+    public boolean start() {
+        if (status.compareAndSet(JobStatus.QUEUED, JobStatus.RUNNING)) {
+            startedAt = Instant.now();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancel the job if it has not started yet.
+     *
+     * @return true if the job was still queued.
+     */
+    public boolean cancelQueued() {
+        cancelRequested = true;
+        return finish(JobStatus.QUEUED, JobStatus.CANCELLED);
+    }
+
+    /**
+     * Move a running job to SUCCEEDED.
+     *
+     * @param result - the result file.
+     * @return true if the job was still running.
+     */
+    public boolean succeed(Path result) {
+        this.result = result;
+        this.progress = 1;
+        return finish(JobStatus.RUNNING, JobStatus.SUCCEEDED);
+    }
+
+    /**
+     * Move a running job to FAILED or CANCELLED.
+     *
+     * @param finalStatus - the final status.
+     * @param message - the reason.
+     * @return true if the job was still running.
+     */
+    public boolean fail(JobStatus finalStatus, String message) {
+        this.message = message;
+        return finish(JobStatus.RUNNING, finalStatus);
+    }
+
+    /**
+     * Forget the result file, once it has been deleted.
+     */
+    public void discardResult() {
+        this.result = null;
+    }
+
+    private boolean finish(JobStatus expected, JobStatus finalStatus) {
+        if (status.compareAndSet(expected, finalStatus)) {
+            finishedAt = Instant.now();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.acs560.dataanalyzer.jobs;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * The handle a running job task uses to report progress and to observe cancellation.
+ */
+public interface JobContext {
+
+    /**
+     * Report the progress of the job.
+     *
+     * @param fraction - the completed fraction, between 0 and 1.
+     */
+    void setProgress(double fraction);
+
+    /**
+     * Report a short status message, e.g. the number of processed rows.
+     *
+     * @param message - the message to show next to the job.
+     */
+    void setMessage(String message);
+
+    /**
+     * Check whether the job was cancelled.
+     *
+     * @return true if the job should stop as soon as possible.
+     */
+    boolean isCancelled();
+
+    /**
+     * Abort the task if the job was cancelled.
+     *
+     * @throws CancellationException if the job was cancelled.
+     */
+    default void checkCancelled() {
+        if (isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Job cancelled");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.acs560.dataanalyzer.jobs;
+
+/**
+ * Notified whenever a background job changes state or reports progress.
+ */
+@FunctionalInterface
+public interface JobListener {
+
+    /**
+     * Called after the job has changed.
+     *
+     * @param job - the job that changed.
+     */
+    void jobChanged(Job job);
+}
@@ -0,0 +1,17 @@
+package com.acs560.dataanalyzer.jobs;
+
+/**
+ * The lifecycle states of a background job.
+ */
+public enum JobStatus {
+    QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+    /**
+     * Check whether the job has reached a final state.
+     *
+     * @return true if the job will not change state anymore.
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,20 @@
+package com.acs560.dataanalyzer.jobs;
+
+import java.io.OutputStream;
+
+/**
+ * The work of a background job. The task writes its result to the given stream;
+ * the result is kept for download once the job has finished.
+ */
+@FunctionalInterface
+public interface JobTask {
+
+    /**
+     * Run the task.
+     *
+     * @param context - the handle to report progress and observe cancellation.
+     * @param result - the stream to write the job result to.
+     * @throws Exception if the task fails.
+     */
+    void run(JobContext context, OutputStream result) throws Exception;
+}
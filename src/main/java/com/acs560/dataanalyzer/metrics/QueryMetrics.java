@@ -0,0 +1,30 @@
+package com.acs560.dataanalyzer.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.concurrent.QueryGuard;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the number of cancelled and timed-out queries counted by the {@link QueryGuard}.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryMetrics implements MeterBinder {
+
+    private final QueryGuard queryGuard;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sales.query.cancelled", queryGuard, QueryGuard::getCancelledCount)
+                .description("Queries cancelled before they finished, e.g. superseded grid queries")
+                .register(registry);
+        FunctionCounter.builder("sales.query.timeouts", queryGuard, QueryGuard::getTimedOutCount)
+                .description("Queries that exceeded the statement timeout")
+                .register(registry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.acs560.dataanalyzer.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Times every public method of the service implementations and the JDBC repository.
+ * Timers are tagged with the service, the operation, the kind of filter applied and the outcome.
+ * Asynchronous variants are timed until their future completes.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private static final String SERVICE_TIMER = "sales.service.calls";
+    private static final String REPOSITORY_TIMER = "sales.repository.calls";
+
+    private static final Pattern FILTER_BY = Pattern.compile("By([A-Z]\\w*?)(?:Async)?$");
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.acs560.dataanalyzer.services.impl.*.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    @Around("execution(public * com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        String component = joinPoint.getTarget().getClass().getSimpleName().replace("Impl", "");
+        String operation = joinPoint.getSignature().getName();
+        String filter = filterType(operation, joinPoint.getArgs());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, name, component, operation, filter, outcome(e));
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) -> stop(sample, name, component, operation, filter, outcome(error)));
+        } else {
+            stop(sample, name, component, operation, filter, "success");
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String name, String component, String operation, String filter, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tag("component", component)
+                .tag("operation", operation)
+                .tag("filter", filter)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    // The kind of filter of a call: the criteria of a SalesDataFilter argument, or the criterion of a getXxxByYyy method
+    private static String filterType(String operation, Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof SalesDataFilter filter) {
+                return filter.criteriaNames();
+            }
+        }
+        Matcher matcher = FILTER_BY.matcher(operation);
+        if (matcher.find()) {
+            return matcher.group(1).toLowerCase(Locale.ROOT);
+        }
+        return "none";
+    }
+
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return "cancelled";
+        }
+        if (cause instanceof QueryTimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,37 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order amount quantile of a group, e.g. the median (0.5) or p99 (0.99): the smallest amount
+ * at least that fraction of the group's orders do not exceed. An approximate amount is the
+ * exact quantile of a rank at most {@code rankError * orders} away.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmountQuantile {
+
+    private String label;
+
+    private double quantile;
+
+    private double amount;
+
+    /**
+     * The number of orders with an amount in the group.
+     */
+    private long orders;
+
+    /**
+     * The maximum rank error relative to the number of orders (99% confidence), 0 if exact, null if stale.
+     */
+    private Double rankError;
+
+    /**
+     * Whether the summary missed changes since it was built; a stale answer has no error bound.
+     */
+    private boolean stale;
+}
@@ -0,0 +1,18 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a bulk insert: how many entries were received and how many were stored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInsertResult {
+
+    private long received;
+
+    private long inserted;
+}
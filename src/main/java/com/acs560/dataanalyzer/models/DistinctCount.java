@@ -0,0 +1,30 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The number of distinct customers of a group. Approximate counts are within
+ * {@code count * relativeError} of the true count about two times in three, and within
+ * three times that almost always; exact counts have no error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctCount {
+
+    private String label;
+
+    private long count;
+
+    /**
+     * The standard error relative to the count, 0 if exact, null if stale.
+     */
+    private Double relativeError;
+
+    /**
+     * Whether the summary missed changes since it was built; a stale answer has no error bound.
+     */
+    private boolean stale;
+}
@@ -0,0 +1,34 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Throughput figures of a finished export.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportStats {
+
+    private long rows;
+
+    private long bytes;
+
+    private long elapsedMillis;
+
+    /**
+     * The highest used heap observed while the export was running, in bytes.
+     */
+    private long peakHeapBytes;
+
+    /**
+     * Get the export throughput.
+     *
+     * @return the number of rows written per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+}
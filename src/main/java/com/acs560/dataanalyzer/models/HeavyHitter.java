@@ -0,0 +1,29 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An approximate top-K entry kept up to date as orders arrive. The true value
+ * lies between {@code estimate - error} and {@code estimate}, unless the entry is stale.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeavyHitter {
+
+    private String label;
+
+    private double estimate;
+
+    /**
+     * The maximum overestimation, null if stale.
+     */
+    private Double error;
+
+    /**
+     * Whether the summary missed changes since it was built; a stale answer has no error bound.
+     */
+    private boolean stale;
+}
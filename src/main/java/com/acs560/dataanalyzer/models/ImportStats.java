@@ -0,0 +1,58 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress and throughput figures of a CSV import, counted over all runs of a resumed import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStats {
+
+    /**
+     * The number of data lines read from the file.
+     */
+    private long linesRead;
+
+    private long inserted;
+
+    private long rejected;
+
+    /**
+     * The position in the file up to which all lines were processed, in bytes.
+     */
+    private long bytesRead;
+
+    private long totalBytes;
+
+    /**
+     * The time spent by the current run.
+     */
+    private long elapsedMillis;
+
+    /**
+     * The number of rows inserted by the current run.
+     */
+    private long insertedThisRun;
+
+    /**
+     * Get the completed fraction of the file.
+     *
+     * @return the share of the file's bytes that were processed, between 0 and 1.
+     */
+    public double getProgress() {
+        return totalBytes == 0 ? 1 : Math.min(1, (double) bytesRead / totalBytes);
+    }
+
+    /**
+     * Get the insert throughput of the current run.
+     *
+     * @return the number of rows inserted per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? insertedThisRun : insertedThisRun * 1000.0 / elapsedMillis;
+    }
+}
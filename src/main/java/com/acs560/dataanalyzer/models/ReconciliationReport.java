@@ -0,0 +1,107 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The differences between the CSV store and ECOM_SALES_DATA, matched by order id,
+ * and the changes that make the other side equal to the source side.
+ */
+@Data
+@NoArgsConstructor
+public class ReconciliationReport {
+
+    /**
+     * The side taken as correct when planning the repair.
+     */
+    public enum Source {
+        CSV, DATABASE
+    }
+
+    /**
+     * How a row differs.
+     */
+    public enum DifferenceType {
+        MISSING_IN_DATABASE, MISSING_IN_CSV, CHANGED
+    }
+
+    private Source source;
+
+    private long csvRows;
+
+    private long databaseRows;
+
+    private long missingInDatabase;
+
+    private long missingInCsv;
+
+    private long changed;
+
+    /**
+     * The number of buckets whose digests were compared, and how many of them differed.
+     */
+    private long bucketsCompared;
+
+    private long bucketsDiffering;
+
+    /**
+     * The number of database rows read to find the differences.
+     */
+    private long rowsRead;
+
+    private long elapsedMillis;
+
+    /**
+     * The differences in order id order, at most the configured maximum.
+     */
+    private List<Difference> differences = new ArrayList<>();
+
+    /**
+     * The repair, one action per listed difference.
+     */
+    private List<RepairAction> repairPlan = new ArrayList<>();
+
+    /**
+     * @return whether both sides hold the same rows.
+     */
+    public boolean isConsistent() {
+        return missingInDatabase == 0 && missingInCsv == 0 && changed == 0;
+    }
+
+    /**
+     * One row that differs between the sides.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Difference {
+
+        private DifferenceType type;
+
+        private String orderId;
+
+        /**
+         * The columns that differ, for changed rows.
+         */
+        private List<String> columns;
+
+        private EcomSalesData csv;
+
+        private EcomSalesData database;
+    }
+
+    /**
+     * One change of the repair.
+     *
+     * @param operation - INSERT, UPDATE or DELETE.
+     * @param target - the side to change.
+     * @param orderId - the order id of the row.
+     * @param columns - the columns to update, empty otherwise.
+     */
+    public record RepairAction(String operation, Source target, String orderId, List<String> columns) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.acs560.dataanalyzer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A server-side aggregate of sales data grouped by a single dimension
+ * (category, state, status, ...).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesAggregate {
+
+    private String label;
+
+    private Double revenue;
+
+    private Long orders;
+}
@@ -0,0 +1,117 @@
+package com.acs560.dataanalyzer.models;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.StringJoiner;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The criteria to filter sales data by. Every criterion is optional;
+ * a null value means the criterion is not applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDataFilter {
+
+    private String orderId;
+
+    private String status;
+
+    private String fulfilment;
+
+    private String channel;
+
+    private String category;
+
+    private Double minAmount;
+
+    private Double maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date endDate;
+
+    private String city;
+
+    private String state;
+
+    private Long customerId;
+
+    /**
+     * Creates an empty filter that matches all sales data.
+     *
+     * @return a filter without any criteria.
+     */
+    public static SalesDataFilter none() {
+        return new SalesDataFilter();
+    }
+
+    /**
+     * Describes which criteria are set, e.g. "status+city"; used to tag metrics.
+     *
+     * @return the names of the set criteria joined by '+', or "none".
+     */
+    public String criteriaNames() {
+        StringJoiner names = new StringJoiner("+");
+        append(names, "orderId", orderId);
+        append(names, "status", status);
+        append(names, "fulfilment", fulfilment);
+        append(names, "channel", channel);
+        append(names, "category", category);
+        append(names, "amount", minAmount != null ? minAmount : maxAmount);
+        append(names, "date", startDate != null ? startDate : endDate);
+        append(names, "city", city);
+        append(names, "state", state);
+        append(names, "customerId", customerId);
+        return names.length() == 0 ? "none" : names.toString();
+    }
+
+    /**
+     * Checks a row against the criteria in memory, as the WHERE clause built by SalesDataSql does in the
+     * database. Strings are compared ignoring case like the default MySQL collation, dates by day.
+     *
+     * @param data - the row.
+     * @return whether the row matches every criterion that is set.
+     */
+    public boolean matches(EcomSalesData data) {
+        Long rowCustomerId = data.getCustomer() == null ? null : data.getCustomer().getCustomerId();
+        return matches(orderId, data.getOrderId())
+                && matches(status, data.getStatus())
+                && matches(fulfilment, data.getFulfilment())
+                && matches(channel, data.getChannel())
+                && matches(category, data.getCategory())
+                && matches(state, data.getShipState())
+                && matches(city, data.getShipCity())
+                && (customerId == null || customerId.equals(rowCustomerId))
+                && (startDate == null || data.getDate() != null && !day(data.getDate()).isBefore(day(startDate)))
+                && (endDate == null || data.getDate() != null && !day(data.getDate()).isAfter(day(endDate)))
+                && (minAmount == null || data.getAmount() != null && data.getAmount() >= minAmount)
+                && (maxAmount == null || data.getAmount() != null && data.getAmount() <= maxAmount);
+    }
+
+    private static boolean matches(String criterion, String value) {
+        return criterion == null || criterion.isEmpty() || criterion.equalsIgnoreCase(value);
+    }
+
+    private static LocalDate day(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static void append(StringJoiner names, String name, Object value) {
+        if (value != null) {
+            names.add(name);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.acs560.dataanalyzer.models;
+
+/**
+ * Read-only projection of a sales data entry with the columns of the sales grid.
+ * Rows are read with a plain JDBC query instead of loading managed {@link EcomSalesData}
+ * entities, so listing and filtering carry no persistence context, dirty-checking snapshot
+ * or customer entity per row; the entity is loaded only when a row is opened for editing.
+ *
+ * @param recordIndex - the record index, to load the entity for editing.
+ * @param orderId - the order id.
+ * @param amount - the order amount.
+ * @param shipCity - the shipping city.
+ * @param status - the order status.
+ * @param channel - the sales channel.
+ * @param customerId - the id of the customer, or null.
+ * @param customerName - the name of the customer, or null.
+ */
+public record SalesDataRow(Integer recordIndex, String orderId, Double amount, String shipCity,
+                           String status, String channel, Long customerId, String customerName) {
+}
@@ -0,0 +1,78 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The order of exported sales data, parsed from a sort parameter such as "amount,desc".
+ * Rows with the same value keep the order of their record index.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesDataSort {
+
+    /**
+     * A column sales data can be sorted by.
+     */
+    public enum Field {
+
+        INDEX(EcomSalesData::getRecordIndex),
+        ORDER_ID(EcomSalesData::getOrderId),
+        DATE(EcomSalesData::getDate),
+        STATUS(EcomSalesData::getStatus),
+        CATEGORY(EcomSalesData::getCategory),
+        AMOUNT(EcomSalesData::getAmount),
+        CITY(EcomSalesData::getShipCity),
+        STATE(EcomSalesData::getShipState);
+
+        private final Comparator<EcomSalesData> ascending;
+
+        private final Comparator<EcomSalesData> descending;
+
+        <T extends Comparable<? super T>> Field(Function<EcomSalesData, T> key) {
+            // Rows without a value come last in either direction
+            this.ascending = Comparator.comparing(key, Comparator.nullsLast(Comparator.<T>naturalOrder()));
+            this.descending = Comparator.comparing(key, Comparator.nullsLast(Comparator.<T>reverseOrder()));
+        }
+    }
+
+    private final Field field;
+
+    private final boolean descending;
+
+    /**
+     * Parse a sort parameter.
+     *
+     * @param sort - the field name, optionally followed by ",asc" or ",desc", e.g. "amount,desc".
+     * @return the sort, or null for a blank parameter.
+     * @throws IllegalArgumentException if the field or the direction is unknown.
+     */
+    public static SalesDataSort of(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        String[] parts = sort.split(",");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("sort must be a field optionally followed by ',asc' or ',desc'");
+        }
+        Field field = Field.valueOf(parts[0].trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        String direction = parts.length == 2 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new IllegalArgumentException("sort direction must be 'asc' or 'desc'");
+        }
+        return new SalesDataSort(field, direction.equals("desc"));
+    }
+
+    /**
+     * Get the comparator of this sort.
+     *
+     * @return the comparator, ties broken by record index.
+     */
+    public Comparator<EcomSalesData> comparator() {
+        return (descending ? field.descending : field.ascending).thenComparing(Field.INDEX.ascending);
+    }
+}
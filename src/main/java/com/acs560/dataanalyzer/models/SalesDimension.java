@@ -0,0 +1,52 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.function.Function;
+
+import lombok.Getter;
+
+/**
+ * A column sales data can be grouped by in top-K queries.
+ */
+@Getter
+public enum SalesDimension {
+
+    CITY("SHIP_CITY", EcomSalesData::getShipCity),
+    STATE("SHIP_STATE", EcomSalesData::getShipState),
+    CATEGORY("CATEGORY", EcomSalesData::getCategory),
+    STATUS("STATUS", EcomSalesData::getStatus),
+    CHANNEL("CHANNEL", EcomSalesData::getChannel),
+    FULFILMENT("FULFILMENT", EcomSalesData::getFulfilment),
+    SIZE("SIZE", EcomSalesData::getSize),
+    CUSTOMER("CUSTOMER_ID", data -> data.getCustomer() == null || data.getCustomer().getCustomerId() == null
+            ? null : data.getCustomer().getCustomerId().toString());
+
+    private final String column;
+
+    private final Function<EcomSalesData, String> label;
+
+    SalesDimension(String column, Function<EcomSalesData, String> label) {
+        this.column = column;
+        this.label = label;
+    }
+
+    /**
+     * Get a dimension by name, ignoring case.
+     *
+     * @param name - the name, e.g. 'city'.
+     * @return the dimension.
+     * @throws IllegalArgumentException if there is no such dimension.
+     */
+    public static SalesDimension of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Get the label of a row in this dimension.
+     *
+     * @param data - the row.
+     * @return the value of the dimension's column, the customer id for CUSTOMER; null if not set.
+     */
+    public String labelOf(EcomSalesData data) {
+        return label.apply(data);
+    }
+}
@@ -0,0 +1,49 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The number and revenue of the sales data matching a filter, estimated from a uniform sample
+ * of the table. The true values lie within the estimate plus or minus the error with 95%
+ * confidence; when the sample holds the whole table the estimates are exact and the errors 0.
+ * A stale sample missed changes since it was drawn, so its estimates have no error bound.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesEstimate {
+
+    private double rows;
+
+    /**
+     * The errors, null if stale.
+     */
+    private Double rowsError;
+
+    private double revenue;
+
+    private Double revenueError;
+
+    private boolean stale;
+
+    /**
+     * The number of sampled rows, and how many of them match the filter.
+     */
+    private int sampleSize;
+
+    private int sampleMatches;
+
+    /**
+     * The number of rows the sample was drawn from.
+     */
+    private long tableSize;
+
+    /**
+     * Matching sample rows, a preview of the result.
+     */
+    private List<SalesDataRow> preview;
+}
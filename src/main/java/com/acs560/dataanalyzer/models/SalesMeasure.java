@@ -0,0 +1,48 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.function.ToDoubleFunction;
+
+import lombok.Getter;
+
+/**
+ * What top-K queries rank the groups of a dimension by.
+ */
+@Getter
+public enum SalesMeasure {
+
+    REVENUE("REVENUE", data -> data.getAmount() == null ? 0 : data.getAmount()),
+    ORDERS("ORDERS", data -> 1);
+
+    /**
+     * The column alias of the measure in top-K queries.
+     */
+    private final String column;
+
+    private final ToDoubleFunction<EcomSalesData> value;
+
+    SalesMeasure(String column, ToDoubleFunction<EcomSalesData> value) {
+        this.column = column;
+        this.value = value;
+    }
+
+    /**
+     * Get a measure by name, ignoring case.
+     *
+     * @param name - the name, e.g. 'revenue'.
+     * @return the measure.
+     * @throws IllegalArgumentException if there is no such measure.
+     */
+    public static SalesMeasure of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Get the contribution of a row to this measure.
+     *
+     * @param data - the row.
+     * @return the amount for REVENUE, 1 for ORDERS.
+     */
+    public double measure(EcomSalesData data) {
+        return value.applyAsDouble(data);
+    }
+}
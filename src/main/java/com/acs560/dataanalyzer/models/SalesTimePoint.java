@@ -0,0 +1,20 @@
+package com.acs560.dataanalyzer.models;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single point of a sales time series, e.g. the revenue of one day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTimePoint {
+
+    private Date date;
+
+    private Double value;
+}
@@ -0,0 +1,17 @@
+package com.acs560.dataanalyzer.reconcile;
+
+/**
+ * The digest of a bucket of rows: the number of rows and the sum and xor of their hashes.
+ * Neither depends on the order of the rows, so a database can compute it with aggregates.
+ *
+ * @param count - the number of rows.
+ * @param sum - the sum of the row hashes.
+ * @param xor - the xor of the row hashes.
+ */
+public record Digest(long count, long sum, long xor) {
+
+    /**
+     * The digest of no rows.
+     */
+    public static final Digest EMPTY = new Digest(0, 0, 0);
+}
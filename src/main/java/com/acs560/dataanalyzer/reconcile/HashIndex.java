@@ -0,0 +1,116 @@
+package com.acs560.dataanalyzer.reconcile;
+
+import java.util.Arrays;
+
+/**
+ * The row hashes of one side, sorted by key, with prefix sums so the digest of any key range
+ * takes two binary searches. Keeps a reference to each row, its position in the CSV rows or its
+ * record index, so the rows of a range can be read again. Built in one pass over the rows.
+ */
+final class HashIndex {
+
+    private final int[] keys;
+    private final int[] rows;
+    private final long[] sums;
+    private final long[] xors;
+
+    private HashIndex(int[] keys, long[] hashes, int[] rows, int size) {
+        // Sorts the positions by key; the key dominates the order, whatever the position bits
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        this.keys = new int[size];
+        this.rows = new int[size];
+        this.sums = new long[size + 1];
+        this.xors = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            int position = (int) order[i];
+            this.keys[i] = keys[position];
+            this.rows[i] = rows[position];
+            sums[i + 1] = sums[i] + hashes[position];
+            xors[i + 1] = xors[i] ^ hashes[position];
+        }
+    }
+
+    /**
+     * @param from - the first key, inclusive.
+     * @param to - the last key, exclusive.
+     * @return the digest of the rows in the range.
+     */
+    Digest digest(long from, long to) {
+        int start = lowerBound(from);
+        int end = lowerBound(to);
+        return new Digest(end - start, sums[end] - sums[start], xors[end] ^ xors[start]);
+    }
+
+    /**
+     * @param from - the first key, inclusive.
+     * @param to - the last key, exclusive.
+     * @param limit - the maximum number of rows.
+     * @return the references of the rows in the range.
+     */
+    int[] rows(long from, long to, int limit) {
+        int start = lowerBound(from);
+        return Arrays.copyOfRange(rows, start, start + Math.min(limit, lowerBound(to) - start));
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects the rows of a {@link HashIndex}.
+     */
+    static final class Builder {
+
+        private int[] keys;
+        private long[] hashes;
+        private int[] rows;
+        private int size;
+
+        /**
+         * Constructor
+         *
+         * @param expectedRows - the number of rows expected, to size the arrays.
+         */
+        Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            keys = new int[capacity];
+            hashes = new long[capacity];
+            rows = new int[capacity];
+        }
+
+        /**
+         * @param key - the key of the row.
+         * @param hash - the hash of the row.
+         * @param row - the reference of the row.
+         */
+        void add(int key, long hash, int row) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            keys[size] = key;
+            hashes[size] = hash;
+            rows[size] = row;
+            size++;
+        }
+
+        HashIndex build() {
+            return new HashIndex(keys, hashes, rows, size);
+        }
+    }
+}
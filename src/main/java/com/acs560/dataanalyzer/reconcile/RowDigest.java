@@ -0,0 +1,122 @@
+package com.acs560.dataanalyzer.reconcile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * The hash of one sales row as compared between the CSV store and the database: the CRC32 of
+ * its columns joined with '|', with the date as yyyy-MM-dd, the amount in whole cents and text
+ * normalized like the importer stores it: trimmed, missing and empty values as empty strings.
+ * The record index is not part of it, since the importer gives imported rows new record indexes,
+ * and neither is the customer, since the CSV has none. Rows are matched by order id and bucketed
+ * by {@link #key}; {@link #MYSQL_HASH} and {@link #MYSQL_KEY} compute the same in MySQL, so
+ * buckets can be hashed where the rows are.
+ */
+public final class RowDigest {
+
+    /**
+     * The compared columns, in hash order.
+     */
+    public static final List<String> COLUMNS = List.of("orderId", "date", "status", "fulfilment",
+            "channel", "category", "size", "amount", "shipCity", "shipState");
+
+    /**
+     * The number of keys: a key is the top 16 bits of the CRC32 of the order id.
+     */
+    public static final int KEYS = 1 << 16;
+
+    /**
+     * The hash of a row of ECOM_SALES_DATA in MySQL.
+     */
+    public static final String MYSQL_HASH = "CRC32(CONCAT_WS('|', TRIM(ORDER_ID), "
+            + "DATE_FORMAT(ORDER_DATE, '%Y-%m-%d'), COALESCE(TRIM(STATUS), ''), COALESCE(TRIM(FULFILMENT), ''), "
+            + "COALESCE(TRIM(CHANNEL), ''), COALESCE(TRIM(CATEGORY), ''), COALESCE(TRIM(SIZE), ''), "
+            + "COALESCE(CAST(ROUND(AMOUNT * 100) AS SIGNED), ''), COALESCE(TRIM(SHIP_CITY), ''), COALESCE(TRIM(SHIP_STATE), '')))";
+
+    /**
+     * The key of a row of ECOM_SALES_DATA in MySQL, stored in its indexed ORDER_KEY column (schema-mysql.sql).
+     */
+    public static final String MYSQL_KEY = "CRC32(TRIM(ORDER_ID)) >> 16";
+
+    private RowDigest() {
+    }
+
+    /**
+     * @param data - the row.
+     * @return the compared values of the row, in the order of {@link #COLUMNS}.
+     */
+    public static List<String> values(EcomSalesData data) {
+        List<String> values = new ArrayList<>(COLUMNS.size());
+        values.add(normalize(data.getOrderId()));
+        values.add(data.getDate() == null ? ""
+                : Instant.ofEpochMilli(data.getDate().getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toString());
+        values.add(normalize(data.getStatus()));
+        values.add(normalize(data.getFulfilment()));
+        values.add(normalize(data.getChannel()));
+        values.add(normalize(data.getCategory()));
+        values.add(normalize(data.getSize()));
+        values.add(data.getAmount() == null ? "" : Long.toString(Math.round(data.getAmount() * 100)));
+        values.add(normalize(data.getShipCity()));
+        values.add(normalize(data.getShipState()));
+        return values;
+    }
+
+    /**
+     * @param data - the row.
+     * @return the hash of the row, between 0 and 2^32 - 1.
+     */
+    public static long hash(EcomSalesData data) {
+        return crc(String.join("|", values(data)));
+    }
+
+    /**
+     * @param data - the row.
+     * @return the order id the row is matched by.
+     */
+    public static String orderId(EcomSalesData data) {
+        return normalize(data.getOrderId());
+    }
+
+    /**
+     * @param data - the row.
+     * @return the key of the bucket of the row, between 0 and {@link #KEYS} - 1.
+     */
+    public static int key(EcomSalesData data) {
+        return (int) (crc(orderId(data)) >>> 16);
+    }
+
+    /**
+     * Compares two rows column by column.
+     *
+     * @param csv - the row of the CSV store.
+     * @param database - the row of the database.
+     * @return the names of the columns that differ, empty if the rows are equal.
+     */
+    public static List<String> changedColumns(EcomSalesData csv, EcomSalesData database) {
+        List<String> csvValues = values(csv);
+        List<String> databaseValues = values(database);
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (!csvValues.get(i).equals(databaseValues.get(i))) {
+                changed.add(COLUMNS.get(i));
+            }
+        }
+        return changed;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static long crc(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
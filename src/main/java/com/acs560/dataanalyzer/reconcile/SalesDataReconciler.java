@@ -0,0 +1,256 @@
+package com.acs560.dataanalyzer.reconcile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.ReconciliationReport;
+import com.acs560.dataanalyzer.models.ReconciliationReport.Difference;
+import com.acs560.dataanalyzer.models.ReconciliationReport.DifferenceType;
+import com.acs560.dataanalyzer.models.ReconciliationReport.RepairAction;
+import com.acs560.dataanalyzer.models.ReconciliationReport.Source;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finds the rows that differ between the CSV store and ECOM_SALES_DATA without comparing them
+ * one by one. Rows are matched by order id, since the importer gives imported rows new record
+ * indexes. The key range of both sides ({@link RowDigest#key}, a hash of the order id) is split
+ * into buckets whose {@link Digest}s are compared, Merkle-tree style: equal buckets are done,
+ * differing ones are split again until they are small enough, and only the rows of those leaves
+ * are read and compared. The buckets of a level are compared in parallel, and so are the leaves.
+ * <p>
+ * On MySQL the database digests are computed by the database ({@link RowDigest#MYSQL_HASH}) over
+ * a range of the indexed ORDER_KEY column, so a matching bucket costs one aggregate query. Other
+ * databases are hashed in the application, reading every row once; the rows of a leaf are then
+ * read again by record index.
+ */
+@Slf4j
+public class SalesDataReconciler {
+
+    private final SalesDataJdbcRepository repository;
+    private final boolean databaseDigests;
+    private final int fanout;
+    private final int leafSize;
+    private final int parallelism;
+    private final int maxDifferences;
+
+    /**
+     * Constructor
+     *
+     * @param repository - reads the database side.
+     * @param databaseDigests - whether the database computes the digests; MySQL only.
+     * @param fanout - the number of buckets a differing bucket is split into.
+     * @param leafSize - the number of rows up to which a differing bucket is compared row by row.
+     * @param parallelism - the number of buckets compared at the same time, each on its own connection.
+     * @param maxDifferences - the maximum number of differences listed; all are counted.
+     */
+    public SalesDataReconciler(SalesDataJdbcRepository repository, boolean databaseDigests, int fanout, int leafSize,
+                               int parallelism, int maxDifferences) {
+        this.repository = repository;
+        this.databaseDigests = databaseDigests;
+        this.fanout = Math.max(2, fanout);
+        this.leafSize = Math.max(1, leafSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxDifferences = maxDifferences;
+    }
+
+    /**
+     * Reconciles the CSV rows with the database.
+     *
+     * @param csvRows - the rows of the CSV store.
+     * @param source - the side the repair plan makes the other side equal to.
+     * @return the differences and the repair plan.
+     */
+    public ReconciliationReport reconcile(List<EcomSalesData> csvRows, Source source) {
+        long started = System.nanoTime();
+        ReconciliationReport report = new ReconciliationReport();
+        report.setSource(source);
+
+        List<EcomSalesData> csv = List.copyOf(csvRows);
+        HashIndex.Builder csvBuilder = new HashIndex.Builder(csv.size());
+        for (int i = 0; i < csv.size(); i++) {
+            csvBuilder.add(RowDigest.key(csv.get(i)), RowDigest.hash(csv.get(i)), i);
+        }
+        HashIndex csvHashes = csvBuilder.build();
+        HashIndex databaseHashes = databaseDigests ? null : databaseIndex();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "sales-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Range root = new Range(0, RowDigest.KEYS, 0, 0);
+            List<Range> leaves = new ArrayList<>();
+            List<Range> level = List.of(root);
+            while (!level.isEmpty()) {
+                List<Digest> databaseLevel = invokeAll(executor, level, range -> databaseHashes == null
+                        ? repository.digestKeyRange(range.from, range.to) : databaseHashes.digest(range.from, range.to));
+                List<Range> next = new ArrayList<>();
+                for (int i = 0; i < level.size(); i++) {
+                    Range range = level.get(i);
+                    Digest csvDigest = csvHashes.digest(range.from, range.to);
+                    Digest databaseDigest = databaseLevel.get(i);
+                    if (range == root) {
+                        report.setCsvRows(csvDigest.count());
+                        report.setDatabaseRows(databaseDigest.count());
+                    }
+                    if (csvDigest.equals(databaseDigest)) {
+                        continue;
+                    }
+                    report.setBucketsDiffering(report.getBucketsDiffering() + 1);
+                    // A bucket that is empty on one side differs in every row, splitting it would not narrow it down
+                    if (Math.max(csvDigest.count(), databaseDigest.count()) <= leafSize || range.width() == 1
+                            || csvDigest.count() == 0 || databaseDigest.count() == 0) {
+                        leaves.add(range.withCounts(csvDigest.count(), databaseDigest.count()));
+                    } else {
+                        next.addAll(range.split(fanout));
+                    }
+                }
+                report.setBucketsCompared(report.getBucketsCompared() + level.size());
+                level = next;
+            }
+
+            List<List<Difference>> differences = invokeAll(executor, leaves,
+                    leaf -> compare(leaf, csv, csvHashes, databaseHashes, report));
+            List<Difference> listed = differences.stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparing(Difference::getOrderId))
+                    .limit(maxDifferences)
+                    .collect(Collectors.toList());
+            report.setDifferences(listed);
+            report.setRepairPlan(listed.stream().map(difference -> repair(difference, source)).collect(Collectors.toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Reconciled {} CSV rows with {} database rows in {} ms: {} missing in the database, {} missing in the CSV, "
+                        + "{} changed; {} of {} buckets differed, {} rows read", report.getCsvRows(), report.getDatabaseRows(),
+                report.getElapsedMillis(), report.getMissingInDatabase(), report.getMissingInCsv(), report.getChanged(),
+                report.getBucketsDiffering(), report.getBucketsCompared(), report.getRowsRead());
+        return report;
+    }
+
+    private List<Difference> compare(Range leaf, List<EcomSalesData> csv, HashIndex csvHashes, HashIndex databaseHashes,
+                                     ReconciliationReport report) {
+        // A leaf with no CSV rows needs only as many database rows as can be listed
+        int limit = leaf.csvCount == 0 ? maxDifferences : (int) Math.min(Integer.MAX_VALUE, leaf.databaseCount);
+        List<EcomSalesData> databaseRows = leaf.databaseCount == 0 ? List.of()
+                : databaseHashes == null ? repository.findByKeyRange(leaf.from, leaf.to, limit)
+                : repository.findByIndexes(Arrays.stream(databaseHashes.rows(leaf.from, leaf.to, limit)).boxed().toList());
+        Map<String, EcomSalesData> database = databaseRows.stream()
+                .collect(Collectors.toMap(RowDigest::orderId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+
+        List<Difference> differences = new ArrayList<>();
+        long missingInDatabase = 0;
+        long changed = 0;
+        for (int row : csvHashes.rows(leaf.from, leaf.to, Integer.MAX_VALUE)) {
+            EcomSalesData csvRow = csv.get(row);
+            String orderId = RowDigest.orderId(csvRow);
+            EcomSalesData databaseRow = database.remove(orderId);
+            if (databaseRow == null) {
+                missingInDatabase++;
+                addLimited(differences, new Difference(DifferenceType.MISSING_IN_DATABASE, orderId,
+                        List.of(), csvRow, null));
+            } else {
+                List<String> columns = RowDigest.changedColumns(csvRow, databaseRow);
+                if (!columns.isEmpty()) {
+                    changed++;
+                    addLimited(differences, new Difference(DifferenceType.CHANGED, orderId, columns,
+                            csvRow, databaseRow));
+                }
+            }
+        }
+        // Remaining database rows have no CSV row; when only some were read, the count covers the rest
+        long missingInCsv = leaf.csvCount == 0 ? leaf.databaseCount : database.size();
+        database.forEach((orderId, databaseRow) -> addLimited(differences, new Difference(DifferenceType.MISSING_IN_CSV,
+                orderId, List.of(), null, databaseRow)));
+
+        synchronized (report) {
+            report.setMissingInDatabase(report.getMissingInDatabase() + missingInDatabase);
+            report.setMissingInCsv(report.getMissingInCsv() + missingInCsv);
+            report.setChanged(report.getChanged() + changed);
+            report.setRowsRead(report.getRowsRead() + databaseRows.size());
+        }
+        return differences;
+    }
+
+    private void addLimited(List<Difference> differences, Difference difference) {
+        if (differences.size() < maxDifferences) {
+            differences.add(difference);
+        }
+    }
+
+    private static RepairAction repair(Difference difference, Source source) {
+        Source target = source == Source.CSV ? Source.DATABASE : Source.CSV;
+        boolean missingInTarget = difference.getType() == (target == Source.DATABASE
+                ? DifferenceType.MISSING_IN_DATABASE : DifferenceType.MISSING_IN_CSV);
+        String operation = difference.getType() == DifferenceType.CHANGED ? "UPDATE"
+                : missingInTarget ? "INSERT" : "DELETE";
+        return new RepairAction(operation, target, difference.getOrderId(), difference.getColumns());
+    }
+
+    private HashIndex databaseIndex() {
+        HashIndex.Builder builder = new HashIndex.Builder(0);
+        repository.stream(null, data -> builder.add(RowDigest.key(data), RowDigest.hash(data), data.getRecordIndex()));
+        return builder.build();
+    }
+
+    private static <T, R> List<R> invokeAll(ExecutorService executor, List<T> items, Function<T, R> work) {
+        List<Callable<R>> tasks = items.stream()
+                .map(item -> (Callable<R>) () -> work.apply(item))
+                .collect(Collectors.toList());
+        try {
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Reconciliation failed", e.getCause());
+        }
+    }
+
+    /**
+     * A bucket: a key range, with the row counts of both sides once it is a leaf.
+     */
+    private record Range(long from, long to, long csvCount, long databaseCount) {
+
+        long width() {
+            return to - from;
+        }
+
+        Range withCounts(long csvCount, long databaseCount) {
+            return new Range(from, to, csvCount, databaseCount);
+        }
+
+        List<Range> split(int parts) {
+            long step = Math.max(1, (width() + parts - 1) / parts);
+            List<Range> ranges = new ArrayList<>(parts);
+            for (long start = from; start < to; start += step) {
+                ranges.add(new Range(start, Math.min(to, start + step), 0, 0));
+            }
+            return ranges;
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.acs560.dataanalyzer.repositories;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.sketch.BloomFilter;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 
 @Repository
@@ -19,30 +28,111 @@ public class EcomSalesDataRepo {
     private static final String CSV_DELIMITER = ",";
     private static final String INPUT_FILE_PATH = "AmazonSalesReport.csv";
     private static final String CSV_PATH = "output_sales_data.csv";
+    private static final int MIN_EXPECTED_ORDERS = 10_000;
 
+    // An ArrayList, or an OffHeapSalesStore with sales.csv.store=off-heap
     @Getter
-    private static final List<EcomSalesData> salesData = new ArrayList<>();
+    private final List<EcomSalesData> salesData;
+
+    // Order ids of the rows in salesData; isDuplicate only scans for the probable duplicates
+    private volatile BloomFilter orderIds;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer loadTimer;
+    private final Counter rowsRead;
+    private final double falsePositiveProbability;
+
+    /**
+     * Constructor
+     *
+     * @param meterRegistry the registry of the CSV load and write metrics
+     */
+    public EcomSalesDataRepo(MeterRegistry meterRegistry) {
+        this(meterRegistry, 0.01, "heap", "");
+    }
+
+    /**
+     * Constructor
+     *
+     * @param meterRegistry the registry of the CSV load and write metrics
+     * @param falsePositiveProbability the probability that isDuplicate scans the rows for a new order
+     * @param store where the rows are kept: "heap", or "off-heap" outside the Java heap
+     * @param directory the directory of the memory-mapped files of the off-heap store; empty for direct memory
+     */
+    @Autowired
+    public EcomSalesDataRepo(MeterRegistry meterRegistry,
+                             @Value("${sales.import.order-id-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                             @Value("${sales.csv.store:heap}") String store,
+                             @Value("${sales.csv.store.directory:}") String directory) {
+        this.meterRegistry = meterRegistry;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.loadTimer = Timer.builder("sales.csv.load").register(meterRegistry);
+        this.rowsRead = Counter.builder("sales.csv.rows").tag("operation", "read").register(meterRegistry);
+        this.salesData = createStore(store, directory);
+        Gauge.builder("sales.csv.records", () -> salesData.size()).register(meterRegistry);
+        Gauge.builder("sales.csv.store.bytes",
+                () -> salesData instanceof OffHeapSalesStore offHeap ? offHeap.offHeapBytes() : 0)
+                .baseUnit("bytes").register(meterRegistry);
+        rebuildOrderIdFilter();
+    }
 
     @PostConstruct
     public void init() {
         readFile(INPUT_FILE_PATH);
     }
 
+    /**
+     * Releases the off-heap store, if the rows are kept in one.
+     */
+    @PreDestroy
+    public void close() {
+        if (salesData instanceof OffHeapSalesStore offHeap) {
+            offHeap.close();
+        }
+    }
+
+    /**
+     * Creates the configured store of the rows.
+     *
+     * @param store "heap" or "off-heap"
+     * @param directory the directory of the memory-mapped files; empty for direct memory
+     * @return the empty store
+     */
+    private static List<EcomSalesData> createStore(String store, String directory) {
+        try {
+            return switch (store) {
+                case "heap" -> new ArrayList<>();
+                case "off-heap" -> directory.isBlank() ? new OffHeapSalesStore() : new OffHeapSalesStore(Path.of(directory));
+                default -> throw new IllegalArgumentException("Unknown sales.csv.store: " + store);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the off-heap store in " + directory, e);
+        }
+    }
+
     /**
      * Reads the sales data from the CSV file and populates the internal data structure.
+     * Rows are only added in memory; the file they come from is not written.
      *
      * @param fileName the name of the CSV file to read from
      */
     public void readFile(String fileName) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try (BufferedReader csvReader = new BufferedReader(new FileReader(fileName))) {
             String line;
             csvReader.readLine(); // Skip header
             while ((line = csvReader.readLine()) != null) {
-                String[] values = line.split(CSV_DELIMITER);
-                addSalesData(values);
+                EcomSalesData data = parseSalesData(line.split(CSV_DELIMITER));
+                if (data != null && !isDuplicate(data)) {
+                    orderIds.put(data.getOrderId());
+                    salesData.add(data);
+                }
+                rowsRead.increment();
             }
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            sample.stop(loadTimer);
         }
     }
 
@@ -54,10 +144,26 @@ public class EcomSalesDataRepo {
      * @return true if successfully added and saved to CSV, false otherwise
      */
     public boolean addSalesData(String[] values) {
+        EcomSalesData newData = parseSalesData(values);
+        if (newData != null && !isDuplicate(newData)) {
+            orderIds.put(newData.getOrderId());
+            salesData.add(newData);   // Add to in-memory data structure
+            return appendSalesData(newData);  // Append only new data to CSV
+        }
+        return false;
+    }
+
+    /**
+     * Parses one CSV row into a sales data object.
+     *
+     * @param values the columns of the row
+     * @return the sales data, or null if the row is malformed
+     */
+    EcomSalesData parseSalesData(String[] values) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
         try {
             Date date = dateFormat.parse(values[2]);
-            EcomSalesData newData = new EcomSalesData(
+            return new EcomSalesData(
                     Integer.parseInt(values[0]),  // index
                     values[1],                    // orderId
                     date,                         // date
@@ -71,15 +177,10 @@ public class EcomSalesDataRepo {
                     values[10]                    // shipState
 , null
                 );
-
-            if (!isDuplicate(newData)) {
-                salesData.add(newData);   // Add to in-memory data structure
-                return appendSalesData(newData);  // Append only new data to CSV
-            }
         } catch (ParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
             e.printStackTrace();
+            return null;
         }
-        return false;
     }
 
     /**
@@ -92,6 +193,9 @@ public class EcomSalesDataRepo {
         EcomSalesData existingData = findSalesDataByIndex(updatedData.getRecordIndex());
         if (existingData != null) {
             int index = salesData.indexOf(existingData);
+            if (updatedData.getOrderId() != null) {
+                orderIds.put(updatedData.getOrderId());
+            }
             salesData.set(index, updatedData);
 
             boolean isSaved = replaceSalesData(salesData);
@@ -126,14 +230,31 @@ public class EcomSalesDataRepo {
     }
 
     /**
-     * Checks if sales data is a duplicate.
+     * Checks if sales data is a duplicate. Equal rows have equal order ids, so a row whose
+     * order id the filter has never seen is new without scanning the stored rows.
+     * The off-heap store compares the order ids in place and only builds the rows that match.
      *
      * @param data the sales data to check
      * @return true if duplicate, false otherwise
      */
-    private boolean isDuplicate(EcomSalesData data) {
-        return salesData.stream()
-                .anyMatch(existingData -> existingData.equals(data));
+    boolean isDuplicate(EcomSalesData data) {
+        if (data.getOrderId() != null && !orderIds.mightContain(data.getOrderId())) {
+            return false;
+        }
+        return salesData.contains(data);
+    }
+
+    /**
+     * Rebuilds the order id filter from the stored rows; needed after salesData was changed directly.
+     */
+    void rebuildOrderIdFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(MIN_EXPECTED_ORDERS, salesData.size()), falsePositiveProbability);
+        for (EcomSalesData data : salesData) {
+            if (data.getOrderId() != null) {
+                filter.put(data.getOrderId());
+            }
+        }
+        orderIds = filter;
     }
 
     /**
@@ -142,7 +263,12 @@ public class EcomSalesDataRepo {
      * @param index the index of the sales data
      * @return the sales data object if found, null otherwise
      */
-    private EcomSalesData findSalesDataByIndex(int index) {
+    EcomSalesData findSalesDataByIndex(int index) {
+        if (salesData instanceof OffHeapSalesStore offHeap) {
+            // Reads the record indexes in place instead of building every row
+            int row = offHeap.findRecordIndex(index);
+            return row < 0 ? null : offHeap.get(row);
+        }
         return salesData.stream()
                 .filter(data -> data.getRecordIndex() == index)
                 .findFirst()
@@ -157,15 +283,25 @@ public class EcomSalesDataRepo {
      * @return true if successfully saved, false otherwise
      */
     public boolean storeSalesDataToCsv(List<EcomSalesData> salesData, boolean appendMode) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String mode = appendMode ? "append" : "replace";
+        boolean stored = false;
         try (BufferedWriter fileWriter = new BufferedWriter(new FileWriter(INPUT_FILE_PATH, appendMode))) {
             for (EcomSalesData entry : salesData) {
                 fileWriter.write(convertToCsvFormat(entry));
                 fileWriter.newLine();
             }
+            stored = true;
             return true;
         } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            sample.stop(Timer.builder("sales.csv.write").tag("mode", mode)
+                    .tag("outcome", stored ? "success" : "error").register(meterRegistry));
+            if (stored) {
+                meterRegistry.counter("sales.csv.rows", "operation", "write").increment(salesData.size());
+            }
         }
     }
 
@@ -175,7 +311,7 @@ public class EcomSalesDataRepo {
      * @param entry the sales data object to convert
      * @return the formatted CSV line
      */
-    private String convertToCsvFormat(EcomSalesData entry) {
+    String convertToCsvFormat(EcomSalesData entry) {
     	SimpleDateFormat csvDateFormat = new SimpleDateFormat("MM/dd/yy");
         String formattedDate = csvDateFormat.format(entry.getDate()); // Ensure consistent date format
         return entry.getRecordIndex() + "," +
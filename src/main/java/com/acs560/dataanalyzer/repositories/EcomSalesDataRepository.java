@@ -3,12 +3,40 @@
  */
 package com.acs560.dataanalyzer.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesTimePoint;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface EcomSalesDataRepository extends CrudRepository<EcomSalesData, Integer> {
 
+	// Joins the customers into the one query instead of selecting each distinct customer separately
+	@Override
+	@EntityGraph(attributePaths = "customer")
+	Iterable<EcomSalesData> findAll();
+
 	boolean existsByOrderId(String orderId);
 
-}
\ No newline at end of file
+	@Query("select new com.acs560.dataanalyzer.models.SalesTimePoint(s.date, sum(s.amount)) "
+			+ "from EcomSalesData s where s.date is not null group by s.date order by s.date")
+	List<SalesTimePoint> findDailyRevenue();
+
+	@Query("select new com.acs560.dataanalyzer.models.SalesAggregate(s.category, sum(s.amount), count(s)) "
+			+ "from EcomSalesData s group by s.category order by sum(s.amount) desc")
+	List<SalesAggregate> findRevenueByCategory(Pageable pageable);
+
+	@Query("select new com.acs560.dataanalyzer.models.SalesAggregate(s.shipState, sum(s.amount), count(s)) "
+			+ "from EcomSalesData s group by s.shipState order by sum(s.amount) desc")
+	List<SalesAggregate> findRevenueByState();
+
+	@Query("select new com.acs560.dataanalyzer.models.SalesAggregate(s.status, sum(s.amount), count(s)) "
+			+ "from EcomSalesData s group by s.status order by count(s) desc")
+	List<SalesAggregate> findOrdersByStatus();
+
+}
@@ -0,0 +1,429 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+/**
+ * A list of sales data kept outside the Java heap, so tens of millions of rows add almost nothing
+ * to what the garbage collector has to trace. Every row is a fixed-width record of
+ * {@value #RECORD_SIZE} bytes in pages of direct or memory-mapped buffers; the strings are UTF-8 in a
+ * separate arena that the records point to. Low-cardinality strings (status, category, city, ...)
+ * are stored once in the arena and shared by all records holding them.
+ * <p>
+ * Single fields are read from the record without building the row ({@link #recordIndex},
+ * {@link #amount}, {@link #dateMillis}, {@link #string}, {@link #find}); {@link #get} builds a new
+ * {@link EcomSalesData} on every call, so rows read from the list are copies and changing them
+ * does not change the store. Customers are kept by id only.
+ * <p>
+ * Strings replaced by {@link #set} or removed rows stay in the arena until {@link #clear}.
+ * Like {@link ArrayList}, the store is not thread-safe.
+ */
+public class OffHeapSalesStore extends AbstractList<EcomSalesData> implements RandomAccess, Closeable {
+
+    /**
+     * The string columns of a record.
+     */
+    public enum Column {
+        ORDER_ID, STATUS, FULFILMENT, CHANNEL, CATEGORY, SIZE, SHIP_CITY, SHIP_STATE
+    }
+
+    /**
+     * Returned by {@link #recordIndex} for rows without a record index.
+     */
+    public static final int NO_INDEX = Integer.MIN_VALUE;
+
+    static final int RECORD_SIZE = 96;
+
+    // Record layout: fixed offsets, so a field is one absolute read
+    private static final int INDEX = 0;
+    private static final int FLAGS = 4;
+    private static final int DATE = 8;
+    private static final int AMOUNT = 16;
+    private static final int CUSTOMER_ID = 24;
+    private static final int STRINGS = 32;
+
+    private static final int NO_INDEX_FLAG = 1;
+    private static final int NO_DATE_FLAG = 2;
+    private static final int NO_AMOUNT_FLAG = 4;
+    private static final int NO_CUSTOMER_FLAG = 8;
+
+    // A string reference is the arena offset in the upper 40 bits and the length in the lower 24
+    private static final int LENGTH_BITS = 24;
+    private static final long NULL_STRING = -1L;
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int RECORDS_PER_PAGE = 1 << PAGE_SHIFT;
+    private static final int ARENA_PAGE_SIZE = 16 << 20;
+    // Bounds the heap used to share strings; values beyond it are stored once per record
+    private static final int MAX_SHARED_STRINGS = 1 << 16;
+
+    private final Path directory;
+    private final List<ByteBuffer> recordPages = new ArrayList<>();
+    private final List<ByteBuffer> arenaPages = new ArrayList<>();
+    private final Map<String, Long> sharedStrings = new HashMap<>();
+    private int size;
+    private long arenaEnd;
+    private int pagesCreated;
+
+    /**
+     * Constructor for a store in direct buffers, bounded by -XX:MaxDirectMemorySize.
+     */
+    public OffHeapSalesStore() {
+        this.directory = null;
+    }
+
+    /**
+     * Constructor for a store in memory-mapped files, bounded by the disk; the operating system pages
+     * the rows in and out, so the store may be larger than the physical memory.
+     *
+     * @param parent - the directory to create the store's file directory in.
+     * @throws IOException if the directory cannot be created.
+     */
+    public OffHeapSalesStore(Path parent) throws IOException {
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "sales-store-");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public EcomSalesData get(int row) {
+        checkIndex(row, size);
+        ByteBuffer page = recordPage(row);
+        int base = recordOffset(row);
+        int flags = page.getInt(base + FLAGS);
+        EcomSalesData data = new EcomSalesData(
+                string(page, base, Column.ORDER_ID),
+                (flags & NO_DATE_FLAG) != 0 ? null : new Date(page.getLong(base + DATE)),
+                string(page, base, Column.STATUS),
+                string(page, base, Column.FULFILMENT),
+                string(page, base, Column.CHANNEL),
+                string(page, base, Column.CATEGORY),
+                string(page, base, Column.SIZE),
+                (flags & NO_AMOUNT_FLAG) != 0 ? null : page.getDouble(base + AMOUNT),
+                string(page, base, Column.SHIP_CITY),
+                string(page, base, Column.SHIP_STATE));
+        if ((flags & NO_INDEX_FLAG) == 0) {
+            data.setRecordIndex(page.getInt(base + INDEX));
+        }
+        if ((flags & NO_CUSTOMER_FLAG) == 0) {
+            data.setCustomer(new Customer(page.getLong(base + CUSTOMER_ID), null, null));
+        }
+        return data;
+    }
+
+    @Override
+    public EcomSalesData set(int row, EcomSalesData data) {
+        EcomSalesData previous = get(row);
+        write(row, data);
+        return previous;
+    }
+
+    @Override
+    public void add(int row, EcomSalesData data) {
+        checkIndex(row, size + 1);
+        if (size == recordPages.size() * RECORDS_PER_PAGE) {
+            recordPages.add(allocate("records", RECORDS_PER_PAGE * RECORD_SIZE));
+        }
+        for (int i = size; i > row; i--) {
+            copyRecord(i - 1, i);
+        }
+        size++;
+        modCount++;
+        write(row, data);
+    }
+
+    @Override
+    public EcomSalesData remove(int row) {
+        EcomSalesData removed = get(row);
+        for (int i = row + 1; i < size; i++) {
+            copyRecord(i, i - 1);
+        }
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Only builds the rows whose order id matches, so contains and remove do not copy every row.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof EcomSalesData data) || data.getOrderId() == null) {
+            return super.indexOf(o);
+        }
+        for (int row = find(Column.ORDER_ID, data.getOrderId(), 0); row >= 0;
+                row = find(Column.ORDER_ID, data.getOrderId(), row + 1)) {
+            if (get(row).equals(data)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all rows and releases the pages.
+     */
+    @Override
+    public void clear() {
+        recordPages.clear();
+        arenaPages.clear();
+        sharedStrings.clear();
+        size = 0;
+        arenaEnd = 0;
+        modCount++;
+        deleteFiles(false);
+    }
+
+    /**
+     * Gets the record index of a row.
+     *
+     * @param row - the row.
+     * @return the record index, or {@link #NO_INDEX} if the row has none.
+     */
+    public int recordIndex(int row) {
+        checkIndex(row, size);
+        ByteBuffer page = recordPage(row);
+        int base = recordOffset(row);
+        return (page.getInt(base + FLAGS) & NO_INDEX_FLAG) != 0 ? NO_INDEX : page.getInt(base + INDEX);
+    }
+
+    /**
+     * Gets the amount of a row.
+     *
+     * @param row - the row.
+     * @return the amount, or NaN if the row has none.
+     */
+    public double amount(int row) {
+        checkIndex(row, size);
+        ByteBuffer page = recordPage(row);
+        int base = recordOffset(row);
+        return (page.getInt(base + FLAGS) & NO_AMOUNT_FLAG) != 0 ? Double.NaN : page.getDouble(base + AMOUNT);
+    }
+
+    /**
+     * Gets the order date of a row.
+     *
+     * @param row - the row.
+     * @return the order date in epoch milliseconds, or Long.MIN_VALUE if the row has none.
+     */
+    public long dateMillis(int row) {
+        checkIndex(row, size);
+        ByteBuffer page = recordPage(row);
+        int base = recordOffset(row);
+        return (page.getInt(base + FLAGS) & NO_DATE_FLAG) != 0 ? Long.MIN_VALUE : page.getLong(base + DATE);
+    }
+
+    /**
+     * Gets a string field of a row.
+     *
+     * @param row - the row.
+     * @param column - the column.
+     * @return the value, or null.
+     */
+    public String string(int row, Column column) {
+        checkIndex(row, size);
+        return string(recordPage(row), recordOffset(row), column);
+    }
+
+    /**
+     * Finds the first row at or after a position whose string field equals a value. Compares the
+     * stored UTF-8 bytes, without decoding a string per row.
+     *
+     * @param column - the column.
+     * @param value - the value.
+     * @param from - the first row to look at.
+     * @return the row, or -1 if there is none.
+     */
+    public int find(Column column, String value, int from) {
+        byte[] wanted = value.getBytes(StandardCharsets.UTF_8);
+        byte[] candidate = new byte[wanted.length];
+        for (int row = Math.max(0, from); row < size; row++) {
+            long reference = recordPage(row).getLong(recordOffset(row) + STRINGS + column.ordinal() * Long.BYTES);
+            if (reference == NULL_STRING || length(reference) != wanted.length) {
+                continue;
+            }
+            long offset = reference >>> LENGTH_BITS;
+            arenaPages.get((int) (offset / ARENA_PAGE_SIZE)).get((int) (offset % ARENA_PAGE_SIZE), candidate);
+            if (Arrays.equals(candidate, wanted)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first row with a record index.
+     *
+     * @param recordIndex - the record index.
+     * @return the row, or -1 if there is none.
+     */
+    public int findRecordIndex(int recordIndex) {
+        for (int row = 0; row < size; row++) {
+            ByteBuffer page = recordPage(row);
+            int base = recordOffset(row);
+            if (page.getInt(base + INDEX) == recordIndex && (page.getInt(base + FLAGS) & NO_INDEX_FLAG) == 0) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the bytes reserved outside the heap, records and arena.
+     */
+    public long offHeapBytes() {
+        return (long) recordPages.size() * RECORDS_PER_PAGE * RECORD_SIZE + (long) arenaPages.size() * ARENA_PAGE_SIZE;
+    }
+
+    /**
+     * Releases the pages and deletes the files of a memory-mapped store.
+     */
+    @Override
+    public void close() {
+        clear();
+        deleteFiles(true);
+    }
+
+    private void write(int row, EcomSalesData data) {
+        ByteBuffer page = recordPage(row);
+        int base = recordOffset(row);
+        Long customerId = data.getCustomer() == null ? null : data.getCustomer().getCustomerId();
+        int flags = (data.getRecordIndex() == null ? NO_INDEX_FLAG : 0)
+                | (data.getDate() == null ? NO_DATE_FLAG : 0)
+                | (data.getAmount() == null ? NO_AMOUNT_FLAG : 0)
+                | (customerId == null ? NO_CUSTOMER_FLAG : 0);
+        page.putInt(base + INDEX, data.getRecordIndex() == null ? 0 : data.getRecordIndex());
+        page.putInt(base + FLAGS, flags);
+        page.putLong(base + DATE, data.getDate() == null ? 0 : data.getDate().getTime());
+        page.putDouble(base + AMOUNT, data.getAmount() == null ? 0 : data.getAmount());
+        page.putLong(base + CUSTOMER_ID, customerId == null ? 0 : customerId);
+        putString(page, base, Column.ORDER_ID, data.getOrderId());
+        putString(page, base, Column.STATUS, data.getStatus());
+        putString(page, base, Column.FULFILMENT, data.getFulfilment());
+        putString(page, base, Column.CHANNEL, data.getChannel());
+        putString(page, base, Column.CATEGORY, data.getCategory());
+        putString(page, base, Column.SIZE, data.getSize());
+        putString(page, base, Column.SHIP_CITY, data.getShipCity());
+        putString(page, base, Column.SHIP_STATE, data.getShipState());
+    }
+
+    private void putString(ByteBuffer page, int base, Column column, String value) {
+        long reference;
+        if (value == null) {
+            reference = NULL_STRING;
+        } else if (column == Column.ORDER_ID) {
+            // Unique per row, sharing would only fill the map
+            reference = appendString(value);
+        } else {
+            Long shared = sharedStrings.get(value);
+            reference = shared != null ? shared : appendString(value);
+            if (shared == null && sharedStrings.size() < MAX_SHARED_STRINGS) {
+                sharedStrings.put(value, reference);
+            }
+        }
+        page.putLong(base + STRINGS + column.ordinal() * Long.BYTES, reference);
+    }
+
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= ARENA_PAGE_SIZE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes exceeds the arena page size");
+        }
+        // A string never spans two pages
+        if (arenaPages.isEmpty() || arenaEnd % ARENA_PAGE_SIZE + bytes.length > ARENA_PAGE_SIZE) {
+            arenaEnd = (long) arenaPages.size() * ARENA_PAGE_SIZE;
+            arenaPages.add(allocate("arena", ARENA_PAGE_SIZE));
+        }
+        long offset = arenaEnd;
+        arenaPages.get((int) (offset / ARENA_PAGE_SIZE)).put((int) (offset % ARENA_PAGE_SIZE), bytes);
+        arenaEnd += bytes.length;
+        return offset << LENGTH_BITS | bytes.length;
+    }
+
+    private String string(ByteBuffer page, int base, Column column) {
+        long reference = page.getLong(base + STRINGS + column.ordinal() * Long.BYTES);
+        if (reference == NULL_STRING) {
+            return null;
+        }
+        long offset = reference >>> LENGTH_BITS;
+        byte[] bytes = new byte[length(reference)];
+        arenaPages.get((int) (offset / ARENA_PAGE_SIZE)).get((int) (offset % ARENA_PAGE_SIZE), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int length(long reference) {
+        return (int) (reference & ((1L << LENGTH_BITS) - 1));
+    }
+
+    private void copyRecord(int from, int to) {
+        recordPage(to).put(recordOffset(to), recordPage(from), recordOffset(from), RECORD_SIZE);
+    }
+
+    private ByteBuffer recordPage(int row) {
+        return recordPages.get(row >>> PAGE_SHIFT);
+    }
+
+    private static int recordOffset(int row) {
+        return (row & (RECORDS_PER_PAGE - 1)) * RECORD_SIZE;
+    }
+
+    private ByteBuffer allocate(String kind, int bytes) {
+        if (directory == null) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        Path file = directory.resolve(kind + "-" + pagesCreated++ + ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map " + file, e);
+        }
+    }
+
+    // Mapped pages are unmapped when their buffers are collected; on Linux the files can go before that
+    private void deleteFiles(boolean directoryToo) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            if (directoryToo) {
+                Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete the files of " + directory, e);
+        }
+    }
+
+    private static void checkIndex(int row, int bound) {
+        if (row < 0 || row >= bound) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + bound);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.acs560.dataanalyzer.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.acs560.dataanalyzer.sketch.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter over the order ids of ECOM_SALES_DATA, so inserts only ask the database whether
+ * an order id exists when it might. Almost every imported order is new and skips the lookup.
+ * <p>
+ * The filter is loaded from the order id index at startup. Order ids are added before they are
+ * inserted, from the moment the bean exists, so an insert racing with the load is never missed.
+ * Until the load has finished every order id counts as a possible duplicate. The filter only sees
+ * the inserts of this application: disable it (sales.import.order-id-filter.enabled=false) if
+ * other writers insert into the table.
+ */
+@Slf4j
+@Component
+public class OrderIdFilter {
+
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+    private final boolean enabled;
+    private final BloomFilter filter;
+    private volatile boolean loaded;
+
+    private final Counter definitelyNew;
+    private final Counter possibleDuplicates;
+    private final Counter falsePositives;
+
+    /**
+     * Constructor
+     *
+     * @param salesDataJdbcRepository - the repository the order ids are loaded from.
+     * @param meterRegistry - the registry of the filter metrics.
+     * @param enabled - whether the filter is used; if not, every order id is looked up.
+     * @param expectedOrders - the number of orders the filter is sized for; it grows beyond that.
+     * @param falsePositiveProbability - the probability that a new order id is looked up anyway.
+     */
+    public OrderIdFilter(SalesDataJdbcRepository salesDataJdbcRepository, MeterRegistry meterRegistry,
+                         @Value("${sales.import.order-id-filter.enabled:true}") boolean enabled,
+                         @Value("${sales.import.order-id-filter.expected-orders:1000000}") long expectedOrders,
+                         @Value("${sales.import.order-id-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.salesDataJdbcRepository = salesDataJdbcRepository;
+        this.enabled = enabled;
+        this.filter = new BloomFilter(expectedOrders, falsePositiveProbability);
+
+        this.definitelyNew = counter(meterRegistry, "new");
+        this.possibleDuplicates = counter(meterRegistry, "possible-duplicate");
+        this.falsePositives = Counter.builder("sales.import.order-id-filter.false-positives").register(meterRegistry);
+        Gauge.builder("sales.import.order-id-filter.false-positive-probability", filter,
+                BloomFilter::expectedFalsePositiveProbability).register(meterRegistry);
+        Gauge.builder("sales.import.order-id-filter.bytes", filter, BloomFilter::sizeInBytes).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Without the filter every order id is looked up, as before
+            log.error("Loading the order id filter failed, duplicate checks query the database", e);
+        }
+    }
+
+    /**
+     * Adds the order ids of all stored sales data.
+     */
+    public synchronized void load() {
+        long started = System.nanoTime();
+        long before = filter.size();
+        salesDataJdbcRepository.streamOrderIds(filter::put);
+        loaded = true;
+        log.info("Loaded {} order ids into the order id filter in {} ms ({} KB, expected false-positive probability {})",
+                filter.size() - before, (System.nanoTime() - started) / 1_000_000, filter.sizeInBytes() / 1024,
+                String.format("%.4f", filter.expectedFalsePositiveProbability()));
+    }
+
+    /**
+     * @param orderId - the order id.
+     * @return false if no sales data with the order id is stored, true if there might be.
+     */
+    public boolean mightExist(String orderId) {
+        if (!enabled || !loaded || orderId == null || filter.mightContain(orderId)) {
+            possibleDuplicates.increment();
+            return true;
+        }
+        definitelyNew.increment();
+        return false;
+    }
+
+    /**
+     * Adds an order id; called before the sales data is inserted.
+     *
+     * @param orderId - the order id.
+     */
+    public void add(String orderId) {
+        if (orderId != null) {
+            filter.put(orderId);
+        }
+    }
+
+    /**
+     * Counts possible duplicates that turned out to be new.
+     *
+     * @param count - the number of false positives.
+     */
+    public void recordFalsePositives(int count) {
+        if (loaded) {
+            falsePositives.increment(count);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("sales.import.order-id-filter.checks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
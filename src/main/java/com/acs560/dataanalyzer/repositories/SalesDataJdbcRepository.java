@@ -0,0 +1,312 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.acs560.dataanalyzer.models.AmountQuantile;
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.DistinctCount;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataRow;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesMeasure;
+import com.acs560.dataanalyzer.reconcile.Digest;
+import com.acs560.dataanalyzer.reconcile.RowDigest;
+
+/**
+ * JDBC access to ECOM_SALES_DATA for the bulk paths the JPA repository is not suited for:
+ * cursor-based streaming of large results, keyset pagination and batch inserts.
+ */
+@Repository
+public class SalesDataJdbcRepository {
+
+    private static final RowMapper<EcomSalesData> ROW_MAPPER = SalesDataJdbcRepository::mapRow;
+    private static final RowMapper<SalesDataRow> GRID_ROW_MAPPER = (rs, rowNum) -> new SalesDataRow(
+            rs.getInt("RECORD_INDEX"),
+            rs.getString("ORDER_ID"),
+            rs.getObject("AMOUNT", Double.class),
+            rs.getString("SHIP_CITY"),
+            rs.getString("STATUS"),
+            rs.getString("CHANNEL"),
+            rs.getObject("CUSTOMER_ID", Long.class),
+            rs.getString("CUSTOMER_NAME"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    /**
+     * Constructor
+     *
+     * @param dataSource - the data source.
+     * @param fetchSize - the number of rows fetched per round-trip while streaming.
+     */
+    public SalesDataJdbcRepository(DataSource dataSource,
+                                   @Value("${sales.jdbc.stream-fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Finds all sales data matching the filter.
+     *
+     * @param filter - the filter to apply.
+     * @return the matching sales data, ordered by record index.
+     */
+    public List<EcomSalesData> findAll(SalesDataFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(SalesDataSql.select(filter, params), params, ROW_MAPPER);
+    }
+
+    /**
+     * Finds the grid rows of all sales data matching the filter.
+     *
+     * @param filter - the filter to apply.
+     * @return the matching rows, ordered by record index.
+     */
+    public List<SalesDataRow> findGridRows(SalesDataFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(SalesDataSql.selectGridRows(filter, params), params, GRID_ROW_MAPPER);
+    }
+
+    /**
+     * Streams all sales data matching the filter to the consumer, one row at a time.
+     * Rows are read through a database cursor, so memory use does not depend on the result size.
+     *
+     * @param filter - the filter to apply.
+     * @param consumer - receives each matching row.
+     */
+    public void stream(SalesDataFilter filter, Consumer<EcomSalesData> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        streamingJdbcTemplate.query(SalesDataSql.select(filter, params), params,
+                (RowCallbackHandler) rs -> consumer.accept(mapRow(rs, 0)));
+    }
+
+    /**
+     * Streams the order ids of all sales data, read from the order id index through a database cursor.
+     *
+     * @param consumer - receives each order id.
+     */
+    public void streamOrderIds(Consumer<String> consumer) {
+        streamingJdbcTemplate.getJdbcTemplate().query("SELECT ORDER_ID FROM " + SalesDataSql.TABLE,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+
+    /**
+     * Counts the sales data matching the filter.
+     *
+     * @param filter - the filter to apply.
+     * @return the number of matching rows.
+     */
+    public long count(SalesDataFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        Long count = jdbcTemplate.queryForObject(SalesDataSql.count(filter, params), params, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Finds one page of sales data matching the filter.
+     *
+     * @param filter - the filter to apply.
+     * @param afterIndex - the record index of the last row of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @return the page, ordered by record index.
+     */
+    public List<EcomSalesData> findPage(SalesDataFilter filter, Integer afterIndex, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(SalesDataSql.page(filter, afterIndex, size, params), params, ROW_MAPPER);
+    }
+
+    /**
+     * Finds the groups of a dimension with the largest measure among the sales data matching the filter.
+     *
+     * @param dimension - the column to group by.
+     * @param measure - the measure to rank by.
+     * @param filter - the filter to apply.
+     * @param limit - the number of groups.
+     * @return the groups, largest measure first.
+     */
+    public List<SalesAggregate> findTopK(SalesDimension dimension, SalesMeasure measure, SalesDataFilter filter, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(SalesDataSql.topK(dimension, measure, filter, limit, params), params,
+                (rs, rowNum) -> new SalesAggregate(rs.getString("LABEL"), rs.getDouble("REVENUE"), rs.getLong("ORDERS")));
+    }
+
+    /**
+     * Counts the distinct customers per group of a dimension.
+     *
+     * @param dimension - the column to group by.
+     * @return the groups, most customers first.
+     */
+    public List<DistinctCount> findDistinctCustomers(SalesDimension dimension) {
+        return jdbcTemplate.query(SalesDataSql.distinctCustomers(dimension), new MapSqlParameterSource(),
+                (rs, rowNum) -> new DistinctCount(rs.getString("LABEL"), rs.getLong("CUSTOMERS"), 0.0, false));
+    }
+
+    /**
+     * Finds the order amount quantiles per group of a dimension. The database ranks the amounts
+     * of every group and returns only the rows at the quantile ranks.
+     *
+     * @param dimension - the column to group by.
+     * @param quantiles - the quantiles, each between 0 and 1.
+     * @return the quantiles of every group with amounts, by label and quantile.
+     */
+    public List<AmountQuantile> findAmountQuantiles(SalesDimension dimension, double[] quantiles) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<AmountQuantile> result = new ArrayList<>();
+        jdbcTemplate.query(SalesDataSql.amountQuantiles(dimension, quantiles, params), params, (RowCallbackHandler) rs -> {
+            long rank = rs.getLong("RN");
+            long orders = rs.getLong("ORDERS");
+            // Several quantiles may share a rank
+            for (double quantile : quantiles) {
+                if (Math.max(1, (long) Math.ceil(quantile * orders)) == rank) {
+                    result.add(new AmountQuantile(rs.getString("LABEL"), quantile, rs.getDouble("AMOUNT"), orders, 0.0, false));
+                }
+            }
+        });
+        result.sort(Comparator.comparing(AmountQuantile::getLabel).thenComparingDouble(AmountQuantile::getQuantile));
+        return result;
+    }
+
+    /**
+     * Returns which of the given order ids already exist.
+     *
+     * @param orderIds - the order ids to check.
+     * @return the subset of order ids that are already stored.
+     */
+    public Set<String> findExistingOrderIds(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT ORDER_ID FROM " + SalesDataSql.TABLE + " WHERE ORDER_ID IN (:orderIds)",
+                Map.of("orderIds", orderIds), String.class));
+    }
+
+    /**
+     * Finds the sales data with the given record indexes.
+     *
+     * @param recordIndexes - the record indexes.
+     * @return the sales data, ordered by record index.
+     */
+    public List<EcomSalesData> findByIndexes(Collection<Integer> recordIndexes) {
+        if (recordIndexes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + SalesDataSql.COLUMNS + " FROM " + SalesDataSql.TABLE_WITH_CUSTOMER
+                        + " WHERE s.RECORD_INDEX IN (:recordIndexes) ORDER BY s.RECORD_INDEX",
+                Map.of("recordIndexes", recordIndexes), ROW_MAPPER);
+    }
+
+    /**
+     * Finds the sales data in a range of the reconciliation key. MySQL only, see {@link RowDigest#MYSQL_KEY}.
+     *
+     * @param from - the first key, inclusive.
+     * @param to - the last key, exclusive.
+     * @param limit - the maximum number of rows.
+     * @return the sales data, ordered by key.
+     */
+    public List<EcomSalesData> findByKeyRange(long from, long to, int limit) {
+        return jdbcTemplate.query("SELECT " + SalesDataSql.COLUMNS + " FROM " + SalesDataSql.TABLE_WITH_CUSTOMER
+                        + " WHERE s.ORDER_KEY >= :from AND s.ORDER_KEY < :to ORDER BY s.ORDER_KEY LIMIT :limit",
+                Map.of("from", from, "to", to, "limit", limit), ROW_MAPPER);
+    }
+
+    /**
+     * Computes the {@link Digest} of a range of the reconciliation key in the database, so only the
+     * digest is transferred. MySQL only, see {@link RowDigest#MYSQL_HASH} and {@link RowDigest#MYSQL_KEY}.
+     *
+     * @param from - the first key, inclusive.
+     * @param to - the last key, exclusive.
+     * @return the digest of the rows in the range.
+     */
+    public Digest digestKeyRange(long from, long to) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(SUM(H), 0), COALESCE(BIT_XOR(H), 0) FROM (SELECT "
+                        + RowDigest.MYSQL_HASH + " AS H FROM " + SalesDataSql.TABLE
+                        + " WHERE ORDER_KEY >= :from AND ORDER_KEY < :to) ROW_HASHES",
+                Map.of("from", from, "to", to),
+                (rs, rowNum) -> new Digest(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    /**
+     * Inserts the sales data as a single JDBC batch and sets the generated record indexes.
+     *
+     * @param batch - the sales data to insert; every entry must reference an existing customer.
+     * @return the number of inserted rows.
+     */
+    public int batchInsert(List<EcomSalesData> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource[] params = batch.stream()
+                .map(SalesDataJdbcRepository::toParameters)
+                .toArray(MapSqlParameterSource[]::new);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(SalesDataSql.INSERT, params, keyHolder, new String[] { "RECORD_INDEX" });
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < batch.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            batch.get(i).setRecordIndex(((Number) key).intValue());
+        }
+        return batch.size();
+    }
+
+    private static MapSqlParameterSource toParameters(EcomSalesData data) {
+        return new MapSqlParameterSource()
+                .addValue("orderId", data.getOrderId())
+                .addValue("orderDate", data.getDate() == null ? null : new java.sql.Date(data.getDate().getTime()))
+                .addValue("status", data.getStatus())
+                .addValue("fulfilment", data.getFulfilment())
+                .addValue("channel", data.getChannel())
+                .addValue("category", data.getCategory())
+                .addValue("size", data.getSize())
+                .addValue("amount", data.getAmount())
+                .addValue("shipCity", data.getShipCity())
+                .addValue("shipState", data.getShipState())
+                .addValue("customerId", data.getCustomer() == null ? null : data.getCustomer().getCustomerId());
+    }
+
+    private static EcomSalesData mapRow(ResultSet rs, int rowNum) throws SQLException {
+        EcomSalesData data = new EcomSalesData(
+                rs.getString("ORDER_ID"),
+                rs.getDate("ORDER_DATE"),
+                rs.getString("STATUS"),
+                rs.getString("FULFILMENT"),
+                rs.getString("CHANNEL"),
+                rs.getString("CATEGORY"),
+                rs.getString("SIZE"),
+                rs.getObject("AMOUNT", Double.class),
+                rs.getString("SHIP_CITY"),
+                rs.getString("SHIP_STATE"));
+        data.setRecordIndex(rs.getInt("RECORD_INDEX"));
+        long customerId = rs.getLong("CUSTOMER_ID");
+        if (!rs.wasNull()) {
+            data.setCustomer(new Customer(customerId, rs.getString("CUSTOMER_NAME"), rs.getString("CUSTOMER_EMAIL")));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,170 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the monthly partitions of ECOM_SALES_DATA on MySQL (see schema-mysql.sql).
+ * The table starts with a history partition and a catch-all future partition; this splits
+ * the future partition into one partition per month, up to a number of months ahead, so new
+ * orders always land in their own month and date-bounded queries read only the months they cover.
+ * Partitions older than the retention are dropped, if a retention is configured.
+ * Runs at startup and then daily; on other databases or an unpartitioned table it does nothing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sales.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class SalesDataPartitionManager {
+
+    static final String FUTURE_PARTITION = "p_future";
+    private static final String MONTH_PREFIX = "p_";
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION "
+            + "FROM INFORMATION_SCHEMA.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+            + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String DELETE_DROPPED_ORDER_IDS = "DELETE FROM SALES_ORDER_ID WHERE NOT EXISTS "
+            + "(SELECT 1 FROM " + SalesDataSql.TABLE + " S WHERE S.ORDER_ID = SALES_ORDER_ID.ORDER_ID)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    /**
+     * Constructor
+     *
+     * @param jdbcTemplate - the template of the sales database.
+     * @param monthsAhead - the number of months after the current one to create partitions for.
+     * @param retentionMonths - months of order history to keep; older monthly partitions are dropped. 0 keeps everything.
+     */
+    public SalesDataPartitionManager(JdbcTemplate jdbcTemplate,
+                                     @Value("${sales.partitioning.months-ahead:3}") int monthsAhead,
+                                     @Value("${sales.partitioning.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            // A failed split must not keep the application from serving; the next scheduled run retries
+            log.error("Partition maintenance of {} failed", SalesDataSql.TABLE, e);
+        }
+    }
+
+    /**
+     * Creates the missing monthly partitions and drops the expired ones.
+     */
+    @Scheduled(cron = "${sales.partitioning.cron:0 0 3 * * *}")
+    public synchronized void maintain() {
+        List<Partition> partitions = partitions();
+        if (partitions.size() < 2 || !partitions.get(partitions.size() - 1).name().equals(FUTURE_PARTITION)) {
+            log.debug("{} is not partitioned by month, skipping partition maintenance", SalesDataSql.TABLE);
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        addMonths(lastBoundary(partitions), current.plusMonths(monthsAhead));
+        if (retentionMonths > 0) {
+            dropMonthsBefore(partitions, current.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Lists the partitions of the sales table in range order.
+     *
+     * @return the partitions; empty if the table is not partitioned or the database is not MySQL.
+     */
+    public List<Partition> partitions() {
+        if (!isMySql()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(PARTITIONS, (rs, rowNum) -> new Partition(rs.getString("PARTITION_NAME"),
+                rs.getString("PARTITION_DESCRIPTION")), SalesDataSql.TABLE);
+    }
+
+    // Splits the future partition into the months from the first uncovered one to the last month
+    private void addMonths(YearMonth firstMonth, YearMonth lastMonth) {
+        if (firstMonth.isAfter(lastMonth)) {
+            return;
+        }
+        StringJoiner months = new StringJoiner(", ");
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add("PARTITION " + name(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        months.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        long started = System.nanoTime();
+        jdbcTemplate.execute("ALTER TABLE " + SalesDataSql.TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + months + ")");
+        log.info("Added partitions {} to {} of {} in {} ms", name(firstMonth), name(lastMonth), SalesDataSql.TABLE,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void dropMonthsBefore(List<Partition> partitions, YearMonth oldestKept) {
+        List<String> expired = partitions.stream()
+                .filter(p -> p.month() != null && p.month().isBefore(oldestKept))
+                .map(Partition::name)
+                .toList();
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + SalesDataSql.TABLE + " DROP PARTITION " + String.join(", ", expired));
+            // Dropping a partition does not fire the delete trigger of the order id table
+            int orderIds = jdbcTemplate.update(DELETE_DROPPED_ORDER_IDS);
+            log.info("Dropped partitions {} of {} and {} of their order ids, keeping orders from {}", expired,
+                    SalesDataSql.TABLE, orderIds, oldestKept);
+        }
+    }
+
+    // The month starting at the upper bound of the last partition before the future partition
+    private static YearMonth lastBoundary(List<Partition> partitions) {
+        Partition last = partitions.get(partitions.size() - 2);
+        return YearMonth.from(LocalDate.parse(last.description().replace("'", "")));
+    }
+
+    private static String name(YearMonth month) {
+        return MONTH_PREFIX + month.format(MONTH_NAME);
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    /**
+     * A partition of the sales table.
+     *
+     * @param name - the partition name, p_yyyyMM for monthly partitions.
+     * @param description - the upper bound as reported by MySQL, e.g. '2024-02-01' or MAXVALUE.
+     */
+    public record Partition(String name, String description) {
+
+        /**
+         * @return the month of a monthly partition, null for the history and future partitions.
+         */
+        public YearMonth month() {
+            if (!name.matches(MONTH_PREFIX + "\\d{6}")) {
+                return null;
+            }
+            return YearMonth.parse(name.substring(MONTH_PREFIX.length()), MONTH_NAME);
+        }
+    }
+}
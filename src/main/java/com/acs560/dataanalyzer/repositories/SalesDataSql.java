@@ -0,0 +1,240 @@
+package com.acs560.dataanalyzer.repositories;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesMeasure;
+
+/**
+ * Generates the SQL statements used to query ECOM_SALES_DATA from a {@link SalesDataFilter}.
+ * Only the criteria that are set end up in the WHERE clause, so the database can pick
+ * the index matching the actual predicates.
+ */
+public final class SalesDataSql {
+
+    public static final String TABLE = "ECOM_SALES_DATA";
+
+    public static final String COLUMNS = "s.RECORD_INDEX, s.ORDER_ID, s.ORDER_DATE, s.STATUS, s.FULFILMENT, s.CHANNEL, "
+            + "s.CATEGORY, s.SIZE, s.AMOUNT, s.SHIP_CITY, s.SHIP_STATE, s.CUSTOMER_ID, "
+            + "c.NAME AS CUSTOMER_NAME, c.EMAIL AS CUSTOMER_EMAIL";
+
+    // The columns of COLUMNS read from the sales table
+    private static final String SALES_COLUMNS = "s.RECORD_INDEX, s.ORDER_ID, s.ORDER_DATE, s.STATUS, s.FULFILMENT, "
+            + "s.CHANNEL, s.CATEGORY, s.SIZE, s.AMOUNT, s.SHIP_CITY, s.SHIP_STATE, s.CUSTOMER_ID";
+
+    /**
+     * The sales table as s with its customer as c, for {@link #COLUMNS} and {@link #GRID_COLUMNS}.
+     */
+    public static final String TABLE_WITH_CUSTOMER = TABLE + " s LEFT JOIN CUSTOMER c ON c.CUSTOMER_ID = s.CUSTOMER_ID";
+
+    public static final String GRID_COLUMNS = "s.RECORD_INDEX, s.ORDER_ID, s.AMOUNT, s.SHIP_CITY, s.STATUS, "
+            + "s.CHANNEL, s.CUSTOMER_ID, c.NAME AS CUSTOMER_NAME";
+
+    public static final String INSERT = "INSERT INTO " + TABLE + " (ORDER_ID, ORDER_DATE, STATUS, FULFILMENT, "
+            + "CHANNEL, CATEGORY, SIZE, AMOUNT, SHIP_CITY, SHIP_STATE, CUSTOMER_ID) VALUES (:orderId, :orderDate, "
+            + ":status, :fulfilment, :channel, :category, :size, :amount, :shipCity, :shipState, :customerId)";
+
+    private SalesDataSql() {
+    }
+
+    /**
+     * Builds the WHERE clause for the given filter and registers its parameters.
+     * Text comparisons rely on the case-insensitive collation of the columns, set by
+     * schema-mysql.sql and schema-h2.sql, so they still use the indexes.
+     * Date bounds are plain comparisons of ORDER_DATE with DATE values, the form MySQL
+     * needs to prune the monthly partitions outside the range.
+     *
+     * @param filter - the filter to translate.
+     * @param params - the parameter source to add the filter values to.
+     * @return the WHERE clause including a leading space, or an empty string if nothing is filtered.
+     */
+    public static String where(SalesDataFilter filter, MapSqlParameterSource params) {
+        return where(filter, params, "");
+    }
+
+    private static String where(SalesDataFilter filter, MapSqlParameterSource params, String alias) {
+        List<String> predicates = new ArrayList<>();
+        if (filter != null) {
+            addEquals(predicates, params, alias + "ORDER_ID", "orderId", filter.getOrderId());
+            addEquals(predicates, params, alias + "STATUS", "status", filter.getStatus());
+            addEquals(predicates, params, alias + "FULFILMENT", "fulfilment", filter.getFulfilment());
+            addEquals(predicates, params, alias + "CHANNEL", "channel", filter.getChannel());
+            addEquals(predicates, params, alias + "CATEGORY", "category", filter.getCategory());
+            addEquals(predicates, params, alias + "SHIP_STATE", "state", filter.getState());
+            addEquals(predicates, params, alias + "SHIP_CITY", "city", filter.getCity());
+            addEquals(predicates, params, alias + "CUSTOMER_ID", "customerId", filter.getCustomerId());
+            if (filter.getStartDate() != null) {
+                predicates.add(alias + "ORDER_DATE >= :startDate");
+                params.addValue("startDate", sqlDate(filter.getStartDate()));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(alias + "ORDER_DATE <= :endDate");
+                params.addValue("endDate", sqlDate(filter.getEndDate()));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(alias + "AMOUNT >= :minAmount");
+                params.addValue("minAmount", filter.getMinAmount());
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(alias + "AMOUNT <= :maxAmount");
+                params.addValue("maxAmount", filter.getMaxAmount());
+            }
+        }
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    /**
+     * Builds the query selecting all sales data matching the filter, ordered by record index,
+     * with the customer's name and email joined in.
+     *
+     * @param filter - the filter to apply.
+     * @param params - the parameter source to add the filter values to.
+     * @return the SELECT statement, with the columns of {@link #COLUMNS}.
+     */
+    public static String select(SalesDataFilter filter, MapSqlParameterSource params) {
+        return "SELECT " + COLUMNS + " FROM " + TABLE_WITH_CUSTOMER + where(filter, params, "s.") + " ORDER BY s.RECORD_INDEX";
+    }
+
+    /**
+     * Builds the query selecting the grid columns of the sales data matching the filter, ordered by
+     * record index, with the customer name joined in. With a status or channel filter the sales
+     * columns are read from the covering grid index alone.
+     *
+     * @param filter - the filter to apply.
+     * @param params - the parameter source to add the filter values to.
+     * @return the SELECT statement, with the columns of {@link #GRID_COLUMNS}.
+     */
+    public static String selectGridRows(SalesDataFilter filter, MapSqlParameterSource params) {
+        return "SELECT " + GRID_COLUMNS + " FROM " + TABLE_WITH_CUSTOMER + where(filter, params, "s.") + " ORDER BY s.RECORD_INDEX";
+    }
+
+    /**
+     * Builds the query counting the sales data matching the filter.
+     *
+     * @param filter - the filter to apply.
+     * @param params - the parameter source to add the filter values to.
+     * @return the COUNT statement.
+     */
+    public static String count(SalesDataFilter filter, MapSqlParameterSource params) {
+        return "SELECT COUNT(*) FROM " + TABLE + where(filter, params);
+    }
+
+    /**
+     * Builds a keyset-paginated query: the rows after the given record index, limited to the page size.
+     * Unlike OFFSET paging the cost of a page does not grow with its position.
+     * <p>
+     * The page's sales rows are selected and limited in a derived table, and the customer is joined
+     * onto those rows only. With a status or channel filter the derived table is ordered by that column
+     * first: it is constant among the matching rows, so the order is the same, but the database then
+     * sees that IDX_SALES_GRID_STATUS or IDX_SALES_GRID_CHANNEL (equality column, then RECORD_INDEX)
+     * returns the rows in order, seeks to the record index and stops after the page. Without a filter
+     * the primary key does the same. Other filters read and sort the record indexes of the matching rows.
+     *
+     * @param filter - the filter to apply.
+     * @param afterIndex - the record index of the last row of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @param params - the parameter source to add the filter values to.
+     * @return the SELECT statement, with the columns of {@link #COLUMNS}.
+     */
+    public static String page(SalesDataFilter filter, Integer afterIndex, int size, MapSqlParameterSource params) {
+        String where = where(filter, params, "s.");
+        if (afterIndex != null) {
+            where += (where.isEmpty() ? " WHERE " : " AND ") + "s.RECORD_INDEX > :afterIndex";
+            params.addValue("afterIndex", afterIndex);
+        }
+        params.addValue("limit", size);
+        return "SELECT " + COLUMNS + " FROM (SELECT " + SALES_COLUMNS + " FROM " + TABLE + " s" + where
+                + " ORDER BY " + seekColumn(filter) + "s.RECORD_INDEX LIMIT :limit) s"
+                + " LEFT JOIN CUSTOMER c ON c.CUSTOMER_ID = s.CUSTOMER_ID ORDER BY s.RECORD_INDEX";
+    }
+
+    // The equality column of the grid index a keyset page can seek on, with a trailing comma
+    private static String seekColumn(SalesDataFilter filter) {
+        if (filter == null) {
+            return "";
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            return "s.STATUS, ";
+        }
+        if (filter.getChannel() != null && !filter.getChannel().isEmpty()) {
+            return "s.CHANNEL, ";
+        }
+        return "";
+    }
+
+    /**
+     * Builds the top-K query: the groups of a dimension with the largest measure among the sales
+     * data matching the filter. The database groups and sorts, so only K rows are returned.
+     * Rows without a value in the dimension are left out.
+     *
+     * @param dimension - the column to group by.
+     * @param measure - the measure to rank by.
+     * @param filter - the filter to apply.
+     * @param limit - the number of groups.
+     * @param params - the parameter source to add the filter values to.
+     * @return the SELECT statement, with the columns LABEL, REVENUE and ORDERS.
+     */
+    public static String topK(SalesDimension dimension, SalesMeasure measure, SalesDataFilter filter, int limit,
+                              MapSqlParameterSource params) {
+        String where = where(filter, params);
+        where += (where.isEmpty() ? " WHERE " : " AND ") + dimension.getColumn() + " IS NOT NULL";
+        params.addValue("limit", limit);
+        return "SELECT " + dimension.getColumn() + " AS LABEL, COALESCE(SUM(AMOUNT), 0) AS REVENUE, COUNT(*) AS ORDERS"
+                + " FROM " + TABLE + where + " GROUP BY " + dimension.getColumn()
+                + " ORDER BY " + measure.getColumn() + " DESC, LABEL LIMIT :limit";
+    }
+
+    /**
+     * Builds the exact distinct customers query: the number of distinct customers per group of a dimension.
+     *
+     * @param dimension - the column to group by.
+     * @return the SELECT statement, with the columns LABEL and CUSTOMERS.
+     */
+    public static String distinctCustomers(SalesDimension dimension) {
+        return "SELECT " + dimension.getColumn() + " AS LABEL, COUNT(DISTINCT CUSTOMER_ID) AS CUSTOMERS FROM " + TABLE
+                + " WHERE " + dimension.getColumn() + " IS NOT NULL GROUP BY " + dimension.getColumn()
+                + " ORDER BY CUSTOMERS DESC, LABEL";
+    }
+
+    /**
+     * Builds the exact amount quantiles query: per group of a dimension, the amounts whose rank among
+     * the group's amounts is the nearest rank of one of the quantiles, CEIL(quantile * orders).
+     *
+     * @param dimension - the column to group by.
+     * @param quantiles - the quantiles, each between 0 and 1.
+     * @param params - the parameter source to add the quantiles to.
+     * @return the SELECT statement, with the columns LABEL, AMOUNT, RN (the rank) and ORDERS.
+     */
+    public static String amountQuantiles(SalesDimension dimension, double[] quantiles, MapSqlParameterSource params) {
+        List<String> ranks = new ArrayList<>();
+        for (int i = 0; i < quantiles.length; i++) {
+            params.addValue("q" + i, quantiles[i]);
+            ranks.add("RN = GREATEST(1, CEIL(:q" + i + " * ORDERS))");
+        }
+        return "SELECT LABEL, AMOUNT, RN, ORDERS FROM (SELECT " + dimension.getColumn() + " AS LABEL, AMOUNT,"
+                + " ROW_NUMBER() OVER (PARTITION BY " + dimension.getColumn() + " ORDER BY AMOUNT) AS RN,"
+                + " COUNT(*) OVER (PARTITION BY " + dimension.getColumn() + ") AS ORDERS FROM " + TABLE
+                + " WHERE " + dimension.getColumn() + " IS NOT NULL AND AMOUNT IS NOT NULL) RANKED"
+                + " WHERE " + String.join(" OR ", ranks) + " ORDER BY LABEL, RN";
+    }
+
+    // Drops the time of day, so the bound compares as a DATE against the partition boundaries
+    private static java.sql.Date sqlDate(Date date) {
+        return java.sql.Date.valueOf(Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    private static void addEquals(List<String> predicates, MapSqlParameterSource params,
+                                  String column, String name, Object value) {
+        if (value != null && !(value instanceof String s && s.isEmpty())) {
+            predicates.add(column + " = :" + name);
+            params.addValue(name, value);
+        }
+    }
+}
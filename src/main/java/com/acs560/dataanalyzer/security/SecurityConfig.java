@@ -2,13 +2,20 @@ package com.acs560.dataanalyzer.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import com.acs560.dataanalyzer.views.LoginView;
@@ -18,11 +25,42 @@ import com.vaadin.flow.spring.security.VaadinWebSecurity;
 @Configuration
 public class SecurityConfig extends VaadinWebSecurity {
 	
+    /**
+     * The REST API, used by other systems: a filter chain of its own that authenticates every
+     * request with HTTP Basic and ignores the session. Without a session cookie to ride on,
+     * cross-site requests cannot act as the user, so the API needs no CSRF token; the session of
+     * a form login does not authenticate API requests.
+     *
+     * @param http - the security builder of this chain.
+     * @return the filter chain of /api/**, checked before the one of the views.
+     * @throws Exception if the chain cannot be built.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        return http.securityMatcher(AntPathRequestMatcher.antMatcher("/api/**"))
+                .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+                .httpBasic(basic -> basic.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .csrf(csrf -> csrf.disable())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .build();
+    }
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(auth ->
                 auth.requestMatchers(
-                    AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/images/*.png")).permitAll());  // <3>
+                    AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/images/*.png"),
+                    AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/actuator/health/**")).permitAll());  // <3>
+        // The actuator endpoints (Prometheus scrapes) are read by other systems: HTTP Basic,
+        // 401 instead of the login redirect
+        http.httpBasic(Customizer.withDefaults());
+        http.exceptionHandling(exceptions -> exceptions
+                .defaultAuthenticationEntryPointFor(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED),
+                        AntPathRequestMatcher.antMatcher("/actuator/**")));
         super.configure(http);
         setLoginView(http, LoginView.class);
     }
@@ -2,6 +2,7 @@ package com.acs560.dataanalyzer.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.acs560.dataanalyzer.models.Customer;
 
@@ -14,4 +15,8 @@ public interface CustomerService {
     void deleteCustomer(Long id);
     List<Customer> getCustomersByNameOrEmail(String value);
 
+    // Asynchronous variants for the UI; cancelling the future cancels the query in the database
+    CompletableFuture<List<Customer>> getAllCustomersAsync();
+    CompletableFuture<List<Customer>> getCustomersByNameOrEmailAsync(String value);
+
 }
\ No newline at end of file
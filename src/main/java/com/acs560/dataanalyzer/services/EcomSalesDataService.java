@@ -6,7 +6,16 @@ package com.acs560.dataanalyzer.services;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.HeavyHitter;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataRow;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesMeasure;
 
 public interface EcomSalesDataService {
     
@@ -80,7 +89,152 @@ public interface EcomSalesDataService {
     List<EcomSalesData> filterSalesData(String status, Double minAmount, Double maxAmount, 
                                         Date startDate, Date endDate, String city, String state);
     
+    /**
+     * Filter sales data in the database based on the given criteria.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the list of filtered sales data, ordered by record index.
+     */
+    List<EcomSalesData> filterSalesData(SalesDataFilter filter);
+    
+    /**
+     * Stream the sales data matching the criteria to the consumer, one row at a time,
+     * without materializing the result.
+     * 
+     * @param filter - the criteria to filter by.
+     * @param consumer - receives each matching sales data entry.
+     */
+    void streamSalesData(SalesDataFilter filter, Consumer<EcomSalesData> consumer);
+    
+    /**
+     * Get one page of the sales data matching the criteria.
+     * 
+     * @param filter - the criteria to filter by.
+     * @param afterIndex - the record index of the last entry of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @return - the page of sales data, ordered by record index.
+     */
+    List<EcomSalesData> getSalesDataPage(SalesDataFilter filter, Integer afterIndex, int size);
+    
+    /**
+     * Count the sales data matching the criteria.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the number of matching sales data entries.
+     */
+    long countSalesData(SalesDataFilter filter);
+    
+    /**
+     * Get the grid rows of the sales data matching the criteria: a read-only projection
+     * of the grid columns, without loading entities.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the list of matching rows, ordered by record index.
+     */
+    List<SalesDataRow> getSalesDataRows(SalesDataFilter filter);
+    
+    /**
+     * Get the list of all sales data without blocking the caller.
+     * 
+     * @return - the future of the list of all sales data; cancelling it stops the query.
+     */
+    CompletableFuture<List<EcomSalesData>> getAllSalesDataAsync();
+    
+    /**
+     * Get the sales data filtered by status without blocking the caller.
+     * 
+     * @param status - the status to filter by.
+     * @return - the future of the list of sales data filtered by status; cancelling it stops the query.
+     */
+    CompletableFuture<List<EcomSalesData>> getSalesDataByStatusAsync(String status);
+    
+    /**
+     * Get the sales data filtered by sales channel without blocking the caller.
+     * 
+     * @param channel - the sales channel to filter by.
+     * @return - the future of the list of sales data filtered by channel; cancelling it stops the query.
+     */
+    CompletableFuture<List<EcomSalesData>> getSalesDataByChannelAsync(String channel);
     
+    /**
+     * Filter sales data in the database without blocking the caller.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the future of the list of filtered sales data; cancelling it stops the query.
+     */
+    CompletableFuture<List<EcomSalesData>> filterSalesDataAsync(SalesDataFilter filter);
+    
+    /**
+     * Get one page of the sales data matching the criteria without blocking the caller.
+     * 
+     * @param filter - the criteria to filter by.
+     * @param afterIndex - the record index of the last entry of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @return - the future of the page of sales data; cancelling it stops the query.
+     */
+    CompletableFuture<List<EcomSalesData>> getSalesDataPageAsync(SalesDataFilter filter, Integer afterIndex, int size);
+    
+    /**
+     * Count the sales data matching the criteria without blocking the caller.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the future of the number of matching sales data entries; cancelling it stops the query.
+     */
+    CompletableFuture<Long> countSalesDataAsync(SalesDataFilter filter);
+    
+    /**
+     * Get the grid rows of the sales data matching the criteria without blocking the caller.
+     * 
+     * @param filter - the criteria to filter by.
+     * @return - the future of the list of matching rows; cancelling it stops the query.
+     */
+    CompletableFuture<List<SalesDataRow>> getSalesDataRowsAsync(SalesDataFilter filter);
+    
+    
+    /**
+     * Get the groups of a dimension with the largest measure among the sales data matching the criteria,
+     * e.g. the 20 cities with the most revenue. Exact; grouped and ranked by the database.
+     *
+     * @param dimension - the dimension to group by.
+     * @param measure - the measure to rank by.
+     * @param filter - the criteria to filter by.
+     * @param k - the number of groups.
+     * @return - the top groups, largest measure first.
+     */
+    List<SalesAggregate> getTopK(SalesDimension dimension, SalesMeasure measure, SalesDataFilter filter, int k);
+
+    /**
+     * Group the sales data matching the filter by a dimension in memory, in parallel over a snapshot
+     * of the table, without a grouping query.
+     *
+     * @param dimension - the dimension to group by.
+     * @param filter - the criteria to filter by.
+     * @return - the groups, highest revenue first.
+     */
+    List<SalesAggregate> aggregateSalesData(SalesDimension dimension, SalesDataFilter filter);
+
+    /**
+     * Group the sales data matching the filter by a dimension while streaming it from the database, and pass
+     * the groups to the consumer one at a time. Grouping and ordering keep at most the spill memory budget
+     * on the heap and spill the rest to disk, so dimensions with millions of groups (e.g. customers) work.
+     *
+     * @param dimension - the dimension to group by.
+     * @param filter - the criteria to filter by.
+     * @param consumer - receives the groups, highest revenue first.
+     */
+    void streamAggregates(SalesDimension dimension, SalesDataFilter filter, Consumer<SalesAggregate> consumer);
+
+    /**
+     * Get the running top list of a dimension over all sales data, kept current as orders arrive.
+     * Approximate: each entry carries its maximum overestimation.
+     *
+     * @param dimension - the dimension to group by.
+     * @param measure - the measure to rank by.
+     * @param k - the number of groups.
+     * @return - the top groups, largest estimate first.
+     */
+    List<HeavyHitter> getHeavyHitters(SalesDimension dimension, SalesMeasure measure, int k);
+
     /**
      * Adds new sales data.
      *
@@ -89,6 +243,15 @@ public interface EcomSalesDataService {
      */
     boolean addSalesData(EcomSalesData newData);
 
+    /**
+     * Adds a batch of new sales data. Entries whose order id already exists
+     * or whose customer is unknown are skipped.
+     *
+     * @param batch the sales data to add
+     * @return the number of entries that were added
+     */
+    int addSalesDataBatch(List<EcomSalesData> batch);
+
     /**
      * Updates existing sales data.
      *
@@ -0,0 +1,76 @@
+/**
+ * Interface for running heavy reports and exports in the background, outside of the
+ * request threads and the UI session. Jobs run on a small bounded executor of their own,
+ * so interactive queries never wait behind batch work.
+ */
+package com.acs560.dataanalyzer.services;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.jobs.JobListener;
+import com.acs560.dataanalyzer.jobs.JobTask;
+
+public interface JobService {
+
+    /**
+     * Submit a task as a background job.
+     *
+     * @param name - the display name of the job.
+     * @param owner - the user submitting the job.
+     * @param resultName - the file name the result is downloaded as.
+     * @param task - the work to run.
+     * @return - the queued job.
+     * @throws IllegalStateException if the job queue is full.
+     */
+    Job submit(String name, String owner, String resultName, JobTask task);
+
+    /**
+     * Get a job by its id.
+     *
+     * @param id - the job id.
+     * @return - the job, if it is still retained.
+     */
+    Optional<Job> getJob(String id);
+
+    /**
+     * Get the jobs of a user, newest first.
+     *
+     * @param owner - the user.
+     * @return - the retained jobs of the user.
+     */
+    List<Job> getJobs(String owner);
+
+    /**
+     * Cancel a queued or running job. Queued jobs are removed from the queue,
+     * running jobs are interrupted and stop at their next cancellation check.
+     *
+     * @param id - the job id.
+     * @return - true if the job was still queued or running.
+     */
+    boolean cancel(String id);
+
+    /**
+     * Get the result file of a finished job.
+     *
+     * @param id - the job id.
+     * @return - the result file, if the job succeeded and the result is still retained.
+     */
+    Optional<Path> getResult(String id);
+
+    /**
+     * Register a listener for job changes.
+     *
+     * @param listener - the listener to add.
+     */
+    void addListener(JobListener listener);
+
+    /**
+     * Remove a listener for job changes.
+     *
+     * @param listener - the listener to remove.
+     */
+    void removeListener(JobListener listener);
+}
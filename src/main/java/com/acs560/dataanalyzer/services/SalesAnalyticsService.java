@@ -0,0 +1,106 @@
+/**
+ * Interface for server-side analytics over EcomSalesData. All results are computed
+ * as aggregates in the database so that the UI never receives raw rows.
+ */
+package com.acs560.dataanalyzer.services;
+
+import java.util.List;
+
+import com.acs560.dataanalyzer.models.AmountQuantile;
+import com.acs560.dataanalyzer.models.DistinctCount;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesEstimate;
+import com.acs560.dataanalyzer.models.SalesTimePoint;
+
+public interface SalesAnalyticsService {
+
+    /**
+     * Get the daily revenue series, downsampled to the configured point budget.
+     *
+     * @return - the revenue over time, sorted by date.
+     */
+    List<SalesTimePoint> getRevenueSeries();
+
+    /**
+     * Get the daily revenue series, downsampled to at most the given number of points.
+     *
+     * @param maxPoints - the maximum number of points to return.
+     * @return - the revenue over time, sorted by date.
+     */
+    List<SalesTimePoint> getRevenueSeries(int maxPoints);
+
+    /**
+     * Get the categories with the highest revenue.
+     *
+     * @param limit - the number of categories to return.
+     * @return - the top categories, highest revenue first.
+     */
+    List<SalesAggregate> getTopCategories(int limit);
+
+    /**
+     * Get the revenue per shipping state.
+     *
+     * @return - the revenue per state, highest revenue first.
+     */
+    List<SalesAggregate> getRevenueByState();
+
+    /**
+     * Get the number of orders per order status.
+     *
+     * @return - the status mix, most frequent status first.
+     */
+    List<SalesAggregate> getStatusMix();
+
+    /**
+     * Get the aggregates of one dimension by name.
+     *
+     * @param dimension - one of 'category', 'state' or 'status'.
+     * @return - the aggregates of the dimension.
+     * @throws IllegalArgumentException if the dimension is unknown.
+     */
+    List<SalesAggregate> getAggregates(String dimension);
+
+    /**
+     * Get the number of distinct customers per group of a dimension. Exact counts are computed
+     * by the database; approximate counts come from sketches kept up to date as orders arrive.
+     *
+     * @param dimension - the dimension to group by.
+     * @param approximate - whether to answer from the sketches.
+     * @return - the groups, most customers first.
+     * @throws IllegalArgumentException if approximate and no sketches are kept for the dimension.
+     */
+    List<DistinctCount> getDistinctCustomers(SalesDimension dimension, boolean approximate);
+
+    /**
+     * Get order amount quantiles, such as the median or p99, per group of a dimension. Exact quantiles
+     * are ranked by the database; approximate quantiles come from sketches kept up to date as orders arrive.
+     *
+     * @param dimension - the dimension to group by.
+     * @param quantiles - the quantiles, each between 0 and 1.
+     * @param approximate - whether to answer from the sketches.
+     * @return - the quantiles of every group, by label and quantile.
+     * @throws IllegalArgumentException if a quantile is out of range, or if approximate and no
+     *         sketches are kept for the dimension.
+     */
+    List<AmountQuantile> getAmountQuantiles(SalesDimension dimension, double[] quantiles, boolean approximate);
+
+    /**
+     * Estimate the number and revenue of the sales data matching a filter from a sample of the table,
+     * without a query, to show while the exact result loads.
+     *
+     * @param filter - the filter criteria.
+     * @param previewRows - the maximum number of matching sample rows to return.
+     * @return - the estimate with its 95% error bounds and a preview of matching rows.
+     */
+    SalesEstimate estimateSalesData(SalesDataFilter filter, int previewRows);
+
+    /**
+     * Get a tag identifying the current version of the sales data. The tag changes whenever
+     * sales data is added, updated or deleted, so it can be used as an HTTP entity tag.
+     *
+     * @return - the data version tag.
+     */
+    String getDataVersion();
+}
@@ -0,0 +1,80 @@
+/**
+ * Interface for exporting sales data. Exports are streamed from the database,
+ * so their memory use does not depend on the number of exported rows; sorted exports
+ * spill to disk above the memory budget.
+ */
+package com.acs560.dataanalyzer.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.models.ExportStats;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataSort;
+
+public interface SalesDataExportService {
+
+    /**
+     * The CSV header written before the exported rows.
+     */
+    String CSV_HEADER = "index,orderId,date,status,fulfilment,channel,category,size,amount,shipCity,shipState";
+
+    /**
+     * Export the sales data matching the criteria as CSV.
+     *
+     * @param filter - the criteria to filter by.
+     * @param out - the stream to write the CSV to; it is flushed but not closed.
+     * @return - the throughput figures of the export.
+     * @throws IOException if writing to the stream fails.
+     */
+    ExportStats exportCsv(SalesDataFilter filter, OutputStream out) throws IOException;
+
+    /**
+     * Export the sales data matching the criteria as CSV, reporting progress while it runs.
+     * The progress callback may throw an unchecked exception to abort the export.
+     *
+     * @param filter - the criteria to filter by.
+     * @param out - the stream to write the CSV to; it is flushed but not closed.
+     * @param progress - receives the number of rows written so far, every few thousand rows.
+     * @return - the throughput figures of the export.
+     * @throws IOException if writing to the stream fails.
+     */
+    ExportStats exportCsv(SalesDataFilter filter, OutputStream out, LongConsumer progress) throws IOException;
+
+    /**
+     * Export the sales data matching the criteria as CSV in the given order, reporting progress while it runs.
+     * The rows are sorted by an external merge sort: above the memory budget they are written to temp files
+     * in sorted runs and merged, so large exports do not run out of heap.
+     *
+     * @param filter - the criteria to filter by.
+     * @param sort - the order of the rows, or null for record index order without sorting.
+     * @param out - the stream to write the CSV to; it is flushed but not closed.
+     * @param progress - receives the number of rows written so far, every few thousand rows.
+     * @return - the throughput figures of the export.
+     * @throws IOException if writing to the stream fails.
+     */
+    ExportStats exportCsv(SalesDataFilter filter, SalesDataSort sort, OutputStream out, LongConsumer progress)
+            throws IOException;
+
+    /**
+     * Export the sales data matching the criteria as CSV in a background job.
+     * The job reports its progress and can be cancelled; the CSV is downloaded from the job result.
+     *
+     * @param filter - the criteria to filter by.
+     * @param owner - the user requesting the export.
+     * @return - the queued export job.
+     */
+    Job exportCsvInBackground(SalesDataFilter filter, String owner);
+
+    /**
+     * Export the sales data matching the criteria as CSV in the given order in a background job.
+     *
+     * @param filter - the criteria to filter by.
+     * @param sort - the order of the rows, or null for record index order.
+     * @param owner - the user requesting the export.
+     * @return - the queued export job.
+     */
+    Job exportCsvInBackground(SalesDataFilter filter, SalesDataSort sort, String owner);
+}
@@ -0,0 +1,36 @@
+/**
+ * Interface for bulk imports of sales data from CSV files in the AmazonSalesReport.csv layout.
+ * Imports are resumable: a failed or cancelled import continues where it stopped when it is started again.
+ */
+package com.acs560.dataanalyzer.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.models.ImportStats;
+
+public interface SalesDataImportService {
+
+    /**
+     * Import a CSV file into the sales data. Rejected rows are written to a file next to it.
+     *
+     * @param file - the CSV file.
+     * @param progress - receives the progress about once a second.
+     * @return - the figures of the import.
+     * @throws IOException if the file cannot be read or its side files cannot be written.
+     */
+    ImportStats importCsv(Path file, Consumer<ImportStats> progress) throws IOException;
+
+    /**
+     * Import a CSV file from the import directory in a background job.
+     * The job reports its progress and can be cancelled; its result is a summary of the import.
+     *
+     * @param fileName - the name of the file in the import directory.
+     * @param owner - the user requesting the import.
+     * @return - the queued import job.
+     * @throws IllegalArgumentException if the file is not a file in the import directory.
+     */
+    Job importCsvInBackground(String fileName, String owner);
+}
@@ -0,0 +1,19 @@
+/**
+ * Interface for comparing the CSV store of {@link com.acs560.dataanalyzer.repositories.EcomSalesDataRepo}
+ * with the sales data in the database.
+ */
+package com.acs560.dataanalyzer.services;
+
+import com.acs560.dataanalyzer.models.ReconciliationReport;
+import com.acs560.dataanalyzer.models.ReconciliationReport.Source;
+
+public interface SalesDataReconciliationService {
+
+    /**
+     * Find the rows that differ between the CSV store and the database, matched by record index.
+     *
+     * @param source - the side the repair plan makes the other side equal to.
+     * @return - the differences and the repair plan.
+     */
+    ReconciliationReport reconcile(Source source);
+}
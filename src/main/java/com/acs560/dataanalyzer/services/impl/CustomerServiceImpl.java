@@ -2,12 +2,19 @@ package com.acs560.dataanalyzer.services.impl;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.acs560.dataanalyzer.concurrent.QueryExecutor;
+import com.acs560.dataanalyzer.concurrent.QueryGuard;
 import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
 import com.acs560.dataanalyzer.repositories.CustomerRepository;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
 import com.acs560.dataanalyzer.services.CustomerService;
 
 @Service
@@ -16,29 +23,54 @@ public class CustomerServiceImpl implements CustomerService {
 	 @Autowired
 	    private CustomerRepository customerRepository;
 
+	    @Autowired
+	    private QueryGuard queryGuard;
+
+	    @Autowired
+	    private QueryExecutor queryExecutor;
+
+	    @Autowired
+	    private SalesDataJdbcRepository salesDataJdbcRepository;
+
 	    @Override
+	    @Transactional
 	    public Customer addCustomer(Customer customer) {
 	        return customerRepository.save(customer);
 	    }
 
 	    @Override
+	    @Transactional(readOnly = true)
 	    public Optional<Customer> getCustomerById(Long id) {
-	        return customerRepository.findById(id);
+	        return queryGuard.call("getCustomerById", () -> customerRepository.findById(id));
 	    }
 
 	    @Override
+	    @Transactional(readOnly = true)
 	    public List<Customer> getCustomersByNameOrEmail(String value) {
 	        // Assuming you have a repository or some storage mechanism to fetch customers
-	        return customerRepository.findByNameContainingOrEmailContaining(value, value);
+	        return queryGuard.call("getCustomersByNameOrEmail",
+	                () -> customerRepository.findByNameContainingOrEmailContaining(value, value));
+	    }
+
+	    @Override
+	    public CompletableFuture<List<Customer>> getAllCustomersAsync() {
+	        return queryExecutor.supply("getAllCustomers", () -> (List<Customer>) getAllCustomers());
+	    }
+
+	    @Override
+	    public CompletableFuture<List<Customer>> getCustomersByNameOrEmailAsync(String value) {
+	        return queryExecutor.supply("getCustomersByNameOrEmail", () -> getCustomersByNameOrEmail(value));
 	    }
 
 
 	    @Override
+	    @Transactional(readOnly = true)
 	    public Iterable<Customer> getAllCustomers() {
-	        return customerRepository.findAll();
+	        return queryGuard.call("getAllCustomers", customerRepository::findAll);
 	    }
 
 	    @Override
+	    @Transactional
 	    public Customer updateCustomer(Long id, Customer customer) {
 	        if (customerRepository.existsById(id)) {
 	            customer.setCustomerId(id);
@@ -48,8 +80,13 @@ public class CustomerServiceImpl implements CustomerService {
 	    }
 
 	    @Override
+	    @Transactional
 	    public void deleteCustomer(Long id) {
 	        if (customerRepository.existsById(id)) {
+	            // The partitioned sales table has no foreign key to CUSTOMER, so the reference is checked here
+	            if (salesDataJdbcRepository.count(SalesDataFilter.builder().customerId(id).build()) > 0) {
+	                throw new DataIntegrityViolationException("Customer " + id + " still has orders");
+	            }
 	            customerRepository.deleteById(id);
 	        } else {
 	            // Handle case where customer does not exist
@@ -58,9 +95,9 @@ public class CustomerServiceImpl implements CustomerService {
 	    }
 
 		@Override
+		@Transactional(readOnly = true)
 		public Optional<Customer> getCustomerByEmail(String email) {
-			// TODO Auto-generated method stub
-			return customerRepository.findByEmail(email);
+			return queryGuard.call("getCustomerByEmail", () -> customerRepository.findByEmail(email));
 		}
 
   
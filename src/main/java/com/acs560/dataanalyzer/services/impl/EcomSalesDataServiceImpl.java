@@ -2,20 +2,51 @@ package com.acs560.dataanalyzer.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.acs560.dataanalyzer.analytics.AnalyticsExecutor;
+import com.acs560.dataanalyzer.analytics.HeavyHitters;
+import com.acs560.dataanalyzer.analytics.SalesSnapshot;
+import com.acs560.dataanalyzer.analytics.SalesSnapshots;
+import com.acs560.dataanalyzer.concurrent.QueryExecutor;
+import com.acs560.dataanalyzer.concurrent.QueryGuard;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent.ChangeType;
 import com.acs560.dataanalyzer.models.Customer;
 import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.HeavyHitter;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataRow;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesMeasure;
 import com.acs560.dataanalyzer.repositories.CustomerRepository;
 import com.acs560.dataanalyzer.repositories.EcomSalesDataRepository;
+import com.acs560.dataanalyzer.repositories.OrderIdFilter;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
 import com.acs560.dataanalyzer.services.EcomSalesDataService;
+import com.acs560.dataanalyzer.spill.ExternalSorter;
+import com.acs560.dataanalyzer.spill.SpillCodecs;
+import com.acs560.dataanalyzer.spill.SpillOperators;
+import com.acs560.dataanalyzer.spill.SpillingAggregator;
 
 import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.text.SimpleDateFormat;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 /**
  * Service implementation for operations on EcomSalesData.
@@ -31,6 +62,33 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
     @Autowired
     private final CustomerRepository customerRepository;
 
+    @Autowired
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+
+    @Autowired
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private final QueryExecutor queryExecutor;
+
+    @Autowired
+    private final QueryGuard queryGuard;
+
+    @Autowired
+    private final OrderIdFilter orderIdFilter;
+
+    @Autowired
+    private final HeavyHitters heavyHitters;
+
+    @Autowired
+    private final AnalyticsExecutor analyticsExecutor;
+
+    @Autowired
+    private final SalesSnapshots salesSnapshots;
+
+    @Autowired
+    private final SpillOperators spillOperators;
+
     /**
      * Retrieves a single sales data entry by its index.
      *
@@ -38,8 +96,9 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the sales data entry or null if not found.
      */
     @Override
+    @Transactional(readOnly = true)
     public EcomSalesData getSalesDataByIndex(int index) {
-        return ecomSalesDataRepository.findById(index).orElse(null);
+        return queryGuard.call("getSalesDataByIndex", () -> ecomSalesDataRepository.findById(index).orElse(null));
     }
 
     /**
@@ -48,34 +107,39 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the list of all sales data.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getAllSalesData() {
-        return (List<EcomSalesData>) ecomSalesDataRepository.findAll();
+        return queryGuard.call("getAllSalesData", () -> (List<EcomSalesData>) ecomSalesDataRepository.findAll());
     }
 
     /**
      * Retrieves sales data entries filtered by category.
      *
+     * Scanned in parallel over the in-memory snapshot, like the status, fulfilment and channel filters.
+     *
      * @param category - the category to filter by.
      * @return the list of sales data filtered by category.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getSalesDataByCategory(String category) {
-        return getAllSalesData().stream()
-                .filter(data -> data.getCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
+        return queryGuard.call("getSalesDataByCategory",
+                () -> snapshot().filter(analyticsExecutor, SalesDimension.CATEGORY, category));
     }
 
     /**
      * Retrieves sales data entries filtered by a specific date.
      *
+     * Queried in the database, where only the partition of the date's month is read.
+     *
      * @param date - the date to filter by.
      * @return the list of sales data filtered by the given date.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getSalesDataByDate(Date date) {
-        return getAllSalesData().stream()
-                .filter(data -> data.getDate().equals(date))
-                .collect(Collectors.toList());
+        SalesDataFilter filter = SalesDataFilter.builder().startDate(date).endDate(date).build();
+        return queryGuard.call("getSalesDataByDate", () -> salesDataJdbcRepository.findAll(filter));
     }
 
     /**
@@ -85,10 +149,10 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the list of sales data filtered by status.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getSalesDataByStatus(String status) {
-        return getAllSalesData().stream()
-                .filter(data -> data.getStatus().equalsIgnoreCase(status))
-                .collect(Collectors.toList());
+        return queryGuard.call("getSalesDataByStatus",
+                () -> snapshot().filter(analyticsExecutor, SalesDimension.STATUS, status));
     }
 
     /**
@@ -98,10 +162,10 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the list of sales data filtered by fulfilment type.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getSalesDataByFulfilment(String fulfilment) {
-        return getAllSalesData().stream()
-                .filter(data -> data.getFulfilment().equalsIgnoreCase(fulfilment))
-                .collect(Collectors.toList());
+        return queryGuard.call("getSalesDataByFulfilment",
+                () -> snapshot().filter(analyticsExecutor, SalesDimension.FULFILMENT, fulfilment));
     }
 
     /**
@@ -111,15 +175,16 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the list of sales data filtered by sales channel.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> getSalesDataByChannel(String channel) {
-        return getAllSalesData().stream()
-                .filter(data -> data.getChannel().equalsIgnoreCase(channel))
-                .collect(Collectors.toList());
+        return queryGuard.call("getSalesDataByChannel",
+                () -> snapshot().filter(analyticsExecutor, SalesDimension.CHANNEL, channel));
     }
 
     /**
      * Filters sales data entries based on multiple parameters such as status, amount range,
-     * date range, and location.
+     * date range, and location. Runs as a database query like {@link #filterSalesData(SalesDataFilter)},
+     * so a date range only reads the partitions of the months it covers.
      *
      * @param status - the order status.
      * @param minAmount - the minimum sales amount.
@@ -131,17 +196,224 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return the list of filtered sales data entries matching the criteria.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<EcomSalesData> filterSalesData(String status, Double minAmount, Double maxAmount,
                                                Date startDate, Date endDate, String city, String state) {
-        return getAllSalesData().stream()
-                .filter(data -> status == null || data.getStatus().equalsIgnoreCase(status))
-                .filter(data -> minAmount == null || data.getAmount() >= minAmount)
-                .filter(data -> maxAmount == null || data.getAmount() <= maxAmount)
-                .filter(data -> startDate == null || !data.getDate().before(startDate))
-                .filter(data -> endDate == null || !data.getDate().after(endDate))
-                .filter(data -> city == null || data.getShipCity().equalsIgnoreCase(city))
-                .filter(data -> state == null || data.getShipState().equalsIgnoreCase(state))
-                .collect(Collectors.toList());
+        return filterSalesData(SalesDataFilter.builder()
+                .status(status)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .startDate(startDate)
+                .endDate(endDate)
+                .city(city)
+                .state(state)
+                .build());
+    }
+
+    /**
+     * Filters sales data entries in the database. Only the criteria that are set
+     * are sent as predicates, so the query can be served by the matching index.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the list of filtered sales data entries, ordered by record index.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EcomSalesData> filterSalesData(SalesDataFilter filter) {
+        return queryGuard.call("filterSalesData", () -> salesDataJdbcRepository.findAll(filter));
+    }
+
+    /**
+     * Streams the sales data entries matching the criteria from a database cursor.
+     * Streams feed exports that may run for minutes, so they are not subject to the query timeout.
+     *
+     * @param filter - the criteria to filter by.
+     * @param consumer - receives each matching sales data entry.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamSalesData(SalesDataFilter filter, Consumer<EcomSalesData> consumer) {
+        salesDataJdbcRepository.stream(filter, consumer);
+    }
+
+    /**
+     * Retrieves one keyset-paginated page of sales data entries.
+     *
+     * @param filter - the criteria to filter by.
+     * @param afterIndex - the record index of the last entry of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @return the page of sales data entries.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EcomSalesData> getSalesDataPage(SalesDataFilter filter, Integer afterIndex, int size) {
+        return queryGuard.call("getSalesDataPage", () -> salesDataJdbcRepository.findPage(filter, afterIndex, size));
+    }
+
+    /**
+     * Counts the sales data entries matching the criteria.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the number of matching entries.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countSalesData(SalesDataFilter filter) {
+        return queryGuard.call("countSalesData", () -> salesDataJdbcRepository.count(filter));
+    }
+
+    /**
+     * Retrieves the grid rows of the sales data matching the criteria. The projection is read
+     * with plain JDBC, so no entities, persistence context or customer associations are created.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the list of matching rows, ordered by record index.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesDataRow> getSalesDataRows(SalesDataFilter filter) {
+        return queryGuard.call("getSalesDataRows", () -> salesDataJdbcRepository.findGridRows(filter));
+    }
+
+    /**
+     * Retrieves the groups of a dimension with the largest measure, grouped and ranked with
+     * ORDER BY ... LIMIT in the database, so only k rows leave it.
+     *
+     * @param dimension - the dimension to group by.
+     * @param measure - the measure to rank by.
+     * @param filter - the criteria to filter by.
+     * @param k - the number of groups.
+     * @return the top groups, largest measure first.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> getTopK(SalesDimension dimension, SalesMeasure measure, SalesDataFilter filter, int k) {
+        return queryGuard.call("getTopK", () -> salesDataJdbcRepository.findTopK(dimension, measure, filter, k));
+    }
+
+    /**
+     * Groups the sales data matching the filter in memory, in parallel over the snapshot.
+     *
+     * @param dimension - the dimension to group by.
+     * @param filter - the criteria to filter by.
+     * @return the groups, highest revenue first.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> aggregateSalesData(SalesDimension dimension, SalesDataFilter filter) {
+        return queryGuard.call("aggregateSalesData", () -> snapshot().aggregate(analyticsExecutor, dimension, filter));
+    }
+
+    /**
+     * Groups the sales data matching the filter from a database cursor with a spilling hash aggregation,
+     * then orders the groups with an external sort. Like streams, not subject to the query timeout.
+     *
+     * @param dimension - the dimension to group by.
+     * @param filter - the criteria to filter by.
+     * @param consumer - receives the groups, highest revenue first.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAggregates(SalesDimension dimension, SalesDataFilter filter, Consumer<SalesAggregate> consumer) {
+        try (SpillingAggregator aggregator = spillOperators.aggregator();
+             ExternalSorter<SalesAggregate> sorter = spillOperators.sorter(
+                     Comparator.comparing(SalesAggregate::getRevenue).reversed(), SpillCodecs.SALES_AGGREGATE)) {
+            salesDataJdbcRepository.stream(filter, data -> aggregator.add(dimension.labelOf(data),
+                    SalesMeasure.REVENUE.measure(data), 1));
+            aggregator.forEachGroup(sorter::add);
+            sorter.forEachSorted(consumer);
+        }
+    }
+
+    /**
+     * Retrieves the running top list of a dimension from the heavy hitters summaries, without a query.
+     *
+     * @param dimension - the dimension to group by.
+     * @param measure - the measure to rank by.
+     * @param k - the number of groups.
+     * @return the top groups, largest estimate first.
+     */
+    @Override
+    public List<HeavyHitter> getHeavyHitters(SalesDimension dimension, SalesMeasure measure, int k) {
+        return heavyHitters.top(dimension, measure, k);
+    }
+
+    /**
+     * Retrieves all sales data entries on the query executor.
+     *
+     * @return the future of the list of all sales data.
+     */
+    @Override
+    public CompletableFuture<List<EcomSalesData>> getAllSalesDataAsync() {
+        return queryExecutor.supply("getAllSalesData", this::getAllSalesData);
+    }
+
+    /**
+     * Retrieves sales data entries filtered by order status on the query executor.
+     *
+     * @param status - the status of the sales data.
+     * @return the future of the list of sales data filtered by status.
+     */
+    @Override
+    public CompletableFuture<List<EcomSalesData>> getSalesDataByStatusAsync(String status) {
+        return queryExecutor.supply("getSalesDataByStatus", () -> getSalesDataByStatus(status));
+    }
+
+    /**
+     * Retrieves sales data entries filtered by sales channel on the query executor.
+     *
+     * @param channel - the sales channel to filter by.
+     * @return the future of the list of sales data filtered by sales channel.
+     */
+    @Override
+    public CompletableFuture<List<EcomSalesData>> getSalesDataByChannelAsync(String channel) {
+        return queryExecutor.supply("getSalesDataByChannel", () -> getSalesDataByChannel(channel));
+    }
+
+    /**
+     * Filters sales data entries in the database on the query executor.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the future of the list of filtered sales data entries.
+     */
+    @Override
+    public CompletableFuture<List<EcomSalesData>> filterSalesDataAsync(SalesDataFilter filter) {
+        return queryExecutor.supply("filterSalesData", () -> filterSalesData(filter));
+    }
+
+    /**
+     * Retrieves one keyset-paginated page of sales data entries on the query executor.
+     *
+     * @param filter - the criteria to filter by.
+     * @param afterIndex - the record index of the last entry of the previous page, or null for the first page.
+     * @param size - the page size.
+     * @return the future of the page of sales data entries.
+     */
+    @Override
+    public CompletableFuture<List<EcomSalesData>> getSalesDataPageAsync(SalesDataFilter filter, Integer afterIndex, int size) {
+        return queryExecutor.supply("getSalesDataPage", () -> getSalesDataPage(filter, afterIndex, size));
+    }
+
+    /**
+     * Counts the sales data entries matching the criteria on the query executor.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the future of the number of matching entries.
+     */
+    @Override
+    public CompletableFuture<Long> countSalesDataAsync(SalesDataFilter filter) {
+        return queryExecutor.supply("countSalesData", () -> countSalesData(filter));
+    }
+
+    /**
+     * Retrieves the grid rows of the sales data matching the criteria on the query executor.
+     *
+     * @param filter - the criteria to filter by.
+     * @return the future of the list of matching rows.
+     */
+    @Override
+    public CompletableFuture<List<SalesDataRow>> getSalesDataRowsAsync(SalesDataFilter filter) {
+        return queryExecutor.supply("getSalesDataRows", () -> getSalesDataRows(filter));
     }
 
     /**
@@ -150,17 +422,68 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @param newData the sales data to be added.
      * @return true if data was successfully added, false otherwise.
      */
+    @Transactional
     public boolean addSalesData(EcomSalesData newData) {
-        if (newData != null && !ecomSalesDataRepository.existsByOrderId(newData.getOrderId())) {
+        if (newData != null && !exists(newData.getOrderId())) {
+            defaultOrderDate(newData);
             Customer customer = customerRepository.findById(newData.getCustomer().getCustomerId())
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
             newData.setCustomer(customer);
-            ecomSalesDataRepository.save(newData);
+            orderIdFilter.add(newData.getOrderId());
+            EcomSalesData saved = ecomSalesDataRepository.save(newData);
+            eventPublisher.publishEvent(new SalesDataChangedEvent(ChangeType.ADDED, List.of(saved)));
             return true;
         }
         return false;
     }
 
+    /**
+     * Adds a batch of sales data entries with a single JDBC batch insert.
+     * Duplicate order ids (in the database or within the batch) and entries
+     * without a known customer are skipped. Only the order ids the order id filter
+     * cannot rule out are looked up in the database.
+     *
+     * @param batch the sales data to be added.
+     * @return the number of entries that were added.
+     */
+    @Override
+    @Transactional
+    public int addSalesDataBatch(List<EcomSalesData> batch) {
+        Map<String, EcomSalesData> byOrderId = new LinkedHashMap<>();
+        for (EcomSalesData data : batch) {
+            if (data != null && data.getOrderId() != null && data.getCustomer() != null
+                    && data.getCustomer().getCustomerId() != null) {
+                byOrderId.putIfAbsent(data.getOrderId(), data);
+            }
+        }
+        // Only order ids the filter cannot rule out are looked up
+        List<String> possibleDuplicates = byOrderId.keySet().stream()
+                .filter(orderIdFilter::mightExist)
+                .collect(Collectors.toList());
+        Set<String> duplicates = salesDataJdbcRepository.findExistingOrderIds(possibleDuplicates);
+        orderIdFilter.recordFalsePositives(possibleDuplicates.size() - duplicates.size());
+        duplicates.forEach(byOrderId::remove);
+
+        Set<Long> customerIds = byOrderId.values().stream()
+                .map(data -> data.getCustomer().getCustomerId())
+                .collect(Collectors.toSet());
+        Set<Long> knownCustomerIds = StreamSupport.stream(customerRepository.findAllById(customerIds).spliterator(), false)
+                .map(Customer::getCustomerId)
+                .collect(Collectors.toSet());
+
+        List<EcomSalesData> toInsert = byOrderId.values().stream()
+                .filter(data -> knownCustomerIds.contains(data.getCustomer().getCustomerId()))
+                .collect(Collectors.toList());
+
+        toInsert.forEach(EcomSalesDataServiceImpl::defaultOrderDate);
+        toInsert.forEach(data -> orderIdFilter.add(data.getOrderId()));
+        int inserted = salesDataJdbcRepository.batchInsert(toInsert);
+        if (inserted > 0) {
+            eventPublisher.publishEvent(new SalesDataChangedEvent(ChangeType.ADDED, toInsert));
+        }
+        return inserted;
+    }
+
     /**
      * Updates an existing sales data entry.
      *
@@ -168,9 +491,12 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return true if data was successfully updated, false otherwise.
      */
     @Override
+    @Transactional
     public boolean updateSalesData(EcomSalesData updatedData) {
         if (updatedData != null && ecomSalesDataRepository.existsById(updatedData.getRecordIndex())) {
-            ecomSalesDataRepository.save(updatedData);
+            orderIdFilter.add(updatedData.getOrderId());
+            EcomSalesData saved = ecomSalesDataRepository.save(updatedData);
+            eventPublisher.publishEvent(new SalesDataChangedEvent(ChangeType.UPDATED, List.of(saved)));
             return true;
         }
         return false;
@@ -183,13 +509,38 @@ public class EcomSalesDataServiceImpl implements EcomSalesDataService {
      * @return true if data was successfully deleted, false otherwise.
      */
     @Override
+    @Transactional
     public boolean deleteSalesData(int index) {
-        if (ecomSalesDataRepository.existsById(index)) {
-            ecomSalesDataRepository.deleteById(index);
+        Optional<EcomSalesData> existing = ecomSalesDataRepository.findById(index);
+        if (existing.isPresent()) {
+            ecomSalesDataRepository.delete(existing.get());
+            eventPublisher.publishEvent(new SalesDataChangedEvent(ChangeType.DELETED, List.of(existing.get())));
             return true;
         }
         return false;
     }
 
+    // The filter rules out almost every new order id, only possible duplicates are looked up
+    private boolean exists(String orderId) {
+        if (!orderIdFilter.mightExist(orderId)) {
+            return false;
+        }
+        boolean exists = ecomSalesDataRepository.existsByOrderId(orderId);
+        if (!exists) {
+            orderIdFilter.recordFalsePositives(1);
+        }
+        return exists;
+    }
 
+    // ORDER_DATE is the partitioning key and cannot be null; an order entered without a date is placed today
+    private static void defaultOrderDate(EcomSalesData data) {
+        if (data.getDate() == null) {
+            data.setDate(Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+    }
+
+    // Loaded with all rows when the sales data changed since the last snapshot
+    private SalesSnapshot snapshot() {
+        return salesSnapshots.current(this::getAllSalesData);
+    }
 }
@@ -0,0 +1,275 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.jobs.JobContext;
+import com.acs560.dataanalyzer.jobs.JobListener;
+import com.acs560.dataanalyzer.jobs.JobStatus;
+import com.acs560.dataanalyzer.jobs.JobTask;
+import com.acs560.dataanalyzer.services.JobService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for background jobs.
+ * Jobs run on a fixed-size executor with a bounded queue; results are written to
+ * temporary files and removed once they are older than the retention time.
+ */
+@Slf4j
+@Service
+public class JobServiceImpl implements JobService {
+
+    private static final long NOTIFY_INTERVAL_MILLIS = 250;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final List<JobListener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor executor;
+    private final Path resultDirectory;
+    private final Duration resultTtl;
+
+    /**
+     * Constructor
+     *
+     * @param parallelism - the number of jobs running at the same time; keep it well below the connection pool size.
+     * @param queueCapacity - the number of jobs that may wait for a free worker.
+     * @param resultTtl - how long finished jobs and their results are retained.
+     * @param resultDirectory - the directory job results are written to.
+     * @throws IOException if the result directory cannot be created.
+     */
+    public JobServiceImpl(@Value("${sales.jobs.parallelism:2}") int parallelism,
+                          @Value("${sales.jobs.queue-capacity:20}") int queueCapacity,
+                          @Value("${sales.jobs.result-ttl:PT1H}") Duration resultTtl,
+                          @Value("${sales.jobs.result-dir:${java.io.tmpdir}/ecomsales-jobs}") String resultDirectory)
+            throws IOException {
+        this.resultTtl = resultTtl;
+        this.resultDirectory = Files.createDirectories(Paths.get(resultDirectory));
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new JobThreadFactory());
+    }
+
+    @Override
+    public Job submit(String name, String owner, String resultName, JobTask task) {
+        Job job = new Job(UUID.randomUUID().toString(), name, owner, resultName);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> execute(job, task)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Too many background jobs are queued, please try again later", e);
+        }
+        notifyListeners(job);
+        return job;
+    }
+
+    @Override
+    public Optional<Job> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Override
+    public List<Job> getJobs(String owner) {
+        return jobs.values().stream()
+                .filter(job -> job.getOwner().equals(owner))
+                .sorted(Comparator.comparing(Job::getCreatedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.getStatus().isFinished()) {
+            return false;
+        }
+        Future<?> future = job.future();
+        if (job.cancelQueued()) {
+            // Never started: free its queue slot right away
+            if (future instanceof Runnable runnable) {
+                executor.remove(runnable);
+            }
+            notifyListeners(job);
+            return true;
+        }
+        job.requestCancel();
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<Path> getResult(String id) {
+        return getJob(id).filter(Job::isResultAvailable).map(Job::getResult);
+    }
+
+    @Override
+    public void addListener(JobListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(JobListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Removes finished jobs whose retention time has passed, together with their results.
+     */
+    @Scheduled(fixedDelayString = "${sales.jobs.cleanup-interval:PT1M}")
+    public void purgeExpiredJobs() {
+        Instant expiry = Instant.now().minus(resultTtl);
+        jobs.values().stream()
+                .filter(job -> job.getStatus().isFinished() && job.getFinishedAt().isBefore(expiry))
+                .forEach(job -> {
+                    jobs.remove(job.getId());
+                    deleteResult(job);
+                });
+    }
+
+    /**
+     * Stops the running jobs and removes all results on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().forEach(this::deleteResult);
+    }
+
+    private void execute(Job job, JobTask task) {
+        if (!job.start()) {
+            return;
+        }
+        notifyListeners(job);
+
+        Path file = resultDirectory.resolve(job.getId() + ".result");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            task.run(new Context(job), out);
+        } catch (CancellationException | InterruptedException e) {
+            job.fail(JobStatus.CANCELLED, "Cancelled");
+        } catch (Exception e) {
+            job.fail(job.isCancelRequested() ? JobStatus.CANCELLED : JobStatus.FAILED,
+                    job.isCancelRequested() ? "Cancelled" : e.getMessage());
+            if (!job.isCancelRequested()) {
+                log.error("Background job '{}' failed", job.getName(), e);
+            }
+        }
+
+        if (job.isCancelRequested()) {
+            job.fail(JobStatus.CANCELLED, "Cancelled");
+        }
+        if (job.getStatus() != JobStatus.RUNNING || !job.succeed(file)) {
+            deleteFile(file);
+        }
+        notifyListeners(job);
+    }
+
+    private void deleteResult(Job job) {
+        Path result = job.getResult();
+        job.discardResult();
+        if (result != null) {
+            deleteFile(result);
+        }
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete job result {}", file, e);
+        }
+    }
+
+    private void notifyListeners(Job job) {
+        for (JobListener listener : listeners) {
+            try {
+                listener.jobChanged(job);
+            } catch (RuntimeException e) {
+                log.warn("Job listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * The context handed to a running task. Progress notifications are throttled,
+     * so a task may report progress as often as it likes.
+     */
+    private class Context implements JobContext {
+
+        private final Job job;
+        private long lastNotified;
+
+        Context(Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public void setProgress(double fraction) {
+            job.setProgress(fraction);
+            notifyThrottled();
+        }
+
+        @Override
+        public void setMessage(String message) {
+            job.setMessage(message);
+            notifyThrottled();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return job.isCancelRequested();
+        }
+
+        private void notifyThrottled() {
+            long now = System.currentTimeMillis();
+            if (now - lastNotified >= NOTIFY_INTERVAL_MILLIS) {
+                lastNotified = now;
+                notifyListeners(job);
+            }
+        }
+    }
+
+    /**
+     * Creates the job worker threads: named, daemon and below normal priority,
+     * so batch work yields to request handling under load.
+     */
+    private static class JobThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "background-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
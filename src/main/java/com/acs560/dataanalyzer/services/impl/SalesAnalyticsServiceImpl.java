@@ -0,0 +1,212 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.acs560.dataanalyzer.analytics.Lttb;
+import com.acs560.dataanalyzer.analytics.SalesSample;
+import com.acs560.dataanalyzer.analytics.SalesSketches;
+import com.acs560.dataanalyzer.datasource.ReadYourWrites;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.models.AmountQuantile;
+import com.acs560.dataanalyzer.models.DistinctCount;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.models.SalesEstimate;
+import com.acs560.dataanalyzer.models.SalesTimePoint;
+import com.acs560.dataanalyzer.repositories.EcomSalesDataRepository;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+import com.acs560.dataanalyzer.services.SalesAnalyticsService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service implementation for the sales analytics dashboard.
+ * Aggregates are grouped in the database; the revenue series is additionally
+ * downsampled with LTTB so its size does not grow with the order history.
+ * Results are cached until the sales data changes. The aggregates are read-only transactions
+ * and run on the read replica if one is configured; results read while the replica may still
+ * lag behind a write are served but not cached. Distinct customers and amount quantiles can
+ * also be answered approximately from the {@link SalesSketches}, and filter results estimated
+ * from the {@link SalesSample}, without a query.
+ */
+@Service
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private final EcomSalesDataRepository ecomSalesDataRepository;
+    private final ReadYourWrites readYourWrites;
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+    private final SalesSketches salesSketches;
+    private final SalesSample salesSample;
+
+    // Distinguishes versions across restarts, the counter starts over on every boot
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, List<?>> cache = new ConcurrentHashMap<>();
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheInvalidations;
+
+    @Value("${sales.dashboard.series-points:500}")
+    private int seriesPoints;
+
+    /**
+     * Constructor
+     *
+     * @param ecomSalesDataRepository - the repository grouping the sales data.
+     * @param readYourWrites - the recent writes, which the replica may not show yet.
+     * @param salesDataJdbcRepository - the repository computing the exact distinct counts and quantiles.
+     * @param salesSketches - the sketches answering approximately.
+     * @param salesSample - the sample estimating filter results.
+     * @param meterRegistry - the registry of the cache metrics.
+     */
+    public SalesAnalyticsServiceImpl(EcomSalesDataRepository ecomSalesDataRepository, ReadYourWrites readYourWrites,
+                                     SalesDataJdbcRepository salesDataJdbcRepository, SalesSketches salesSketches,
+                                     SalesSample salesSample, MeterRegistry meterRegistry) {
+        this.ecomSalesDataRepository = ecomSalesDataRepository;
+        this.readYourWrites = readYourWrites;
+        this.salesDataJdbcRepository = salesDataJdbcRepository;
+        this.salesSketches = salesSketches;
+        this.salesSample = salesSample;
+        this.cacheHits = Counter.builder("sales.cache.requests").tag("cache", "analytics").tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("sales.cache.requests").tag("cache", "analytics").tag("result", "miss")
+                .register(meterRegistry);
+        this.cacheInvalidations = Counter.builder("sales.cache.invalidations").tag("cache", "analytics")
+                .register(meterRegistry);
+        Gauge.builder("sales.cache.size", cache, Map::size)
+                .tag("cache", "analytics")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesTimePoint> getRevenueSeries() {
+        return getRevenueSeries(seriesPoints);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesTimePoint> getRevenueSeries(int maxPoints) {
+        return cached("revenue:" + maxPoints, () -> {
+            List<SalesTimePoint> daily = ecomSalesDataRepository.findDailyRevenue();
+            return Lttb.downsample(daily, maxPoints,
+                    point -> point.getDate().getTime(),
+                    point -> point.getValue() == null ? 0 : point.getValue());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> getTopCategories(int limit) {
+        return cached("categories:" + limit,
+                () -> ecomSalesDataRepository.findRevenueByCategory(PageRequest.of(0, limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> getRevenueByState() {
+        return cached("state", ecomSalesDataRepository::findRevenueByState);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> getStatusMix() {
+        return cached("status", ecomSalesDataRepository::findOrdersByStatus);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesAggregate> getAggregates(String dimension) {
+        switch (dimension.toLowerCase()) {
+            case "category":
+                return cached("category", () -> ecomSalesDataRepository.findRevenueByCategory(Pageable.unpaged()));
+            case "state":
+                return getRevenueByState();
+            case "status":
+                return getStatusMix();
+            default:
+                throw new IllegalArgumentException("Unknown dimension: " + dimension);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DistinctCount> getDistinctCustomers(SalesDimension dimension, boolean approximate) {
+        if (approximate) {
+            return salesSketches.distinctCustomers(dimension);
+        }
+        return cached("distinct:" + dimension, () -> salesDataJdbcRepository.findDistinctCustomers(dimension));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AmountQuantile> getAmountQuantiles(SalesDimension dimension, double[] quantiles, boolean approximate) {
+        if (quantiles.length == 0) {
+            throw new IllegalArgumentException("At least one quantile is required");
+        }
+        for (double quantile : quantiles) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1: " + quantile);
+            }
+        }
+        if (approximate) {
+            return salesSketches.amountQuantiles(dimension, quantiles);
+        }
+        return cached("quantiles:" + dimension + ":" + Arrays.toString(quantiles),
+                () -> salesDataJdbcRepository.findAmountQuantiles(dimension, quantiles));
+    }
+
+    @Override
+    public SalesEstimate estimateSalesData(SalesDataFilter filter, int previewRows) {
+        return salesSample.estimate(filter, previewRows);
+    }
+
+    @Override
+    public String getDataVersion() {
+        return instanceId + "-" + version.get();
+    }
+
+    /**
+     * Invalidates the cached aggregates whenever sales data changes, once the change is committed.
+     *
+     * @param event - the change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalesDataChanged(SalesDataChangedEvent event) {
+        version.incrementAndGet();
+        cache.clear();
+        cacheInvalidations.increment();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(String key, Supplier<List<T>> loader) {
+        // The version is part of the key, so a load racing with a change is never served afterwards
+        String versionedKey = version.get() + ":" + key;
+        List<?> cached = cache.get(versionedKey);
+        if (cached != null) {
+            cacheHits.increment();
+            return (List<T>) cached;
+        }
+        cacheMisses.increment();
+        if (readYourWrites.anyoneWroteRecently()) {
+            return loader.get();
+        }
+        return (List<T>) cache.computeIfAbsent(versionedKey, k -> loader.get());
+    }
+}
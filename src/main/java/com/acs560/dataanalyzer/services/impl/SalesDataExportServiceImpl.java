@@ -0,0 +1,195 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.springframework.stereotype.Service;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.ExportStats;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataSort;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+import com.acs560.dataanalyzer.services.JobService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
+import com.acs560.dataanalyzer.spill.ExternalSorter;
+import com.acs560.dataanalyzer.spill.SpillCodecs;
+import com.acs560.dataanalyzer.spill.SpillOperators;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service implementation for sales data exports.
+ * Rows are read from a database cursor and written to the output one at a time
+ * through a fixed-size buffer, so the heap stays flat regardless of the export size.
+ * Sorted exports pass the rows through an external sorter, which keeps at most the spill
+ * memory budget on the heap.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesDataExportServiceImpl implements SalesDataExportService {
+
+    private static final int HEAP_SAMPLE_INTERVAL = 100_000;
+    private static final int PROGRESS_INTERVAL = 5_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EcomSalesDataService salesDataService;
+    private final JobService jobService;
+    private final SpillOperators spillOperators;
+
+    @Override
+    public ExportStats exportCsv(SalesDataFilter filter, OutputStream out) throws IOException {
+        return exportCsv(filter, out, rows -> { });
+    }
+
+    @Override
+    public ExportStats exportCsv(SalesDataFilter filter, OutputStream out, LongConsumer progress) throws IOException {
+        return exportCsv(filter, null, out, progress);
+    }
+
+    @Override
+    public ExportStats exportCsv(SalesDataFilter filter, SalesDataSort sort, OutputStream out, LongConsumer progress)
+            throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(counting, StandardCharsets.UTF_8), BUFFER_SIZE);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
+        long[] rows = { 0 };
+        long[] peakHeap = { usedHeap() };
+
+        writer.write(CSV_HEADER);
+        writer.newLine();
+        Consumer<EcomSalesData> rowWriter = data -> {
+            try {
+                writer.write(toCsvLine(data, dateFormat));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++rows[0] % PROGRESS_INTERVAL == 0) {
+                progress.accept(rows[0]);
+            }
+            if (rows[0] % HEAP_SAMPLE_INTERVAL == 0) {
+                peakHeap[0] = Math.max(peakHeap[0], usedHeap());
+            }
+        };
+        long spilledBytes = 0;
+        try {
+            if (sort == null) {
+                salesDataService.streamSalesData(filter, rowWriter);
+            } else {
+                try (ExternalSorter<EcomSalesData> sorter = spillOperators.sorter(sort.comparator(), SpillCodecs.SALES_DATA)) {
+                    salesDataService.streamSalesData(filter, sorter::add);
+                    peakHeap[0] = Math.max(peakHeap[0], usedHeap());
+                    sorter.forEachSorted(rowWriter);
+                    spilledBytes = sorter.spilledBytes();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        progress.accept(rows[0]);
+
+        ExportStats stats = new ExportStats(rows[0], counting.getCount(),
+                (System.nanoTime() - start) / 1_000_000, Math.max(peakHeap[0], usedHeap()));
+        log.info("Exported {} rows ({} bytes) in {} ms, {} rows/s, peak heap {} MB, spilled {} MB",
+                stats.getRows(), stats.getBytes(), stats.getElapsedMillis(),
+                Math.round(stats.getRowsPerSecond()), stats.getPeakHeapBytes() / (1024 * 1024),
+                spilledBytes / (1024 * 1024));
+        return stats;
+    }
+
+    @Override
+    public Job exportCsvInBackground(SalesDataFilter filter, String owner) {
+        return exportCsvInBackground(filter, null, owner);
+    }
+
+    @Override
+    public Job exportCsvInBackground(SalesDataFilter filter, SalesDataSort sort, String owner) {
+        return jobService.submit("Sales data export", owner, "sales-data.csv", (context, out) -> {
+            long total = Math.max(1, salesDataService.countSalesData(filter));
+            exportCsv(filter, sort, out, rows -> {
+                context.checkCancelled();
+                context.setProgress((double) rows / total);
+                context.setMessage(rows + " of " + total + " rows");
+            });
+        });
+    }
+
+    /**
+     * Converts a sales data entry to a CSV line in the layout of the sales report,
+     * quoting values that contain separators.
+     *
+     * @param data - the sales data entry.
+     * @param dateFormat - the date format of the report.
+     * @return the CSV line.
+     */
+    static String toCsvLine(EcomSalesData data, SimpleDateFormat dateFormat) {
+        return data.getRecordIndex() + "," +
+               escape(data.getOrderId()) + "," +
+               (data.getDate() == null ? "" : dateFormat.format(data.getDate())) + "," +
+               escape(data.getStatus()) + "," +
+               escape(data.getFulfilment()) + "," +
+               escape(data.getChannel()) + "," +
+               escape(data.getCategory()) + "," +
+               escape(data.getSize()) + "," +
+               (data.getAmount() == null ? "" : data.getAmount()) + "," +
+               escape(data.getShipCity()) + "," +
+               escape(data.getShipState());
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counts the bytes written to the underlying stream.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
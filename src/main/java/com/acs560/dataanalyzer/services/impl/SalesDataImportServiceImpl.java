@@ -0,0 +1,135 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent.ChangeType;
+import com.acs560.dataanalyzer.ingest.ImportSettings;
+import com.acs560.dataanalyzer.ingest.SalesCsvImporter;
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.models.ImportStats;
+import com.acs560.dataanalyzer.repositories.OrderIdFilter;
+import com.acs560.dataanalyzer.services.JobService;
+import com.acs560.dataanalyzer.services.SalesDataImportService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service implementation for CSV imports, running the {@link SalesCsvImporter} pipeline
+ * with the settings of the sales.import properties.
+ */
+@Service
+public class SalesDataImportServiceImpl implements SalesDataImportService {
+
+    private final SalesCsvImporter importer;
+    private final ImportSettings settings;
+    private final Path importDirectory;
+    private final JobService jobService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor
+     *
+     * @param dataSource - the sales database.
+     * @param orderIdFilter - the filter of the stored order ids.
+     * @param jobService - runs background imports.
+     * @param eventPublisher - publishes the change of the sales data after an import.
+     * @param meterRegistry - the registry of the import metrics.
+     * @param importDirectory - the directory background imports read their files from.
+     * @param chunkSize - the number of lines per chunk and checkpoint.
+     * @param batchSize - the number of rows per batch insert.
+     * @param workers - the number of parse and of validate threads.
+     * @param resolveWorkers - the number of customer lookup threads.
+     * @param insertWorkers - the number of insert threads.
+     * @param queueCapacity - the number of chunks waiting between two stages.
+     * @param maxRowsPerSecond - the insert rate limit, 0 for none.
+     * @param createMissingCustomers - whether unknown customer emails are created rather than rejected.
+     * @param maxConnections - the number of pooled connections all running imports hold at most, together.
+     */
+    public SalesDataImportServiceImpl(DataSource dataSource,
+                                      OrderIdFilter orderIdFilter,
+                                      JobService jobService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${sales.import.directory:${java.io.tmpdir}/ecomsales-imports}") String importDirectory,
+                                      @Value("${sales.import.chunk-size:5000}") int chunkSize,
+                                      @Value("${sales.import.batch-size:1000}") int batchSize,
+                                      @Value("${sales.import.workers:2}") int workers,
+                                      @Value("${sales.import.resolve-workers:2}") int resolveWorkers,
+                                      @Value("${sales.import.insert-workers:4}") int insertWorkers,
+                                      @Value("${sales.import.queue-capacity:8}") int queueCapacity,
+                                      @Value("${sales.import.max-rows-per-second:0}") long maxRowsPerSecond,
+                                      @Value("${sales.import.create-missing-customers:false}") boolean createMissingCustomers,
+                                      @Value("${sales.import.max-connections:4}") int maxConnections) {
+        this.importer = new SalesCsvImporter(dataSource, orderIdFilter, meterRegistry, maxConnections);
+        this.settings = ImportSettings.builder()
+                .chunkSize(chunkSize)
+                .batchSize(batchSize)
+                .workers(workers)
+                .resolveWorkers(resolveWorkers)
+                .insertWorkers(insertWorkers)
+                .queueCapacity(queueCapacity)
+                .maxRowsPerSecond(maxRowsPerSecond)
+                .createMissingCustomers(createMissingCustomers)
+                .build();
+        this.importDirectory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        this.jobService = jobService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ImportStats importCsv(Path file, Consumer<ImportStats> progress) throws IOException {
+        return importCsv(file, progress, () -> false);
+    }
+
+    @Override
+    public Job importCsvInBackground(String fileName, String owner) {
+        Path file = importDirectory.resolve(fileName).normalize();
+        if (!file.getParent().equals(importDirectory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No file " + fileName + " in the import directory");
+        }
+        return jobService.submit("Sales data import of " + file.getFileName(), owner, file.getFileName() + ".import.txt",
+                (context, out) -> {
+                    ImportStats stats = importCsv(file, progress -> {
+                        context.setProgress(progress.getProgress());
+                        context.setMessage(progress.getInserted() + " rows inserted, " + progress.getRejected()
+                                + " rejected, " + Math.round(progress.getRowsPerSecond()) + " rows/s");
+                    }, context::isCancelled);
+                    writeSummary(file, stats, out);
+                });
+    }
+
+    private ImportStats importCsv(Path file, Consumer<ImportStats> progress, BooleanSupplier cancelled)
+            throws IOException {
+        try {
+            return importer.importFile(file, settings, progress, cancelled);
+        } finally {
+            // Also after a failure: the rows up to the checkpoint are in
+            eventPublisher.publishEvent(new SalesDataChangedEvent(ChangeType.ADDED, List.of()));
+        }
+    }
+
+    private static void writeSummary(Path file, ImportStats stats, OutputStream out) throws IOException {
+        String summary = "file: " + file.getFileName() + "\n"
+                + "lines: " + stats.getLinesRead() + "\n"
+                + "inserted: " + stats.getInserted() + "\n"
+                + "rejected: " + stats.getRejected() + "\n"
+                + "rejected rows: " + SalesCsvImporter.rejectsFile(file).getFileName() + "\n"
+                + "rows per second: " + Math.round(stats.getRowsPerSecond()) + "\n";
+        out.write(summary.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.ReconciliationReport;
+import com.acs560.dataanalyzer.models.ReconciliationReport.Source;
+import com.acs560.dataanalyzer.reconcile.SalesDataReconciler;
+import com.acs560.dataanalyzer.repositories.EcomSalesDataRepo;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+import com.acs560.dataanalyzer.services.SalesDataReconciliationService;
+
+/**
+ * Service implementation for the reconciliation of the CSV store with the database,
+ * running the {@link SalesDataReconciler} with the settings of the sales.reconciliation properties.
+ */
+@Service
+public class SalesDataReconciliationServiceImpl implements SalesDataReconciliationService {
+
+    private final EcomSalesDataRepo ecomSalesDataRepo;
+    private final SalesDataJdbcRepository salesDataJdbcRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fanout;
+    private final int leafSize;
+    private final int parallelism;
+    private final int maxDifferences;
+
+    /**
+     * Constructor
+     *
+     * @param ecomSalesDataRepo - holds the CSV side.
+     * @param salesDataJdbcRepository - reads the database side.
+     * @param dataSource - the sales database.
+     * @param fanout - the number of buckets a differing bucket is split into.
+     * @param leafSize - the number of rows up to which buckets are compared row by row.
+     * @param parallelism - the number of buckets compared at the same time.
+     * @param maxDifferences - the maximum number of differences listed.
+     */
+    public SalesDataReconciliationServiceImpl(EcomSalesDataRepo ecomSalesDataRepo,
+                                              SalesDataJdbcRepository salesDataJdbcRepository,
+                                              DataSource dataSource,
+                                              @Value("${sales.reconciliation.fanout:16}") int fanout,
+                                              @Value("${sales.reconciliation.leaf-size:1024}") int leafSize,
+                                              @Value("${sales.reconciliation.parallelism:4}") int parallelism,
+                                              @Value("${sales.reconciliation.max-differences:1000}") int maxDifferences) {
+        this.ecomSalesDataRepo = ecomSalesDataRepo;
+        this.salesDataJdbcRepository = salesDataJdbcRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.fanout = fanout;
+        this.leafSize = leafSize;
+        this.parallelism = parallelism;
+        this.maxDifferences = maxDifferences;
+    }
+
+    @Override
+    public ReconciliationReport reconcile(Source source) {
+        List<EcomSalesData> csvRows = new ArrayList<>(ecomSalesDataRepo.getSalesData());
+        SalesDataReconciler reconciler = new SalesDataReconciler(salesDataJdbcRepository, isMySql(),
+                fanout, leafSize, parallelism, maxDifferences);
+        return reconciler.reconcile(csvRows, source);
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+}
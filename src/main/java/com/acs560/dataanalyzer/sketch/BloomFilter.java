@@ -0,0 +1,181 @@
+package com.acs560.dataanalyzer.sketch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over strings: tells whether a key might have been added, with no false
+ * negatives and a bounded false-positive probability. It grows with the keys instead of
+ * degrading: when the current segment holds as many keys as it was sized for, a segment with
+ * twice the capacity and half the false-positive probability is added (a scalable Bloom filter).
+ * The segment probabilities form a geometric series that sums to the configured probability,
+ * however many keys arrive.
+ * <p>
+ * Thread-safe. Keys cannot be removed; a removed key only costs a false positive.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private static final double TIGHTENING = 0.5;
+
+    private final double falsePositiveProbability;
+
+    // Copy-on-write, only replaced when a segment is added
+    private volatile List<Segment> segments;
+
+    /**
+     * Constructor
+     *
+     * @param expectedKeys - the number of keys the first segment is sized for.
+     * @param falsePositiveProbability - the upper bound of the false-positive probability, between 0 and 1.
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveProbability) {
+        if (expectedKeys < 1) {
+            throw new IllegalArgumentException("expectedKeys must be positive: " + expectedKeys);
+        }
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1: "
+                    + falsePositiveProbability);
+        }
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.segments = List.of(new Segment(expectedKeys, falsePositiveProbability * (1 - TIGHTENING)));
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key - the key.
+     */
+    public void put(CharSequence key) {
+        long h1 = Hashing.hash(key);
+        current().put(h1, secondHash(h1));
+    }
+
+    /**
+     * @param key - the key.
+     * @return false if the key was definitely never added, true if it probably was.
+     */
+    public boolean mightContain(CharSequence key) {
+        long h1 = Hashing.hash(key);
+        long h2 = secondHash(h1);
+        for (Segment segment : segments) {
+            if (segment.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of keys added, counting repeated keys every time.
+     */
+    public long size() {
+        return segments.stream().mapToLong(segment -> segment.count.get()).sum();
+    }
+
+    /**
+     * @return the memory taken by the bit arrays in bytes.
+     */
+    public long sizeInBytes() {
+        return segments.stream().mapToLong(segment -> segment.bits / 8).sum();
+    }
+
+    /**
+     * @return the configured upper bound of the false-positive probability.
+     */
+    public double falsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    /**
+     * @return the false-positive probability expected from the keys added so far.
+     */
+    public double expectedFalsePositiveProbability() {
+        double allNegative = 1;
+        for (Segment segment : segments) {
+            allNegative *= 1 - segment.expectedFalsePositiveProbability();
+        }
+        return 1 - allNegative;
+    }
+
+    private Segment current() {
+        List<Segment> current = segments;
+        Segment last = current.get(current.size() - 1);
+        if (last.count.get() < last.capacity) {
+            return last;
+        }
+        synchronized (this) {
+            current = segments;
+            last = current.get(current.size() - 1);
+            if (last.count.get() >= last.capacity) {
+                List<Segment> grown = new ArrayList<>(current);
+                last = new Segment(last.capacity * 2, last.falsePositiveProbability * TIGHTENING);
+                grown.add(last);
+                segments = List.copyOf(grown);
+            }
+            return last;
+        }
+    }
+
+    // Odd, so the probe sequence never gets stuck on one bit
+    private static long secondHash(long h1) {
+        return Hashing.mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    /**
+     * A fixed-size Bloom filter; the k bit positions of a key are h1 + i * h2 (Kirsch and Mitzenmacher).
+     */
+    private static final class Segment {
+
+        private final long capacity;
+        private final double falsePositiveProbability;
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLong count = new AtomicLong();
+
+        Segment(long capacity, double falsePositiveProbability) {
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (LN2 * LN2));
+            this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBits + 63) / 64)));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * LN2));
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                set(Math.floorMod(h1 + i * h2, bits));
+            }
+            count.incrementAndGet();
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveProbability() {
+            return Math.pow(1 - Math.exp(-hashes * (double) count.get() / bits), hashes);
+        }
+
+        private void set(long bit) {
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous;
+            do {
+                previous = words.get(word);
+                if ((previous & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(word, previous, previous | mask));
+        }
+    }
+}
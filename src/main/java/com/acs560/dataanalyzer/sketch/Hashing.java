@@ -0,0 +1,39 @@
+package com.acs560.dataanalyzer.sketch;
+
+/**
+ * The 64-bit hashes shared by the sketches.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units with a murmur3 finalizer, so similar keys spread over all bits.
+     *
+     * @param key - the key.
+     * @return the hash.
+     */
+    static long hash(CharSequence key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * The murmur3 64-bit finalizer: every input bit affects every output bit.
+     *
+     * @param h - the value.
+     * @return the mixed value.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
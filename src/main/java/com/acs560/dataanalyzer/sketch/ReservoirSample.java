@@ -0,0 +1,71 @@
+package com.acs560.dataanalyzer.sketch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A uniform random sample of a stream (Vitter's reservoir sampling, algorithm R): after any number
+ * of offers, every item offered so far is in the sample with the same probability
+ * {@code capacity / seen}. Memory is bounded by the capacity. Thread-safe.
+ *
+ * @param <T> the item type.
+ */
+public class ReservoirSample<T> {
+
+    private final Object[] items;
+    private final SplittableRandom random = new SplittableRandom();
+    private int size;
+    private long seen;
+
+    /**
+     * Constructor
+     *
+     * @param capacity - the maximum sample size.
+     */
+    public ReservoirSample(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * Offers an item to the sample.
+     *
+     * @param item - the item.
+     */
+    public synchronized void offer(T item) {
+        seen++;
+        if (size < items.length) {
+            items[size++] = item;
+            return;
+        }
+        long slot = random.nextLong(seen);
+        if (slot < items.length) {
+            items[(int) slot] = item;
+        }
+    }
+
+    /**
+     * @return a copy of the sample, in no particular order, with the number of items offered.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Snapshot<T> snapshot() {
+        List<T> sample = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sample.add((T) items[i]);
+        }
+        return new Snapshot<>(sample, seen);
+    }
+
+    /**
+     * The sample at one point in time.
+     *
+     * @param items - the sampled items.
+     * @param seen - the number of items offered until then.
+     * @param <T> the item type.
+     */
+    public record Snapshot<T>(List<T> items, long seen) {
+    }
+}
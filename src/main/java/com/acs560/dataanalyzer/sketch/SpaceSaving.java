@@ -0,0 +1,165 @@
+package com.acs560.dataanalyzer.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Space-Saving heavy hitters summary (Metwally et al.) with weighted updates: keeps
+ * {@code capacity} counters, and when a new item arrives with all counters taken, it replaces
+ * the item with the smallest count and inherits that count as its error. Every item whose
+ * total weight exceeds {@code total / capacity} is kept, and a kept item's true weight is
+ * between {@code count - error} and {@code count}. Updates cost O(log capacity): the counters
+ * form a min-heap indexed by item. Thread-safe.
+ *
+ * @param <T> the item type.
+ */
+public class SpaceSaving<T> {
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    private final Counter<T>[] heap;
+    private int size;
+    private double total;
+
+    /**
+     * Constructor
+     *
+     * @param capacity - the number of counters.
+     */
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Adds a weight to an item.
+     *
+     * @param item - the item; null is ignored.
+     * @param weight - the weight; zero and negative weights are ignored.
+     */
+    public synchronized void offer(T item, double weight) {
+        if (item == null || !(weight > 0)) {
+            return;
+        }
+        total += weight;
+        Counter<T> counter = counters.get(item);
+        if (counter == null && size < capacity) {
+            counter = new Counter<>(item, weight, 0, size);
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.position);
+            return;
+        }
+        if (counter == null) {
+            // Replace the smallest counter; its count is the most the new item could have had before
+            counter = heap[0];
+            counters.remove(counter.item);
+            counter.item = item;
+            counter.error = counter.count;
+            counters.put(item, counter);
+        }
+        counter.count += weight;
+        siftDown(counter.position);
+    }
+
+    /**
+     * Gets the items with the largest counts.
+     *
+     * @param k - the number of items.
+     * @return up to k estimates, largest count first.
+     */
+    public synchronized List<Estimate<T>> top(int k) {
+        Counter<T>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingDouble((Counter<T> counter) -> counter.count).reversed());
+        List<Estimate<T>> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < sorted.length && i < k; i++) {
+            top.add(new Estimate<>(sorted[i].item, sorted[i].count, sorted[i].error));
+        }
+        return top;
+    }
+
+    /**
+     * @return the sum of all weights offered.
+     */
+    public synchronized double total() {
+        return total;
+    }
+
+    /**
+     * @return the number of counters.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private void siftUp(int position) {
+        Counter<T> counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heap[position].position = position;
+            position = parent;
+        }
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private void siftDown(int position) {
+        Counter<T> counter = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            heap[position] = heap[child];
+            heap[position].position = position;
+            position = child;
+        }
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    /**
+     * The estimated weight of an item.
+     *
+     * @param item - the item.
+     * @param count - the estimated weight, never below the true weight.
+     * @param error - the maximum overestimation.
+     * @param <T> the item type.
+     */
+    public record Estimate<T>(T item, double count, double error) {
+    }
+
+    private static final class Counter<T> {
+
+        private T item;
+        private double count;
+        private double error;
+        private int position;
+
+        Counter(T item, double count, double error, int position) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.acs560.dataanalyzer.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * External merge sort with a memory budget. Records are collected on the heap until their estimated
+ * size reaches the budget; then they are sorted and written to a temp file as a sorted run. Reading
+ * the result merges the runs, at most {@value #MAX_FAN_IN} at a time, with a buffer of
+ * {@value #BUFFER_SIZE} bytes each. Below the budget nothing is written and the records are sorted
+ * in memory. Stable: equal records come out in the order they were added.
+ * <p>
+ * Files are deleted once merged and by {@link #close}. I/O errors are thrown as {@link UncheckedIOException},
+ * so the sorter can be fed from a consumer. Not thread-safe.
+ *
+ * @param <T> the record type.
+ */
+public class ExternalSorter<T> implements Closeable {
+
+    static final int MAX_FAN_IN = 64;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Comparator<? super T> comparator;
+    private final RecordCodec<T> codec;
+    private final long memoryBudget;
+    private final Path directory;
+    private final LongConsumer spillListener;
+    private final List<T> buffer = new ArrayList<>();
+    // Oldest first, so ties between runs go to the earlier one
+    private final List<Run> runs = new ArrayList<>();
+    private long bufferedBytes;
+    private long spilledBytes;
+
+    /**
+     * Constructor
+     *
+     * @param comparator - the order of the records.
+     * @param codec - writes and reads the records.
+     * @param memoryBudget - the estimated heap of the collected records above which they are spilled, in bytes.
+     * @param directory - the directory of the temp files.
+     * @param spillListener - receives the size of every file written, in bytes.
+     */
+    public ExternalSorter(Comparator<? super T> comparator, RecordCodec<T> codec, long memoryBudget,
+                          Path directory, LongConsumer spillListener) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memoryBudget must be positive");
+        }
+        this.comparator = comparator;
+        this.codec = codec;
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.spillListener = spillListener;
+    }
+
+    /**
+     * Adds a record.
+     *
+     * @param value - the record.
+     */
+    public void add(T value) {
+        buffer.add(value);
+        bufferedBytes += codec.heapSize(value);
+        if (bufferedBytes >= memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * Passes the records to a consumer in order. Can be called once.
+     *
+     * @param consumer - receives the records.
+     */
+    public void forEachSorted(Consumer<? super T> consumer) {
+        if (runs.isEmpty()) {
+            buffer.sort(comparator);
+            buffer.forEach(consumer);
+            buffer.clear();
+            return;
+        }
+        spill();
+        while (runs.size() > MAX_FAN_IN) {
+            // Merge the oldest runs into one; its records are older than all others,
+            // so it goes first to keep the order of ties
+            List<Run> oldest = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+            runs.subList(0, MAX_FAN_IN).clear();
+            runs.add(0, writeRun(out -> merge(oldest, out)));
+        }
+        List<Run> last = new ArrayList<>(runs);
+        runs.clear();
+        merge(last, consumer);
+    }
+
+    /**
+     * @return the number of bytes written to temp files so far.
+     */
+    public long spilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Deletes the temp files that are left.
+     */
+    @Override
+    public void close() {
+        buffer.clear();
+        for (Run run : runs) {
+            delete(run.file());
+        }
+        runs.clear();
+    }
+
+    private void spill() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(comparator);
+        runs.add(writeRun(out -> buffer.forEach(out)));
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private Run writeRun(Consumer<Consumer<T>> records) {
+        long[] count = { 0 };
+        Path file = null;
+        boolean written = false;
+        try {
+            file = Files.createTempFile(directory, "sort-run-", ".bin");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                records.accept(value -> {
+                    try {
+                        codec.write(out, value);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            long size = Files.size(file);
+            spilledBytes += size;
+            spillListener.accept(size);
+            written = true;
+            return new Run(file, count[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write a sort run to " + directory, e);
+        } finally {
+            if (!written && file != null) {
+                delete(file);
+            }
+        }
+    }
+
+    private void merge(List<Run> merged, Consumer<? super T> consumer) {
+        List<Cursor> cursors = new ArrayList<>(merged.size());
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(merged.size(),
+                Comparator.comparing((Cursor cursor) -> cursor.current, comparator)
+                        .thenComparingInt(cursor -> cursor.ordinal));
+        try {
+            for (Run run : merged) {
+                Cursor cursor = new Cursor(run, cursors.size());
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                consumer.accept(cursor.current);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read a sort run from " + directory, e);
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+            for (Run run : merged) {
+                delete(run.file());
+            }
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // A temp file left behind is not worth failing the query for
+        }
+    }
+
+    private record Run(Path file, long records) {
+    }
+
+    /**
+     * The next record of a run being merged.
+     */
+    private final class Cursor implements Closeable {
+
+        private final DataInputStream in;
+        private final int ordinal;
+        private long remaining;
+        private T current;
+
+        Cursor(Run run, int ordinal) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), BUFFER_SIZE));
+            this.ordinal = ordinal;
+            this.remaining = run.records();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            remaining--;
+            current = codec.read(in);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Read-only; nothing is lost
+            }
+        }
+    }
+}
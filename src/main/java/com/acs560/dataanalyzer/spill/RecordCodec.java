@@ -0,0 +1,40 @@
+package com.acs560.dataanalyzer.spill;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes the records of a spilling operator to its temp files and reads them back, and estimates
+ * how much heap a record takes while the operator holds it.
+ *
+ * @param <T> the record type.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Writes a record.
+     *
+     * @param out - the spill file.
+     * @param value - the record.
+     * @throws IOException if writing fails.
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Reads a record written by {@link #write}.
+     *
+     * @param in - the spill file.
+     * @return the record.
+     * @throws IOException if reading fails.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Estimates the heap taken by a record, including the objects only it references.
+     *
+     * @param value - the record.
+     * @return the estimate in bytes.
+     */
+    long heapSize(T value);
+}
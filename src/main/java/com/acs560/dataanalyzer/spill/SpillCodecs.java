@@ -0,0 +1,163 @@
+package com.acs560.dataanalyzer.spill;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+
+/**
+ * The codecs of the records spilled by the sales data operators.
+ */
+public final class SpillCodecs {
+
+    // Object header and fields of a row with its boxed values; a String is about 40 bytes plus its characters
+    private static final long ROW_HEAP_SIZE = 170;
+    private static final long AGGREGATE_HEAP_SIZE = 64;
+    private static final long STRING_HEAP_SIZE = 40;
+    private static final long CUSTOMER_HEAP_SIZE = 40;
+
+    /**
+     * Sales data rows with the id, name and email of their customer.
+     */
+    public static final RecordCodec<EcomSalesData> SALES_DATA = new RecordCodec<>() {
+
+        @Override
+        public void write(DataOutput out, EcomSalesData data) throws IOException {
+            out.writeBoolean(data.getRecordIndex() != null);
+            if (data.getRecordIndex() != null) {
+                out.writeInt(data.getRecordIndex());
+            }
+            writeString(out, data.getOrderId());
+            out.writeBoolean(data.getDate() != null);
+            if (data.getDate() != null) {
+                out.writeLong(data.getDate().getTime());
+            }
+            writeString(out, data.getStatus());
+            writeString(out, data.getFulfilment());
+            writeString(out, data.getChannel());
+            writeString(out, data.getCategory());
+            writeString(out, data.getSize());
+            out.writeBoolean(data.getAmount() != null);
+            if (data.getAmount() != null) {
+                out.writeDouble(data.getAmount());
+            }
+            writeString(out, data.getShipCity());
+            writeString(out, data.getShipState());
+            Customer customer = data.getCustomer();
+            out.writeBoolean(customer != null && customer.getCustomerId() != null);
+            if (customer != null && customer.getCustomerId() != null) {
+                out.writeLong(customer.getCustomerId());
+                writeString(out, customer.getName());
+                writeString(out, customer.getEmail());
+            }
+        }
+
+        @Override
+        public EcomSalesData read(DataInput in) throws IOException {
+            Integer recordIndex = in.readBoolean() ? in.readInt() : null;
+            EcomSalesData data = new EcomSalesData(
+                    readString(in),
+                    in.readBoolean() ? new Date(in.readLong()) : null,
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    readString(in),
+                    in.readBoolean() ? in.readDouble() : null,
+                    readString(in),
+                    readString(in));
+            data.setRecordIndex(recordIndex);
+            if (in.readBoolean()) {
+                data.setCustomer(new Customer(in.readLong(), readString(in), readString(in)));
+            }
+            return data;
+        }
+
+        @Override
+        public long heapSize(EcomSalesData data) {
+            return ROW_HEAP_SIZE + stringSize(data.getOrderId()) + stringSize(data.getStatus())
+                    + stringSize(data.getFulfilment()) + stringSize(data.getChannel())
+                    + stringSize(data.getCategory()) + stringSize(data.getSize())
+                    + stringSize(data.getShipCity()) + stringSize(data.getShipState())
+                    + (data.getCustomer() == null ? 0 : CUSTOMER_HEAP_SIZE
+                            + stringSize(data.getCustomer().getName()) + stringSize(data.getCustomer().getEmail()));
+        }
+    };
+
+    /**
+     * Aggregates of a group.
+     */
+    public static final RecordCodec<SalesAggregate> SALES_AGGREGATE = new RecordCodec<>() {
+
+        @Override
+        public void write(DataOutput out, SalesAggregate aggregate) throws IOException {
+            writeString(out, aggregate.getLabel());
+            out.writeDouble(aggregate.getRevenue() == null ? 0 : aggregate.getRevenue());
+            out.writeLong(aggregate.getOrders() == null ? 0 : aggregate.getOrders());
+        }
+
+        @Override
+        public SalesAggregate read(DataInput in) throws IOException {
+            return new SalesAggregate(readString(in), in.readDouble(), in.readLong());
+        }
+
+        @Override
+        public long heapSize(SalesAggregate aggregate) {
+            return AGGREGATE_HEAP_SIZE + stringSize(aggregate.getLabel());
+        }
+    };
+
+    private SpillCodecs() {
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length and bytes; unlike writeUTF, not limited to 64 KB.
+     *
+     * @param out - the spill file.
+     * @param value - the string, or null.
+     * @return the number of bytes written.
+     * @throws IOException if writing fails.
+     */
+    static int writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return Integer.BYTES;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in - the spill file.
+     * @return the string, or null.
+     * @throws IOException if reading fails.
+     */
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Estimates the heap taken by a string.
+     *
+     * @param value - the string, or null.
+     * @return the estimate in bytes.
+     */
+    static long stringSize(String value) {
+        return value == null ? 0 : STRING_HEAP_SIZE + value.length();
+    }
+}
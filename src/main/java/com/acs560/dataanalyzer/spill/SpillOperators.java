@@ -0,0 +1,68 @@
+package com.acs560.dataanalyzer.spill;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates the operators that sort and group results too large for the heap: each keeps up to the
+ * memory budget on the heap and spills the rest to temp files in the spill directory.
+ * Counts the bytes spilled per operator in {@code sales.spill.bytes}.
+ */
+@Component
+public class SpillOperators {
+
+    private final long memoryBudget;
+    private final Path directory;
+    private final Counter sortSpills;
+    private final Counter aggregateSpills;
+
+    /**
+     * Constructor
+     *
+     * @param memoryBudget - the heap each operator may use before it spills.
+     * @param directory - the directory of the temp files.
+     * @param meterRegistry - the registry of the spill metrics.
+     * @throws IOException if the directory cannot be created.
+     */
+    public SpillOperators(@Value("${sales.spill.memory-budget:64MB}") DataSize memoryBudget,
+                          @Value("${sales.spill.directory:${java.io.tmpdir}/ecomsales-spill}") String directory,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.memoryBudget = memoryBudget.toBytes();
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.sortSpills = Counter.builder("sales.spill.bytes").tag("operator", "sort")
+                .baseUnit("bytes").register(meterRegistry);
+        this.aggregateSpills = Counter.builder("sales.spill.bytes").tag("operator", "aggregate")
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Creates a sorter; close it to delete its temp files.
+     *
+     * @param comparator - the order of the records.
+     * @param codec - writes and reads the records.
+     * @param <T> the record type.
+     * @return the sorter.
+     */
+    public <T> ExternalSorter<T> sorter(Comparator<? super T> comparator, RecordCodec<T> codec) {
+        return new ExternalSorter<>(comparator, codec, memoryBudget, directory, sortSpills::increment);
+    }
+
+    /**
+     * Creates an aggregator of revenue and orders per group; close it to delete its temp files.
+     *
+     * @return the aggregator.
+     */
+    public SpillingAggregator aggregator() {
+        return new SpillingAggregator(memoryBudget, directory, aggregateSpills::increment);
+    }
+}
@@ -0,0 +1,241 @@
+package com.acs560.dataanalyzer.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import com.acs560.dataanalyzer.models.SalesAggregate;
+
+/**
+ * Hash aggregation of revenue and orders per group, with a memory budget. Groups are summed in a hash
+ * table until its estimated size reaches the budget; then the partial sums are written to
+ * {@value #PARTITIONS} temp files by the hash of the group label, and the table starts over. Every
+ * group lands in the same partition each time, so the partitions are then summed one at a time, each
+ * in about 1/{@value #PARTITIONS} of the memory. A partition that still does not fit is split again
+ * by other bits of the hash, up to {@value #MAX_DEPTH} levels. Below the budget nothing is written.
+ * <p>
+ * Files are deleted once read and by {@link #close}. I/O errors are thrown as {@link UncheckedIOException},
+ * so the aggregator can be fed from a consumer. Not thread-safe.
+ */
+public class SpillingAggregator implements Closeable {
+
+    static final int PARTITIONS = 16;
+    static final int MAX_DEPTH = 4;
+
+    private static final int PARTITION_BITS = 4;
+    // HashMap node, label reference and the Group of a table entry; the label is counted separately
+    private static final long GROUP_HEAP_SIZE = 80;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long memoryBudget;
+    private final Path directory;
+    private final LongConsumer spillListener;
+    private final List<Path> files = new ArrayList<>();
+    private final Table table;
+    private long spilledBytes;
+
+    /**
+     * Constructor
+     *
+     * @param memoryBudget - the estimated heap of the groups above which they are spilled, in bytes.
+     * @param directory - the directory of the temp files.
+     * @param spillListener - receives the size of every file written, in bytes.
+     */
+    public SpillingAggregator(long memoryBudget, Path directory, LongConsumer spillListener) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memoryBudget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.spillListener = spillListener;
+        this.table = new Table(0);
+    }
+
+    /**
+     * Adds to the sums of a group.
+     *
+     * @param label - the group label; null is a group of its own.
+     * @param revenue - the revenue to add.
+     * @param orders - the orders to add.
+     */
+    public void add(String label, double revenue, long orders) {
+        table.add(label, revenue, orders);
+    }
+
+    /**
+     * Passes the sums of every group to a consumer, in no particular order. Can be called once.
+     *
+     * @param consumer - receives the groups.
+     */
+    public void forEachGroup(Consumer<? super SalesAggregate> consumer) {
+        table.finish(consumer);
+    }
+
+    /**
+     * @return the number of bytes written to temp files so far.
+     */
+    public long spilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Deletes the temp files that are left.
+     */
+    @Override
+    public void close() {
+        table.closePartitions();
+        for (Path file : files) {
+            delete(file);
+        }
+        files.clear();
+    }
+
+    private static int partition(String label, int level) {
+        long hash = Objects.hashCode(label) * 0x9E3779B97F4A7C15L;
+        // Every level takes the next bits from the top, so a partition is split by bits it has not used
+        return (int) (hash >>> (Long.SIZE - PARTITION_BITS * (level + 1))) & (PARTITIONS - 1);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // A temp file left behind is not worth failing the query for
+        }
+    }
+
+    /**
+     * The sums of a group.
+     */
+    private static final class Group {
+
+        private double revenue;
+        private long orders;
+    }
+
+    /**
+     * The hash table of one level: all groups, or the groups of a partition being summed.
+     */
+    private final class Table {
+
+        private final int level;
+        private final Map<String, Group> groups = new HashMap<>();
+        private long bytes;
+        private DataOutputStream[] partitions;
+        private Path[] partitionFiles;
+
+        Table(int level) {
+            this.level = level;
+        }
+
+        void add(String label, double revenue, long orders) {
+            Group group = groups.get(label);
+            if (group == null) {
+                group = new Group();
+                groups.put(label, group);
+                bytes += GROUP_HEAP_SIZE + SpillCodecs.stringSize(label);
+            }
+            group.revenue += revenue;
+            group.orders += orders;
+            // The last level keeps growing: its groups share so many hash bits that splitting would not help
+            if (bytes >= memoryBudget && level < MAX_DEPTH) {
+                spill();
+            }
+        }
+
+        void finish(Consumer<? super SalesAggregate> consumer) {
+            if (partitions == null) {
+                groups.forEach((label, group) -> consumer.accept(new SalesAggregate(label, group.revenue, group.orders)));
+                groups.clear();
+                return;
+            }
+            spill();
+            closePartitions();
+            for (Path file : partitionFiles) {
+                Table partition = new Table(level + 1);
+                try {
+                    read(file, partition);
+                    delete(file);
+                    files.remove(file);
+                    partition.finish(consumer);
+                } finally {
+                    partition.closePartitions();
+                }
+            }
+        }
+
+        private void spill() {
+            try {
+                if (partitions == null) {
+                    partitions = new DataOutputStream[PARTITIONS];
+                    partitionFiles = new Path[PARTITIONS];
+                    for (int i = 0; i < PARTITIONS; i++) {
+                        partitionFiles[i] = Files.createTempFile(directory, "aggregate-" + level + "-" + i + "-", ".bin");
+                        files.add(partitionFiles[i]);
+                        partitions[i] = new DataOutputStream(
+                                new BufferedOutputStream(Files.newOutputStream(partitionFiles[i]), BUFFER_SIZE));
+                    }
+                }
+                long size = 0;
+                for (Map.Entry<String, Group> entry : groups.entrySet()) {
+                    DataOutputStream out = partitions[partition(entry.getKey(), level)];
+                    size += SpillCodecs.writeString(out, entry.getKey());
+                    out.writeDouble(entry.getValue().revenue);
+                    out.writeLong(entry.getValue().orders);
+                    size += Double.BYTES + Long.BYTES;
+                }
+                spilledBytes += size;
+                spillListener.accept(size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write aggregate partitions to " + directory, e);
+            }
+            groups.clear();
+            bytes = 0;
+        }
+
+        private void read(Path file, Table into) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+                while (true) {
+                    String label;
+                    try {
+                        label = SpillCodecs.readString(in);
+                    } catch (EOFException e) {
+                        return;
+                    }
+                    into.add(label, in.readDouble(), in.readLong());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read an aggregate partition from " + directory, e);
+            }
+        }
+
+        void closePartitions() {
+            if (partitions == null) {
+                return;
+            }
+            try {
+                for (DataOutputStream out : partitions) {
+                    if (out != null) {
+                        out.close();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write aggregate partitions to " + directory, e);
+            }
+        }
+    }
+}
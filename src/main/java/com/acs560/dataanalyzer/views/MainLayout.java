@@ -4,7 +4,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import com.acs560.dataanalyzer.security.SecurityService;
 import com.acs560.dataanalyzer.views.customer.CustomerView;
+import com.acs560.dataanalyzer.views.dashboard.DashboardView;
 import com.acs560.dataanalyzer.views.ecomsalesdata.EcomSalesDataView;
+import com.acs560.dataanalyzer.views.jobs.JobsView;
 import com.vaadin.flow.component.applayout.AppLayout;
 import com.vaadin.flow.component.applayout.DrawerToggle;
 import com.vaadin.flow.component.button.Button;
@@ -66,6 +68,12 @@ public class MainLayout extends AppLayout {
     	
         RouterLink salesDataLink = new RouterLink("Sales Data", EcomSalesDataView.class);
         
-        addToDrawer(new VerticalLayout(customerLink, salesDataLink));
+        RouterLink dashboardLink = new RouterLink("Dashboard", DashboardView.class);
+        dashboardLink.setHighlightCondition(HighlightConditions.sameLocation());
+        
+        RouterLink jobsLink = new RouterLink("Background Jobs", JobsView.class);
+        jobsLink.setHighlightCondition(HighlightConditions.sameLocation());
+        
+        addToDrawer(new VerticalLayout(customerLink, salesDataLink, dashboardLink, jobsLink));
     }
 }
\ No newline at end of file
@@ -4,19 +4,29 @@ import com.acs560.dataanalyzer.models.Customer;
 import com.acs560.dataanalyzer.services.CustomerService;
 import com.acs560.dataanalyzer.views.MainLayout;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * The view to display and manage customer data.
@@ -27,18 +37,23 @@ import java.util.List;
 public class CustomerView extends VerticalLayout {
 
     private final CustomerService customerService;
+    private final MeterRegistry meterRegistry;
     private final Grid<Customer> grid;
     private final CustomerForm form;
     private final TextField filterText;
+    private final ProgressBar loadingIndicator;
     private Dialog dialog;
+    private CompletableFuture<List<Customer>> pendingQuery;
 
     /**
      * Constructor for CustomerView.
      * 
      * @param customerService - the service to manage customers.
+     * @param meterRegistry - the registry of the grid refresh timer.
      */
-    public CustomerView(CustomerService customerService) {
+    public CustomerView(CustomerService customerService, MeterRegistry meterRegistry) {
         this.customerService = customerService;
+        this.meterRegistry = meterRegistry;
 
         addClassName("list-view");
         setSizeFull();
@@ -46,8 +61,9 @@ public class CustomerView extends VerticalLayout {
         grid = createGrid();
         form = createForm();
         filterText = createFilter();
+        loadingIndicator = createLoadingIndicator();
 
-        add(getToolbar(), getContent());
+        add(getToolbar(), loadingIndicator, getContent());
         updateGrid();
         closeForm();
     }
@@ -103,6 +119,19 @@ public class CustomerView extends VerticalLayout {
         return filterText;
     }
 
+    /**
+     * Creates the indicator shown while the grid is loading.
+     * 
+     * @return the configured ProgressBar component.
+     */
+    private ProgressBar createLoadingIndicator() {
+        ProgressBar loadingIndicator = new ProgressBar();
+        loadingIndicator.setIndeterminate(true);
+        loadingIndicator.setVisible(false);
+
+        return loadingIndicator;
+    }
+
     /**
      * Creates the toolbar containing the filter and add button.
      * 
@@ -130,12 +159,68 @@ public class CustomerView extends VerticalLayout {
 
     /**
      * Updates the grid with customer data.
+     * The query runs off the UI thread; a query still running for a previous
+     * filter value is cancelled in the database.
      */
     private void updateGrid() {
+        cancelPendingQuery();
+
         String filterValue = filterText.getValue();
-        List<Customer> customers = (filterValue == null || filterValue.isEmpty()) ? 
-            (List<Customer>) customerService.getAllCustomers() : customerService.getCustomersByNameOrEmail(filterValue);
-        grid.setItems(customers);
+        boolean filtered = filterValue != null && !filterValue.isEmpty();
+        UI ui = UI.getCurrent();
+        Timer.Sample refresh = Timer.start(meterRegistry);
+        CompletableFuture<List<Customer>> query = filtered ?
+            customerService.getCustomersByNameOrEmailAsync(filterValue) : customerService.getAllCustomersAsync();
+        pendingQuery = query;
+        loadingIndicator.setVisible(true);
+        query.whenComplete((customers, error) -> ui.access(() -> {
+            if (pendingQuery != query) {
+                // Superseded by a newer filter value
+                recordRefresh(refresh, filtered, "cancelled");
+                return;
+            }
+            pendingQuery = null;
+            loadingIndicator.setVisible(false);
+            recordRefresh(refresh, filtered, error == null ? "success" : "error");
+            if (error == null) {
+                grid.setItems(customers);
+            } else if (!(error instanceof CancellationException)) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                Notification.show("Loading customers failed: " + cause.getMessage())
+                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
+            }
+        }));
+    }
+
+    /**
+     * Records the time from the filter change until the grid shows the result.
+     * 
+     * @param refresh - the sample started with the refresh.
+     * @param filtered - whether a filter value was applied.
+     * @param outcome - success, error or cancelled.
+     */
+    private void recordRefresh(Timer.Sample refresh, boolean filtered, String outcome) {
+        refresh.stop(Timer.builder("sales.grid.refresh")
+                .tag("view", "customers")
+                .tag("filter", filtered ? "nameOrEmail" : "none")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Cancels the grid query still in flight, if any.
+     */
+    private void cancelPendingQuery() {
+        if (pendingQuery != null) {
+            pendingQuery.cancel(true);
+            pendingQuery = null;
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        cancelPendingQuery();
+        super.onDetach(detachEvent);
     }
 
     /**
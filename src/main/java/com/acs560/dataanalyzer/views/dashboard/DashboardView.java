@@ -0,0 +1,129 @@
+package com.acs560.dataanalyzer.views.dashboard;
+
+import java.util.List;
+
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesTimePoint;
+import com.acs560.dataanalyzer.services.SalesAnalyticsService;
+import com.acs560.dataanalyzer.views.MainLayout;
+import com.vaadin.flow.component.charts.Chart;
+import com.vaadin.flow.component.charts.model.AxisType;
+import com.vaadin.flow.component.charts.model.ChartType;
+import com.vaadin.flow.component.charts.model.Configuration;
+import com.vaadin.flow.component.charts.model.DataSeries;
+import com.vaadin.flow.component.charts.model.DataSeriesItem;
+import com.vaadin.flow.component.charts.model.ListSeries;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+
+import jakarta.annotation.security.PermitAll;
+
+/**
+ * The analytics dashboard. Every chart is drawn from server-side aggregates,
+ * the revenue series is downsampled before it is sent to the browser.
+ */
+@PermitAll
+@Route(value = "dashboard", layout = MainLayout.class)
+@PageTitle("Dashboard | Data Analyzer")
+public class DashboardView extends VerticalLayout {
+
+    private static final int TOP_CATEGORIES = 10;
+
+    private final SalesAnalyticsService analyticsService;
+
+    /**
+     * Constructor for DashboardView.
+     *
+     * @param analyticsService - the service providing the sales aggregates.
+     */
+    public DashboardView(SalesAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+
+        addClassName("dashboard-view");
+        setSizeFull();
+
+        Chart revenue = createRevenueChart();
+        HorizontalLayout breakdowns = new HorizontalLayout(
+                createCategoryChart(), createStateChart(), createStatusChart());
+        breakdowns.setWidthFull();
+
+        add(revenue, breakdowns);
+    }
+
+    /**
+     * Creates the revenue over time chart.
+     *
+     * @return the configured Chart component.
+     */
+    private Chart createRevenueChart() {
+        Chart chart = new Chart(ChartType.AREASPLINE);
+        chart.setWidthFull();
+        Configuration conf = chart.getConfiguration();
+        conf.setTitle("Revenue over time");
+        conf.getxAxis().setType(AxisType.DATETIME);
+        conf.getyAxis().setTitle("Revenue");
+
+        DataSeries series = new DataSeries("Revenue");
+        for (SalesTimePoint point : analyticsService.getRevenueSeries()) {
+            series.add(new DataSeriesItem(point.getDate().toInstant(), point.getValue()));
+        }
+        conf.addSeries(series);
+        return chart;
+    }
+
+    /**
+     * Creates the top categories chart.
+     *
+     * @return the configured Chart component.
+     */
+    private Chart createCategoryChart() {
+        List<SalesAggregate> categories = analyticsService.getTopCategories(TOP_CATEGORIES);
+
+        Chart chart = new Chart(ChartType.COLUMN);
+        Configuration conf = chart.getConfiguration();
+        conf.setTitle("Top categories");
+        conf.getxAxis().setCategories(categories.stream().map(SalesAggregate::getLabel).toArray(String[]::new));
+        conf.getyAxis().setTitle("Revenue");
+        conf.addSeries(new ListSeries("Revenue",
+                categories.stream().map(SalesAggregate::getRevenue).toArray(Number[]::new)));
+        return chart;
+    }
+
+    /**
+     * Creates the revenue per state chart.
+     *
+     * @return the configured Chart component.
+     */
+    private Chart createStateChart() {
+        List<SalesAggregate> states = analyticsService.getRevenueByState();
+
+        Chart chart = new Chart(ChartType.BAR);
+        Configuration conf = chart.getConfiguration();
+        conf.setTitle("Revenue by state");
+        conf.getxAxis().setCategories(states.stream().map(SalesAggregate::getLabel).toArray(String[]::new));
+        conf.getyAxis().setTitle("Revenue");
+        conf.addSeries(new ListSeries("Revenue",
+                states.stream().map(SalesAggregate::getRevenue).toArray(Number[]::new)));
+        return chart;
+    }
+
+    /**
+     * Creates the order status mix chart.
+     *
+     * @return the configured Chart component.
+     */
+    private Chart createStatusChart() {
+        Chart chart = new Chart(ChartType.PIE);
+        Configuration conf = chart.getConfiguration();
+        conf.setTitle("Status mix");
+
+        DataSeries series = new DataSeries("Orders");
+        for (SalesAggregate status : analyticsService.getStatusMix()) {
+            series.add(new DataSeriesItem(status.getLabel(), status.getOrders()));
+        }
+        conf.addSeries(series);
+        return chart;
+    }
+}
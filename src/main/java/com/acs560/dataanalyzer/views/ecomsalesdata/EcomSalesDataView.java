@@ -1,55 +1,104 @@
 package com.acs560.dataanalyzer.views.ecomsalesdata;
 
 import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDataRow;
+import com.acs560.dataanalyzer.models.SalesEstimate;
+import com.acs560.dataanalyzer.security.SecurityService;
 import com.acs560.dataanalyzer.services.CustomerService;
 import com.acs560.dataanalyzer.services.EcomSalesDataService;
+import com.acs560.dataanalyzer.services.SalesAnalyticsService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
 import com.acs560.dataanalyzer.views.MainLayout;
+import com.acs560.dataanalyzer.views.jobs.JobsView;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouterLink;
+import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.spring.annotation.SpringComponent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.security.PermitAll;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Scope;
 
 /**
  * The view to display and manage e-commerce sales data.
  */
 @SpringComponent
+@Scope("prototype")
 @PermitAll
 @Route(value = "", layout = MainLayout.class)
 @PageTitle("EcomSales | Data Analyzer")
 public class EcomSalesDataView extends VerticalLayout {
 
+    private static final int PREVIEW_ROWS = 100;
+
     private final EcomSalesDataService service;
     private final CustomerService customerService;
-    private final Grid<EcomSalesData> grid;
+    private final SalesDataExportService exportService;
+    private final SalesAnalyticsService analyticsService;
+    private final SecurityService securityService;
+    private final MeterRegistry meterRegistry;
+    private final boolean progressive;
+    private final Grid<SalesDataRow> grid;
     private final EcomSalesDataForm form;
     private final TextField filterText;
     private final ComboBox<String> filterType;
+    private final Anchor exportLink;
+    private final ProgressBar loadingIndicator;
+    private final Span summary;
     private Dialog dialog;
+    private CompletableFuture<List<SalesDataRow>> pendingQuery;
 
     /**
      * Constructor for EcomSalesDataView.
      * 
      * @param service - the service to manage e-commerce sales data.
+     * @param customerService - the service to fetch customers.
+     * @param exportService - the service to export the filtered sales data.
+     * @param analyticsService - the service estimating the result while it loads.
+     * @param securityService - the service providing the current user.
+     * @param meterRegistry - the registry of the grid refresh timer.
+     * @param progressive - whether to show an estimate from the sample until the exact result is loaded.
      */
     @Autowired
-    public EcomSalesDataView(EcomSalesDataService service, CustomerService customerService) {
+    public EcomSalesDataView(EcomSalesDataService service, CustomerService customerService,
+                             SalesDataExportService exportService, SalesAnalyticsService analyticsService,
+                             SecurityService securityService, MeterRegistry meterRegistry,
+                             @Value("${sales.grid.progressive:true}") boolean progressive) {
         this.service = service;
         this.customerService = customerService;
+        this.exportService = exportService;
+        this.analyticsService = analyticsService;
+        this.securityService = securityService;
+        this.meterRegistry = meterRegistry;
+        this.progressive = progressive;
 
         addClassName("list-view");
         setSizeFull();
@@ -58,30 +107,33 @@ public class EcomSalesDataView extends VerticalLayout {
         form = createForm();
         filterText = createFilter();
         filterType = createFilterTypeComboBox();
+        exportLink = createExportLink();
+        loadingIndicator = createLoadingIndicator();
+        summary = new Span();
 
-        add(getToolbar(), getContent());
+        add(getToolbar(), loadingIndicator, summary, getContent());
         updateGrid();
         closeForm();
     }
 
     /**
      * Creates the grid component for displaying sales data.
+     * The grid shows read-only rows; the entity is loaded when a row is opened for editing.
      * 
      * @return the configured Grid component.
      */
-    private Grid<EcomSalesData> createGrid() {
-        Grid<EcomSalesData> grid = new Grid<>(EcomSalesData.class);
+    private Grid<SalesDataRow> createGrid() {
+        Grid<SalesDataRow> grid = new Grid<>();
         grid.addClassNames("ecomsales-grid");
         grid.setSizeFull();
         grid.addThemeVariants(GridVariant.LUMO_ROW_STRIPES);
 
-        grid.setColumns();
-        grid.addColumn(EcomSalesData::getOrderId).setHeader("Order ID").setSortable(true);
-        grid.addColumn(EcomSalesData::getAmount).setHeader("Amount").setSortable(true);
-        grid.addColumn(EcomSalesData::getShipCity).setHeader("Ship City").setSortable(true);
-        grid.addColumn(EcomSalesData::getStatus).setHeader("Status").setSortable(true);
-        grid.addColumn(EcomSalesData::getChannel).setHeader("Channel").setSortable(true);
-        grid.addColumn(EcomSalesData::getCustomer).setHeader("Customer").setSortable(true);
+        grid.addColumn(SalesDataRow::orderId).setHeader("Order ID").setSortable(true);
+        grid.addColumn(SalesDataRow::amount).setHeader("Amount").setSortable(true);
+        grid.addColumn(SalesDataRow::shipCity).setHeader("Ship City").setSortable(true);
+        grid.addColumn(SalesDataRow::status).setHeader("Status").setSortable(true);
+        grid.addColumn(SalesDataRow::channel).setHeader("Channel").setSortable(true);
+        grid.addColumn(SalesDataRow::customerName).setHeader("Customer").setSortable(true);
 
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
 
@@ -135,6 +187,32 @@ public class EcomSalesDataView extends VerticalLayout {
         return filterType;
     }
 
+    /**
+     * Creates the link downloading the filtered sales data as CSV.
+     * 
+     * @return the configured Anchor component.
+     */
+    private Anchor createExportLink() {
+        Anchor exportLink = new Anchor();
+        exportLink.getElement().setAttribute("download", true);
+        exportLink.add(new Button("Export CSV"));
+
+        return exportLink;
+    }
+
+    /**
+     * Creates the indicator shown while the grid is loading.
+     * 
+     * @return the configured ProgressBar component.
+     */
+    private ProgressBar createLoadingIndicator() {
+        ProgressBar loadingIndicator = new ProgressBar();
+        loadingIndicator.setIndeterminate(true);
+        loadingIndicator.setVisible(false);
+
+        return loadingIndicator;
+    }
+
     /**
      * Creates the toolbar containing the filter and add button.
      * 
@@ -144,7 +222,11 @@ public class EcomSalesDataView extends VerticalLayout {
         Button addSalesDataButton = new Button("Add Sales Data");
         addSalesDataButton.addClickListener(click -> handleAdd());
 
-        HorizontalLayout toolbar = new HorizontalLayout(filterType, filterText, addSalesDataButton);
+        Button backgroundExportButton = new Button("Export in Background");
+        backgroundExportButton.addClickListener(click -> handleBackgroundExport());
+
+        HorizontalLayout toolbar = new HorizontalLayout(filterType, filterText, addSalesDataButton, exportLink,
+                backgroundExportButton);
         toolbar.addClassName("toolbar");
         return toolbar;
     }
@@ -164,39 +246,185 @@ public class EcomSalesDataView extends VerticalLayout {
 
     /**
      * Updates the grid with data based on filter criteria.
+     * The query runs off the UI thread, so the session is not locked while the database
+     * works; the result is applied through {@link UI#access}. A query still running
+     * for a previous filter value is cancelled. In progressive mode the grid first shows
+     * matching rows of the sample with the estimated totals, replaced by the exact result once loaded.
      */
     private void updateGrid() {
+        cancelPendingQuery();
+        SalesDataFilter filter = currentFilter();
+        exportLink.setHref(createExportResource(filter));
+
+        UI ui = UI.getCurrent();
+        Timer.Sample refresh = Timer.start(meterRegistry);
+        CompletableFuture<List<SalesDataRow>> query = service.getSalesDataRowsAsync(filter);
+        pendingQuery = query;
+        loadingIndicator.setVisible(true);
+        if (progressive) {
+            showEstimate(filter);
+            recordRefresh(refresh, filter, "estimate");
+        }
+        query.whenComplete((filteredData, error) -> ui.access(() -> {
+            if (pendingQuery != query) {
+                // Superseded by a newer filter value
+                recordRefresh(refresh, filter, "cancelled");
+                return;
+            }
+            pendingQuery = null;
+            loadingIndicator.setVisible(false);
+            recordRefresh(refresh, filter, error == null ? "success" : "error");
+            if (error == null) {
+                grid.setItems(filteredData);
+                showTotals(filteredData);
+            } else if (!(error instanceof CancellationException)) {
+                summary.setText("");
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                Notification.show("Loading sales data failed: " + cause.getMessage())
+                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
+            }
+        }));
+    }
+
+    /**
+     * Shows the matching rows of the sample and the estimated totals.
+     *
+     * @param filter - the criteria of the refresh.
+     */
+    private void showEstimate(SalesDataFilter filter) {
+        SalesEstimate estimate = analyticsService.estimateSalesData(filter, PREVIEW_ROWS);
+        grid.setItems(estimate.getPreview());
+        if (estimate.isStale()) {
+            summary.setText(String.format("About %,.0f orders, revenue about %,.0f, estimated from %,d sampled orders "
+                    + "taken before the latest changes (loading the exact result...)",
+                    estimate.getRows(), estimate.getRevenue(), estimate.getSampleSize()));
+        } else if (estimate.getRowsError() == 0) {
+            summary.setText(String.format("%,.0f orders, revenue %,.2f (loading...)",
+                    estimate.getRows(), estimate.getRevenue()));
+        } else {
+            summary.setText(String.format("About %,.0f orders (\u00B1%,.0f), revenue about %,.0f (\u00B1%,.0f), "
+                    + "estimated from %,d sampled orders (loading the exact result...)",
+                    estimate.getRows(), estimate.getRowsError(), estimate.getRevenue(), estimate.getRevenueError(),
+                    estimate.getSampleSize()));
+        }
+    }
+
+    /**
+     * Shows the exact totals of the loaded rows.
+     *
+     * @param rows - the rows matching the filter.
+     */
+    private void showTotals(List<SalesDataRow> rows) {
+        double revenue = rows.stream().mapToDouble(row -> row.amount() == null ? 0 : row.amount()).sum();
+        summary.setText(String.format("%,d orders, revenue %,.2f", rows.size(), revenue));
+    }
+
+    /**
+     * Records the time from the filter change until the grid shows the estimate or the result.
+     * 
+     * @param refresh - the sample started with the refresh.
+     * @param filter - the criteria of the refresh.
+     * @param outcome - estimate, success, error or cancelled.
+     */
+    private void recordRefresh(Timer.Sample refresh, SalesDataFilter filter, String outcome) {
+        refresh.stop(Timer.builder("sales.grid.refresh")
+                .tag("view", "sales")
+                .tag("filter", filter.criteriaNames())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Cancels the grid query still in flight, if any.
+     */
+    private void cancelPendingQuery() {
+        if (pendingQuery != null) {
+            pendingQuery.cancel(true);
+            pendingQuery = null;
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        cancelPendingQuery();
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Maps the selected filter type and value to filter criteria.
+     * 
+     * @return the criteria matching the current filter selection.
+     */
+    private SalesDataFilter currentFilter() {
         String filterValue = filterText.getValue();
         String filterCriteria = filterType.getValue();
-
-        List<EcomSalesData> filteredData;
+        SalesDataFilter filter = SalesDataFilter.none();
         if (filterValue == null || filterValue.isEmpty() || filterCriteria == null) {
-            filteredData = service.getAllSalesData();
-        } else {
-            switch (filterCriteria) {
-                
-                case "Status":
-                    filteredData = service.getSalesDataByStatus(filterValue);
-                    break;
-                case "Channel":
-                    filteredData = service.getSalesDataByChannel(filterValue);
-                    break;
-                default:
-                    filteredData = service.getAllSalesData();
-            }
+            return filter;
         }
-        grid.setItems(filteredData);
+        switch (filterCriteria) {
+            case "Order ID":
+                filter.setOrderId(filterValue);
+                break;
+            case "Status":
+                filter.setStatus(filterValue);
+                break;
+            case "Ship City":
+                filter.setCity(filterValue);
+                break;
+            case "Channel":
+                filter.setChannel(filterValue);
+                break;
+            default:
+                break;
+        }
+        return filter;
     }
 
     /**
-     * Handles selection of a sales data item in the grid.
+     * Creates the resource streaming the sales data matching the filter as CSV.
+     * The rows are written while the browser downloads, straight from the database cursor.
      * 
-     * @param salesData - the selected sales data.
+     * @param filter - the criteria of the export.
+     * @return the stream resource.
+     */
+    private StreamResource createExportResource(SalesDataFilter filter) {
+        return new StreamResource("sales-data.csv", (stream, session) -> exportService.exportCsv(filter, stream));
+    }
+
+    /**
+     * Starts a background export of the filtered sales data. The export runs outside the
+     * UI session; its progress and download link are shown in the background jobs view.
      */
-    private void handleSelected(EcomSalesData salesData) {
-        if (salesData != null) {
-            showFormInDialog(salesData);
+    private void handleBackgroundExport() {
+        try {
+            exportService.exportCsvInBackground(currentFilter(), securityService.getAuthenticatedUser().getUsername());
+            Notification notification = new Notification();
+            notification.add(new HorizontalLayout(new Span("Export started."),
+                    new RouterLink("Show background jobs", JobsView.class)));
+            notification.setDuration(5000);
+            notification.open();
+        } catch (IllegalStateException e) {
+            Notification.show(e.getMessage()).addThemeVariants(NotificationVariant.LUMO_ERROR);
+        }
+    }
+
+    /**
+     * Handles selection of a sales data row in the grid by loading its entity into the form.
+     * 
+     * @param row - the selected row.
+     */
+    private void handleSelected(SalesDataRow row) {
+        if (row == null) {
+            return;
+        }
+        EcomSalesData salesData = service.getSalesDataByIndex(row.recordIndex());
+        if (salesData == null) {
+            Notification.show("The sales data was deleted in the meantime");
+            updateGrid();
+            return;
         }
+        showFormInDialog(salesData);
     }
 
     /**
@@ -0,0 +1,175 @@
+package com.acs560.dataanalyzer.views.jobs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.jobs.JobListener;
+import com.acs560.dataanalyzer.security.SecurityService;
+import com.acs560.dataanalyzer.services.JobService;
+import com.acs560.dataanalyzer.views.MainLayout;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.StreamResource;
+
+import jakarta.annotation.security.PermitAll;
+
+/**
+ * The view listing the background jobs of the current user. Progress and state
+ * changes are pushed to the browser while the view is open.
+ */
+@PermitAll
+@Route(value = "jobs", layout = MainLayout.class)
+@PageTitle("Background Jobs | Data Analyzer")
+public class JobsView extends VerticalLayout {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final JobService jobService;
+    private final String owner;
+    private final Grid<Job> grid;
+    private JobListener jobListener;
+
+    /**
+     * Constructor for JobsView.
+     *
+     * @param jobService - the service running the background jobs.
+     * @param securityService - the service providing the current user.
+     */
+    public JobsView(JobService jobService, SecurityService securityService) {
+        this.jobService = jobService;
+        this.owner = securityService.getAuthenticatedUser().getUsername();
+
+        addClassName("jobs-view");
+        setSizeFull();
+
+        grid = createGrid();
+        add(grid);
+        updateGrid();
+    }
+
+    /**
+     * Creates the grid component for displaying the jobs.
+     *
+     * @return the configured Grid component.
+     */
+    private Grid<Job> createGrid() {
+        Grid<Job> grid = new Grid<>(Job.class, false);
+        grid.addClassNames("jobs-grid");
+        grid.setSizeFull();
+
+        grid.addColumn(Job::getName).setHeader("Job");
+        grid.addColumn(job -> TIME_FORMAT.format(job.getCreatedAt())).setHeader("Created");
+        grid.addColumn(Job::getStatus).setHeader("Status");
+        grid.addComponentColumn(this::createProgressBar).setHeader("Progress");
+        grid.addColumn(Job::getMessage).setHeader("Details");
+        grid.addComponentColumn(this::createActions).setHeader("Actions");
+
+        grid.getColumns().forEach(col -> col.setAutoWidth(true));
+        return grid;
+    }
+
+    /**
+     * Creates the progress bar of a job.
+     *
+     * @param job - the job.
+     * @return the progress bar.
+     */
+    private Component createProgressBar(Job job) {
+        ProgressBar progressBar = new ProgressBar(0, 1, job.getProgress());
+        progressBar.setWidth("10em");
+        return progressBar;
+    }
+
+    /**
+     * Creates the actions of a job: cancel while it runs, download once it succeeded.
+     *
+     * @param job - the job.
+     * @return the action component.
+     */
+    private Component createActions(Job job) {
+        if (!job.getStatus().isFinished()) {
+            Button cancel = new Button("Cancel", e -> jobService.cancel(job.getId()));
+            cancel.addThemeVariants(ButtonVariant.LUMO_ERROR, ButtonVariant.LUMO_SMALL);
+            return cancel;
+        }
+        if (job.isResultAvailable()) {
+            Anchor download = new Anchor(createResultResource(job), "Download");
+            download.getElement().setAttribute("download", true);
+            return download;
+        }
+        return new Span();
+    }
+
+    /**
+     * Creates the resource streaming the result file of a job.
+     *
+     * @param job - the finished job.
+     * @return the stream resource.
+     */
+    private StreamResource createResultResource(Job job) {
+        return new StreamResource(job.getResultName(), () -> {
+            Path result = jobService.getResult(job.getId())
+                    .orElseThrow(() -> new IllegalStateException("The job result has expired"));
+            try {
+                return Files.newInputStream(result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reloads the jobs of the current user.
+     */
+    private void updateGrid() {
+        grid.setItems(jobService.getJobs(owner));
+    }
+
+    /**
+     * Applies a job change pushed from the job service.
+     *
+     * @param job - the job that changed.
+     */
+    private void jobChanged(Job job) {
+        if (grid.getListDataView().contains(job)) {
+            grid.getListDataView().refreshItem(job);
+        } else {
+            updateGrid();
+        }
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        UI ui = attachEvent.getUI();
+        jobListener = job -> {
+            if (owner.equals(job.getOwner())) {
+                ui.access(() -> jobChanged(job));
+            }
+        };
+        jobService.addListener(jobListener);
+        updateGrid();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        jobService.removeListener(jobListener);
+        jobListener = null;
+    }
+}
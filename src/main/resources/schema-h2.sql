@@ -0,0 +1,12 @@
+-- H2 only (the test and perf profiles), runs after schema.sql (spring.sql.init.platform=h2).
+-- The filters of SalesDataSql compare text with "=" and rely on the case-insensitive collation the
+-- columns have on MySQL (schema-mysql.sql); VARCHAR_IGNORECASE gives H2 the same comparison,
+-- so both databases match "shipped" to "Shipped" and the indexes still serve the predicates.
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN ORDER_ID SET DATA TYPE VARCHAR_IGNORECASE(50);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN STATUS SET DATA TYPE VARCHAR_IGNORECASE(20);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN FULFILMENT SET DATA TYPE VARCHAR_IGNORECASE(50);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN CHANNEL SET DATA TYPE VARCHAR_IGNORECASE(50);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN CATEGORY SET DATA TYPE VARCHAR_IGNORECASE(50);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN SIZE SET DATA TYPE VARCHAR_IGNORECASE(10);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN SHIP_CITY SET DATA TYPE VARCHAR_IGNORECASE(50);
+ALTER TABLE ECOM_SALES_DATA ALTER COLUMN SHIP_STATE SET DATA TYPE VARCHAR_IGNORECASE(50);
@@ -0,0 +1,45 @@
+-- MySQL only, runs after schema.sql (spring.sql.init.platform=mysql).
+-- Partitions ECOM_SALES_DATA by month of ORDER_DATE, so date-bounded queries only read the
+-- months they cover and old months can be dropped as a whole. The table starts with a history
+-- partition and a catch-all future partition; SalesDataPartitionManager splits the future
+-- partition into months at startup and keeps partitions ready a few months ahead.
+--
+-- Every unique key of a partitioned table has to contain ORDER_DATE, and InnoDB does not support
+-- foreign keys on partitioned tables: the customer reference is checked by CustomerService instead.
+ALTER TABLE ECOM_SALES_DATA DROP FOREIGN KEY FK_SALES_CUSTOMER;
+
+-- The filters of SalesDataSql compare text with "=" and expect it to ignore case: the collation is
+-- set here rather than inherited from the server default (schema-h2.sql does the same for H2)
+ALTER TABLE ECOM_SALES_DATA CONVERT TO CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci;
+
+ALTER TABLE ECOM_SALES_DATA DROP INDEX UK_SALES_ORDER_ID, ADD INDEX IDX_SALES_ORDER_ID (ORDER_ID);
+
+-- The reconciliation buckets rows by a hash of the order id (RowDigest.MYSQL_KEY); stored and indexed,
+-- so the digest and the rows of a bucket are read by range
+ALTER TABLE ECOM_SALES_DATA ADD COLUMN ORDER_KEY INT UNSIGNED AS (CRC32(TRIM(ORDER_ID)) >> 16) STORED,
+    ADD INDEX IDX_SALES_ORDER_KEY (ORDER_KEY);
+
+-- ORDER_ID uniqueness moves to an unpartitioned table of the order ids. The triggers write it in the
+-- statement that writes the order, so a duplicate fails that statement whichever writer runs it; a
+-- check before the insert alone lets concurrent writers through. Creating triggers with binary
+-- logging on needs SUPER or log_bin_trust_function_creators. Dropped partitions do not fire the
+-- delete trigger; SalesDataPartitionManager removes their order ids.
+DROP TABLE IF EXISTS SALES_ORDER_ID;
+
+CREATE TABLE SALES_ORDER_ID (
+    ORDER_ID VARCHAR(50) NOT NULL PRIMARY KEY
+) DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TRIGGER TRG_SALES_ORDER_ID_INSERT BEFORE INSERT ON ECOM_SALES_DATA FOR EACH ROW
+    INSERT INTO SALES_ORDER_ID (ORDER_ID) VALUES (NEW.ORDER_ID);
+
+CREATE TRIGGER TRG_SALES_ORDER_ID_UPDATE BEFORE UPDATE ON ECOM_SALES_DATA FOR EACH ROW
+    UPDATE SALES_ORDER_ID SET ORDER_ID = NEW.ORDER_ID WHERE ORDER_ID = OLD.ORDER_ID;
+
+CREATE TRIGGER TRG_SALES_ORDER_ID_DELETE AFTER DELETE ON ECOM_SALES_DATA FOR EACH ROW
+    DELETE FROM SALES_ORDER_ID WHERE ORDER_ID = OLD.ORDER_ID;
+
+ALTER TABLE ECOM_SALES_DATA PARTITION BY RANGE COLUMNS (ORDER_DATE) (
+    PARTITION p_history VALUES LESS THAN ('2022-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
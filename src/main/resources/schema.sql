@@ -9,9 +9,9 @@ CREATE TABLE CUSTOMER (
 );
 
 CREATE TABLE ECOM_SALES_DATA (
-    RECORD_INDEX INT AUTO_INCREMENT PRIMARY KEY,
-    ORDER_ID VARCHAR(50) UNIQUE NOT NULL,
-    ORDER_DATE DATE,
+    RECORD_INDEX INT AUTO_INCREMENT,
+    ORDER_ID VARCHAR(50) NOT NULL,
+    ORDER_DATE DATE NOT NULL,
     STATUS VARCHAR(20),
     FULFILMENT VARCHAR(50),
     CHANNEL VARCHAR(50),
@@ -21,5 +21,37 @@ CREATE TABLE ECOM_SALES_DATA (
     SHIP_CITY VARCHAR(50),
     SHIP_STATE VARCHAR(50),
     CUSTOMER_ID BIGINT,
-    FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER(CUSTOMER_ID)
-);
\ No newline at end of file
+    -- ORDER_DATE is part of the keys so the table can be partitioned by it (schema-mysql.sql)
+    PRIMARY KEY (RECORD_INDEX, ORDER_DATE),
+    CONSTRAINT UK_SALES_ORDER_ID UNIQUE (ORDER_ID),
+    CONSTRAINT FK_SALES_CUSTOMER FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER(CUSTOMER_ID)
+);
+
+-- Secondary indexes, one per predicate EcomSalesDataService filters on (see SalesDataSql).
+-- Each leads with the equality column and continues with the column that is ranged on next,
+-- so date ranges are read in index order without a sort. Keyset pages seek only on the grid
+-- indexes (status or channel filter) and on the primary key (no filter); pages of the other
+-- filters sort the record indexes of their matching rows (QueryPlanTest checks both).
+-- Every extra index costs on insert; drop the ones a deployment never filters on.
+
+-- Grid: filter by status or channel, page by record index; covers the grid columns
+-- so the page is answered from the index alone
+CREATE INDEX IDX_SALES_GRID_STATUS ON ECOM_SALES_DATA (STATUS, RECORD_INDEX, ORDER_ID, AMOUNT, SHIP_CITY, CHANNEL, CUSTOMER_ID);
+CREATE INDEX IDX_SALES_GRID_CHANNEL ON ECOM_SALES_DATA (CHANNEL, RECORD_INDEX, ORDER_ID, AMOUNT, SHIP_CITY, STATUS, CUSTOMER_ID);
+
+-- Date ranges; AMOUNT makes the daily revenue series index-only
+CREATE INDEX IDX_SALES_ORDER_DATE ON ECOM_SALES_DATA (ORDER_DATE, AMOUNT);
+
+-- Category, state and fulfilment filters, alone or with a date range; AMOUNT covers the dashboard revenue aggregates
+CREATE INDEX IDX_SALES_CATEGORY ON ECOM_SALES_DATA (CATEGORY, ORDER_DATE, AMOUNT);
+CREATE INDEX IDX_SALES_STATE ON ECOM_SALES_DATA (SHIP_STATE, ORDER_DATE, AMOUNT);
+CREATE INDEX IDX_SALES_FULFILMENT ON ECOM_SALES_DATA (FULFILMENT, ORDER_DATE);
+
+-- City alone (grid filter) or with its state
+CREATE INDEX IDX_SALES_CITY ON ECOM_SALES_DATA (SHIP_CITY, SHIP_STATE);
+
+-- A customer's orders; also serves the foreign key
+CREATE INDEX IDX_SALES_CUSTOMER ON ECOM_SALES_DATA (CUSTOMER_ID, ORDER_DATE);
+
+-- Amount ranges
+CREATE INDEX IDX_SALES_AMOUNT ON ECOM_SALES_DATA (AMOUNT);
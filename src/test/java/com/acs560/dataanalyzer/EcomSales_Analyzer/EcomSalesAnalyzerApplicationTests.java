@@ -2,8 +2,10 @@ package com.acs560.dataanalyzer.EcomSales_Analyzer;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class EcomSalesAnalyzerApplicationTests {
 
 	@Test
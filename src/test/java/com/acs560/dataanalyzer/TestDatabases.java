@@ -0,0 +1,34 @@
+package com.acs560.dataanalyzer;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * In-memory H2 databases with the application schema, for tests that need a database but not
+ * the application context.
+ */
+public final class TestDatabases {
+
+    private TestDatabases() {
+    }
+
+    /**
+     * Creates a database of its own, with the tables of schema.sql and schema-h2.sql and the sample rows of data.sql.
+     *
+     * @return the data source; a new connection per call, so it can be used from several threads.
+     */
+    public static DataSource create() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("schema-h2.sql"),
+                new ClassPathResource("data.sql")), dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,42 @@
+package com.acs560.dataanalyzer.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class LttbTest {
+
+    private static final List<Integer> SERIES = IntStream.range(0, 100).boxed().toList();
+
+    @Test
+    void keepsTheEndsAndTheThreshold() {
+        List<Integer> sampled = downsample(SERIES, 10);
+
+        assertEquals(10, sampled.size());
+        assertEquals(0, sampled.get(0));
+        assertEquals(99, sampled.get(9));
+    }
+
+    @Test
+    void smallThresholdsAreClampedToTheFirstAndLastPoint() {
+        for (int threshold : new int[] { 2, 1, 0, -5 }) {
+            assertEquals(List.of(0, 99), downsample(SERIES, threshold), "threshold " + threshold);
+        }
+        assertEquals(List.of(7), downsample(List.of(7), 0));
+    }
+
+    @Test
+    void smallSeriesAreReturnedAsTheyAre() {
+        assertSame(SERIES, downsample(SERIES, 100));
+        assertSame(SERIES, downsample(SERIES, 500));
+    }
+
+    // A zigzag of alternating values, so every bucket has a point far from its neighbours
+    private static List<Integer> downsample(List<Integer> data, int threshold) {
+        return Lttb.downsample(data, threshold, i -> i, i -> i % 2 == 0 ? 0 : 10);
+    }
+}
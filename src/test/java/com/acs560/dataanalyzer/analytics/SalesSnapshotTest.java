@@ -0,0 +1,84 @@
+package com.acs560.dataanalyzer.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.models.SalesDimension;
+
+class SalesSnapshotTest {
+
+    // More customers than rows per task, so the customer groups are summed in hash maps
+    private static final List<EcomSalesData> ROWS = new SalesDataGenerator(GeneratorSettings.builder()
+            .rows(40_000).customers(30_000).build()).rows().toList();
+
+    private final AnalyticsExecutor executor = new AnalyticsExecutor(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void aggregatesLikeAGroupBy() {
+        SalesSnapshot snapshot = SalesSnapshot.of(ROWS, 1, executor);
+        SalesDataFilter shipped = SalesDataFilter.builder().status("shipped").build();
+
+        for (SalesDimension dimension : List.of(SalesDimension.CUSTOMER, SalesDimension.STATUS, SalesDimension.CITY)) {
+            assertGroups(dimension, null, snapshot.aggregate(executor, dimension, null));
+            assertGroups(dimension, shipped, snapshot.aggregate(executor, dimension, shipped));
+        }
+    }
+
+    @Test
+    void changedRowsDoNotReachTheSnapshot() {
+        List<EcomSalesData> loaded = new SalesDataGenerator(GeneratorSettings.builder().rows(100).build()).rows().toList();
+        SalesSnapshot snapshot = SalesSnapshot.of(loaded, 1, executor);
+        EcomSalesData row = loaded.get(0);
+        String status = row.getStatus();
+        int matching = snapshot.filter(executor, SalesDimension.STATUS, status).size();
+
+        row.setStatus("Changed");
+        EcomSalesData returned = snapshot.filter(executor, SalesDimension.STATUS, status).get(0);
+        returned.setStatus("Changed");
+        returned.getCustomer().setName("Changed");
+
+        List<EcomSalesData> again = snapshot.filter(executor, SalesDimension.STATUS, status);
+        assertEquals(matching, again.size());
+        assertEquals(row.getRecordIndex(), again.get(0).getRecordIndex());
+        assertEquals(status, again.get(0).getStatus());
+        assertNotSame(returned.getCustomer(), again.get(0).getCustomer());
+        assertEquals(row.getCustomer().getName(), again.get(0).getCustomer().getName());
+    }
+
+    private static void assertGroups(SalesDimension dimension, SalesDataFilter filter, List<SalesAggregate> groups) {
+        Map<String, SalesAggregate> expected = new HashMap<>();
+        for (EcomSalesData data : ROWS) {
+            String label = dimension.labelOf(data);
+            if (label != null && (filter == null || filter.matches(data))) {
+                SalesAggregate group = expected.computeIfAbsent(label, l -> new SalesAggregate(l, 0.0, 0L));
+                group.setOrders(group.getOrders() + 1);
+                group.setRevenue(group.getRevenue() + (data.getAmount() == null ? 0 : data.getAmount()));
+            }
+        }
+        assertEquals(expected.size(), groups.size(), dimension + " groups");
+        for (SalesAggregate group : groups) {
+            SalesAggregate want = expected.get(group.getLabel());
+            assertNotNull(want, group.getLabel());
+            assertEquals(want.getOrders(), group.getOrders(), group.getLabel());
+            assertEquals(want.getRevenue(), group.getRevenue(), 1e-6 * Math.max(1, want.getRevenue()), group.getLabel());
+        }
+    }
+}
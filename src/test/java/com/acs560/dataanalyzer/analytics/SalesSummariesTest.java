@@ -0,0 +1,115 @@
+package com.acs560.dataanalyzer.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.acs560.dataanalyzer.TestDatabases;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent;
+import com.acs560.dataanalyzer.events.SalesDataChangedEvent.ChangeType;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+
+class SalesSummariesTest {
+
+    // The record indexes of data.sql
+    private static final List<Integer> TABLE = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+    private final List<Runnable> duringScan = new ArrayList<>();
+    private int scans;
+    private SalesSummaries salesSummaries;
+
+    @BeforeEach
+    void setUp() {
+        SalesDataJdbcRepository repository = new SalesDataJdbcRepository(TestDatabases.create(), 100) {
+            @Override
+            public void stream(SalesDataFilter filter, Consumer<EcomSalesData> consumer) {
+                scans++;
+                duringScan.forEach(Runnable::run);
+                super.stream(filter, consumer);
+            }
+        };
+        salesSummaries = new SalesSummaries(repository);
+    }
+
+    @Test
+    void rebuildsAllStaleSummariesFromOneScan() {
+        SalesSummaries.Summary<List<Integer>> first = register();
+        SalesSummaries.Summary<List<Integer>> second = register();
+        assertTrue(first.isStale(), "empty until built");
+
+        salesSummaries.rebuildIfStale();
+
+        assertEquals(1, scans);
+        assertEquals(TABLE, sorted(first.current()));
+        assertEquals(TABLE, sorted(second.current()));
+        assertFalse(first.isStale());
+
+        salesSummaries.rebuildIfStale();
+        assertEquals(1, scans, "nothing to rebuild");
+    }
+
+    @Test
+    void countsRowsCommittedDuringTheScanOnce() {
+        SalesSummaries.Summary<List<Integer>> summary = register();
+        // Row 3 committed before the scan started, so the scan reads it; row 11 committed after
+        duringScan.add(() -> added(3, 11));
+
+        salesSummaries.rebuildIfStale();
+        List<Integer> expected = new ArrayList<>(TABLE);
+        expected.add(11);
+        assertEquals(expected, sorted(summary.current()));
+
+        // Events arriving after the rebuild: row 4 was read by the scan, row 12 is new
+        added(4, 12);
+        expected.add(12);
+        assertEquals(expected, sorted(summary.current()));
+    }
+
+    @Test
+    void changesOtherThanInsertsMarkTheSummariesStale() {
+        SalesSummaries.Summary<List<Integer>> summary = register();
+        salesSummaries.rebuildIfStale();
+
+        salesSummaries.onSalesDataChanged(new SalesDataChangedEvent(ChangeType.DELETED, List.of(row(5))));
+        assertTrue(summary.isStale());
+
+        salesSummaries.rebuildIfStale();
+        assertFalse(summary.isStale());
+        assertEquals(2, scans);
+    }
+
+    private SalesSummaries.Summary<List<Integer>> register() {
+        return salesSummaries.register("record indexes", () -> Collections.synchronizedList(new ArrayList<>()),
+                (indexes, data) -> indexes.add(data.getRecordIndex()));
+    }
+
+    private void added(int... recordIndexes) {
+        List<EcomSalesData> rows = new ArrayList<>();
+        for (int recordIndex : recordIndexes) {
+            rows.add(row(recordIndex));
+        }
+        salesSummaries.onSalesDataChanged(new SalesDataChangedEvent(ChangeType.ADDED, rows));
+    }
+
+    private static EcomSalesData row(int recordIndex) {
+        EcomSalesData data = new EcomSalesData();
+        data.setRecordIndex(recordIndex);
+        return data;
+    }
+
+    private static List<Integer> sorted(List<Integer> indexes) {
+        List<Integer> sorted = new ArrayList<>(indexes);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
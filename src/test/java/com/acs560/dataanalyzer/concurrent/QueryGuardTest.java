@@ -0,0 +1,119 @@
+package com.acs560.dataanalyzer.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.acs560.dataanalyzer.TestDatabases;
+
+class QueryGuardTest {
+
+    // Runs for hours unless it is cancelled
+    private static final String SLOW_QUERY = "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 1000000) A, SYSTEM_RANGE(1, 1000000) B";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new CancellableDataSource(TestDatabases.create()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void cancellingTheFutureCancelsTheRunningStatement() throws InterruptedException {
+        QueryGuard queryGuard = new QueryGuard(Duration.ZERO);
+        QueryHandle handle = queryGuard.newHandle("slow count");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        CancellableFuture<Long> future = CancellableFuture.supplyAsync(() -> {
+            try {
+                return queryGuard.call(handle, () -> {
+                    started.countDown();
+                    return jdbcTemplate.queryForObject(SLOW_QUERY, Long.class);
+                });
+            } finally {
+                finished.countDown();
+            }
+        }, executor);
+        future.onCancel(() -> queryGuard.cancel(handle));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Gives the statement time to start executing
+        Thread.sleep(200);
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS), "the statement stopped");
+        assertTrue(future.isCancelled());
+        assertTrue(handle.isCancelled());
+        assertEquals(1, queryGuard.getCancelledCount());
+
+        // The query has finished, so cancelling it again is not counted
+        queryGuard.cancel(handle);
+        assertEquals(1, queryGuard.getCancelledCount());
+    }
+
+    @Test
+    void cancelledTasksThatHaveNotStartedNeverRun() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+        CancellableFuture<Boolean> future = CancellableFuture.supplyAsync(() -> ran.getAndSet(true), executor);
+
+        assertTrue(future.cancel(true));
+        blocker.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+        assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    void statementsExceedingTheTimeoutAreTimedOut() {
+        QueryGuard queryGuard = new QueryGuard(Duration.ofSeconds(1));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(15), () -> assertThrows(QueryTimeoutException.class,
+                () -> queryGuard.call("slow count", () -> jdbcTemplate.queryForObject(SLOW_QUERY, Long.class))));
+
+        assertEquals(1, queryGuard.getTimedOutCount());
+        assertEquals(0, queryGuard.getCancelledCount());
+    }
+
+    @Test
+    void nestedReadsJoinTheOuterQuery() {
+        QueryGuard queryGuard = new QueryGuard(Duration.ZERO);
+
+        QueryHandle inner = queryGuard.call("outer", () -> queryGuard.call("inner", QueryHandle::current));
+
+        assertEquals("outer", inner.getOperation());
+        assertNull(QueryHandle.current(), "unbound once the query is done");
+    }
+}
@@ -0,0 +1,109 @@
+package com.acs560.dataanalyzer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+import com.acs560.dataanalyzer.services.SalesAnalyticsService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
+import com.acs560.dataanalyzer.services.SalesDataReconciliationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Standalone MockMvc: the controller alone, without the security filter chain (see SecurityConfigTest)
+class EcomSalesDataControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EcomSalesDataService salesDataService = mock(EcomSalesDataService.class);
+    private final SalesAnalyticsService analyticsService = mock(SalesAnalyticsService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EcomSalesDataController(salesDataService,
+            analyticsService, mock(SalesDataExportService.class), mock(SalesDataReconciliationService.class),
+            objectMapper)).build();
+
+    @Test
+    void aggregatesAreNotModifiedUntilTheDataVersionChanges() throws Exception {
+        when(analyticsService.getDataVersion()).thenReturn("7");
+        when(analyticsService.getAggregates("category")).thenReturn(List.of(new SalesAggregate("Books", 24.99, 1L)));
+
+        mockMvc.perform(get("/api/sales/aggregates/category"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"category-7\""))
+                .andExpect(jsonPath("$[0].label").value("Books"));
+        mockMvc.perform(get("/api/sales/aggregates/category").header(HttpHeaders.IF_NONE_MATCH, "\"category-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"category-7\""))
+                .andExpect(content().string(""));
+        verify(analyticsService, times(1)).getAggregates("category");
+
+        when(analyticsService.getDataVersion()).thenReturn("8");
+        mockMvc.perform(get("/api/sales/aggregates/category").header(HttpHeaders.IF_NONE_MATCH, "\"category-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"category-8\""));
+    }
+
+    @Test
+    void streamWritesOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<EcomSalesData> consumer = invocation.getArgument(1);
+            consumer.accept(row(1, "ORD001", "Shipped"));
+            consumer.accept(row(4, "ORD004", "Shipped"));
+            return null;
+        }).when(salesDataService).streamSalesData(any(), any());
+
+        MvcResult started = mockMvc.perform(get("/api/sales/stream").param("status", "Shipped")
+                        .header(HttpHeaders.ACCEPT, EcomSalesDataController.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EcomSalesDataController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size(), body);
+        assertEquals('\n', body.charAt(body.length() - 1));
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("ORD001", first.get("orderId").asText());
+        assertEquals("2024-10-01", first.get("date").asText());
+        assertEquals("John Doe", first.get("customer").get("name").asText());
+        assertEquals("ORD004", objectMapper.readTree(lines.get(1)).get("orderId").asText());
+
+        ArgumentCaptor<SalesDataFilter> filter = ArgumentCaptor.forClass(SalesDataFilter.class);
+        verify(salesDataService).streamSalesData(filter.capture(), any());
+        assertEquals("Shipped", filter.getValue().getStatus());
+    }
+
+    private static EcomSalesData row(int index, String orderId, String status) {
+        return new EcomSalesData(index, orderId, Date.from(Instant.parse("2024-10-01T00:00:00Z")), status, "Warehouse",
+                "Online", "Electronics", "Medium", 199.99, "New York", "NY",
+                new Customer(1L, "John Doe", "john.doe@example.com"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.acs560.dataanalyzer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.services.JobService;
+import com.acs560.dataanalyzer.services.SalesDataExportService;
+import com.acs560.dataanalyzer.services.SalesDataImportService;
+
+class JobControllerTest {
+
+    private static final Principal ALICE = () -> "alice";
+    private static final Principal BOB = () -> "bob";
+
+    private final JobService jobService = mock(JobService.class);
+    private final JobController controller = new JobController(jobService,
+            mock(SalesDataExportService.class), mock(SalesDataImportService.class));
+    private final Job job = new Job("job-1", "export", "alice", "export.csv");
+
+    @BeforeEach
+    void setUp() {
+        when(jobService.getJob(anyString())).thenReturn(Optional.empty());
+        when(jobService.getJob("job-1")).thenReturn(Optional.of(job));
+    }
+
+    @Test
+    void ownersSeeAndCancelTheirJobs() {
+        assertSame(job, controller.getJob("job-1", ALICE));
+        assertSame(job, controller.cancelJob("job-1", ALICE));
+        verify(jobService).cancel("job-1");
+    }
+
+    // Another user's job looks like a missing one, so job ids cannot be probed
+    @Test
+    void otherUsersCannotSeeCancelOrDownloadAJob() {
+        assertThrows(NoSuchElementException.class, () -> controller.getJob("job-1", BOB));
+        assertThrows(NoSuchElementException.class, () -> controller.cancelJob("job-1", BOB));
+        assertThrows(NoSuchElementException.class, () -> controller.getResult("job-1", BOB));
+        assertThrows(NoSuchElementException.class, () -> controller.getJob("job-2", ALICE));
+
+        verify(jobService, never()).cancel(anyString());
+        verify(jobService, never()).getResult(anyString());
+    }
+}
@@ -0,0 +1,45 @@
+package com.acs560.dataanalyzer.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRecordReaderTest {
+
+    private static final String CSV = "index,Order ID\r\n1,\"A, \"\"quoted\"\"\nvalue\"\n2,Ä\n3,last";
+
+    @Test
+    void readsRecordsWithQuotedLineBreaksAndTracksThePosition() throws IOException {
+        byte[] bytes = CSV.getBytes(StandardCharsets.UTF_8);
+        CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(bytes), 0, 0);
+
+        assertEquals("index,Order ID", reader.read());
+        assertEquals(1, reader.lines());
+        assertEquals("1,\"A, \"\"quoted\"\"\nvalue\"", reader.read());
+        assertEquals(3, reader.lines());
+        assertEquals("2,Ä", reader.read());
+        long offset = reader.offset();
+        assertTrue(reader.terminated());
+
+        assertEquals("3,last", reader.read());
+        assertFalse(reader.terminated(), "the last record has no line separator");
+        assertNull(reader.read());
+        assertEquals(bytes.length, reader.offset());
+
+        // Continuing from a saved position gives the same records and line numbers
+        InputStream rest = new ByteArrayInputStream(bytes);
+        rest.skipNBytes(offset);
+        CsvRecordReader resumed = new CsvRecordReader(rest, offset, 4);
+        assertEquals("3,last", resumed.read());
+        assertEquals(4, resumed.lines());
+        assertEquals(bytes.length, resumed.offset());
+    }
+}
@@ -0,0 +1,212 @@
+package com.acs560.dataanalyzer.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.acs560.dataanalyzer.TestDatabases;
+import com.acs560.dataanalyzer.models.ImportStats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SalesCsvImporterTest {
+
+    private static final String HEADER = "index,Order ID,Date,Status,Fulfilment,Sales Channel,Category,Size,Amount,"
+            + "ship-city,ship-state,email";
+
+    // Small chunks on several workers, so neighbouring chunks are validated and inserted at the same time
+    private static final ImportSettings SETTINGS = ImportSettings.builder()
+            .chunkSize(10).batchSize(5).workers(4).resolveWorkers(2).insertWorkers(4).build();
+
+    @TempDir
+    private Path directory;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SalesCsvImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabases.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        importer = new SalesCsvImporter(dataSource, null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void importsValidRowsAndWritesRejects() throws IOException {
+        Path file = write("sales.csv", List.of(
+                row(1, "IMP-1", "04/30/22", "100.0", "john.doe@example.com"),
+                row(2, "IMP-2", "not a date", "100.0", ""),
+                row(3, "IMP-3", "04/30/22", "-5", ""),
+                row(4, "IMP-4", "04/30/22", "12.5", "nobody@example.com"),
+                row(5, "ORD001", "04/30/22", "12.5", "")));
+
+        ImportStats stats = importer.importFile(file, SETTINGS, progress -> { }, () -> false);
+
+        assertEquals(1, stats.getInserted());
+        assertEquals(4, stats.getRejected());
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ECOM_SALES_DATA E JOIN CUSTOMER C "
+                + "ON C.CUSTOMER_ID = E.CUSTOMER_ID WHERE E.ORDER_ID = 'IMP-1' AND C.EMAIL = 'john.doe@example.com'",
+                Long.class));
+        List<String> rejects = Files.readAllLines(SalesCsvImporter.rejectsFile(file));
+        assertEquals(List.of("line,reason,record",
+                "3,\"invalid date 'not a date'\",\"" + row(2, "IMP-2", "not a date", "100.0", "") + "\"",
+                "4,\"invalid amount -5.0\",\"" + row(3, "IMP-3", "04/30/22", "-5", "") + "\"",
+                "5,\"unknown customer nobody@example.com\",\"" + row(4, "IMP-4", "04/30/22", "12.5", "nobody@example.com") + "\"",
+                "6,\"order id ORD001 already exists\",\"" + row(5, "ORD001", "04/30/22", "12.5", "") + "\""),
+                rejects);
+        assertFalse(Files.exists(SalesCsvImporter.checkpointFile(file)), "the checkpoint is removed when done");
+    }
+
+    @Test
+    void rejectsDuplicateOrderIdsInDifferentChunks() throws IOException {
+        // Without the unique key, like the partitioned table on MySQL, so only the importer can catch them
+        jdbcTemplate.execute("ALTER TABLE ECOM_SALES_DATA DROP CONSTRAINT UK_SALES_ORDER_ID");
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            // Every order id twice, a few chunks apart
+            rows.add(row(i, "DUP-" + (i / 40 * 20 + i % 20), "04/30/22", "10.0", ""));
+        }
+        Path file = write("duplicates.csv", rows);
+
+        ImportStats stats = importer.importFile(file, SETTINGS, progress -> { }, () -> false);
+
+        assertEquals(200, stats.getInserted());
+        assertEquals(200, stats.getRejected());
+        assertEquals(200L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT ORDER_ID) FROM ECOM_SALES_DATA WHERE ORDER_ID LIKE 'DUP-%'", Long.class));
+        assertEquals(200L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ECOM_SALES_DATA WHERE ORDER_ID LIKE 'DUP-%'", Long.class));
+    }
+
+    @Test
+    void resumesFromTheCheckpointAfterACancelledImport() throws IOException {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(row(i, "RES-" + i, "04/30/22", "10.0", ""));
+        }
+        Path file = write("resume.csv", rows);
+        AtomicLong inserted = new AtomicLong();
+
+        // Slowed down, and cancelled once some chunks are committed
+        ImportSettings slow = SETTINGS.toBuilder().maxRowsPerSecond(100).build();
+        assertThrows(CancellationException.class, () -> importer.importFile(file, slow,
+                progress -> inserted.set(progress.getInserted()), () -> inserted.get() > 0));
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(SalesCsvImporter.checkpointFile(file));
+        assertTrue(checkpoint.offset() > 0 && checkpoint.offset() < Files.size(file), "stopped in the middle");
+
+        ImportStats stats = importer.importFile(file, SETTINGS, progress -> { }, () -> false);
+
+        // Rows inserted after the checkpoint are read again and rejected as existing, never inserted twice
+        assertEquals(300L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT ORDER_ID) FROM ECOM_SALES_DATA WHERE ORDER_ID LIKE 'RES-%'", Long.class));
+        assertEquals(300, stats.getInserted() + stats.getRejected());
+        assertEquals(301, stats.getLinesRead());
+        assertTrue(Files.readAllLines(SalesCsvImporter.rejectsFile(file)).stream().skip(1)
+                .allMatch(reject -> reject.contains("already exists")));
+        assertFalse(Files.exists(SalesCsvImporter.checkpointFile(file)));
+    }
+
+    @Test
+    void concurrentImportsShareTheConnectionLimit() throws Exception {
+        CountingDataSource counting = new CountingDataSource(dataSource);
+        SalesCsvImporter limited = new SalesCsvImporter(counting, null, new SimpleMeterRegistry(), 2);
+        List<Path> files = new ArrayList<>();
+        for (String prefix : List.of("CON-A-", "CON-B-")) {
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                rows.add(row(i, prefix + i, "04/30/22", "10.0", "john.doe@example.com"));
+            }
+            files.add(write(prefix + "sales.csv", rows));
+        }
+
+        // Ten database workers per import with these settings
+        ExecutorService imports = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<ImportStats>> results = new ArrayList<>();
+            for (Path file : files) {
+                results.add(imports.submit(() -> limited.importFile(file, SETTINGS, progress -> { }, () -> false)));
+            }
+            for (Future<ImportStats> result : results) {
+                assertEquals(300, result.get(60, TimeUnit.SECONDS).getInserted());
+            }
+        } finally {
+            imports.shutdownNow();
+        }
+
+        assertTrue(counting.maxOpen.get() <= 2, counting.maxOpen.get() + " connections open at once");
+        assertEquals(600L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ECOM_SALES_DATA WHERE ORDER_ID LIKE 'CON-%'", Long.class));
+    }
+
+    private Path write(String name, List<String> rows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.addAll(rows);
+        return Files.write(directory.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Counts the connections open at the same time.
+     */
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger maxOpen = new AtomicInteger();
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            open.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private static String row(int index, String orderId, String date, String amount, String email) {
+        return index + "," + orderId + "," + date + ",Shipped,Amazon,Amazon.in,Set,S," + amount
+                + ",MUMBAI,MAHARASHTRA," + email;
+    }
+}
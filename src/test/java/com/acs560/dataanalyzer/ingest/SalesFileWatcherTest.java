@@ -0,0 +1,124 @@
+package com.acs560.dataanalyzer.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.services.CustomerService;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SalesFileWatcherTest {
+
+    private static final String HEADER = "index,Order ID,Date,Status,Fulfilment,Sales Channel,Category,Size,Amount,"
+            + "ship-city,ship-state,email";
+
+    @TempDir
+    private Path directory;
+
+    // The order ids of every batch handed to the service, in order
+    private final List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final EcomSalesDataService salesDataService = mock(EcomSalesDataService.class);
+    private final CustomerService customerService = mock(CustomerService.class);
+
+    @BeforeEach
+    void setUp() {
+        when(salesDataService.addSalesDataBatch(anyList())).thenAnswer(invocation -> {
+            List<EcomSalesData> batch = invocation.getArgument(0);
+            batch.forEach(data -> inserted.add(data.getOrderId()));
+            return batch.size();
+        });
+        when(customerService.getCustomerByEmail(anyString())).thenReturn(Optional.empty());
+        when(customerService.getCustomerByEmail("john.doe@example.com"))
+                .thenReturn(Optional.of(new Customer(1L, "John Doe", "john.doe@example.com")));
+    }
+
+    @Test
+    void readsNewFilesAndCompleteAppendedLines() throws IOException {
+        SalesFileWatcher watcher = watcher();
+        Path file = directory.resolve("sales.csv");
+        append(file, HEADER + "\n" + row(1, "W-1", "john.doe@example.com") + "\n"
+                + row(2, "W-2", "nobody@example.com") + "\n" + row(3, "W-3", "john.doe@example.com") + "\n");
+        Files.writeString(directory.resolve("notes.txt"), row(9, "W-9", "john.doe@example.com") + "\n");
+
+        watcher.scan();
+        assertEquals(List.of("W-1", "W-3"), inserted, "the unknown customer is skipped");
+
+        // The last line has no line separator yet, so it may still be being written
+        append(file, row(4, "W-4", "john.doe@example.com") + "\n" + row(5, "W-5", "john.doe@example.com"));
+        watcher.scan();
+        assertEquals(List.of("W-1", "W-3", "W-4"), inserted);
+
+        append(file, "\n");
+        watcher.scan();
+        watcher.scan();
+        assertEquals(List.of("W-1", "W-3", "W-4", "W-5"), inserted);
+    }
+
+    @Test
+    void readsAShorterFileAgainFromTheStart() throws IOException {
+        SalesFileWatcher watcher = watcher();
+        Path file = directory.resolve("sales.csv");
+        append(file, row(1, "W-1", "john.doe@example.com") + "\n" + row(2, "W-2", "john.doe@example.com") + "\n");
+        watcher.scan();
+
+        Files.writeString(file, row(3, "W-3", "john.doe@example.com") + "\n", StandardCharsets.UTF_8);
+        watcher.scan();
+
+        assertEquals(List.of("W-1", "W-2", "W-3"), inserted);
+    }
+
+    @Test
+    void continuesFromTheSavedOffsetsAfterARestart() throws IOException {
+        Path file = directory.resolve("sales.csv");
+        append(file, HEADER + "\n" + row(1, "W-1", "john.doe@example.com") + "\n");
+        watcher().scan();
+        append(file, row(2, "W-2", "john.doe@example.com") + "\n");
+
+        SalesFileWatcher restarted = watcher();
+        restarted.start();
+        try {
+            verify(salesDataService, timeout(10_000).times(2)).addSalesDataBatch(any());
+        } finally {
+            restarted.stop();
+        }
+
+        assertEquals(List.of("W-1", "W-2"), inserted);
+    }
+
+    private SalesFileWatcher watcher() {
+        return new SalesFileWatcher(salesDataService, customerService, new SimpleMeterRegistry(),
+                directory.toString(), "*.csv", 2, Duration.ofMillis(100));
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String row(int index, String orderId, String email) {
+        return index + "," + orderId + ",04/30/22,Shipped,Amazon,Amazon.in,Set,S,100.0,MUMBAI,MAHARASHTRA," + email;
+    }
+}
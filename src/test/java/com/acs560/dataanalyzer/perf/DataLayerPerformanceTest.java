@@ -0,0 +1,218 @@
+package com.acs560.dataanalyzer.perf;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.services.CustomerService;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Performance regression suite of the data layer. Seeds an in-memory H2 database with generated
+ * sales data and asserts a p95 latency and a mean allocation budget for the main service operations.
+ * H2 runs embedded on the calling thread, so the allocation measured for a call includes the rows
+ * the database touches: a query that falls back to a full-table scan blows its allocation budget
+ * even on a machine fast enough to stay within the latency budget.
+ * <p>
+ * Tagged "performance" and only run with {@code mvn -Pperf test}.
+ */
+@Slf4j
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("perf")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DataLayerPerformanceTest {
+
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+
+    // Spreads consecutive calls over the whole table instead of hitting the same rows
+    private static final long STRIDE = 7919;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EcomSalesDataService salesDataService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Value("${perf.rows}")
+    private long rows;
+
+    @Value("${perf.customers}")
+    private long customers;
+
+    @Value("${perf.warmup-iterations}")
+    private int warmupIterations;
+
+    @Value("${perf.iterations}")
+    private int iterations;
+
+    @Value("${perf.budget-factor}")
+    private double budgetFactor;
+
+    // Point lookups through a read-only service transaction: the median is under 1 ms, the p95 was
+    // measured at 7 to 10 ms on a single-core agent, where the JIT compiler shares the core
+    private static final Duration POINT_LOOKUP_BUDGET = Duration.ofMillis(15);
+
+    private SalesDataGenerator generator;
+
+    private final List<String> report = new ArrayList<>();
+
+    @BeforeAll
+    void seed() throws SQLException {
+        generator = PerformanceData.seed(dataSource, rows, customers);
+    }
+
+    @AfterAll
+    void printReport() {
+        log.info("Performance budgets ({} rows, {} customers, budget factor {}):\n{}",
+                rows, customers, budgetFactor, String.join("\n", report));
+    }
+
+    @Test
+    void getSalesDataByIndex() {
+        assertWithinBudget("getSalesDataByIndex", POINT_LOOKUP_BUDGET, 512 * KB,
+                i -> salesDataService.getSalesDataByIndex(recordIndex(i)));
+    }
+
+    @Test
+    void filterSalesDataByOrderId() {
+        assertWithinBudget("filterSalesData[orderId]", Duration.ofMillis(5), 512 * KB,
+                i -> salesDataService.filterSalesData(SalesDataFilter.builder()
+                        .orderId(generator.row(recordIndex(i)).getOrderId())
+                        .build()));
+    }
+
+    // IDX_SALES_CATEGORY narrows to one category and month, the state is checked on those rows
+    @Test
+    void filterSalesDataByStateCategoryAndMonth() {
+        assertWithinBudget("filterSalesData[state+category+date]", Duration.ofMillis(40), 8 * MB,
+                i -> salesDataService.filterSalesData(SalesDataFilter.builder()
+                        .state("CA")
+                        .category("Electronics")
+                        .startDate(new GregorianCalendar(2023, i % 12, 1).getTime())
+                        .endDate(new GregorianCalendar(2023, i % 12, 28).getTime())
+                        .build()));
+    }
+
+    // Keyset pages of one status seek on IDX_SALES_GRID_STATUS, so a page deep into the table costs the same as the first
+    @Test
+    void getSalesDataPage() {
+        assertWithinBudget("getSalesDataPage", Duration.ofMillis(20), 2 * MB,
+                i -> salesDataService.getSalesDataPage(SalesDataFilter.builder().status("Shipped").build(),
+                        i % 2 == 0 ? null : recordIndex(i), 50));
+    }
+
+    // The grid projection of one status, read from IDX_SALES_GRID_STATUS plus the customer primary key
+    @Test
+    void getSalesDataRowsByStatus() {
+        assertWithinBudget("getSalesDataRows[status]", Duration.ofMillis(60), 16 * MB,
+                i -> salesDataService.getSalesDataRows(SalesDataFilter.builder().status("Cancelled").build()));
+    }
+
+    // Counted from IDX_SALES_GRID_STATUS alone; the cost grows with the matching rows, not the table
+    @Test
+    void countSalesDataByStatus() {
+        assertWithinBudget("countSalesData[status]", Duration.ofMillis(30), 4 * MB,
+                i -> salesDataService.countSalesData(SalesDataFilter.builder().status("Cancelled").build()));
+    }
+
+    // Returns the whole table by definition, so the budget is per row
+    @Test
+    void getAllSalesData() {
+        assertWithinBudget("getAllSalesData", Duration.ofNanos(20_000 * rows), 4 * KB * rows, 1, 5,
+                i -> salesDataService.getAllSalesData());
+    }
+
+    // Still filters getAllSalesData() in memory; the budget is per row like getAllSalesData
+    @Test
+    void getSalesDataByStatus() {
+        assertWithinBudget("getSalesDataByStatus", Duration.ofNanos(25_000 * rows), 4 * KB * rows, 1, 5,
+                i -> salesDataService.getSalesDataByStatus("Shipped"));
+    }
+
+    @Test
+    void getCustomerById() {
+        assertWithinBudget("getCustomerById", POINT_LOOKUP_BUDGET, 256 * KB,
+                i -> customerService.getCustomerById(customerId(i)));
+    }
+
+    @Test
+    void getCustomerByEmail() {
+        assertWithinBudget("getCustomerByEmail", POINT_LOOKUP_BUDGET, 256 * KB,
+                i -> customerService.getCustomerByEmail(generator.customer(customerId(i)).getEmail()));
+    }
+
+    // A substring search cannot use an index; the customer table is small enough to scan
+    @Test
+    void getCustomersByNameOrEmail() {
+        assertWithinBudget("getCustomersByNameOrEmail", Duration.ofMillis(50), 16 * MB,
+                i -> customerService.getCustomersByNameOrEmail(
+                        generator.customer(customerId(i)).getName().split(" ")[1]));
+    }
+
+    private int recordIndex(int call) {
+        return (int) (1 + (call * STRIDE) % rows);
+    }
+
+    private long customerId(int call) {
+        return 1 + (call * STRIDE) % customers;
+    }
+
+    private void assertWithinBudget(String operation, Duration p95Budget, long allocationBudget, IntConsumer call) {
+        assertWithinBudget(operation, p95Budget, allocationBudget, warmupIterations, iterations, call);
+    }
+
+    /**
+     * Calls the operation and asserts its p95 latency and mean allocation per call.
+     *
+     * @param operation - the name of the operation in the report.
+     * @param p95Budget - the p95 latency budget, multiplied by the budget factor.
+     * @param allocationBudget - the budget of bytes allocated per call on the calling thread.
+     * @param warmup - the number of unmeasured calls.
+     * @param measured - the number of measured calls.
+     * @param call - calls the operation with the number of the call.
+     */
+    private void assertWithinBudget(String operation, Duration p95Budget, long allocationBudget,
+                                    int warmup, int measured, IntConsumer call) {
+        Measurement measurement = Measurement.of(warmup, measured, call);
+        Duration p95 = measurement.p95();
+        Duration p95Limit = Duration.ofNanos((long) (p95Budget.toNanos() * budgetFactor));
+        long meanAllocated = measurement.allocatedBytes();
+        report.add(String.format("  %-40s p95 %8.2f ms (budget %8.2f ms)   allocated %10d KB (budget %10d KB)",
+                operation, p95.toNanos() / 1e6, p95Limit.toNanos() / 1e6, meanAllocated / KB, allocationBudget / KB));
+
+        assertAll(operation,
+                () -> assertTrue(p95.compareTo(p95Limit) <= 0,
+                        () -> operation + ": p95 latency " + p95.toMillis() + " ms exceeds the budget of "
+                                + p95Limit.toMillis() + " ms"),
+                () -> assertTrue(meanAllocated <= allocationBudget,
+                        () -> operation + ": " + meanAllocated / KB + " KB allocated per call exceeds the budget of "
+                                + allocationBudget / KB + " KB"));
+    }
+}
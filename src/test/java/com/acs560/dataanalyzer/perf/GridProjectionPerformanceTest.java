@@ -0,0 +1,107 @@
+package com.acs560.dataanalyzer.perf;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.Reference;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.services.EcomSalesDataService;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the ways of loading the sales grid for one status: the managed entities the grid
+ * used to load, entities mapped by JDBC, and the read-only grid projection. Reports latency,
+ * allocation per call and retained heap per row, and asserts that the projection is the cheapest.
+ */
+@Slf4j
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("perf")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GridProjectionPerformanceTest {
+
+    private static final SalesDataFilter CANCELLED = SalesDataFilter.builder().status("Cancelled").build();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EcomSalesDataService salesDataService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${perf.rows}")
+    private long rows;
+
+    @Value("${perf.customers}")
+    private long customers;
+
+    @BeforeAll
+    void seed() throws SQLException {
+        PerformanceData.seed(dataSource, rows, customers);
+    }
+
+    @Test
+    void gridProjectionIsCheaperThanEntities() {
+        // getSalesDataByStatus now filters the in-memory snapshot, so the entities are loaded through JPA here
+        Measurement managedEntities = measure("managed entities (JPA query by status)",
+                () -> entityManager.createQuery("SELECT e FROM EcomSalesData e WHERE e.status = :status",
+                        EcomSalesData.class).setParameter("status", "Cancelled").getResultList());
+        Measurement jdbcEntities = measure("JDBC entities (filterSalesData)",
+                () -> salesDataService.filterSalesData(CANCELLED));
+        Measurement gridRows = measure("grid projection (getSalesDataRows)",
+                () -> salesDataService.getSalesDataRows(CANCELLED));
+
+        assertAll(
+                () -> assertTrue(gridRows.allocatedBytes() < managedEntities.allocatedBytes(),
+                        "the grid projection allocates less than loading managed entities"),
+                () -> assertTrue(gridRows.allocatedBytes() < jdbcEntities.allocatedBytes(),
+                        "the grid projection allocates less than mapping entities"),
+                () -> assertTrue(gridRows.p95().compareTo(managedEntities.p95()) < 0,
+                        "the grid projection is faster than loading managed entities"));
+    }
+
+    private Measurement measure(String name, Supplier<List<?>> query) {
+        Measurement measurement = Measurement.of(2, 10, i -> query.get());
+        long retained = retainedBytesPerRow(query);
+        log.info("{}: p95 {} ms, {} KB allocated per call, ~{} bytes retained per row", name,
+                measurement.p95().toMillis(), measurement.allocatedBytes() / 1024, retained);
+        return measurement;
+    }
+
+    // Heap growth while the result is held, after full collections; approximate, so only reported
+    private static long retainedBytesPerRow(Supplier<List<?>> query) {
+        long before = usedHeapAfterGc();
+        List<?> result = query.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(result);
+        return (after - before) / Math.max(1, result.size());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,45 @@
+package com.acs560.dataanalyzer.perf;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The p95 latency and the mean allocation per call of an operation. Allocation is counted
+ * on the calling thread, which includes the work of the embedded H2 database.
+ *
+ * @param p95 - the 95th percentile of the call latency.
+ * @param allocatedBytes - the mean number of bytes allocated per call.
+ */
+record Measurement(Duration p95, long allocatedBytes) {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Calls the operation and measures the calls after the warmup.
+     *
+     * @param warmup - the number of unmeasured calls.
+     * @param measured - the number of measured calls.
+     * @param call - calls the operation with the number of the call.
+     * @return the measurement.
+     */
+    static Measurement of(int warmup, int measured, IntConsumer call) {
+        for (int i = 0; i < warmup; i++) {
+            call.accept(i);
+        }
+
+        long[] nanos = new long[measured];
+        long allocated = 0;
+        for (int i = 0; i < measured; i++) {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long started = System.nanoTime();
+            call.accept(warmup + i);
+            nanos[i] = System.nanoTime() - started;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(nanos);
+        return new Measurement(Duration.ofNanos(nanos[(int) Math.ceil(measured * 0.95) - 1]), allocated / measured);
+    }
+}
@@ -0,0 +1,107 @@
+package com.acs560.dataanalyzer.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.repositories.OffHeapSalesStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the heap list of the CSV store with the off-heap store holding the same generated rows:
+ * retained heap per row, and the collections and pause time of a workload that allocates
+ * short-lived objects while the rows are held, plus one full collection. Asserts only the heap
+ * reduction; pause times depend on the collector and the machine, so they are reported.
+ * Runs with -Dperf.rows (default 1,000,000); the off-heap store needs about 100 bytes of direct memory per row.
+ */
+@Slf4j
+@Tag("performance")
+class OffHeapStorePerformanceTest {
+
+    private static final long ROWS = Long.getLong("perf.rows", 1_000_000);
+    private static final int CHURN_READS = 2_000_000;
+
+    @Test
+    void offHeapStoreRetainsLessHeapThanTheList() {
+        GcReport heap = measure("heap list", ArrayList::new);
+        GcReport offHeap = measure("off-heap store", OffHeapSalesStore::new);
+
+        assertTrue(offHeap.retainedBytesPerRow() * 4 < heap.retainedBytesPerRow(),
+                "the off-heap store keeps less than a quarter of the heap list's bytes on the heap");
+    }
+
+    private GcReport measure(String name, Supplier<List<EcomSalesData>> store) {
+        SalesDataGenerator generator = new SalesDataGenerator(GeneratorSettings.ofRows(ROWS));
+        long before = usedHeapAfterGc();
+        List<EcomSalesData> rows = store.get();
+        generator.rows().forEachOrdered(rows::add);
+        long retained = (usedHeapAfterGc() - before) / Math.max(1, rows.size());
+        assertEquals(ROWS, rows.size());
+
+        long collections = collectionCount();
+        long collectionMillis = collectionMillis();
+        long checksum = churn(rows);
+        long churnCollections = collectionCount() - collections;
+        long churnMillis = collectionMillis() - collectionMillis;
+
+        long start = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - start) / 1_000_000;
+        Reference.reachabilityFence(rows);
+
+        log.info("{}: ~{} bytes retained per row, {} collections taking {} ms during the workload, "
+                + "full collection {} ms (checksum {})", name, retained, churnCollections, churnMillis,
+                fullGcMillis, checksum);
+        if (rows instanceof OffHeapSalesStore offHeap) {
+            log.info("{}: {} MB outside the heap", name, offHeap.offHeapBytes() >> 20);
+            offHeap.close();
+        }
+        return new GcReport(retained, churnCollections, churnMillis, fullGcMillis);
+    }
+
+    // Reads random rows; every read builds garbage on both stores (a copy here, a description string there)
+    private static long churn(List<EcomSalesData> rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        long checksum = 0;
+        for (int i = 0; i < CHURN_READS; i++) {
+            EcomSalesData data = rows.get(random.nextInt(rows.size()));
+            checksum += (data.getOrderId() + "/" + data.getCategory()).length();
+        }
+        return checksum;
+    }
+
+    private static long collectionCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private record GcReport(long retainedBytesPerRow, long collections, long collectionMillis, long fullGcMillis) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.acs560.dataanalyzer.perf;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.JdbcSalesDataLoader;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+
+/**
+ * The generated dataset of the performance suite. The test classes share one Spring context
+ * and so one database; the first class to run loads it.
+ */
+final class PerformanceData {
+
+    private PerformanceData() {
+    }
+
+    /**
+     * Loads the generated rows unless the database already holds sales data.
+     *
+     * @param dataSource - the database of the test context.
+     * @param rows - the number of sales rows.
+     * @param customers - the number of customers.
+     * @return the generator of the loaded data, to derive lookup values from.
+     * @throws SQLException if loading fails.
+     */
+    static synchronized SalesDataGenerator seed(DataSource dataSource, long rows, long customers) throws SQLException {
+        SalesDataGenerator generator = new SalesDataGenerator(
+                GeneratorSettings.builder().rows(rows).customers(Math.toIntExact(customers)).build());
+        Long existing = new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM ECOM_SALES_DATA", Long.class);
+        if (existing == null || existing == 0) {
+            new JdbcSalesDataLoader(dataSource).load(generator);
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,166 @@
+package com.acs560.dataanalyzer.perf;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+import com.acs560.dataanalyzer.repositories.SalesDataSql;
+
+/**
+ * Runs EXPLAIN on every query SalesDataSql generates for the filters EcomSalesDataService accepts,
+ * and fails when the database would read ECOM_SALES_DATA with a full scan, or would sort a keyset page
+ * that should seek on an index and stop after the page. Runs on the seeded
+ * database of the performance suite; point spring.datasource.* at a local MySQL instance to check
+ * the plans of the production database instead. The filter values are selective enough that a
+ * cost-based planner prefers an index over a scan.
+ */
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("perf")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    // Pages of these filters seek on IDX_SALES_GRID_STATUS or IDX_SALES_GRID_CHANNEL; the other filters sort their matches
+    private static final Set<String> SEEKING_FILTERS = Set.of("status", "channel", "status+date", "channel+amount");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${perf.rows}")
+    private long rows;
+
+    @Value("${perf.customers}")
+    private long customers;
+
+    private SalesDataGenerator generator;
+
+    private String database;
+
+    @BeforeAll
+    void seed() throws SQLException {
+        generator = PerformanceData.seed(dataSource, rows, customers);
+        try (Connection connection = dataSource.getConnection()) {
+            database = connection.getMetaData().getDatabaseProductName();
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> generatedQueriesUseAnIndex() {
+        List<DynamicTest> tests = new ArrayList<>();
+        filters().forEach((name, filter) -> {
+            boolean seeks = SEEKING_FILTERS.contains(name);
+            tests.add(planTest("select[" + name + "]", false, params -> SalesDataSql.select(filter, params)));
+            tests.add(planTest("count[" + name + "]", false, params -> SalesDataSql.count(filter, params)));
+            tests.add(planTest("gridRows[" + name + "]", false, params -> SalesDataSql.selectGridRows(filter, params)));
+            tests.add(planTest("page[" + name + "]", seeks, params -> SalesDataSql.page(filter, null, 50, params)));
+            tests.add(planTest("nextPage[" + name + "]", seeks,
+                    params -> SalesDataSql.page(filter, (int) (rows / 2), 50, params)));
+        });
+        // Unfiltered pages seek on the primary key
+        tests.add(planTest("nextPage[none]", true, params -> SalesDataSql.page(null, (int) (rows / 2), 50, params)));
+        return tests.stream();
+    }
+
+    // The unfiltered select, count and first page read the whole table by definition and are not listed
+    private Map<String, SalesDataFilter> filters() {
+        Map<String, SalesDataFilter> filters = new LinkedHashMap<>();
+        filters.put("orderId", SalesDataFilter.builder().orderId(generator.row(rows / 3).getOrderId()).build());
+        filters.put("status", SalesDataFilter.builder().status("Returned").build());
+        filters.put("fulfilment+date", SalesDataFilter.builder()
+                .fulfilment("Drop-Shipping")
+                .startDate(new GregorianCalendar(2022, 10, 1).getTime())
+                .endDate(new GregorianCalendar(2022, 10, 30).getTime())
+                .build());
+        filters.put("channel", SalesDataFilter.builder().channel("Retail").build());
+        filters.put("category", SalesDataFilter.builder().category("Books").build());
+        filters.put("state", SalesDataFilter.builder().state("WA").build());
+        filters.put("city", SalesDataFilter.builder().city("Denver").build());
+        filters.put("state+city", SalesDataFilter.builder().state("TX").city("Austin").build());
+        filters.put("customerId", SalesDataFilter.builder().customerId(customers / 2).build());
+        filters.put("date", SalesDataFilter.builder()
+                .startDate(new GregorianCalendar(2023, 2, 1).getTime())
+                .endDate(new GregorianCalendar(2023, 2, 31).getTime())
+                .build());
+        filters.put("amount", SalesDataFilter.builder().minAmount(5000.0).build());
+        filters.put("status+date", SalesDataFilter.builder()
+                .status("Pending")
+                .startDate(new GregorianCalendar(2024, 5, 1).getTime())
+                .endDate(new GregorianCalendar(2024, 5, 30).getTime())
+                .build());
+        filters.put("category+state", SalesDataFilter.builder().category("Beauty").state("OR").build());
+        filters.put("channel+amount", SalesDataFilter.builder().channel("Retail").minAmount(1000.0).maxAmount(2000.0).build());
+        return filters;
+    }
+
+    private DynamicTest planTest(String name, boolean seeks, Function<MapSqlParameterSource, String> query) {
+        return DynamicTest.dynamicTest(name, () -> {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            String sql = query.apply(params);
+            String plan = explain(sql, params);
+            assertFalse(isFullScan(plan), () -> name + " reads " + SalesDataSql.TABLE + " with a full scan:\n"
+                    + sql + "\n" + plan);
+            if (seeks) {
+                assertTrue(isIndexOrdered(plan), () -> name + " sorts the rows of " + SalesDataSql.TABLE
+                        + " instead of reading them in index order:\n" + sql + "\n" + plan);
+            }
+        });
+    }
+
+    private String explain(String sql, MapSqlParameterSource params) {
+        if ("MySQL".equalsIgnoreCase(database)) {
+            // One row per table access: "table type key extra"
+            return String.join("\n", jdbcTemplate.query("EXPLAIN " + sql, params,
+                    (rs, rowNum) -> rs.getString("table") + " " + rs.getString("type") + " " + rs.getString("key")
+                            + " " + rs.getString("Extra")));
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class));
+    }
+
+    private boolean isFullScan(String plan) {
+        if ("MySQL".equalsIgnoreCase(database)) {
+            // ALL is a table scan, index a scan of a whole index; tables may be listed by alias
+            return plan.lines().anyMatch(line -> line.matches("\\S+ (ALL|index) .*"));
+        }
+        // H2 names the access path in a comment, e.g. /* PUBLIC.IDX_SALES_CATEGORY: CATEGORY = ?1 */
+        return plan.contains(SalesDataSql.TABLE + ".tableScan");
+    }
+
+    // The sales rows of a page come from the index in RECORD_INDEX order, so the read stops after the page.
+    // The outer query sorts the page itself, which reads the derived table <derived2> in MySQL
+    private boolean isIndexOrdered(String plan) {
+        if ("MySQL".equalsIgnoreCase(database)) {
+            return plan.lines().noneMatch(line -> !line.startsWith("<derived") && line.contains("Using filesort"));
+        }
+        // H2 marks an ORDER BY answered by the index, here the one of the derived table
+        return plan.contains("/* index sorted */");
+    }
+}
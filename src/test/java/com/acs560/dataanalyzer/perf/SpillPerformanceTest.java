@@ -0,0 +1,105 @@
+package com.acs560.dataanalyzer.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+import com.acs560.dataanalyzer.models.SalesDataSort;
+import com.acs560.dataanalyzer.models.SalesDimension;
+import com.acs560.dataanalyzer.spill.ExternalSorter;
+import com.acs560.dataanalyzer.spill.SpillCodecs;
+import com.acs560.dataanalyzer.spill.SpillingAggregator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the spilling sort and group-by over generated rows with a memory budget far below the data,
+ * and with one above it. Asserts that both give the in-memory result and that the small budget spilled;
+ * reports the time and the bytes spilled. Runs with -Dperf.rows (default 200,000, like the rest of the suite).
+ */
+@Slf4j
+@Tag("performance")
+class SpillPerformanceTest {
+
+    private static final long ROWS = Long.getLong("perf.rows", 200_000);
+    // About 5 bytes a row: 1 MB at the default size, still far below the rows and groups at smaller -Dperf.rows
+    private static final long SMALL_BUDGET = Math.max(16L << 10, ROWS * 5);
+    private static final Comparator<EcomSalesData> BY_AMOUNT = SalesDataSort.of("amount,desc").comparator();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void externalSortMatchesTheInMemorySort() {
+        SalesDataGenerator generator = new SalesDataGenerator(GeneratorSettings.ofRows(ROWS));
+        List<EcomSalesData> expected = new ArrayList<>(generator.rows().toList());
+        expected.sort(BY_AMOUNT);
+
+        long spilled = sort(generator, SMALL_BUDGET, expected);
+        long inMemory = sort(generator, Long.MAX_VALUE, expected);
+
+        assertTrue(spilled > 0, "the small budget spills");
+        assertEquals(0, inMemory, "nothing spills within the budget");
+    }
+
+    @Test
+    void spillingAggregationMatchesTheInMemoryGroups() {
+        // About one customer per two orders, so the groups are far larger than the small budget
+        SalesDataGenerator generator = new SalesDataGenerator(GeneratorSettings.builder()
+                .rows(ROWS).customers((int) Math.max(1, ROWS / 2)).build());
+        Map<String, Long> expected = new HashMap<>();
+        generator.rows().forEach(data -> expected.merge(SalesDimension.CUSTOMER.labelOf(data), 1L, Long::sum));
+
+        long spilled = aggregate(generator, SMALL_BUDGET, expected);
+        long inMemory = aggregate(generator, Long.MAX_VALUE, expected);
+
+        assertTrue(spilled > 0, "the small budget spills");
+        assertEquals(0, inMemory, "nothing spills within the budget");
+    }
+
+    private long sort(SalesDataGenerator generator, long budget, List<EcomSalesData> expected) {
+        long start = System.nanoTime();
+        List<EcomSalesData> sorted = new ArrayList<>(expected.size());
+        try (ExternalSorter<EcomSalesData> sorter = new ExternalSorter<>(BY_AMOUNT, SpillCodecs.SALES_DATA,
+                budget, directory, bytes -> { })) {
+            generator.rows().forEachOrdered(sorter::add);
+            sorter.forEachSorted(sorted::add);
+            log.info("sort of {} rows with a {} budget: {} ms, {} MB spilled", expected.size(), describe(budget),
+                    (System.nanoTime() - start) / 1_000_000, sorter.spilledBytes() >> 20);
+            assertEquals(expected, sorted);
+            return sorter.spilledBytes();
+        }
+    }
+
+    private long aggregate(SalesDataGenerator generator, long budget, Map<String, Long> expected) {
+        long start = System.nanoTime();
+        Map<String, Long> groups = new HashMap<>();
+        try (SpillingAggregator aggregator = new SpillingAggregator(budget, directory, bytes -> { })) {
+            generator.rows().forEachOrdered(data -> aggregator.add(SalesDimension.CUSTOMER.labelOf(data),
+                    data.getAmount() == null ? 0 : data.getAmount(), 1));
+            aggregator.forEachGroup((SalesAggregate group) -> groups.put(group.getLabel(), group.getOrders()));
+            log.info("group-by of {} groups with a {} budget: {} ms, {} MB spilled", groups.size(), describe(budget),
+                    (System.nanoTime() - start) / 1_000_000, aggregator.spilledBytes() >> 20);
+            assertEquals(expected, groups);
+            return aggregator.spilledBytes();
+        }
+    }
+
+    private static String describe(long budget) {
+        return budget == Long.MAX_VALUE ? "unlimited" : (budget >> 10) + " KB";
+    }
+}
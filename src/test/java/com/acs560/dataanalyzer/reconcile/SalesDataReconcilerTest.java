@@ -0,0 +1,131 @@
+package com.acs560.dataanalyzer.reconcile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.acs560.dataanalyzer.TestDatabases;
+import com.acs560.dataanalyzer.ingest.ImportSettings;
+import com.acs560.dataanalyzer.ingest.SalesCsvImporter;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.ReconciliationReport;
+import com.acs560.dataanalyzer.models.ReconciliationReport.DifferenceType;
+import com.acs560.dataanalyzer.models.ReconciliationReport.RepairAction;
+import com.acs560.dataanalyzer.models.ReconciliationReport.Source;
+import com.acs560.dataanalyzer.repositories.SalesDataJdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SalesDataReconcilerTest {
+
+    private static final String HEADER = "index,Order ID,Date,Status,Fulfilment,Sales Channel,Category,Size,Amount,"
+            + "ship-city,ship-state";
+    private static final Date ORDER_DATE = Date.from(LocalDate.of(2022, 4, 30)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    @TempDir
+    private Path directory;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SalesDataJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabases.create();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM ECOM_SALES_DATA");
+        repository = new SalesDataJdbcRepository(dataSource, 100);
+    }
+
+    @Test
+    void importedRowsMatchTheirCsvRows() throws IOException {
+        List<EcomSalesData> csv = csvRows(200);
+        importRows(csv);
+
+        // The database rows have new record indexes and trimmed values, and are still the same rows
+        ReconciliationReport report = reconciler(16, 1024).reconcile(csv, Source.CSV);
+
+        assertTrue(report.isConsistent(), () -> report.getDifferences().toString());
+        assertEquals(200, report.getCsvRows());
+        assertEquals(200, report.getDatabaseRows());
+        assertEquals(0, report.getRowsRead(), "matching buckets are not read");
+    }
+
+    @Test
+    void findsTheRowsThatDifferByOrderId() throws IOException {
+        List<EcomSalesData> csv = csvRows(200);
+        importRows(csv);
+        jdbcTemplate.update("UPDATE ECOM_SALES_DATA SET AMOUNT = 1.0 WHERE ORDER_ID = 'RCN-7'");
+        jdbcTemplate.update("DELETE FROM ECOM_SALES_DATA WHERE ORDER_ID = 'RCN-8'");
+        jdbcTemplate.update("INSERT INTO ECOM_SALES_DATA (ORDER_ID, ORDER_DATE, STATUS) VALUES ('RCN-X', DATE '2022-04-30', 'Shipped')");
+        csv.add(csvRow(200, "RCN-200"));
+
+        // Small leaves, so the differing buckets are split a few times before their rows are read
+        ReconciliationReport report = reconciler(4, 2).reconcile(csv, Source.CSV);
+
+        assertEquals(2, report.getMissingInDatabase());
+        assertEquals(1, report.getMissingInCsv());
+        assertEquals(1, report.getChanged());
+        assertEquals(List.of("RCN-200", "RCN-7", "RCN-8", "RCN-X"),
+                report.getDifferences().stream().map(ReconciliationReport.Difference::getOrderId).toList());
+        assertEquals(List.of(DifferenceType.MISSING_IN_DATABASE, DifferenceType.CHANGED,
+                        DifferenceType.MISSING_IN_DATABASE, DifferenceType.MISSING_IN_CSV),
+                report.getDifferences().stream().map(ReconciliationReport.Difference::getType).toList());
+        assertEquals(List.of(new RepairAction("INSERT", Source.DATABASE, "RCN-200", List.of()),
+                        new RepairAction("UPDATE", Source.DATABASE, "RCN-7", List.of("amount")),
+                        new RepairAction("INSERT", Source.DATABASE, "RCN-8", List.of()),
+                        new RepairAction("DELETE", Source.DATABASE, "RCN-X", List.of())),
+                report.getRepairPlan());
+        assertTrue(report.getRowsRead() < 20, "only the differing buckets are read, read " + report.getRowsRead());
+    }
+
+    private SalesDataReconciler reconciler(int fanout, int leafSize) {
+        return new SalesDataReconciler(repository, false, fanout, leafSize, 2, 100);
+    }
+
+    private void importRows(List<EcomSalesData> rows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        rows.forEach(data -> lines.add(String.join(",", data.getRecordIndex().toString(), data.getOrderId(), "04/30/22",
+                data.getStatus(), data.getFulfilment(), data.getChannel(), data.getCategory(), data.getSize(),
+                data.getAmount().toString(), data.getShipCity(), data.getShipState())));
+        Path file = Files.write(directory.resolve("sales.csv"), lines, StandardCharsets.UTF_8);
+        new SalesCsvImporter(dataSource, null, new SimpleMeterRegistry())
+                .importFile(file, ImportSettings.builder().build(), progress -> { }, () -> false);
+    }
+
+    private static List<EcomSalesData> csvRows(int count) {
+        List<EcomSalesData> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(csvRow(i, "RCN-" + i));
+        }
+        return rows;
+    }
+
+    /**
+     * A row as the CSV store reads it: the index of the file, the values untrimmed and a missing size as empty.
+     */
+    private static EcomSalesData csvRow(int index, String orderId) {
+        EcomSalesData data = new EcomSalesData(orderId, ORDER_DATE, " Shipped ", "Amazon", "Amazon.in", "Set", "",
+                10.0 + index, "MUMBAI ", "MAHARASHTRA");
+        data.setRecordIndex(index);
+        return data;
+    }
+}
@@ -0,0 +1,48 @@
+package com.acs560.dataanalyzer.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EcomSalesDataRepoTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void eachRepoKeepsItsOwnRows() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EcomSalesDataRepo first = new EcomSalesDataRepo(meterRegistry);
+        Path file = Files.write(directory.resolve("sales.csv"), List.of(
+                "index,Order ID,Date,Status,Fulfilment,Sales Channel,Category,Size,Amount,ship-city,ship-state",
+                row(1, "CSV-1"), row(2, "CSV-2"), row(2, "CSV-2")), StandardCharsets.UTF_8);
+        first.readFile(file.toString());
+        EcomSalesData stored = first.getSalesData().get(0);
+
+        // A second repo, on the same registry, neither sees nor resets the rows and order ids of the first
+        EcomSalesDataRepo second = new EcomSalesDataRepo(meterRegistry);
+
+        assertEquals(2, first.getSalesData().size(), "the repeated row is a duplicate");
+        assertTrue(first.isDuplicate(stored));
+        assertTrue(second.getSalesData().isEmpty());
+        assertFalse(second.isDuplicate(stored));
+        assertEquals(2, meterRegistry.get("sales.csv.records").gauge().value());
+    }
+
+    private static String row(int index, String orderId) {
+        return index + "," + orderId + ",04/30/22,Shipped,Amazon,Amazon.in,Set,S,100.0,MUMBAI,MAHARASHTRA";
+    }
+}
@@ -0,0 +1,91 @@
+package com.acs560.dataanalyzer.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+class OffHeapSalesStoreTest {
+
+    // More rows than a record page holds
+    private static final List<EcomSalesData> ROWS = new SalesDataGenerator(GeneratorSettings.builder()
+            .rows(70_000).customers(500).build()).rows().toList();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void directStoreKeepsTheRows() {
+        try (OffHeapSalesStore store = new OffHeapSalesStore()) {
+            assertKeepsTheRows(store);
+        }
+    }
+
+    @Test
+    void mappedStoreKeepsTheRows() throws IOException {
+        try (OffHeapSalesStore store = new OffHeapSalesStore(directory)) {
+            assertKeepsTheRows(store);
+        }
+    }
+
+    @Test
+    void keepsMissingValues() {
+        try (OffHeapSalesStore store = new OffHeapSalesStore()) {
+            EcomSalesData empty = new EcomSalesData();
+            empty.setOrderId("ORD-EMPTY");
+            store.add(empty);
+
+            assertEquals(empty, store.get(0));
+            assertEquals(OffHeapSalesStore.NO_INDEX, store.recordIndex(0));
+            assertNull(store.string(0, OffHeapSalesStore.Column.STATUS));
+        }
+    }
+
+    private static void assertKeepsTheRows(OffHeapSalesStore store) {
+        List<EcomSalesData> expected = new ArrayList<>(ROWS);
+        store.addAll(ROWS);
+        assertEquals(expected, store);
+
+        EcomSalesData replacement = copy(ROWS.get(10), "ORD-SET");
+        assertEquals(ROWS.get(10), store.set(10, replacement));
+        expected.set(10, replacement);
+
+        EcomSalesData inserted = copy(ROWS.get(20), "ORD-ADD");
+        store.add(5, inserted);
+        expected.add(5, inserted);
+
+        assertEquals(expected.get(66_000), store.remove(66_000));
+        expected.remove(66_000);
+        assertEquals(expected.get(0), store.remove(0));
+        expected.remove(0);
+
+        assertEquals(expected, store);
+        assertEquals(4, store.find(OffHeapSalesStore.Column.ORDER_ID, "ORD-ADD", 0));
+        assertEquals(expected.get(100).getRecordIndex(), store.recordIndex(100));
+        assertEquals(expected.get(100).getAmount(), store.amount(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(expected.size()));
+
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    private static EcomSalesData copy(EcomSalesData data, String orderId) {
+        EcomSalesData copy = new EcomSalesData(orderId, data.getDate(), data.getStatus(), data.getFulfilment(),
+                data.getChannel(), data.getCategory(), data.getSize(), data.getAmount(), data.getShipCity(),
+                data.getShipState());
+        copy.setRecordIndex(-data.getRecordIndex());
+        copy.setCustomer(data.getCustomer());
+        return copy;
+    }
+}
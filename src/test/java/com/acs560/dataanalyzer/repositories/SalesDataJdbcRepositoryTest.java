@@ -0,0 +1,73 @@
+package com.acs560.dataanalyzer.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.acs560.dataanalyzer.TestDatabases;
+import com.acs560.dataanalyzer.models.Customer;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesDataFilter;
+
+class SalesDataJdbcRepositoryTest {
+
+    private static final Customer JOHN_DOE = new Customer(1L, "John Doe", "john.doe@example.com");
+
+    private SalesDataJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SalesDataJdbcRepository(TestDatabases.create(), 100);
+    }
+
+    @Test
+    void rowsCarryTheirCustomer() {
+        SalesDataFilter filter = SalesDataFilter.builder().orderId("ORD001").build();
+
+        assertEquals(JOHN_DOE, single(repository.findAll(filter)).getCustomer());
+        assertEquals(JOHN_DOE, single(repository.findPage(filter, null, 10)).getCustomer());
+        List<EcomSalesData> streamed = new ArrayList<>();
+        repository.stream(filter, streamed::add);
+        assertEquals(JOHN_DOE, single(streamed).getCustomer());
+    }
+
+    @Test
+    void textFiltersIgnoreCase() {
+        SalesDataFilter filter = SalesDataFilter.builder().status("shipped").city("new YORK").build();
+
+        assertEquals("ORD001", single(repository.findAll(filter)).getOrderId());
+        assertEquals(4, repository.count(SalesDataFilter.builder().status("SHIPPED").build()));
+    }
+
+    @Test
+    void pagesFollowTheRecordIndex() {
+        List<EcomSalesData> first = repository.findPage(null, null, 4);
+        List<EcomSalesData> second = repository.findPage(null, first.get(3).getRecordIndex(), 4);
+
+        assertEquals(List.of("ORD001", "ORD002", "ORD003", "ORD004"), first.stream().map(EcomSalesData::getOrderId).toList());
+        assertEquals(List.of("ORD005", "ORD006", "ORD007", "ORD008"), second.stream().map(EcomSalesData::getOrderId).toList());
+    }
+
+    @Test
+    void filteredPagesFollowTheRecordIndex() {
+        SalesDataFilter filter = SalesDataFilter.builder().status("shipped").build();
+
+        List<EcomSalesData> first = repository.findPage(filter, null, 3);
+        List<EcomSalesData> second = repository.findPage(filter, first.get(2).getRecordIndex(), 3);
+
+        assertEquals(List.of("ORD001", "ORD004", "ORD006"), first.stream().map(EcomSalesData::getOrderId).toList());
+        assertEquals(List.of("ORD010"), second.stream().map(EcomSalesData::getOrderId).toList());
+        assertEquals(List.of("ORD003", "ORD005"), repository.findPage(SalesDataFilter.builder().channel("Online").build(),
+                1, 2).stream().map(EcomSalesData::getOrderId).toList());
+        assertEquals(6L, first.get(2).getCustomer().getCustomerId());
+    }
+
+    private static EcomSalesData single(List<EcomSalesData> rows) {
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+}
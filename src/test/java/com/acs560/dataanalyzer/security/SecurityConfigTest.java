@@ -0,0 +1,66 @@
+package com.acs560.dataanalyzer.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void apiRequiresHttpBasic() throws Exception {
+        mockMvc.perform(get("/api/sales/count")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/sales/count").with(httpBasic("user", "userpass"))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/sales/count").with(httpBasic("user", "wrong"))).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void apiWritesWithHttpBasicNeedNoCsrfToken() throws Exception {
+        mockMvc.perform(post("/api/sales/bulk").contentType(NDJSON).content("").with(httpBasic("admin", "adminpass")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loginSessionDoesNotAuthenticateApiRequests() throws Exception {
+        // The session of a form login, which a cross-site request would carry along in its cookie
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                        List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))));
+
+        mockMvc.perform(post("/api/sales/bulk").contentType(NDJSON).content("").session(session))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static RequestPostProcessor httpBasic(String username, String password) {
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION,
+                    "Basic " + HttpHeaders.encodeBasicAuth(username, password, StandardCharsets.UTF_8));
+            return request;
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.jobs.Job;
+import com.acs560.dataanalyzer.jobs.JobStatus;
+import com.acs560.dataanalyzer.jobs.JobTask;
+
+class JobServiceImplTest {
+
+    private static final JobTask WRITE_RESULT = (context, out) -> out.write("result".getBytes(StandardCharsets.UTF_8));
+
+    @TempDir
+    private Path directory;
+
+    private final List<JobServiceImpl> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(JobServiceImpl::shutdown);
+    }
+
+    @Test
+    void cancelStopsARunningJob() throws Exception {
+        JobServiceImpl service = service(1, 1, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+
+        Job job = service.submit("export", "alice", "export.csv", (context, out) -> {
+            started.countDown();
+            while (!context.isCancelled()) {
+                Thread.sleep(10);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertTrue(service.cancel(job.getId()));
+        awaitFinished(job);
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        assertTrue(service.getResult(job.getId()).isEmpty());
+        assertFalse(service.cancel(job.getId()), "a finished job cannot be cancelled");
+    }
+
+    // One worker and one queue slot: the third job is rejected until the queued one is cancelled
+    @Test
+    void boundedQueueRejectsJobsUntilAQueuedOneIsCancelled() throws Exception {
+        JobServiceImpl service = service(1, 1, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Job running = service.submit("running", "alice", "running.csv", (context, out) -> {
+            started.countDown();
+            release.await();
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Job queued = service.submit("queued", "alice", "queued.csv", WRITE_RESULT);
+        assertEquals(JobStatus.QUEUED, queued.getStatus());
+        assertThrows(IllegalStateException.class, () -> service.submit("rejected", "alice", "rejected.csv", WRITE_RESULT));
+        assertEquals(2, service.getJobs("alice").size(), "a rejected job is not listed");
+
+        assertTrue(service.cancel(queued.getId()));
+        assertEquals(JobStatus.CANCELLED, queued.getStatus());
+        Job next = service.submit("next", "alice", "next.csv", WRITE_RESULT);
+        release.countDown();
+
+        awaitFinished(running);
+        awaitFinished(next);
+        assertEquals(JobStatus.SUCCEEDED, running.getStatus());
+        assertEquals(JobStatus.SUCCEEDED, next.getStatus());
+        assertEquals(JobStatus.CANCELLED, queued.getStatus());
+    }
+
+    @Test
+    void purgeRemovesFinishedJobsAndResultsOnceTheirTtlHasPassed() throws Exception {
+        JobServiceImpl expiring = service(1, 1, Duration.ZERO);
+        JobServiceImpl retaining = service(1, 1, Duration.ofHours(1));
+
+        Job expired = expiring.submit("export", "alice", "export.csv", WRITE_RESULT);
+        Job retained = retaining.submit("export", "alice", "export.csv", WRITE_RESULT);
+        awaitFinished(expired);
+        awaitFinished(retained);
+        Path result = expiring.getResult(expired.getId()).orElseThrow();
+        assertEquals("result", Files.readString(result));
+
+        // The finish time has to lie before the expiry time
+        Thread.sleep(10);
+        expiring.purgeExpiredJobs();
+        retaining.purgeExpiredJobs();
+
+        assertTrue(expiring.getJob(expired.getId()).isEmpty());
+        assertFalse(Files.exists(result));
+        assertTrue(retaining.getResult(retained.getId()).isPresent());
+    }
+
+    private JobServiceImpl service(int parallelism, int queueCapacity, Duration resultTtl) throws IOException {
+        JobServiceImpl service = new JobServiceImpl(parallelism, queueCapacity, resultTtl,
+                directory.resolve("jobs-" + services.size()).toString());
+        services.add(service);
+        return service;
+    }
+
+    private static void awaitFinished(Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.getStatus().isFinished()) {
+            assertTrue(System.nanoTime() < deadline, job.getName() + " did not finish");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A read-only service method that runs far longer than the query timeout of the tests,
+ * in the service implementation package like the real reads. Imported by the tests that use it.
+ */
+@RequiredArgsConstructor
+public class SlowReads {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts the rows of a cross join of two ranges of a million numbers each.
+     *
+     * @return the count, if the read is not timed out first.
+     */
+    @Transactional(readOnly = true)
+    public Long countCrossJoin() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 1000000) A, SYSTEM_RANGE(1, 1000000) B", Long.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.acs560.dataanalyzer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.acs560.dataanalyzer.concurrent.QueryGuard;
+import com.acs560.dataanalyzer.services.CustomerService;
+
+/**
+ * Synchronous reads run in a read-only transaction that takes its connection before the service
+ * method runs; the statement timeout must apply to them as it does to the asynchronous variants.
+ */
+@SpringBootTest(properties = "sales.query.timeout=PT1S")
+@ActiveProfiles("test")
+@Import(SlowReads.class)
+class SynchronousReadTimeoutTest {
+
+    @Autowired
+    private SlowReads slowReads;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private QueryGuard queryGuard;
+
+    @Test
+    void slowSynchronousReadIsCancelledAtTheQueryTimeout() {
+        long timedOut = queryGuard.getTimedOutCount();
+
+        // Unguarded, the cross join would run for hours
+        assertTimeoutPreemptively(Duration.ofSeconds(15),
+                () -> assertThrows(QueryTimeoutException.class, slowReads::countCrossJoin));
+
+        assertEquals(timedOut + 1, queryGuard.getTimedOutCount());
+    }
+
+    @Test
+    void fastSynchronousReadsAreNotAffected() {
+        assertTrue(customerService.getCustomerByEmail("john.doe@example.com").isPresent());
+    }
+}
@@ -0,0 +1,38 @@
+package com.acs560.dataanalyzer.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void hasNoFalseNegativesAndKeepsTheFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        // Four times the keys the first segment is sized for, so the filter has grown
+        for (int i = 0; i < 40_000; i++) {
+            filter.put("ORDER-" + i);
+        }
+
+        for (int i = 0; i < 40_000; i++) {
+            assertTrue(filter.mightContain("ORDER-" + i), "ORDER-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("OTHER-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate <= 0.01, "false-positive rate " + rate);
+        assertTrue(filter.expectedFalsePositiveProbability() <= 0.01);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
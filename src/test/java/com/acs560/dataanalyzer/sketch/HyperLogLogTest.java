@@ -0,0 +1,37 @@
+package com.acs560.dataanalyzer.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinThreeStandardErrors() {
+        for (long distinct : new long[] { 100, 10_000, 1_000_000 }) {
+            HyperLogLog sketch = new HyperLogLog(14);
+            for (long value = 0; value < distinct; value++) {
+                // Every value twice; repeats do not count
+                sketch.offer(value);
+                sketch.offer(value);
+            }
+            assertEquals(distinct, sketch.estimate(), 3 * sketch.relativeStandardError() * distinct, distinct + " values");
+        }
+    }
+
+    @Test
+    void mergesIntoTheSketchOfTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 60_000; i++) {
+            first.offer("customer-" + i);
+            second.offer("customer-" + (i + 40_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(100_000, first.estimate(), 3 * first.relativeStandardError() * 100_000);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(14)));
+    }
+}
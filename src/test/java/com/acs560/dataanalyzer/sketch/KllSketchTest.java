@@ -0,0 +1,59 @@
+package com.acs560.dataanalyzer.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class KllSketchTest {
+
+    private static final int N = 100_000;
+    private static final double[] QUANTILES = { 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99 };
+
+    @Test
+    void quantilesAreWithinTheRankError() {
+        KllSketch sketch = new KllSketch(200);
+        shuffled(0, N).forEach(sketch::offer);
+
+        assertEquals(N, sketch.count());
+        assertEquals(0, sketch.quantile(0));
+        assertEquals(N - 1, sketch.quantile(1));
+        assertWithinRankError(sketch);
+    }
+
+    @Test
+    void mergesIntoTheSketchOfTheUnion() {
+        KllSketch first = new KllSketch(200);
+        KllSketch second = new KllSketch(200);
+        shuffled(0, N / 2).forEach(first::offer);
+        shuffled(N / 2, N).forEach(second::offer);
+
+        first.merge(second);
+
+        assertEquals(N, first.count());
+        assertWithinRankError(first);
+    }
+
+    // The values are 0 to N - 1, so the rank of a value is the value itself
+    private static void assertWithinRankError(KllSketch sketch) {
+        for (double quantile : QUANTILES) {
+            double rank = sketch.quantile(quantile) / N;
+            assertTrue(Math.abs(rank - quantile) <= sketch.normalizedRankError(),
+                    "quantile " + quantile + " has rank " + rank);
+        }
+    }
+
+    private static List<Double> shuffled(int from, int to) {
+        List<Double> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(from));
+        return values;
+    }
+}
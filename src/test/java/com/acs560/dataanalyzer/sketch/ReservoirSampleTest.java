@@ -0,0 +1,45 @@
+package com.acs560.dataanalyzer.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReservoirSampleTest {
+
+    @Test
+    void keepsEveryItemBelowTheCapacity() {
+        ReservoirSample<Integer> sample = new ReservoirSample<>(10);
+        for (int i = 0; i < 5; i++) {
+            sample.offer(i);
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4), sample.snapshot().items());
+        assertEquals(5, sample.snapshot().seen());
+    }
+
+    @Test
+    void samplesEveryItemWithTheSameProbability() {
+        int items = 1_000;
+        int capacity = 100;
+        int trials = 2_000;
+        int[] sampled = new int[items];
+        for (int trial = 0; trial < trials; trial++) {
+            ReservoirSample<Integer> sample = new ReservoirSample<>(capacity);
+            for (int i = 0; i < items; i++) {
+                sample.offer(i);
+            }
+            ReservoirSample.Snapshot<Integer> snapshot = sample.snapshot();
+            assertEquals(capacity, snapshot.items().size());
+            assertEquals(items, snapshot.seen());
+            snapshot.items().forEach(item -> sampled[item]++);
+        }
+
+        // Each item is sampled 200 times on average, with a standard deviation of about 13
+        for (int i = 0; i < items; i++) {
+            assertTrue(sampled[i] > 120 && sampled[i] < 280, "item " + i + " sampled " + sampled[i] + " times");
+        }
+    }
+}
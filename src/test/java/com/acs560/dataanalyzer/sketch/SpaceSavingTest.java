@@ -0,0 +1,47 @@
+package com.acs560.dataanalyzer.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    @Test
+    void estimatesStayWithinTheirErrorAndKeepTheHeavyHitters() {
+        // Zipf-like weights over far more items than counters, in random order
+        List<String> stream = new ArrayList<>();
+        Map<String, Double> truth = new HashMap<>();
+        for (int item = 0; item < 2_000; item++) {
+            int repeats = 10_000 / (item + 1) + 1;
+            for (int i = 0; i < repeats; i++) {
+                stream.add("item-" + item);
+            }
+            truth.put("item-" + item, (double) repeats * 2);
+        }
+        Collections.shuffle(stream, new Random(42));
+        SpaceSaving<String> summary = new SpaceSaving<>(100);
+        stream.forEach(item -> summary.offer(item, 2));
+
+        double total = truth.values().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(total, summary.total(), 1e-6);
+        List<SpaceSaving.Estimate<String>> top = summary.top(100);
+        for (SpaceSaving.Estimate<String> estimate : top) {
+            double actual = truth.get(estimate.item());
+            assertTrue(estimate.count() - estimate.error() <= actual && actual <= estimate.count(),
+                    estimate + " for a true weight of " + actual);
+        }
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).count() >= top.get(i).count(), "largest estimate first");
+        }
+        List<String> kept = top.stream().map(SpaceSaving.Estimate::item).toList();
+        truth.forEach((item, weight) -> assertTrue(weight <= total / 100 || kept.contains(item), item + " is kept"));
+    }
+}
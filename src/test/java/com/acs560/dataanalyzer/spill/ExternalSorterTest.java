@@ -0,0 +1,67 @@
+package com.acs560.dataanalyzer.spill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+
+class ExternalSorterTest {
+
+    // Few distinct categories, so most records tie and the order of the ties shows the stability
+    private static final Comparator<EcomSalesData> BY_CATEGORY = Comparator.comparing(EcomSalesData::getCategory,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void sortsStablyAcrossSpilledRuns() {
+        List<EcomSalesData> rows = new SalesDataGenerator(GeneratorSettings.builder()
+                .rows(20_000).customers(100).build()).rows().toList();
+        List<EcomSalesData> sorted = new ArrayList<>();
+        AtomicLong spilled = new AtomicLong();
+
+        // A budget small enough for more runs than one merge pass takes
+        try (ExternalSorter<EcomSalesData> sorter = new ExternalSorter<>(BY_CATEGORY, SpillCodecs.SALES_DATA,
+                32 * 1024, directory, spilled::addAndGet)) {
+            rows.forEach(sorter::add);
+            sorter.forEachSorted(sorted::add);
+            assertTrue(sorter.spilledBytes() > 0, "the records were spilled");
+            assertEquals(spilled.get(), sorter.spilledBytes());
+        }
+
+        // The generator numbers the rows in order, so a stable sort keeps the record indexes ascending per category
+        List<EcomSalesData> expected = new ArrayList<>(rows);
+        expected.sort(BY_CATEGORY);
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    void sortsInMemoryWithinTheBudget() {
+        List<EcomSalesData> rows = new SalesDataGenerator(GeneratorSettings.builder()
+                .rows(100).customers(10).build()).rows().toList();
+        List<EcomSalesData> sorted = new ArrayList<>();
+
+        try (ExternalSorter<EcomSalesData> sorter = new ExternalSorter<>(BY_CATEGORY, SpillCodecs.SALES_DATA,
+                Long.MAX_VALUE, directory, bytes -> { })) {
+            rows.forEach(sorter::add);
+            sorter.forEachSorted(sorted::add);
+            assertEquals(0, sorter.spilledBytes());
+        }
+
+        List<EcomSalesData> expected = new ArrayList<>(rows);
+        expected.sort(BY_CATEGORY);
+        assertEquals(expected, sorted);
+    }
+}
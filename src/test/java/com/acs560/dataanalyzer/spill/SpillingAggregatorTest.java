@@ -0,0 +1,59 @@
+package com.acs560.dataanalyzer.spill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.acs560.dataanalyzer.datagen.GeneratorSettings;
+import com.acs560.dataanalyzer.datagen.SalesDataGenerator;
+import com.acs560.dataanalyzer.models.EcomSalesData;
+import com.acs560.dataanalyzer.models.SalesAggregate;
+
+class SpillingAggregatorTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void spilledTotalsEqualAnInMemoryGroupBy() {
+        List<EcomSalesData> rows = new SalesDataGenerator(GeneratorSettings.builder()
+                .rows(30_000).customers(5_000).build()).rows().toList();
+        Map<String, SalesAggregate> expected = new HashMap<>();
+        for (EcomSalesData data : rows) {
+            SalesAggregate group = expected.computeIfAbsent(label(data), l -> new SalesAggregate(l, 0.0, 0L));
+            group.setOrders(group.getOrders() + 1);
+            group.setRevenue(group.getRevenue() + amount(data));
+        }
+        Map<String, SalesAggregate> groups = new HashMap<>();
+
+        try (SpillingAggregator aggregator = new SpillingAggregator(16 * 1024, directory, bytes -> { })) {
+            rows.forEach(data -> aggregator.add(label(data), amount(data), 1));
+            aggregator.forEachGroup(group -> assertEquals(null, groups.put(group.getLabel(), group), group.getLabel()));
+            assertTrue(aggregator.spilledBytes() > 0, "the groups were spilled");
+        }
+
+        assertEquals(expected.size(), groups.size());
+        expected.forEach((label, want) -> {
+            SalesAggregate group = groups.get(label);
+            assertNotNull(group, label);
+            assertEquals(want.getOrders(), group.getOrders(), label);
+            assertEquals(want.getRevenue(), group.getRevenue(), 1e-6 * Math.max(1, want.getRevenue()), label);
+        });
+    }
+
+    private static String label(EcomSalesData data) {
+        return data.getCustomer() == null ? null : "customer-" + data.getCustomer().getCustomerId();
+    }
+
+    private static double amount(EcomSalesData data) {
+        return data.getAmount() == null ? 0 : data.getAmount();
+    }
+}